@@ -4,14 +4,29 @@ import com.rovnyi.steamApp.enums.AppID;
 import com.rovnyi.steamApp.enums.CountryCode;
 import com.rovnyi.steamApp.enums.CurrencyCode;
 import com.rovnyi.steamApp.enums.Language;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.cache.OverviewKey;
+import com.rovnyi.steamApp.market.cache.TieredOverviewCache;
+import com.rovnyi.steamApp.market.fetcher.FetchResult;
 import com.rovnyi.steamApp.market.fetcher.ItemOverview;
 import com.rovnyi.steamApp.market.fetcher.ItemOverviewService;
+import com.rovnyi.steamApp.market.fetcher.MarketFetcherException;
+import com.rovnyi.steamApp.market.job.DurableJob;
+import com.rovnyi.steamApp.market.provider.IdResolvingException;
 import com.rovnyi.steamApp.market.provider.ItemNameIdProvider;
 import com.rovnyi.steamApp.market.provider.ResolvingIdProvider;
+import com.rovnyi.steamApp.market.transport.DeadlineExceededException;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import com.rovnyi.steamApp.market.watch.OverviewPublisher;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
 /**
  * Facade client for interacting with the Steam Market API.
  * <p>
@@ -24,6 +39,12 @@ public class SteamMarketClient {
 
     private final ItemOverviewService itemOverviewService;
 
+    private final CurrencyCode currency;
+
+    private final CountryCode country;
+
+    private final TieredOverviewCache cache;
+
     private final Logger log;
 
     /**
@@ -36,29 +57,139 @@ public class SteamMarketClient {
      * @param provider Provider for resolving item_nameid
      */
     public SteamMarketClient(CurrencyCode currency, AppID appID, CountryCode country, Language language, ItemNameIdProvider provider, Logger log) {
+        this(currency, appID, country, language, provider, null, log);
+    }
+
+    /**
+     * Constructs a new {@code SteamMarketClient} whose requests all wait on the given rate limiter.
+     *
+     * @param currency    Desired currency for price data
+     * @param appID       Steam App ID (e.g., CS2)
+     * @param country     Country code used for localization
+     * @param language    Interface language for Steam
+     * @param provider    Provider for resolving item_nameid
+     * @param rateLimiter Rate limiter shared by all requests, or {@code null}
+     */
+    public SteamMarketClient(CurrencyCode currency, AppID appID, CountryCode country, Language language, ItemNameIdProvider provider, RateLimiter rateLimiter, Logger log) {
+        this(currency, appID, country, language, provider, rateLimiter, null, log);
+    }
+
+    /**
+     * Constructs a new {@code SteamMarketClient} that serves overviews from the given cache while they are fresh.
+     *
+     * @param currency    Desired currency for price data
+     * @param appID       Steam App ID (e.g., CS2)
+     * @param country     Country code used for localization
+     * @param language    Interface language for Steam
+     * @param provider    Provider for resolving item_nameid
+     * @param rateLimiter Rate limiter shared by all requests, or {@code null}
+     * @param cache       Overview cache, or {@code null}
+     */
+    public SteamMarketClient(CurrencyCode currency, AppID appID, CountryCode country, Language language, ItemNameIdProvider provider, RateLimiter rateLimiter, TieredOverviewCache cache, Logger log) {
         this.itemOverviewService = new ItemOverviewService.Builder()
                 .currency(currency)
                 .appID(appID)
                 .country(country)
                 .language(language)
                 .provider(provider)
+                .rateLimiter(rateLimiter)
                 .withLogger(log)
                 .build();
 
+        this.currency = currency;
+        this.country = country;
+        this.cache = cache;
         this.log = log;
     }
 
     /**
      * Fetches full item data (price overview, order histogram, and icon).
+     * <p>
+     * If a cache is configured, a fresh cached overview is returned without any request. Unless the calling thread set a
+     * priority with {@link RequestScheduler#withPriority}, the requests are made with {@link RequestPriority#INTERACTIVE}
+     * priority, so a shared {@link RequestScheduler} serves them before background work.
      *
      * @param marketHashName The unique market_hash_name of the item
      * @return {@link ItemOverview} object containing all available information, or {@code null} if any request failed
      */
     public ItemOverview fetchOverview(String marketHashName) {
+        return RequestScheduler.withDefaultPriority(RequestPriority.INTERACTIVE, () -> {
+            if (cache != null) return cache.get(cacheKey(marketHashName), this::callAPI);
+            return callAPI(marketHashName);
+        });
+    }
+
+    /**
+     * Fetches full item data and reports whether the price and order responses changed since the previous fetch.
+     *
+     * @param marketHashName The unique market_hash_name of the item
+     * @return Result holding the {@link ItemOverview}, or {@code null} if any request failed
+     */
+    public FetchResult<ItemOverview> fetchOverviewResult(String marketHashName) {
+        if (log != null) log.info("SteamMarketClient is Fetching overview for {}", marketHashName);
+        FetchResult<ItemOverview> result = itemOverviewService.fetch(marketHashName);
+        if (cache != null && result != null) cache.put(cacheKey(marketHashName), result.getValue());
+        return result;
+    }
+
+    /**
+     * @return Overview cache of this client, or {@code null} if none is configured
+     */
+    public TieredOverviewCache getCache() {
+        return cache;
+    }
+
+    private ItemOverview callAPI(String marketHashName) {
         if (log != null) log.info("SteamMarketClient is Fetching overview for {}", marketHashName);
         return itemOverviewService.callAPI(marketHashName);
     }
 
+    private OverviewKey cacheKey(String marketHashName) {
+        return new OverviewKey(marketHashName, currency, country);
+    }
+
+    /**
+     * Creates a push stream of overviews for the given items.
+     * <p>
+     * Fetches go through this client and are shared by all subscribers of the returned publisher;
+     * nothing is fetched while no subscriber requests updates. Close the publisher to stop it.
+     *
+     * @param marketHashNames The items' market hash names
+     * @param minInterval     Minimum time between two fetches of the same item
+     * @return New {@link OverviewPublisher}
+     */
+    public OverviewPublisher publish(Collection<String> marketHashNames, Duration minInterval) {
+        return new OverviewPublisher.Builder()
+                .client(this)
+                .items(marketHashNames)
+                .minInterval(minInterval)
+                .withLogger(log)
+                .build();
+    }
+
+    /**
+     * Refreshes the overview of every pending item of a durable job and passes it to the sink.
+     * <p>
+     * An item is recorded as completed once the sink returns, so a job interrupted by a crash resumes with the
+     * remaining items when this is called again with the reopened job. An item without a valid overview, whose
+     * request timed out or whose item_nameid cannot be resolved counts as a failed attempt.
+     *
+     * @param job  Job holding the items to refresh
+     * @param sink Receiver of the fetched overviews, e.g. to store them
+     */
+    public void refresh(DurableJob job, BiConsumer<String, ItemOverview> sink) {
+        job.run(marketHashName -> {
+            FetchResult<ItemOverview> result;
+            try {
+                result = fetchOverviewResult(marketHashName);
+            } catch (DeadlineExceededException | IdResolvingException e) {
+                throw new MarketFetcherException(e);
+            }
+            if (result == null) throw new MarketFetcherException("No overview for \"" + marketHashName + "\"");
+            sink.accept(marketHashName, result.getValue());
+        });
+    }
+
     /**
      * Builder class for {@link SteamMarketClient}.
      * <p>
@@ -70,6 +201,8 @@ public class SteamMarketClient {
         private CurrencyCode currency = CurrencyCode.USD;
         private AppID appID = AppID.COUNTER_STRIKE_2;
         private ItemNameIdProvider provider;
+        private RateLimiter rateLimiter;
+        private TieredOverviewCache cache;
         private Logger log = null;
 
         /**
@@ -128,6 +261,30 @@ public class SteamMarketClient {
             return this;
         }
 
+        /**
+         * Sets the rate limiter shared by all requests of this client.
+         * The same instance can be passed to other components that talk to Steam.
+         *
+         * @param rateLimiter Shared rate limiter
+         * @return this builder
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the overview cache, e.g. a {@link TieredOverviewCache} with a persistent level that keeps
+         * overviews across restarts.
+         *
+         * @param cache Overview cache
+         * @return this builder
+         */
+        public Builder cache(TieredOverviewCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
         public Builder withLogger(Logger log) {
             this.log = log;
             return this;
@@ -140,9 +297,11 @@ public class SteamMarketClient {
          */
         public @NotNull SteamMarketClient build() {
             if (provider == null) {
-                provider = new ResolvingIdProvider(appID);
+                ResolvingIdProvider resolvingIdProvider = new ResolvingIdProvider(appID);
+                resolvingIdProvider.setRateLimiter(rateLimiter);
+                provider = resolvingIdProvider;
             }
-            return new SteamMarketClient(currency, appID, country, language, provider, log);
+            return new SteamMarketClient(currency, appID, country, language, provider, rateLimiter, cache, log);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.rovnyi.steamApp.enums;
+
+/**
+ * Enum containing the price values of a stored snapshot that history queries can aggregate
+ */
+public enum PriceField {
+    LOWEST,
+    MEDIAN,
+    HIGHEST_BUY
+}
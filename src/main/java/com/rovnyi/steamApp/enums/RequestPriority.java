@@ -0,0 +1,21 @@
+package com.rovnyi.steamApp.enums;
+
+/**
+ * Enum containing the priority classes of requests sharing a {@link com.rovnyi.steamApp.market.transport.RequestScheduler},
+ * with the default share of the request budget each class gets while all of them are waiting
+ */
+public enum RequestPriority {
+    INTERACTIVE(8),
+    NORMAL(3),
+    BACKGROUND(1);
+
+    private final double weight;
+
+    RequestPriority(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() {
+        return this.weight;
+    }
+}
@@ -0,0 +1,21 @@
+package com.rovnyi.steamApp.enums;
+
+/**
+ * Enum containing the columns the Steam Market search results can be sorted by
+ */
+public enum SearchSortColumn {
+    POPULAR("popular"),
+    NAME("name"),
+    PRICE("price"),
+    QUANTITY("quantity");
+
+    private final String column;
+
+    SearchSortColumn(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return this.column;
+    }
+}
@@ -0,0 +1,27 @@
+package com.rovnyi.steamApp.market.cache;
+
+/**
+ * Exception thrown when reading from or writing to a persistent overview cache fails.
+ * <p>
+ * Used by {@link DiskOverviewCache} to indicate I/O issues or a corrupted cache file.
+ */
+public class CacheStorageException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code CacheStorageException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public CacheStorageException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code CacheStorageException} with the specified cause.
+     *
+     * @param cause the underlying {@link Throwable} that caused this exception
+     */
+    public CacheStorageException(Throwable cause) {
+        super(cause);
+    }
+}
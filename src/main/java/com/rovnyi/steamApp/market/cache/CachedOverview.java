@@ -0,0 +1,63 @@
+package com.rovnyi.steamApp.market.cache;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+
+import java.time.Instant;
+
+/**
+ * A cached {@link ItemOverview} together with the time it stops being fresh.
+ * <p>
+ * Expiry is wall-clock time, so entries read back from disk after a restart keep their original deadline.
+ */
+public class CachedOverview {
+
+    private final ItemOverview overview;
+
+    private final long expiresAtMillis;
+
+    /**
+     * @param overview        Cached overview
+     * @param expiresAtMillis Expiry time in epoch milliseconds
+     */
+    public CachedOverview(ItemOverview overview, long expiresAtMillis) {
+        this.overview = overview;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    /**
+     * @return Cached overview
+     */
+    public ItemOverview getOverview() {
+        return overview;
+    }
+
+    /**
+     * @return Expiry time in epoch milliseconds
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * @return Expiry time
+     */
+    public Instant getExpiresAt() {
+        return Instant.ofEpochMilli(expiresAtMillis);
+    }
+
+    /**
+     * @param nowMillis Current time in epoch milliseconds
+     * @return {@code true} if the entry is still fresh at the given time
+     */
+    public boolean isFresh(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedOverview{" +
+               "overview=" + overview +
+               ", expiresAt=" + getExpiresAt() +
+               '}';
+    }
+}
@@ -0,0 +1,361 @@
+package com.rovnyi.steamApp.market.cache;
+
+import com.rovnyi.steamApp.enums.CountryCode;
+import com.rovnyi.steamApp.enums.CurrencyCode;
+import com.rovnyi.steamApp.market.codec.CodecException;
+import com.rovnyi.steamApp.market.codec.OverviewCodec;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent {@link OverviewCache} backed by an append-only log file.
+ * <p>
+ * Every {@link #put} appends a record holding the key, the expiry time and the overview in the binary format of
+ * {@link OverviewCodec}; a removal appends a tombstone. Only an index of key to record position is kept in memory,
+ * and it is built lazily by scanning the record headers on first access, so opening a cache of any size is instant
+ * and the payloads are read from disk only when asked for. When superseded records take more space than live ones, the log is rewritten
+ * with only the live, fresh entries.
+ * <p>
+ * Layout:
+ * <pre>
+ * header  magic:int
+ * record  length:int  type:byte  name:utf  currency:utf  country:utf  [expiresAt:long  payload:bytes]
+ * </pre>
+ * A record cut short by a crash is dropped when the index is built, and a file of another format version is
+ * discarded. Thread-safe.
+ */
+public class DiskOverviewCache implements OverviewCache, AutoCloseable {
+
+    private static final int MAGIC = 0x4F564333; // "OVC3"
+
+    private static final byte REMOVE = 0;
+
+    private static final byte PUT = 1;
+
+    /** Logs smaller than this are never compacted */
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+    private final Path file;
+
+    private final OverviewCodec codec = new OverviewCodec();
+
+    private final Logger log;
+
+    private FileChannel channel;
+
+    private Map<OverviewKey, Location> index;
+
+    private long position;
+
+    private long liveBytes;
+
+    /**
+     * Opens a cache file, creating it on the first write if missing. Nothing is read until the first access.
+     *
+     * @param file Cache file
+     * @param log  Logger, may be {@code null}
+     */
+    public DiskOverviewCache(Path file, Logger log) {
+        this.file = file;
+        this.log = log;
+    }
+
+    @Override
+    public synchronized CachedOverview get(OverviewKey key) {
+        Location location = index().get(key);
+        if (location == null) return null;
+
+        try {
+            ByteBuffer payload = ByteBuffer.allocate(location.payloadLength);
+            while (payload.hasRemaining()) {
+                if (channel.read(payload, location.payloadOffset + payload.position()) < 0) throw new EOFException();
+            }
+            return new CachedOverview(codec.decode(payload.flip()), location.expiresAtMillis);
+        } catch (IOException | CodecException e) {
+            if (log != null) log.warn("Dropping unreadable cache entry {}: {}", key, e.getMessage());
+            index.remove(key);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void put(OverviewKey key, CachedOverview entry) {
+        index();
+        try {
+            byte[] payload = codec.encode(entry.getOverview());
+            byte[] record = record(PUT, key, entry.getExpiresAtMillis(), payload);
+            long offset = append(record);
+
+            Location previous = index.put(key, new Location(offset + record.length - payload.length, payload.length,
+                    entry.getExpiresAtMillis(), record.length));
+            liveBytes += record.length - (previous == null ? 0 : previous.recordLength);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CacheStorageException(e);
+        }
+
+        compactIfNeeded();
+    }
+
+    @Override
+    public synchronized boolean remove(OverviewKey key) {
+        Location previous = index().remove(key);
+        if (previous == null) return false;
+
+        try {
+            append(record(REMOVE, key, 0, null));
+            liveBytes -= previous.recordLength;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CacheStorageException(e);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return index().size();
+    }
+
+    /**
+     * Rewrites the log with only the live entries that are still fresh.
+     */
+    public synchronized void compact() {
+        index();
+        long now = System.currentTimeMillis();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Map<OverviewKey, Location> compacted = new HashMap<>();
+            long written;
+
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.allocate(4).putInt(0, MAGIC));
+                written = 4;
+
+                for (Map.Entry<OverviewKey, Location> entry : index.entrySet()) {
+                    Location location = entry.getValue();
+                    if (location.expiresAtMillis <= now) continue;
+
+                    ByteBuffer record = ByteBuffer.allocate(location.recordLength);
+                    long recordOffset = location.payloadOffset + location.payloadLength - location.recordLength;
+                    while (record.hasRemaining()) {
+                        if (channel.read(record, recordOffset + record.position()) < 0) throw new EOFException();
+                    }
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        out.write(record);
+                    }
+
+                    long payloadOffset = written + location.recordLength - location.payloadLength;
+                    compacted.put(entry.getKey(), new Location(payloadOffset, location.payloadLength, location.expiresAtMillis, location.recordLength));
+                    written += location.recordLength;
+                }
+                out.force(false);
+            }
+
+            channel.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            if (log != null) log.debug("Compacted {} from {} to {} bytes", file, position, written);
+            index = compacted;
+            position = written;
+            liveBytes = written - 4;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CacheStorageException(e);
+        }
+    }
+
+    /**
+     * Writes appended records to the disk.
+     */
+    public synchronized void flush() {
+        if (channel == null) return;
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CacheStorageException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+        }
+        channel = null;
+        index = null;
+    }
+
+    /**
+     * @return Cache file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Size of the log in bytes, or 0 before the first access
+     */
+    public synchronized long getFileSize() {
+        return position;
+    }
+
+    /**
+     * Opens the log and scans its record headers on first use.
+     */
+    private Map<OverviewKey, Location> index() {
+        if (index != null) return index;
+
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            index = new HashMap<>();
+            liveBytes = 0;
+
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.allocate(4).putInt(0, MAGIC), 0);
+                position = 4;
+                return index;
+            }
+
+            position = scan();
+            if (position < channel.size()) {
+                if (log != null) log.warn("Truncating incomplete record at the end of {}", file);
+                channel.truncate(position);
+            }
+            if (log != null) log.debug("Loaded index of {} cached overviews from {}", index.size(), file);
+            return index;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            index = null;
+            throw new CacheStorageException(e);
+        }
+    }
+
+    /**
+     * Reads all record headers into the index, skipping the payloads.
+     *
+     * @return Offset just past the last complete record
+     */
+    private long scan() throws IOException {
+        channel.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        if (in.readInt() != MAGIC) {
+            // Entries of another format version are only a cache; start over instead of failing.
+            if (log != null) log.warn("Discarding overview cache {} written in an unknown format", file);
+            channel.truncate(0);
+            channel.write(ByteBuffer.allocate(4).putInt(0, MAGIC), 0);
+            return 4;
+        }
+
+        long offset = 4;
+        long size = channel.size();
+
+        while (offset + 4 <= size) {
+            int length = in.readInt();
+            if (length <= 0 || offset + 4 + length > size) break;
+
+            int type = in.readByte();
+            String name = in.readUTF();
+            String currency = in.readUTF();
+            String country = in.readUTF();
+            OverviewKey key = key(name, currency, country);
+            int headerLength = 1 + utfLength(name) + utfLength(currency) + utfLength(country);
+
+            Location previous;
+            int recordLength = 4 + length;
+            if (type == PUT) {
+                long expiresAt = in.readLong();
+                int payloadLength = length - headerLength - 8;
+                in.skipNBytes(payloadLength);
+                previous = key == null ? null : index.put(key, new Location(offset + recordLength - payloadLength, payloadLength, expiresAt, recordLength));
+                if (key != null) liveBytes += recordLength;
+            } else {
+                in.skipNBytes(length - headerLength);
+                previous = key == null ? null : index.remove(key);
+            }
+            if (previous != null) liveBytes -= previous.recordLength;
+
+            offset += recordLength;
+        }
+        return offset;
+    }
+
+    private long append(byte[] record) throws IOException {
+        long offset = position;
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+        position += record.length;
+        return offset;
+    }
+
+    private void compactIfNeeded() {
+        if (position >= MIN_COMPACTION_SIZE && position - 4 - liveBytes > liveBytes) compact();
+    }
+
+    private static byte[] record(byte type, OverviewKey key, long expiresAtMillis, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (payload == null ? 0 : payload.length));
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeByte(type);
+        out.writeUTF(key.getMarketHashName());
+        out.writeUTF(key.getCurrency().name());
+        out.writeUTF(key.getCountry().name());
+        if (type == PUT) {
+            out.writeLong(expiresAtMillis);
+            out.write(payload);
+        }
+
+        byte[] record = bytes.toByteArray();
+        ByteBuffer.wrap(record).putInt(0, record.length - 4);
+        return record;
+    }
+
+    /**
+     * @return The key, or {@code null} if it names a currency or country this version does not know
+     */
+    private static OverviewKey key(String name, String currency, String country) {
+        try {
+            return new OverviewKey(name, CurrencyCode.valueOf(currency), CountryCode.valueOf(country));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return 2 + length;
+    }
+
+    private record Location(long payloadOffset, int payloadLength, long expiresAtMillis, int recordLength) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.rovnyi.steamApp.market.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link OverviewCache} holding up to {@code maxEntries} overviews, evicting the least recently used one.
+ * <p>
+ * Thread-safe.
+ */
+public class HeapOverviewCache implements OverviewCache {
+
+    private final int maxEntries;
+
+    private final Map<OverviewKey, CachedOverview> entries;
+
+    /**
+     * @param maxEntries Maximum number of entries kept
+     */
+    public HeapOverviewCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<OverviewKey, CachedOverview> eldest) {
+                return size() > HeapOverviewCache.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized CachedOverview get(OverviewKey key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void put(OverviewKey key, CachedOverview entry) {
+        entries.put(key, entry);
+    }
+
+    @Override
+    public synchronized boolean remove(OverviewKey key) {
+        return entries.remove(key) != null;
+    }
+
+    @Override
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Maximum number of entries kept
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
@@ -0,0 +1,34 @@
+package com.rovnyi.steamApp.market.cache;
+
+/**
+ * Interface for a single level of {@link TieredOverviewCache}.
+ * <p>
+ * Implementations store entries as given and never check their expiry; freshness is decided by the caller.
+ */
+public interface OverviewCache {
+
+    /**
+     * @param key Entry key
+     * @return The stored entry, fresh or not, or {@code null} if the key is unknown
+     */
+    CachedOverview get(OverviewKey key);
+
+    /**
+     * Stores an entry, replacing the previous one of the key.
+     *
+     * @param key   Entry key
+     * @param entry Entry to store
+     */
+    void put(OverviewKey key, CachedOverview entry);
+
+    /**
+     * @param key Entry key
+     * @return {@code true} if an entry was removed
+     */
+    boolean remove(OverviewKey key);
+
+    /**
+     * @return Number of stored entries
+     */
+    int size();
+}
@@ -0,0 +1,72 @@
+package com.rovnyi.steamApp.market.cache;
+
+import com.rovnyi.steamApp.enums.CountryCode;
+import com.rovnyi.steamApp.enums.CurrencyCode;
+
+import java.util.Objects;
+
+/**
+ * Identifies a cached {@link com.rovnyi.steamApp.market.fetcher.ItemOverview}: the same item fetched in another
+ * currency or for another country is a different entry.
+ */
+public class OverviewKey {
+
+    private final String marketHashName;
+
+    private final CurrencyCode currency;
+
+    private final CountryCode country;
+
+    /**
+     * @param marketHashName The item's market hash name
+     * @param currency       Currency of the prices
+     * @param country        Country the order book was fetched for
+     */
+    public OverviewKey(String marketHashName, CurrencyCode currency, CountryCode country) {
+        this.marketHashName = Objects.requireNonNull(marketHashName);
+        this.currency = Objects.requireNonNull(currency);
+        this.country = Objects.requireNonNull(country);
+    }
+
+    /**
+     * @return The item's market hash name
+     */
+    public String getMarketHashName() {
+        return marketHashName;
+    }
+
+    /**
+     * @return Currency of the prices
+     */
+    public CurrencyCode getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return Country the order book was fetched for
+     */
+    public CountryCode getCountry() {
+        return country;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof OverviewKey other)) return false;
+        return marketHashName.equals(other.marketHashName) && currency == other.currency && country == other.country;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * marketHashName.hashCode() + currency.hashCode()) + country.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "OverviewKey{" +
+               "marketHashName='" + marketHashName + '\'' +
+               ", currency=" + currency +
+               ", country=" + country +
+               '}';
+    }
+}
@@ -0,0 +1,287 @@
+package com.rovnyi.steamApp.market.cache;
+
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Two-level cache of {@link ItemOverview}s: a bounded heap level in front of a persistent level.
+ * <p>
+ * Lookups check the heap level first and fall back to the persistent one, promoting fresh entries found there.
+ * Since the persistent level survives restarts and entries keep their wall-clock expiry, a restarted application
+ * serves its previous overviews right away and only fetches the ones that went stale in the meantime.
+ * <p>
+ * Only overviews whose price and order requests both succeeded are cached. Concurrent
+ * {@link #get(OverviewKey, Function)} calls for the same missing key share a single fetch. The fetch runs on a
+ * thread of its own, outside the callers' {@link Deadline}s, and each caller waits for it no longer than its own
+ * deadline allows.
+ */
+public class TieredOverviewCache implements AutoCloseable {
+
+    private final OverviewCache memory;
+
+    private final OverviewCache persistent;
+
+    private final Duration ttl;
+
+    private final Logger log;
+
+    private final Map<OverviewKey, CompletableFuture<ItemOverview>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+
+    private final LongAdder persistentHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a new two-level cache.
+     *
+     * @param memory     Heap level
+     * @param persistent Persistent level, or {@code null} for a heap-only cache
+     * @param ttl        Time an overview stays fresh after it was stored
+     * @param log        Logger, may be {@code null}
+     */
+    public TieredOverviewCache(OverviewCache memory, OverviewCache persistent, Duration ttl, Logger log) {
+        this.memory = memory;
+        this.persistent = persistent;
+        this.ttl = ttl;
+        this.log = log;
+    }
+
+    /**
+     * Returns a fresh cached overview.
+     *
+     * @param key Entry key
+     * @return The overview, or {@code null} if it is missing or stale in both levels
+     */
+    public ItemOverview get(OverviewKey key) {
+        long now = System.currentTimeMillis();
+
+        CachedOverview entry = memory.get(key);
+        if (entry != null && entry.isFresh(now)) {
+            memoryHits.increment();
+            return entry.getOverview();
+        }
+
+        if (persistent != null) {
+            entry = persistent.get(key);
+            if (entry != null && entry.isFresh(now)) {
+                persistentHits.increment();
+                memory.put(key, entry);
+                if (log != null) log.debug("Promoted cached overview of {} from the persistent level", key);
+                return entry.getOverview();
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns a fresh cached overview, fetching and storing it if there is none.
+     *
+     * @param key    Entry key
+     * @param loader Fetches the overview of a market hash name; may return {@code null} on failure
+     * @return The overview, or {@code null} if it is not cached and the loader failed
+     */
+    public ItemOverview get(OverviewKey key, Function<String, ItemOverview> loader) {
+        ItemOverview cached = get(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<ItemOverview> own = new CompletableFuture<>();
+        CompletableFuture<ItemOverview> running = loading.putIfAbsent(key, own);
+        if (running == null) {
+            running = own;
+            RequestPriority priority = RequestScheduler.currentPriority();
+            Thread.ofVirtual().start(() -> load(key, loader, priority, own));
+        }
+        return Deadline.await(running);
+    }
+
+    private void load(OverviewKey key, Function<String, ItemOverview> loader, RequestPriority priority,
+                      CompletableFuture<ItemOverview> own) {
+        try {
+            ItemOverview overview = RequestScheduler.withPriority(priority, () -> loader.apply(key.getMarketHashName()));
+            if (overview != null) put(key, overview);
+            own.complete(overview);
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+        } finally {
+            loading.remove(key, own);
+        }
+    }
+
+    /**
+     * Stores an overview in both levels, fresh for the configured time to live.
+     *
+     * @param key      Entry key
+     * @param overview Fetched overview; ignored if its price or order request failed
+     */
+    public void put(OverviewKey key, ItemOverview overview) {
+        if (!overview.getPrice().isSuccess() || !overview.getOrders().isSuccess()) return;
+
+        CachedOverview entry = new CachedOverview(overview, System.currentTimeMillis() + ttl.toMillis());
+        memory.put(key, entry);
+        if (persistent != null) persistent.put(key, entry);
+    }
+
+    /**
+     * Removes an overview from both levels.
+     *
+     * @param key Entry key
+     */
+    public void invalidate(OverviewKey key) {
+        memory.remove(key);
+        if (persistent != null) persistent.remove(key);
+    }
+
+    /**
+     * @return Number of lookups answered by the heap level
+     */
+    public long getMemoryHits() {
+        return memoryHits.sum();
+    }
+
+    /**
+     * @return Number of lookups answered by the persistent level
+     */
+    public long getPersistentHits() {
+        return persistentHits.sum();
+    }
+
+    /**
+     * @return Number of lookups answered by neither level
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Time an overview stays fresh after it was stored
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Closes the persistent level if it holds resources.
+     *
+     * @throws CacheStorageException If the persistent level fails to close
+     */
+    @Override
+    public void close() {
+        if (!(persistent instanceof AutoCloseable closeable)) return;
+
+        try {
+            closeable.close();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CacheStorageException(e);
+        }
+    }
+
+    /**
+     * Builder for {@link TieredOverviewCache}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Heap level = {@link HeapOverviewCache} of 10000 entries</li>
+     *     <li>Persistent level = none</li>
+     *     <li>TTL = 5 minutes</li>
+     * </ul>
+     */
+    public static class Builder {
+        private OverviewCache memory;
+        private int maxMemoryEntries = 10_000;
+        private OverviewCache persistent;
+        private Path file;
+        private Duration ttl = Duration.ofMinutes(5);
+        private Logger log = null;
+
+        /**
+         * Sets the maximum number of entries of the default heap level.
+         *
+         * @param maxMemoryEntries Maximum number of heap entries
+         * @return This builder instance
+         */
+        public Builder maxMemoryEntries(int maxMemoryEntries) {
+            this.maxMemoryEntries = Math.max(1, maxMemoryEntries);
+            return this;
+        }
+
+        /**
+         * Sets a custom heap level.
+         *
+         * @param memory Heap level implementation
+         * @return This builder instance
+         */
+        public Builder memory(OverviewCache memory) {
+            this.memory = memory;
+            return this;
+        }
+
+        /**
+         * Uses a {@link DiskOverviewCache} on the given file as the persistent level.
+         *
+         * @param file Cache file
+         * @return This builder instance
+         */
+        public Builder file(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Sets a custom persistent level.
+         *
+         * @param persistent Persistent level implementation
+         * @return This builder instance
+         */
+        public Builder persistent(OverviewCache persistent) {
+            this.persistent = persistent;
+            return this;
+        }
+
+        /**
+         * Sets the time an overview stays fresh after it was stored.
+         *
+         * @param ttl Time to live
+         * @return This builder instance
+         */
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link TieredOverviewCache}.
+         *
+         * @return New {@link TieredOverviewCache} instance
+         */
+        public @NotNull TieredOverviewCache build() {
+            if (memory == null) memory = new HeapOverviewCache(maxMemoryEntries);
+            if (persistent == null && file != null) persistent = new DiskOverviewCache(file, log);
+
+            return new TieredOverviewCache(memory, persistent, ttl, log);
+        }
+    }
+}
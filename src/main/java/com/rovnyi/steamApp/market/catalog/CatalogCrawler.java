@@ -0,0 +1,413 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import com.rovnyi.steamApp.enums.AppID;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.enums.SearchSortColumn;
+import com.rovnyi.steamApp.market.fetcher.MarketFetcherException;
+import com.rovnyi.steamApp.market.fetcher.MarketSearchFetcher;
+import com.rovnyi.steamApp.market.fetcher.MarketSearchResult;
+import com.rovnyi.steamApp.market.fetcher.SearchPage;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.RequestRejectedException;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Enumerates the whole market catalog of an application.
+ * <p>
+ * The first search page provides {@code total_count}; the following pages are fetched concurrently on virtual threads,
+ * at most {@code maxPagesInFlight} ahead of the consumer. Pages are handed out in order, and a new page is requested
+ * only when the consumer takes one, so a slow consumer pauses the crawl and memory stays bounded by the window size.
+ * All requests go through the search fetcher's {@link RateLimiter}. They are made with
+ * {@link RequestPriority#BACKGROUND} priority, so with a {@link RequestScheduler} interactive requests go first, and
+ * pages shed by the scheduler are retried like failed ones.
+ * <p>
+ * Pages are requested sorted by name, which keeps offsets stable while the crawl is running, and in the
+ * structured JSON mode ({@link MarketSearchFetcher#fetchResults}), so every item comes with its market hash name,
+ * lowest sell price and listing count without any HTML parsing.
+ */
+public class CatalogCrawler {
+
+    private final MarketSearchFetcher searchFetcher;
+
+    private final String query;
+
+    private final int pageSize;
+
+    private final int maxPagesInFlight;
+
+    private final int maxRetries;
+
+    private final Logger log;
+
+    /**
+     * Constructs a new crawler.
+     *
+     * @param searchFetcher    Fetcher used to request search pages
+     * @param query            Search query; an empty string walks the whole catalog
+     * @param pageSize         Number of items per page (Steam caps it at 100)
+     * @param maxPagesInFlight Maximum number of pages fetched ahead of the consumer
+     * @param maxRetries       Number of retries of a failed page before the crawl fails
+     * @param log              Logger, may be {@code null}
+     */
+    public CatalogCrawler(MarketSearchFetcher searchFetcher, String query, int pageSize, int maxPagesInFlight, int maxRetries, Logger log) {
+        this.searchFetcher = searchFetcher;
+        this.query = query;
+        this.pageSize = pageSize;
+        this.maxPagesInFlight = maxPagesInFlight;
+        this.maxRetries = maxRetries;
+        this.log = log;
+    }
+
+    /**
+     * Returns a lazy stream of all market hash names in the catalog.
+     * <p>
+     * The stream should be closed (e.g. with try-with-resources) if it is not consumed to the end,
+     * so that pages still in flight are cancelled.
+     *
+     * @return Stream of market hash names, in name order
+     * @throws MarketFetcherException (from the stream) if a page keeps failing
+     */
+    public Stream<String> stream() {
+        return flatten(SearchPage::getNames);
+    }
+
+    /**
+     * Returns a lazy stream of all catalog items with their lowest sell price and listing count.
+     * <p>
+     * Useful for price scans over a whole application: the catalog is covered by a few hundred search pages
+     * instead of one price request per item. The same closing rules as for {@link #stream()} apply.
+     *
+     * @return Stream of {@link MarketSearchResult}s, in name order
+     * @throws MarketFetcherException (from the stream) if a page keeps failing
+     */
+    public Stream<MarketSearchResult> results() {
+        return flatten(SearchPage::getResults);
+    }
+
+    private <T> Stream<T> flatten(Function<SearchPage, List<T>> extractor) {
+        PageIterator pages = pages(0);
+        Iterator<T> items = new Iterator<>() {
+            private Iterator<T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && pages.hasNext()) {
+                    current = extractor.apply(pages.next()).iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(items, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(pages::close);
+    }
+
+    /**
+     * Returns an iterator over the catalog pages, starting at the given offset.
+     *
+     * @param start Offset of the first item to return
+     * @return Iterator of {@link SearchPage}s in order
+     */
+    public PageIterator pages(int start) {
+        return new PageIterator(start);
+    }
+
+    /**
+     * @return Steam App ID whose catalog is crawled
+     */
+    public AppID getAppID() {
+        return searchFetcher.getAppID();
+    }
+
+    /**
+     * Requests a single one-item page to learn how many items the catalog currently has.
+     *
+     * @return Total number of items matching the crawler's query
+     * @throws MarketFetcherException if the request keeps failing
+     */
+    public int fetchTotalCount() {
+        return fetchWithRetries(0, 1).getTotalCount();
+    }
+
+    private SearchPage fetchWithRetries(int start) {
+        return fetchWithRetries(start, pageSize);
+    }
+
+    private SearchPage fetchWithRetries(int start, int count) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                SearchPage page = RequestScheduler.withPriority(RequestPriority.BACKGROUND,
+                        () -> searchFetcher.fetchResults(query, start, count, SearchSortColumn.NAME, true));
+                if (page != null) return page;
+                if (log != null) log.warn("Search page at offset {} returned an invalid response", start);
+            } catch (MarketFetcherException | RequestRejectedException e) {
+                if (log != null) log.warn("Search page at offset {} failed: {}", start, e.getMessage());
+                if (attempt >= maxRetries || isCancelled()) throw e;
+            }
+
+            if (attempt >= maxRetries) throw new MarketFetcherException("Search page at offset " + start + " failed after " + (attempt + 1) + " attempts");
+
+            try {
+                Thread.sleep(1000L << Math.min(attempt, 6));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MarketFetcherException(e);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the deadline bound to the current thread was cancelled, so a retry would fail anyway
+     */
+    private static boolean isCancelled() {
+        Deadline deadline = Deadline.current();
+        return deadline != null && deadline.isCancelled();
+    }
+
+    /**
+     * Iterator that keeps a bounded window of page requests in flight ahead of the consumer.
+     */
+    public class PageIterator implements Iterator<SearchPage>, AutoCloseable {
+
+        private final Deque<CompletableFuture<SearchPage>> inFlight = new ArrayDeque<>();
+
+        /** Bound to the page fetches, so that closing cancels their requests */
+        private final Deadline deadline = Deadline.unbounded();
+
+        private int nextStart;
+
+        private int totalCount = -1;
+
+        private boolean exhausted;
+
+        private PageIterator(int start) {
+            this.nextStart = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (exhausted) return false;
+
+            if (totalCount < 0) {
+                // The first page is fetched synchronously: it tells how many pages there are.
+                SearchPage first = fetchWithRetries(nextStart);
+                totalCount = first.getTotalCount();
+                nextStart += pageSize;
+                inFlight.add(CompletableFuture.completedFuture(first));
+                if (log != null) log.debug("Crawling {} items of {}", totalCount, searchFetcher.getAppID());
+            }
+
+            fillWindow();
+
+            if (inFlight.isEmpty()) exhausted = true;
+            return !exhausted;
+        }
+
+        @Override
+        public SearchPage next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            SearchPage page;
+            try {
+                page = inFlight.poll().join();
+            } catch (CompletionException | CancellationException e) {
+                close();
+                if (e.getCause() instanceof MarketFetcherException fetcherException) throw fetcherException;
+                throw new MarketFetcherException(e);
+            }
+
+            if (page.getNames().isEmpty()) {
+                // The catalog shrank while crawling; nothing is left beyond this point.
+                close();
+            }
+
+            return page;
+        }
+
+        /**
+         * @return Total number of items reported by the first page, or -1 before the first page is fetched
+         */
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        /**
+         * Cancels the requests of all pages still in flight, stops their retries and ends the iteration.
+         * <p>
+         * Requests already sent are aborted and failed requests are not retried. A fetch waiting for a rate limiter
+         * permit still takes it when it becomes available, but then sends no request.
+         */
+        @Override
+        public void close() {
+            exhausted = true;
+            deadline.cancel();
+            for (CompletableFuture<SearchPage> future : inFlight) {
+                future.cancel(false);
+            }
+            inFlight.clear();
+        }
+
+        private void fillWindow() {
+            while (inFlight.size() < maxPagesInFlight && nextStart < totalCount) {
+                int start = nextStart;
+                CompletableFuture<SearchPage> future = new CompletableFuture<>();
+                Thread.ofVirtual().start(() -> fetch(start, future));
+                inFlight.add(future);
+                nextStart += pageSize;
+            }
+        }
+
+        private void fetch(int start, CompletableFuture<SearchPage> future) {
+            try {
+                future.complete(deadline.run(() -> fetchWithRetries(start)));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link CatalogCrawler}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>AppID = CS2</li>
+     *     <li>Query = empty (whole catalog)</li>
+     *     <li>Page size = 100</li>
+     *     <li>Pages in flight = 4</li>
+     *     <li>Max retries = 3</li>
+     * </ul>
+     */
+    public static class Builder {
+        private AppID appID = AppID.COUNTER_STRIKE_2;
+        private MarketSearchFetcher searchFetcher;
+        private RateLimiter rateLimiter;
+        private String query = "";
+        private int pageSize = 100;
+        private int maxPagesInFlight = 4;
+        private int maxRetries = 3;
+        private Logger log = null;
+
+        /**
+         * Sets the App ID whose catalog is crawled. Ignored if a search fetcher is set.
+         *
+         * @param appID App ID
+         * @return This builder instance
+         */
+        public Builder appID(AppID appID) {
+            this.appID = appID;
+            return this;
+        }
+
+        /**
+         * Sets a custom search fetcher.
+         *
+         * @param searchFetcher Search fetcher
+         * @return This builder instance
+         */
+        public Builder searchFetcher(MarketSearchFetcher searchFetcher) {
+            this.searchFetcher = searchFetcher;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter of the default search fetcher. Ignored if a search fetcher is set.
+         *
+         * @param rateLimiter Rate limiter
+         * @return This builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Restricts the crawl to items matching the query.
+         *
+         * @param query Search query
+         * @return This builder instance
+         */
+        public Builder query(String query) {
+            this.query = query;
+            return this;
+        }
+
+        /**
+         * Sets the number of items per page.
+         *
+         * @param pageSize Page size, at most 100
+         * @return This builder instance
+         */
+        public Builder pageSize(int pageSize) {
+            this.pageSize = Math.max(1, Math.min(100, pageSize));
+            return this;
+        }
+
+        /**
+         * Sets how many pages may be fetched ahead of the consumer.
+         *
+         * @param maxPagesInFlight Window size
+         * @return This builder instance
+         */
+        public Builder maxPagesInFlight(int maxPagesInFlight) {
+            this.maxPagesInFlight = Math.max(1, maxPagesInFlight);
+            return this;
+        }
+
+        /**
+         * Sets the number of retries of a failed page.
+         *
+         * @param maxRetries Number of retries
+         * @return This builder instance
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = Math.max(0, maxRetries);
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link CatalogCrawler}.
+         *
+         * @return New {@link CatalogCrawler} instance
+         */
+        public @NotNull CatalogCrawler build() {
+            if (searchFetcher == null) {
+                searchFetcher = new MarketSearchFetcher.Builder()
+                        .appID(appID)
+                        .rateLimiter(rateLimiter)
+                        .withLogger(log)
+                        .build();
+            }
+            return new CatalogCrawler(searchFetcher, query, pageSize, maxPagesInFlight, maxRetries, log);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import java.util.List;
+
+/**
+ * Result of an {@link IncrementalCatalogSync}: items that appeared in and disappeared from the catalog
+ * since the previous snapshot.
+ */
+public class CatalogDiff {
+
+    private final List<String> added;
+
+    private final List<String> removed;
+
+    private final int catalogSize;
+
+    /**
+     * Constructs a new {@code CatalogDiff}.
+     *
+     * @param added       Market hash names that are new in the catalog
+     * @param removed     Market hash names that are no longer in the catalog
+     * @param catalogSize Number of items in the catalog after the sync
+     */
+    public CatalogDiff(List<String> added, List<String> removed, int catalogSize) {
+        this.added = List.copyOf(added);
+        this.removed = List.copyOf(removed);
+        this.catalogSize = catalogSize;
+    }
+
+    /**
+     * @return Market hash names that are new in the catalog
+     */
+    public List<String> getAdded() {
+        return added;
+    }
+
+    /**
+     * @return Market hash names that are no longer in the catalog
+     */
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return Number of items in the catalog after the sync
+     */
+    public int getCatalogSize() {
+        return catalogSize;
+    }
+
+    /**
+     * @return {@code true} if nothing was added or removed
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogDiff{" +
+               "added=" + added.size() +
+               ", removed=" + removed.size() +
+               ", catalogSize=" + catalogSize +
+               '}';
+    }
+}
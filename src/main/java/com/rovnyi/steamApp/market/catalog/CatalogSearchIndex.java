@@ -0,0 +1,334 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import com.rovnyi.steamApp.enums.AppID;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An in-memory search index over the market catalog of one application.
+ * <p>
+ * Item names are split into lower-case alphanumeric tokens. Tokens are kept in a sorted dictionary, so every query
+ * token is matched as a prefix through a single range lookup (the dictionary acts as a prefix trie), and each token
+ * points to a sorted posting list of the items that contain it. A query returns the items that match all of its
+ * tokens, ranked by:
+ * <ol>
+ *     <li>exact name match</li>
+ *     <li>name starting with the query</li>
+ *     <li>number of query tokens matched as whole tokens</li>
+ *     <li>shorter names first, then alphabetical order</li>
+ * </ol>
+ * The index is thread-safe; lookups run under a shared read lock.
+ */
+public class CatalogSearchIndex {
+
+    private final AppID appID;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<String> normalizedNames = new ArrayList<>();
+
+    /** Tokens of every item, split once when it is added */
+    private final List<List<String>> nameTokens = new ArrayList<>();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private final BitSet removed = new BitSet();
+
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+
+    private volatile Instant refreshedAt = Instant.EPOCH;
+
+    /**
+     * Constructs a new empty index.
+     *
+     * @param appID App ID whose catalog is indexed
+     */
+    public CatalogSearchIndex(AppID appID) {
+        this.appID = appID;
+    }
+
+    /**
+     * Builds an index from a full catalog crawl and marks it as refreshed.
+     *
+     * @param crawler Crawler of the application's catalog
+     * @return New populated index
+     */
+    public static CatalogSearchIndex fromCrawler(CatalogCrawler crawler) {
+        CatalogSearchIndex index = new CatalogSearchIndex(crawler.getAppID());
+        try (Stream<String> names = crawler.stream()) {
+            names.forEach(index::add);
+        }
+        index.markRefreshed();
+        return index;
+    }
+
+    /**
+     * Adds an item to the index. Does nothing if it is already indexed.
+     *
+     * @param marketHashName The item's market hash name
+     */
+    public void add(String marketHashName) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ids.get(marketHashName);
+            if (existing != null) {
+                removed.clear(existing);
+                return;
+            }
+
+            int id = names.size();
+            String normalized = normalize(marketHashName);
+
+            List<String> tokens = tokenize(normalized);
+
+            names.add(marketHashName);
+            normalizedNames.add(normalized);
+            nameTokens.add(tokens);
+            ids.put(marketHashName, id);
+
+            for (String token : tokens) {
+                dictionary.computeIfAbsent(token, k -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds all items to the index.
+     *
+     * @param marketHashNames The items' market hash names
+     */
+    public void addAll(Collection<String> marketHashNames) {
+        for (String marketHashName : marketHashNames) {
+            add(marketHashName);
+        }
+    }
+
+    /**
+     * Removes an item from the search results.
+     *
+     * @param marketHashName The item's market hash name
+     * @return true if the item was indexed
+     */
+    public boolean remove(String marketHashName) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.get(marketHashName);
+            if (id == null || removed.get(id)) return false;
+
+            removed.set(id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the item is indexed.
+     *
+     * @param marketHashName The item's market hash name
+     * @return true if the item is indexed
+     */
+    public boolean contains(String marketHashName) {
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(marketHashName);
+            return id != null && !removed.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of indexed items matching the query, best matches first.
+     * An empty query matches every indexed item.
+     *
+     * @param query Free-text query, matched token by token as prefixes
+     * @param start Offset of the first result
+     * @param count Number of results to return
+     * @return List of market hash names
+     */
+    public List<String> search(String query, int start, int count) {
+        String normalizedQuery = normalize(query);
+        List<String> queryTokens = tokenize(normalizedQuery);
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = queryTokens.isEmpty() ? allIds() : match(queryTokens);
+            if (count <= 0 || candidates.length == 0 || start >= candidates.length) return List.of();
+
+            int limit = (int) Math.min(candidates.length, (long) start + count);
+            Comparator<Scored> order = Comparator.<Scored>comparingInt(s -> s.score).reversed()
+                    .thenComparingInt(s -> names.get(s.id).length())
+                    .thenComparing(s -> names.get(s.id));
+
+            // Keep only the best "limit" candidates: the heap head is the worst one kept so far.
+            PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, order.reversed());
+            for (int id : candidates) {
+                best.add(new Scored(id, score(id, normalizedQuery, queryTokens)));
+                if (best.size() > limit) best.poll();
+            }
+
+            Scored[] ranked = best.toArray(new Scored[0]);
+            Arrays.sort(ranked, order);
+
+            List<String> page = new ArrayList<>(limit - start);
+            for (int i = start; i < ranked.length; i++) {
+                page.add(names.get(ranked[i].id));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of indexed items
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size() - removed.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records that the index reflects the current catalog. An index filled with {@link #add(String)} has to be
+     * marked once it is complete; only then does {@link IndexedSearchFetcher} answer queries from it.
+     */
+    public void markRefreshed() {
+        this.refreshedAt = Instant.now();
+    }
+
+    /**
+     * @param maxAge Maximum accepted age
+     * @return true if the index was refreshed within {@code maxAge}
+     */
+    public boolean isFresh(Duration maxAge) {
+        return refreshedAt.plus(maxAge).isAfter(Instant.now());
+    }
+
+    /**
+     * @return Time of the last refresh, or {@link Instant#EPOCH} if never refreshed
+     */
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * @return App ID whose catalog is indexed
+     */
+    public AppID getAppID() {
+        return appID;
+    }
+
+    /**
+     * Intersects, for every query token, the union of postings of the dictionary tokens starting with it.
+     */
+    private int[] match(List<String> queryTokens) {
+        BitSet result = null;
+
+        for (String queryToken : queryTokens) {
+            BitSet matches = new BitSet(names.size());
+            for (Postings postings : dictionary.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).values()) {
+                postings.addTo(matches);
+            }
+
+            if (result == null) result = matches;
+            else result.and(matches);
+
+            if (result.isEmpty()) return new int[0];
+        }
+
+        result.andNot(removed);
+        return result.stream().toArray();
+    }
+
+    private int[] allIds() {
+        BitSet all = new BitSet(names.size());
+        all.set(0, names.size());
+        all.andNot(removed);
+        return all.stream().toArray();
+    }
+
+    private int score(int id, String normalizedQuery, List<String> queryTokens) {
+        String normalizedName = normalizedNames.get(id);
+        int score = 0;
+
+        if (normalizedName.equals(normalizedQuery)) score += 1000;
+        else if (normalizedName.startsWith(normalizedQuery)) score += 100;
+
+        List<String> tokens = nameTokens.get(id);
+        for (String queryToken : queryTokens) {
+            if (tokens.contains(queryToken)) score += 10;
+        }
+
+        return score;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static List<String> tokenize(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        int tokenStart = -1;
+
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+
+            if (tokenChar && tokenStart < 0) {
+                tokenStart = i;
+            } else if (!tokenChar && tokenStart >= 0) {
+                tokens.add(normalized.substring(tokenStart, i));
+                tokenStart = -1;
+            }
+        }
+
+        return tokens;
+    }
+
+    private record Scored(int id, int score) {
+    }
+
+    /**
+     * Growable sorted list of item ids.
+     */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        void addTo(BitSet target) {
+            for (int i = 0; i < size; i++) {
+                target.set(ids[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.rovnyi.steamApp.market.catalog;
+
+/**
+ * Exception thrown when {@link IncrementalCatalogSync} cannot read or write its snapshot file.
+ */
+public class CatalogSyncException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code CatalogSyncException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public CatalogSyncException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code CatalogSyncException} with the specified cause.
+     *
+     * @param cause the underlying {@link Throwable} that caused this exception
+     */
+    public CatalogSyncException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,472 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rovnyi.steamApp.enums.AppID;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.fetcher.MarketFetcherException;
+import com.rovnyi.steamApp.market.fetcher.SearchPage;
+import com.rovnyi.steamApp.market.provider.IdStorageException;
+import com.rovnyi.steamApp.market.provider.ItemNameIdProvider;
+import com.rovnyi.steamApp.market.provider.ResolvingIdProvider;
+import com.rovnyi.steamApp.market.provider.WritableIdProvider;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills a persistent item_nameid store with every item of an application's market catalog.
+ * <p>
+ * Pages through the catalog with a {@link CatalogCrawler} (sorted by name, so offsets stay stable),
+ * resolves the ids that are missing from the store in parallel with the resolver's {@link ItemNameIdProvider#getAll}
+ * and writes each page's results to the store in one batch. Resolution runs with {@link RequestPriority#BACKGROUND}
+ * priority, like the crawl, so a shared {@link RequestScheduler} serves
+ * interactive requests first.
+ * <p>
+ * After every page the next offset is written to a checkpoint file. A run that was interrupted
+ * (crash, rate limiting, shutdown) continues from the last finished page on the next {@link #run()}.
+ * Names the resolver returns no id for (e.g. because the request was rate limited) are kept in the checkpoint
+ * and retried at the start of the next run, up to a maximum number of attempts per name; the pre-warm only counts
+ * as completed once the end of the catalog was reached and none are left.
+ */
+public class IdStorePrewarmer {
+
+    /** Attempts per name used by {@link #IdStorePrewarmer(CatalogCrawler, ItemNameIdProvider, WritableIdProvider, Path, Logger)} */
+    public static final int DEFAULT_MAX_RESOLVE_ATTEMPTS = 5;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final CatalogCrawler crawler;
+
+    private final ItemNameIdProvider resolver;
+
+    private final WritableIdProvider store;
+
+    private final Path checkpointFile;
+
+    private final int maxResolveAttempts;
+
+    private final Logger log;
+
+    /**
+     * Constructs a new pre-warmer.
+     *
+     * @param crawler        Crawler used to page through the catalog
+     * @param resolver       Provider used to resolve missing ids (e.g. {@link ResolvingIdProvider})
+     * @param store          Persistent store that receives the resolved ids
+     * @param checkpointFile File that keeps the progress between runs
+     * @param log            Logger, may be {@code null}
+     */
+    public IdStorePrewarmer(CatalogCrawler crawler, ItemNameIdProvider resolver, WritableIdProvider store, Path checkpointFile, Logger log) {
+        this(crawler, resolver, store, checkpointFile, DEFAULT_MAX_RESOLVE_ATTEMPTS, log);
+    }
+
+    /**
+     * Constructs a new pre-warmer.
+     *
+     * @param crawler            Crawler used to page through the catalog
+     * @param resolver           Provider used to resolve missing ids (e.g. {@link ResolvingIdProvider})
+     * @param store              Persistent store that receives the resolved ids
+     * @param checkpointFile     File that keeps the progress between runs
+     * @param maxResolveAttempts Number of attempts after which a name that cannot be resolved is given up
+     * @param log                Logger, may be {@code null}
+     */
+    public IdStorePrewarmer(CatalogCrawler crawler, ItemNameIdProvider resolver, WritableIdProvider store, Path checkpointFile,
+                            int maxResolveAttempts, Logger log) {
+        this.crawler = crawler;
+        this.resolver = resolver;
+        this.store = store;
+        this.checkpointFile = checkpointFile;
+        this.maxResolveAttempts = Math.max(1, maxResolveAttempts);
+        this.log = log;
+    }
+
+    /**
+     * Runs (or resumes) the pre-warm until the end of the catalog is reached or a page keeps failing.
+     * <p>
+     * A run that reached the end of the catalog leaves a completed checkpoint; call {@link #reset()} to walk the
+     * catalog again. A run that stopped earlier, because a page kept failing or Steam returned an empty page before
+     * {@code total_count} items were seen, keeps its offset and is resumed by the next run. Names left unresolved
+     * by earlier runs are retried first.
+     *
+     * @return Summary of the work done by this run
+     */
+    public PrewarmResult run() {
+        Checkpoint checkpoint = readCheckpoint();
+        int start = checkpoint.nextStart();
+        Map<String, Integer> unresolved = new LinkedHashMap<>(checkpoint.unresolved());
+        int pages = 0;
+        int scanned = 0;
+        int known = 0;
+        int resolved = 0;
+
+        if (!unresolved.isEmpty()) {
+            resolved += resolve(new ArrayList<>(unresolved.keySet()), unresolved);
+            writeCheckpoint(start, unresolved);
+            if (log != null) log.info("Pre-warm for {} retried earlier failures, {} still unresolved", crawler.getAppID(), unresolved.size());
+        }
+
+        if (start < 0) {
+            if (log != null && unresolved.isEmpty()) log.info("Pre-warm for {} is already complete", crawler.getAppID());
+            return new PrewarmResult(0, 0, 0, resolved, unresolved.size(), unresolved.isEmpty());
+        }
+
+        int totalCount;
+        try (CatalogCrawler.PageIterator iterator = crawler.pages(start)) {
+            while (iterator.hasNext()) {
+                SearchPage page = iterator.next();
+                List<String> names = page.getNames();
+                if (names.isEmpty()) break;
+
+                Map<String, String> present = store.getAll(names);
+
+                List<String> missing = new ArrayList<>();
+                for (String name : names) {
+                    if (!present.containsKey(name)) missing.add(name);
+                }
+
+                if (!missing.isEmpty()) resolved += resolve(missing, unresolved);
+
+                pages++;
+                scanned += names.size();
+                known += names.size() - missing.size();
+                start = page.getStart() + names.size();
+
+                writeCheckpoint(start, unresolved);
+                if (log != null) log.debug("Pre-warm for {} reached offset {}", crawler.getAppID(), start);
+            }
+            totalCount = iterator.getTotalCount();
+        } catch (MarketFetcherException e) {
+            if (log != null) log.warn("Pre-warm for {} stopped at offset {}: {}", crawler.getAppID(), start, e.getMessage());
+            return new PrewarmResult(pages, scanned, known, resolved, unresolved.size(), false);
+        }
+
+        if (totalCount < 0 || start < totalCount) {
+            writeCheckpoint(start, unresolved);
+            if (log != null) log.warn("Pre-warm for {} got an empty page at offset {} of {} items; resuming from there on the next run",
+                    crawler.getAppID(), start, totalCount);
+            return new PrewarmResult(pages, scanned, known, resolved, unresolved.size(), false);
+        }
+
+        writeCheckpoint(-1, unresolved);
+        if (log != null) log.info("Pre-warm for {} finished: {} items resolved, {} left for the next run", crawler.getAppID(), resolved, unresolved.size());
+        return new PrewarmResult(pages, scanned, known, resolved, unresolved.size(), unresolved.isEmpty());
+    }
+
+    /**
+     * Resolves names and stores their ids, counting the failed attempts of the names that could not be resolved.
+     * A name is given up once it has failed {@code maxResolveAttempts} times.
+     *
+     * @return Number of ids resolved
+     */
+    private int resolve(List<String> names, Map<String, Integer> unresolved) {
+        Map<String, String> ids = RequestScheduler.withPriority(RequestPriority.BACKGROUND, () -> resolver.getAll(names));
+        if (!ids.isEmpty()) store.putAll(ids);
+
+        for (String name : names) {
+            if (ids.containsKey(name)) {
+                unresolved.remove(name);
+                continue;
+            }
+
+            int attempts = unresolved.merge(name, 1, Integer::sum);
+            if (attempts >= maxResolveAttempts) {
+                unresolved.remove(name);
+                if (log != null) log.warn("Pre-warm for {} gave up on \"{}\" after {} attempts", crawler.getAppID(), name, attempts);
+            }
+        }
+        return ids.size();
+    }
+
+    /**
+     * Deletes the checkpoint so that the next {@link #run()} starts from the beginning of the catalog.
+     */
+    public void reset() {
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            throw new IdStorageException(e);
+        }
+    }
+
+    /**
+     * @return Offset to continue from, or -1 if the catalog was already walked, with the names left unresolved and
+     * their failed attempts
+     */
+    private Checkpoint readCheckpoint() {
+        if (!Files.exists(checkpointFile)) return new Checkpoint(0, Map.of());
+
+        try {
+            Map<String, Object> checkpoint = mapper.readValue(checkpointFile.toFile(), new TypeReference<>() {});
+            if (!(checkpoint.get("appid") instanceof Integer appid) || appid != crawler.getAppID().getID()) {
+                return new Checkpoint(0, Map.of());
+            }
+
+            int nextStart = checkpoint.get("next_start") instanceof Integer value ? value : 0;
+            Map<String, Integer> unresolved = new LinkedHashMap<>();
+            if (checkpoint.get("unresolved") instanceof Map<?, ?> names) {
+                for (Map.Entry<?, ?> entry : names.entrySet()) {
+                    if (entry.getKey() instanceof String name && entry.getValue() instanceof Integer attempts) {
+                        unresolved.put(name, attempts);
+                    }
+                }
+            } else if (checkpoint.get("unresolved") instanceof List<?> names) {
+                // Checkpoints written before attempts were counted
+                for (Object name : names) {
+                    if (name instanceof String string) unresolved.put(string, 1);
+                }
+            }
+            return new Checkpoint(nextStart, unresolved);
+        } catch (IOException e) {
+            throw new IdStorageException(e);
+        }
+    }
+
+    private void writeCheckpoint(int nextStart, Map<String, Integer> unresolved) {
+        Map<String, Object> checkpoint = new LinkedHashMap<>();
+        checkpoint.put("appid", crawler.getAppID().getID());
+        checkpoint.put("next_start", nextStart);
+        checkpoint.put("unresolved", unresolved);
+
+        try {
+            Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+            mapper.writeValue(tempFile.toFile(), checkpoint);
+            Files.move(tempFile, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new IdStorageException(e);
+        }
+    }
+
+    private record Checkpoint(int nextStart, Map<String, Integer> unresolved) {
+    }
+
+    /**
+     * Summary of a single {@link IdStorePrewarmer#run()}.
+     */
+    public static class PrewarmResult {
+        private final int pages;
+        private final int scanned;
+        private final int alreadyKnown;
+        private final int resolved;
+        private final int unresolved;
+        private final boolean completed;
+
+        public PrewarmResult(int pages, int scanned, int alreadyKnown, int resolved, int unresolved, boolean completed) {
+            this.pages = pages;
+            this.scanned = scanned;
+            this.alreadyKnown = alreadyKnown;
+            this.resolved = resolved;
+            this.unresolved = unresolved;
+            this.completed = completed;
+        }
+
+        /**
+         * @return Number of search pages processed by this run
+         */
+        public int getPages() {
+            return pages;
+        }
+
+        /**
+         * @return Number of catalog items seen by this run
+         */
+        public int getScanned() {
+            return scanned;
+        }
+
+        /**
+         * @return Number of items that were already present in the store
+         */
+        public int getAlreadyKnown() {
+            return alreadyKnown;
+        }
+
+        /**
+         * @return Number of ids resolved and written to the store
+         */
+        public int getResolved() {
+            return resolved;
+        }
+
+        /**
+         * @return Number of names whose id could not be resolved yet; they are retried by the next run until they
+         * reach the maximum number of attempts
+         */
+        public int getUnresolved() {
+            return unresolved;
+        }
+
+        /**
+         * @return {@code true} if the end of the catalog was reached and every id was resolved
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        @Override
+        public String toString() {
+            return "PrewarmResult{" +
+                   "pages=" + pages +
+                   ", scanned=" + scanned +
+                   ", alreadyKnown=" + alreadyKnown +
+                   ", resolved=" + resolved +
+                   ", unresolved=" + unresolved +
+                   ", completed=" + completed +
+                   '}';
+        }
+    }
+
+    /**
+     * Builder for {@link IdStorePrewarmer}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>AppID = CS2</li>
+     *     <li>Page size = 100</li>
+     *     <li>Max retries = 3</li>
+     *     <li>Max resolve attempts = {@value IdStorePrewarmer#DEFAULT_MAX_RESOLVE_ATTEMPTS}</li>
+     *     <li>Resolver = {@link ResolvingIdProvider} sharing the rate limiter</li>
+     * </ul>
+     */
+    public static class Builder {
+        private AppID appID = AppID.COUNTER_STRIKE_2;
+        private WritableIdProvider store;
+        private ItemNameIdProvider resolver;
+        private RateLimiter rateLimiter;
+        private Path checkpointFile;
+        private int pageSize = 100;
+        private int maxRetries = 3;
+        private int maxResolveAttempts = DEFAULT_MAX_RESOLVE_ATTEMPTS;
+        private Logger log = null;
+
+        /**
+         * Sets the App ID whose catalog is walked.
+         *
+         * @param appID App ID
+         * @return This builder instance
+         */
+        public Builder appID(AppID appID) {
+            this.appID = appID;
+            return this;
+        }
+
+        /**
+         * Sets the persistent store that receives the resolved ids. Required.
+         *
+         * @param store Writable provider
+         * @return This builder instance
+         */
+        public Builder store(WritableIdProvider store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Sets a custom resolver for missing ids.
+         *
+         * @param resolver Provider implementation
+         * @return This builder instance
+         */
+        public Builder resolver(ItemNameIdProvider resolver) {
+            this.resolver = resolver;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter shared by search requests and the default resolver.
+         *
+         * @param rateLimiter Rate limiter
+         * @return This builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the checkpoint file. Required.
+         *
+         * @param checkpointFile File that keeps the progress between runs
+         * @return This builder instance
+         */
+        public Builder checkpointFile(Path checkpointFile) {
+            this.checkpointFile = checkpointFile;
+            return this;
+        }
+
+        /**
+         * Sets the number of items requested per search page.
+         *
+         * @param pageSize Page size, at most 100
+         * @return This builder instance
+         */
+        public Builder pageSize(int pageSize) {
+            this.pageSize = Math.max(1, Math.min(100, pageSize));
+            return this;
+        }
+
+        /**
+         * Sets the number of retries of a failed search page.
+         *
+         * @param maxRetries Number of retries
+         * @return This builder instance
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = Math.max(0, maxRetries);
+            return this;
+        }
+
+        /**
+         * Sets the number of failed resolutions after which a name is given up, counted across runs.
+         *
+         * @param maxResolveAttempts Number of attempts, at least 1
+         * @return This builder instance
+         */
+        public Builder maxResolveAttempts(int maxResolveAttempts) {
+            this.maxResolveAttempts = Math.max(1, maxResolveAttempts);
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link IdStorePrewarmer}.
+         *
+         * @return New {@link IdStorePrewarmer} instance
+         */
+        public @NotNull IdStorePrewarmer build() {
+            if (store == null) throw new IllegalStateException("store is required");
+            if (checkpointFile == null) throw new IllegalStateException("checkpointFile is required");
+
+            if (resolver == null) {
+                ResolvingIdProvider resolvingIdProvider = new ResolvingIdProvider(appID);
+                resolvingIdProvider.setRateLimiter(rateLimiter);
+                resolvingIdProvider.setLogger(log);
+                resolver = resolvingIdProvider;
+            }
+
+            CatalogCrawler crawler = new CatalogCrawler.Builder()
+                    .appID(appID)
+                    .rateLimiter(rateLimiter)
+                    .pageSize(pageSize)
+                    .maxRetries(maxRetries)
+                    .withLogger(log)
+                    .build();
+
+            return new IdStorePrewarmer(crawler, resolver, store, checkpointFile, maxResolveAttempts, log);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.rovnyi.steamApp.enums.AppID;
+import com.rovnyi.steamApp.market.provider.ItemNameIdProvider;
+import com.rovnyi.steamApp.market.provider.WritableIdProvider;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a persisted snapshot of an application's catalog up to date and reports only the changes.
+ * <p>
+ * Steam's search cannot be sorted by listing date, so new items cannot be found by walking from the newest one.
+ * Instead, every {@link #sync()} first requests a one-item page to read the catalog's {@code total_count}. If it matches
+ * the snapshot and the snapshot is younger than the full-sync interval, the sync ends after that single request.
+ * Otherwise the catalog is crawled with {@link CatalogCrawler} and diffed against the snapshot by name.
+ * <p>
+ * Removals are only reported when the crawl returned at least {@code total_count} items. A shorter crawl (pages
+ * skipped by Steam, items shifting between pages) reports only the additions and keeps the unseen names in the
+ * snapshot, so a partial crawl never drops items from the store's view of the catalog.
+ * <p>
+ * New items are resolved into the item_nameid store right away, and an optional {@link CatalogSearchIndex}
+ * is updated with both additions and removals.
+ */
+public class IncrementalCatalogSync {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final CatalogCrawler crawler;
+
+    private final Path snapshotFile;
+
+    private final Duration fullSyncInterval;
+
+    private final ItemNameIdProvider resolver;
+
+    private final WritableIdProvider store;
+
+    private final CatalogSearchIndex index;
+
+    private final Logger log;
+
+    private Set<String> snapshot;
+
+    private Instant snapshotTime;
+
+    /**
+     * Constructs a new catalog sync.
+     *
+     * @param crawler          Crawler of the application's catalog
+     * @param snapshotFile     File that keeps the last known catalog between runs
+     * @param fullSyncInterval Maximum time between two full crawls when the item count does not change
+     * @param resolver         Provider used to resolve ids of new items, or {@code null} to skip resolution
+     * @param store            Store that receives the resolved ids, or {@code null} to skip resolution
+     * @param index            Search index to keep current, or {@code null}
+     * @param log              Logger, may be {@code null}
+     */
+    public IncrementalCatalogSync(CatalogCrawler crawler, Path snapshotFile, Duration fullSyncInterval,
+                                  ItemNameIdProvider resolver, WritableIdProvider store, CatalogSearchIndex index, Logger log) {
+        this.crawler = crawler;
+        this.snapshotFile = snapshotFile;
+        this.fullSyncInterval = fullSyncInterval;
+        this.resolver = resolver;
+        this.store = store;
+        this.index = index;
+        this.log = log;
+    }
+
+    /**
+     * Brings the snapshot up to date with the catalog.
+     * <p>
+     * The very first sync (without a snapshot file) reports the whole catalog as added.
+     *
+     * @return Items added to and removed from the catalog since the previous sync
+     * @throws com.rovnyi.steamApp.market.fetcher.MarketFetcherException if the catalog cannot be read
+     * @throws CatalogSyncException if the snapshot file cannot be read or written
+     */
+    public synchronized CatalogDiff sync() {
+        if (snapshot == null) loadSnapshot();
+
+        int totalCount = crawler.fetchTotalCount();
+        boolean snapshotRecent = snapshotTime.plus(fullSyncInterval).isAfter(Instant.now());
+        if (snapshotRecent && totalCount == snapshot.size()) {
+            if (log != null) log.debug("Catalog of {} unchanged ({} items)", crawler.getAppID(), snapshot.size());
+            if (index != null) index.markRefreshed();
+            return new CatalogDiff(List.of(), List.of(), snapshot.size());
+        }
+
+        Set<String> current = new LinkedHashSet<>();
+        try (Stream<String> names = crawler.stream()) {
+            names.forEach(current::add);
+        }
+
+        List<String> added = new ArrayList<>();
+        for (String name : current) {
+            if (!snapshot.contains(name)) added.add(name);
+        }
+
+        List<String> removed = new ArrayList<>();
+        boolean complete = current.size() >= totalCount;
+        if (complete) {
+            for (String name : snapshot) {
+                if (!current.contains(name)) removed.add(name);
+            }
+        } else {
+            if (log != null) log.warn("Crawl of {} returned {} of {} items, skipping removals",
+                    crawler.getAppID(), current.size(), totalCount);
+            current.addAll(snapshot);
+        }
+
+        if (!added.isEmpty() && resolver != null && store != null) {
+            Map<String, String> present = store.getAll(added);
+            List<String> missing = new ArrayList<>();
+            for (String name : added) {
+                if (!present.containsKey(name)) missing.add(name);
+            }
+
+            Map<String, String> ids = resolver.getAll(missing);
+            if (!ids.isEmpty()) store.putAll(ids);
+            if (log != null) log.debug("Resolved {} of {} new itemNameIds", ids.size(), missing.size());
+        }
+
+        if (index != null) {
+            index.addAll(added);
+            for (String name : removed) {
+                index.remove(name);
+            }
+            if (complete) index.markRefreshed();
+        }
+
+        snapshot = current;
+        snapshotTime = Instant.now();
+        saveSnapshot();
+
+        if (log != null) log.info("Catalog of {} synced: {} added, {} removed", crawler.getAppID(), added.size(), removed.size());
+        return new CatalogDiff(added, removed, current.size());
+    }
+
+    /**
+     * @return Names in the last synced snapshot
+     */
+    public synchronized Set<String> getSnapshot() {
+        if (snapshot == null) loadSnapshot();
+        return Set.copyOf(snapshot);
+    }
+
+    private void loadSnapshot() {
+        snapshot = new LinkedHashSet<>();
+        snapshotTime = Instant.EPOCH;
+
+        if (!Files.exists(snapshotFile)) return;
+
+        try {
+            JsonNode root = mapper.readTree(snapshotFile.toFile());
+            if (root.path("appid").asInt(-1) != crawler.getAppID().getID()) return;
+
+            snapshotTime = Instant.ofEpochMilli(root.path("synced_at").asLong(0));
+            for (JsonNode name : root.path("names")) {
+                snapshot.add(name.asText());
+            }
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CatalogSyncException(e);
+        }
+    }
+
+    private void saveSnapshot() {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("appid", crawler.getAppID().getID());
+        root.put("synced_at", snapshotTime.toEpochMilli());
+
+        ArrayNode names = root.putArray("names");
+        snapshot.forEach(names::add);
+
+        try {
+            Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            mapper.writeValue(tempFile.toFile(), root);
+            Files.move(tempFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new CatalogSyncException(e);
+        }
+    }
+
+    /**
+     * Builder for {@link IncrementalCatalogSync}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>AppID = CS2</li>
+     *     <li>Full sync interval = 6 hours</li>
+     * </ul>
+     */
+    public static class Builder {
+        private AppID appID = AppID.COUNTER_STRIKE_2;
+        private CatalogCrawler crawler;
+        private RateLimiter rateLimiter;
+        private Path snapshotFile;
+        private Duration fullSyncInterval = Duration.ofHours(6);
+        private ItemNameIdProvider resolver;
+        private WritableIdProvider store;
+        private CatalogSearchIndex index;
+        private Logger log = null;
+
+        /**
+         * Sets the App ID whose catalog is synced. Ignored if a crawler is set.
+         *
+         * @param appID App ID
+         * @return This builder instance
+         */
+        public Builder appID(AppID appID) {
+            this.appID = appID;
+            return this;
+        }
+
+        /**
+         * Sets a custom crawler.
+         *
+         * @param crawler Catalog crawler
+         * @return This builder instance
+         */
+        public Builder crawler(CatalogCrawler crawler) {
+            this.crawler = crawler;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter of the default crawler. Ignored if a crawler is set.
+         *
+         * @param rateLimiter Rate limiter
+         * @return This builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets the snapshot file. Required.
+         *
+         * @param snapshotFile File that keeps the last known catalog
+         * @return This builder instance
+         */
+        public Builder snapshotFile(Path snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        /**
+         * Sets the maximum time between two full crawls when the item count does not change.
+         *
+         * @param fullSyncInterval Interval
+         * @return This builder instance
+         */
+        public Builder fullSyncInterval(Duration fullSyncInterval) {
+            this.fullSyncInterval = fullSyncInterval;
+            return this;
+        }
+
+        /**
+         * Enables id resolution of new items.
+         *
+         * @param resolver Provider used to resolve ids (e.g. {@link com.rovnyi.steamApp.market.provider.ResolvingIdProvider})
+         * @param store    Store that receives the resolved ids
+         * @return This builder instance
+         */
+        public Builder resolveInto(ItemNameIdProvider resolver, WritableIdProvider store) {
+            this.resolver = resolver;
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Sets a search index to keep current.
+         *
+         * @param index Catalog search index
+         * @return This builder instance
+         */
+        public Builder index(CatalogSearchIndex index) {
+            this.index = index;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link IncrementalCatalogSync}.
+         *
+         * @return New {@link IncrementalCatalogSync} instance
+         */
+        public @NotNull IncrementalCatalogSync build() {
+            if (snapshotFile == null) throw new IllegalStateException("snapshotFile is required");
+
+            if (crawler == null) {
+                crawler = new CatalogCrawler.Builder()
+                        .appID(appID)
+                        .rateLimiter(rateLimiter)
+                        .withLogger(log)
+                        .build();
+            }
+
+            return new IncrementalCatalogSync(crawler, snapshotFile, fullSyncInterval, resolver, store, index, log);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import com.rovnyi.steamApp.market.fetcher.MarketFetcherException;
+import com.rovnyi.steamApp.market.fetcher.MarketSearchFetcher;
+import com.rovnyi.steamApp.market.fetcher.SearchPage;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Answers Steam Market searches from a local {@link CatalogSearchIndex}, falling back to Steam when needed.
+ * <p>
+ * Exposes the same {@code callAPI(query, start, count)} surface as {@link MarketSearchFetcher}. While the index is
+ * fresh and has matches, queries are answered locally without any request. Misses, and every query once the index
+ * is older than the maximum age, are forwarded to Steam through the wrapped fetcher, and the returned items are added
+ * to the index.
+ * <p>
+ * {@link #rebuildIndex()} crawls the catalog into a new index and swaps it in, e.g. from a background job once a day;
+ * {@link #setIndex(CatalogSearchIndex)} swaps in an index built elsewhere. Until then, the index only holds the items
+ * Steam returned for earlier queries.
+ */
+public class IndexedSearchFetcher {
+
+    private final MarketSearchFetcher searchFetcher;
+
+    private volatile CatalogSearchIndex index;
+
+    private final Duration maxAge;
+
+    private final Logger log;
+
+    /**
+     * Constructs a new indexed search fetcher.
+     *
+     * @param searchFetcher Fetcher used for misses and stale data
+     * @param index         Local index of the same application's catalog
+     * @param maxAge        Maximum age of the index for it to answer queries
+     * @param log           Logger, may be {@code null}
+     */
+    public IndexedSearchFetcher(MarketSearchFetcher searchFetcher, CatalogSearchIndex index, Duration maxAge, Logger log) {
+        checkAppID(searchFetcher, index);
+
+        this.searchFetcher = searchFetcher;
+        this.index = index;
+        this.maxAge = maxAge;
+        this.log = log;
+    }
+
+    /**
+     * Returns one page of market hash names matching the query.
+     *
+     * @param marketHashName Search query
+     * @param start          Offset of the first result
+     * @param count          Number of results to return
+     * @return List of market hash names, or {@code null} if the fallback request returned an invalid response
+     * @throws MarketFetcherException If the fallback request fails
+     */
+    public List<String> callAPI(String marketHashName, int start, int count) {
+        CatalogSearchIndex index = this.index;
+        if (index.isFresh(maxAge)) {
+            List<String> names = index.search(marketHashName, start, count);
+            if (!names.isEmpty()) {
+                if (log != null) log.debug("Search \"{}\" answered from the local index", marketHashName);
+                return names;
+            }
+        }
+
+        SearchPage page = searchFetcher.fetchResults(marketHashName, start, count, null, true);
+        if (page == null) return null;
+
+        index.addAll(page.getNames());
+        if (log != null) log.debug("Search \"{}\" answered by Steam, {} items indexed", marketHashName, page.getNames().size());
+
+        return page.getNames();
+    }
+
+    /**
+     * Crawls the whole catalog into a new index and swaps it in once the crawl is complete. Queries keep using the
+     * current index meanwhile. Blocks for the duration of the crawl.
+     *
+     * @throws MarketFetcherException If the crawl fails; the current index is kept
+     */
+    public void rebuildIndex() {
+        CatalogCrawler crawler = new CatalogCrawler.Builder()
+                .searchFetcher(searchFetcher)
+                .withLogger(log)
+                .build();
+
+        CatalogSearchIndex rebuilt = CatalogSearchIndex.fromCrawler(crawler);
+        index = rebuilt;
+        if (log != null) log.info("Search index of {} rebuilt with {} items", searchFetcher.getAppID(), rebuilt.size());
+    }
+
+    /**
+     * Replaces the local index.
+     *
+     * @param index Index of the same application's catalog
+     */
+    public void setIndex(CatalogSearchIndex index) {
+        checkAppID(searchFetcher, index);
+        this.index = index;
+    }
+
+    /**
+     * @return The local index
+     */
+    public CatalogSearchIndex getIndex() {
+        return index;
+    }
+
+    private static void checkAppID(MarketSearchFetcher searchFetcher, CatalogSearchIndex index) {
+        if (searchFetcher.getAppID() != index.getAppID()) {
+            throw new IllegalArgumentException("Index of " + index.getAppID() + " cannot serve searches of " + searchFetcher.getAppID());
+        }
+    }
+
+    /**
+     * Builder for {@link IndexedSearchFetcher}.
+     * <p>
+     * Provides default configuration: max index age = 1 day.
+     */
+    public static class Builder {
+        private MarketSearchFetcher searchFetcher;
+        private CatalogSearchIndex index;
+        private Duration maxAge = Duration.ofDays(1);
+        private Logger log = null;
+
+        /**
+         * Sets the fetcher used for misses and stale data. Required.
+         *
+         * @param searchFetcher Search fetcher
+         * @return This builder instance
+         */
+        public Builder searchFetcher(MarketSearchFetcher searchFetcher) {
+            this.searchFetcher = searchFetcher;
+            return this;
+        }
+
+        /**
+         * Sets the local index. It only answers queries once {@link CatalogSearchIndex#markRefreshed() refreshed}.
+         * Defaults to an empty index, filled from Steam responses until {@link IndexedSearchFetcher#rebuildIndex()}
+         * is called.
+         *
+         * @param index Catalog index
+         * @return This builder instance
+         */
+        public Builder index(CatalogSearchIndex index) {
+            this.index = index;
+            return this;
+        }
+
+        /**
+         * Sets the maximum age of the index for it to answer queries.
+         *
+         * @param maxAge Maximum age
+         * @return This builder instance
+         */
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link IndexedSearchFetcher}.
+         *
+         * @return New {@link IndexedSearchFetcher} instance
+         */
+        public @NotNull IndexedSearchFetcher build() {
+            if (searchFetcher == null) throw new IllegalStateException("searchFetcher is required");
+            if (index == null) index = new CatalogSearchIndex(searchFetcher.getAppID());
+
+            return new IndexedSearchFetcher(searchFetcher, index, maxAge, log);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive {@code int} keys to objects, e.g. from {@link ItemCatalog} handles to per-item state.
+ * <p>
+ * Keys and values live in two flat arrays with linear probing, so there are no boxed keys and no entry objects,
+ * and a lookup is usually a single array read. Removal shifts the following entries back instead of leaving
+ * tombstones. Not thread-safe.
+ *
+ * @param <V> Type of the values
+ */
+public class IntObjectMap<V> {
+
+    /** Marks an empty slot; the key 0 is kept out of the arrays */
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+
+    private Object[] values;
+
+    private int size;
+
+    private boolean hasZeroKey;
+
+    private Object zeroValue;
+
+    /**
+     * Constructs an empty map.
+     */
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty map sized for the given number of entries.
+     *
+     * @param expectedSize Expected number of entries
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * @param key Key to look up
+     * @return The value of the key, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == EMPTY) return hasZeroKey ? (V) zeroValue : null;
+
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int current = keys[slot];
+            if (current == key) return (V) values[slot];
+            if (current == EMPTY) return null;
+        }
+    }
+
+    /**
+     * @param key Key to look up
+     * @return {@code true} if the map holds the key
+     */
+    public boolean containsKey(int key) {
+        if (key == EMPTY) return hasZeroKey;
+        return get(key) != null;
+    }
+
+    /**
+     * Associates a value with a key.
+     *
+     * @param key   Key
+     * @param value Value, not {@code null}
+     * @return The previous value, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) throw new NullPointerException("Null values are not supported");
+
+        if (key == EMPTY) {
+            V previous = hasZeroKey ? (V) zeroValue : null;
+            if (!hasZeroKey) size++;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) grow();
+        return null;
+    }
+
+    /**
+     * Associates a value with a key unless the key already has one.
+     *
+     * @param key   Key
+     * @param value Value, not {@code null}
+     * @return The existing value, or {@code null} if the value was added
+     */
+    public V putIfAbsent(int key, V value) {
+        V existing = get(key);
+        if (existing != null) return existing;
+
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * @param key Key to remove
+     * @return The removed value, or {@code null} if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) return null;
+
+            V previous = (V) zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) return null;
+            slot = (slot + 1) & mask;
+        }
+
+        V previous = (V) values[slot];
+        size--;
+
+        // Move back every following entry whose probe sequence passes the freed slot.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        return previous;
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Passes every entry to the consumer, in no particular order. The map must not be modified meanwhile.
+     *
+     * @param consumer Receives the entries
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        if (hasZeroKey) consumer.accept(EMPTY, (V) zeroValue);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) consumer.accept(keys[slot], (V) values[slot]);
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+
+            int slot = mix(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Spreads dense keys such as catalog handles over the table.
+     */
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Receives the entries of an {@link IntObjectMap}.
+     *
+     * @param <V> Type of the values
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+}
@@ -0,0 +1,213 @@
+package com.rovnyi.steamApp.market.catalog;
+
+import com.rovnyi.steamApp.enums.AppID;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Interning table giving every (app, market hash name) pair a dense {@code int} handle.
+ * <p>
+ * Handles are assigned in insertion order starting at 0 and never change or get reused, so they can index plain
+ * arrays or key an {@link IntObjectMap} instead of hashing and comparing long names over and over. Every name is
+ * stored once, and {@link #getMarketHashName(int)} returns that single instance, so components sharing a catalog
+ * also share their name strings.
+ * <p>
+ * Using a catalog is opt-in: {@link com.rovnyi.steamApp.market.provider.CatalogIdProvider} is keyed by its handles,
+ * while the default ID stores, caches, watchlists and history keep keying items by name. A catalog never forgets
+ * an item, so it suits stores of a known, slowly growing item set rather than short-lived subscriptions.
+ * <p>
+ * Lookups of known items do not lock: the open-addressing slot table is read with volatile semantics and
+ * replaced, never mutated in place, when it grows. Interning a new item is serialized. A catalog can be saved and
+ * loaded to keep handles stable across restarts, e.g. when they are stored on disk.
+ */
+public class ItemCatalog {
+
+    private static final int NOT_FOUND = -1;
+
+    /** Slot table holding {@code handle + 1}, 0 for an empty slot; the length is a power of two */
+    private volatile AtomicIntegerArray slots = new AtomicIntegerArray(64);
+
+    private volatile String[] names = new String[32];
+
+    private volatile AppID[] apps = new AppID[32];
+
+    private volatile int size;
+
+    /**
+     * Returns the handle of an item, assigning the next free one if the item is new.
+     *
+     * @param appID          The item's app
+     * @param marketHashName The item's market hash name
+     * @return The item's handle
+     */
+    public int intern(AppID appID, String marketHashName) {
+        int handle = find(slots, appID, marketHashName);
+        if (handle != NOT_FOUND) return handle;
+
+        synchronized (this) {
+            handle = find(slots, appID, marketHashName);
+            if (handle != NOT_FOUND) return handle;
+            return append(appID, marketHashName);
+        }
+    }
+
+    /**
+     * @param appID          The item's app
+     * @param marketHashName The item's market hash name
+     * @return The item's handle, or -1 if it was never interned
+     */
+    public int handleOf(AppID appID, String marketHashName) {
+        while (true) {
+            AtomicIntegerArray table = slots;
+            int handle = find(table, appID, marketHashName);
+
+            // A miss only counts if the table was not replaced meanwhile; the item may have moved to the new one.
+            if (handle != NOT_FOUND || slots == table) return handle;
+        }
+    }
+
+    /**
+     * @param handle Item handle
+     * @return The item's market hash name
+     * @throws IndexOutOfBoundsException if the handle is not assigned
+     */
+    public String getMarketHashName(int handle) {
+        checkHandle(handle);
+        return names[handle];
+    }
+
+    /**
+     * @param handle Item handle
+     * @return The item's app
+     * @throws IndexOutOfBoundsException if the handle is not assigned
+     */
+    public AppID getAppID(int handle) {
+        checkHandle(handle);
+        return apps[handle];
+    }
+
+    /**
+     * @return Number of interned items, which is also the next handle to be assigned
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the catalog to a file, replacing it atomically.
+     *
+     * @param file Target file
+     * @throws IOException if writing fails
+     */
+    public void save(Path file) throws IOException {
+        String[] savedNames;
+        AppID[] savedApps;
+        int count;
+        synchronized (this) {
+            count = size;
+            savedNames = Arrays.copyOf(names, count);
+            savedApps = Arrays.copyOf(apps, count);
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(savedApps[i].getID());
+                out.writeUTF(savedNames[i]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a catalog written by {@link #save(Path)}; every item gets back its saved handle.
+     *
+     * @param file Catalog file
+     * @return The loaded catalog, or an empty one if the file does not exist
+     * @throws IOException if reading fails or the file names an unknown app
+     */
+    public static ItemCatalog load(Path file) throws IOException {
+        ItemCatalog catalog = new ItemCatalog();
+        if (!Files.exists(file)) return catalog;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int appId = in.readInt();
+                AppID appID = AppID.getEnum(appId).orElseThrow(() -> new IOException("Unknown app id " + appId + " in " + file));
+                catalog.intern(appID, in.readUTF());
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated item catalog " + file, e);
+        }
+        return catalog;
+    }
+
+    private int find(AtomicIntegerArray table, AppID appID, String marketHashName) {
+        int mask = table.length() - 1;
+        for (int slot = hash(appID, marketHashName) & mask; ; slot = (slot + 1) & mask) {
+            int value = table.get(slot);
+            if (value == 0) return NOT_FOUND;
+
+            // The slot was written after the arrays, so the volatile slot read makes their entries visible.
+            int handle = value - 1;
+            if (apps[handle] == appID && names[handle].equals(marketHashName)) return handle;
+        }
+    }
+
+    private int append(AppID appID, String marketHashName) {
+        int handle = size;
+        if (handle == names.length) {
+            names = Arrays.copyOf(names, handle * 2);
+            apps = Arrays.copyOf(apps, handle * 2);
+        }
+        names[handle] = marketHashName;
+        apps[handle] = appID;
+        size = handle + 1;
+
+        AtomicIntegerArray table = slots;
+        if ((handle + 1) * 2 > table.length()) {
+            table = new AtomicIntegerArray(table.length() * 2);
+            for (int i = 0; i < handle; i++) {
+                insert(table, i);
+            }
+            insert(table, handle);
+            slots = table;
+        } else {
+            insert(table, handle);
+        }
+        return handle;
+    }
+
+    private void insert(AtomicIntegerArray table, int handle) {
+        int mask = table.length() - 1;
+        int slot = hash(apps[handle], names[handle]) & mask;
+        while (table.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.set(slot, handle + 1);
+    }
+
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) throw new IndexOutOfBoundsException("Unknown item handle " + handle);
+    }
+
+    private static int hash(AppID appID, String marketHashName) {
+        int h = marketHashName.hashCode() * 31 + appID.ordinal();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
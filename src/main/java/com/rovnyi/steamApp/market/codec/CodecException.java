@@ -0,0 +1,28 @@
+package com.rovnyi.steamApp.market.codec;
+
+/**
+ * Exception thrown when binary data cannot be decoded.
+ * <p>
+ * Used by {@link OverviewCodec} to indicate truncated or corrupted input, or a reference to a name
+ * missing from the {@link NameTable}.
+ */
+public class CodecException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code CodecException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public CodecException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code CodecException} with the specified cause.
+     *
+     * @param cause the underlying {@link Throwable} that caused this exception
+     */
+    public CodecException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,170 @@
+package com.rovnyi.steamApp.market.codec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only table assigning dense integer ids to strings such as market hash names and icon URLs.
+ * <p>
+ * An {@link OverviewCodec} using a table writes each name as a 4-byte id instead of its text. The encoding and the
+ * decoding side must see the same ids: share one instance within a process, or ship the table to the other side,
+ * either whole with {@link #save(Path)} / {@link #load(Path)}, or incrementally with {@link #namesFrom(int)} and
+ * {@link #addAll(int, List)}. Ids are assigned in insertion order and never change.
+ * <p>
+ * Thread-safe; lookups do not lock.
+ */
+public class NameTable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private volatile String[] names = new String[16];
+
+    private volatile int size;
+
+    /**
+     * Returns the id of a name, assigning the next free one if the name is new.
+     *
+     * @param name Name to intern
+     * @return The name's id
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) return id;
+            return append(name);
+        }
+    }
+
+    /**
+     * @param name Name to look up
+     * @return The name's id, or -1 if it was never interned
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id Name id
+     * @return The name, or {@code null} if the id is not assigned
+     */
+    public String get(int id) {
+        // Reading the size first makes the names written before it visible.
+        int current = size;
+        return id >= 0 && id < current ? names[id] : null;
+    }
+
+    /**
+     * @return Number of interned names, which is also the next id to be assigned
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the names added since a given id, e.g. to send only the new part of the table to another node.
+     *
+     * @param fromId First id to return
+     * @return Names with ids {@code fromId}, {@code fromId + 1}, ...
+     */
+    public synchronized List<String> namesFrom(int fromId) {
+        List<String> result = new ArrayList<>(Math.max(0, size - fromId));
+        for (int id = Math.max(0, fromId); id < size; id++) {
+            result.add(names[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Adds names received from another table, continuing at the given id. Names already known up to the current
+     * size are skipped, so the same part may be received more than once.
+     *
+     * @param fromId Id of the first name
+     * @param added  Names with ids {@code fromId}, {@code fromId + 1}, ...
+     * @throws CodecException if the names do not continue this table
+     */
+    public synchronized void addAll(int fromId, List<String> added) {
+        if (fromId > size) throw new CodecException("Names from id " + fromId + " do not continue a table of size " + size);
+
+        for (int i = 0; i < added.size(); i++) {
+            int id = fromId + i;
+            String name = added.get(i);
+
+            if (id < size) {
+                if (!names[id].equals(name)) throw new CodecException("Name id " + id + " is already assigned to another name");
+                continue;
+            }
+            if (ids.containsKey(name)) throw new CodecException("Name \"" + name + "\" already has id " + ids.get(name));
+            append(name);
+        }
+    }
+
+    /**
+     * Writes the table to a file, replacing it atomically.
+     *
+     * @param file Target file
+     * @throws IOException if writing fails
+     */
+    public void save(Path file) throws IOException {
+        List<String> snapshot = namesFrom(0);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(snapshot.size());
+            for (String name : snapshot) {
+                out.writeUTF(name);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a table written by {@link #save(Path)}.
+     *
+     * @param file Table file
+     * @return The loaded table, or an empty one if the file does not exist
+     * @throws IOException if reading fails
+     */
+    public static NameTable load(Path file) throws IOException {
+        NameTable table = new NameTable();
+        if (!Files.exists(file)) return table;
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream data = new DataInputStream(in);
+            int count = data.readInt();
+            List<String> loaded = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                loaded.add(data.readUTF());
+            }
+            table.addAll(0, loaded);
+        } catch (EOFException e) {
+            throw new CodecException("Truncated name table " + file);
+        }
+        return table;
+    }
+
+    private int append(String name) {
+        int id = size;
+        if (id == names.length) names = Arrays.copyOf(names, id * 2);
+        names[id] = name;
+        ids.put(name, id);
+        size = id + 1;
+        return id;
+    }
+}
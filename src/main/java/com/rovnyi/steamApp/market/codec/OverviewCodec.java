@@ -0,0 +1,468 @@
+package com.rovnyi.steamApp.market.codec;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOrdersHistogram;
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import com.rovnyi.steamApp.market.fetcher.PriceOverview;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary format of {@link ItemOverview}, {@link PriceOverview} and {@link ItemOrdersHistogram}.
+ * <p>
+ * Prices are stored as integer minor units (e.g. cents). The scalar fields sit at fixed offsets at the start of a
+ * record, so {@link #view(ByteBuffer)} can read them straight from the buffer without decoding the rest; order levels
+ * follow as packed varint arrays (price steps and quantities), which usually take two or three bytes per level.
+ * Names and icon URLs are written inline, or as ids of a shared {@link NameTable}.
+ * <p>
+ * Overview layout (big-endian):
+ * <pre>
+ * 0   type:byte  flags:byte  minorUnits:short
+ * 4   fetchedAtEpochSecond:long  fetchedAtNano:int
+ * 16  lowestPrice:long  medianPrice:long  volume:int
+ * 36  highestBuyOrder:long  buyLevels:int  sellLevels:int
+ * 52  name  [iconUrl]  buyLevels  sellLevels
+ * </pre>
+ * The fetch time is the {@link ItemOverview#getFetchedInstant() instant} of the fetch, so it means the same on nodes
+ * in different time zones. A string is a name id (int) with a name table, and otherwise a varint length followed by UTF-8 bytes. A level
+ * list is a sequence of {@code priceStep:svarint quantity:varint} pairs, each price relative to the previous one.
+ * <p>
+ * Decoding reads straight from the given buffer, which may be a heap, direct or memory-mapped one, and leaves its
+ * position after the record. Thread-safe.
+ */
+public class OverviewCodec {
+
+    static final byte OVERVIEW = 1;
+
+    static final byte PRICE = 2;
+
+    static final byte ORDERS = 3;
+
+    static final int PRICE_SUCCESS = 1;
+
+    static final int ORDERS_SUCCESS = 1 << 1;
+
+    static final int HAS_ICON = 1 << 2;
+
+    static final int INTERNED = 1 << 3;
+
+    static final int HEADER_LENGTH = 52;
+
+    private final int minorUnits;
+
+    private final NameTable names;
+
+    /**
+     * Constructs a codec writing names inline and prices in cents.
+     */
+    public OverviewCodec() {
+        this(100, null);
+    }
+
+    /**
+     * Constructs a codec.
+     *
+     * @param minorUnits Minor units per currency unit (100 for cents), at most 65535
+     * @param names      Table of name ids shared with the decoding side, or {@code null} to write names inline
+     */
+    public OverviewCodec(int minorUnits, NameTable names) {
+        if (minorUnits < 1 || minorUnits > 0xFFFF) throw new IllegalArgumentException("Minor units must be between 1 and 65535");
+
+        this.minorUnits = minorUnits;
+        this.names = names;
+    }
+
+    /**
+     * Encodes an overview into a new array of the exact size.
+     *
+     * @param overview Overview to encode
+     * @return Encoded record
+     */
+    public byte[] encode(ItemOverview overview) {
+        Encoded encoded = prepare(overview);
+        ByteBuffer buffer = ByteBuffer.allocate(encoded.length);
+        write(encoded, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Encodes an overview at the buffer's position and advances it.
+     *
+     * @param overview Overview to encode
+     * @param buffer   Target buffer
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space left; see {@link #encodedLength}
+     */
+    public void encode(ItemOverview overview, ByteBuffer buffer) {
+        write(prepare(overview), buffer);
+    }
+
+    /**
+     * @param overview Overview to encode
+     * @return Size of its encoded record in bytes
+     */
+    public int encodedLength(ItemOverview overview) {
+        return prepare(overview).length;
+    }
+
+    /**
+     * Decodes an overview at the buffer's position and advances it past the record.
+     *
+     * @param buffer Buffer holding an encoded overview
+     * @return Decoded overview
+     */
+    public ItemOverview decode(ByteBuffer buffer) {
+        OverviewView view = view(buffer);
+        ItemOverview overview = view.toOverview();
+        buffer.position(buffer.position() + view.getLength());
+        return overview;
+    }
+
+    /**
+     * Decodes an overview from an array.
+     *
+     * @param bytes Encoded overview
+     * @return Decoded overview
+     */
+    public ItemOverview decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Returns a flyweight over the encoded overview at the buffer's position, without decoding or copying it.
+     * The buffer's position is not changed.
+     *
+     * @param buffer Buffer holding an encoded overview
+     * @return View reading fields on demand
+     */
+    public OverviewView view(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (data.remaining() < HEADER_LENGTH || data.get(data.position()) != OVERVIEW) {
+            throw new CodecException("Not an encoded overview at offset " + data.position());
+        }
+        return new OverviewView(this, data, data.position());
+    }
+
+    /**
+     * Encodes a price overview.
+     *
+     * @param price Price overview to encode
+     * @return Encoded record
+     */
+    public byte[] encode(PriceOverview price) {
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.put(PRICE);
+        buffer.put((byte) (price.isSuccess() ? PRICE_SUCCESS : 0));
+        buffer.putShort((short) minorUnits);
+        buffer.putLong(toMinor(price.getLowestPrice()));
+        buffer.putLong(toMinor(price.getMedianPrice()));
+        buffer.putInt(price.getVolume());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a price overview at the buffer's position and advances it past the record.
+     *
+     * @param buffer Buffer holding an encoded price overview
+     * @return Decoded price overview
+     */
+    public PriceOverview decodePrice(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (data.get() != PRICE) throw new CodecException("Not an encoded price overview at offset " + buffer.position());
+            boolean success = (data.get() & PRICE_SUCCESS) != 0;
+            int units = Short.toUnsignedInt(data.getShort());
+            long lowest = data.getLong();
+            long median = data.getLong();
+            int volume = data.getInt();
+            buffer.position(data.position());
+            return new PriceOverview(success, (double) lowest / units, volume, (double) median / units);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new CodecException(e);
+        }
+    }
+
+    /**
+     * Encodes an order histogram.
+     *
+     * @param orders Histogram to encode
+     * @return Encoded record
+     */
+    public byte[] encode(ItemOrdersHistogram orders) {
+        Levels buy = Levels.of(orders.isSuccess() ? orders.getBuyOrderGraph() : null, this);
+        Levels sell = Levels.of(orders.isSuccess() ? orders.getSellOrderGraph() : null, this);
+
+        ByteBuffer buffer = ByteBuffer.allocate(20 + buy.length + sell.length);
+        buffer.put(ORDERS);
+        buffer.put((byte) (orders.isSuccess() ? ORDERS_SUCCESS : 0));
+        buffer.putShort((short) minorUnits);
+        buffer.putLong(orders.isSuccess() ? toMinor(orders.getHighestBuyOrder()) : 0);
+        buffer.putInt(buy.count);
+        buffer.putInt(sell.count);
+        buy.write(buffer);
+        sell.write(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an order histogram at the buffer's position and advances it past the record.
+     *
+     * @param buffer Buffer holding an encoded histogram
+     * @return Decoded histogram
+     */
+    public ItemOrdersHistogram decodeOrders(ByteBuffer buffer) {
+        ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (data.get() != ORDERS) throw new CodecException("Not an encoded histogram at offset " + buffer.position());
+            boolean success = (data.get() & ORDERS_SUCCESS) != 0;
+            int units = Short.toUnsignedInt(data.getShort());
+            long highestBuy = data.getLong();
+            int buyCount = data.getInt();
+            int sellCount = data.getInt();
+            Map<Double, Integer> buy = readLevels(data, buyCount, units);
+            Map<Double, Integer> sell = readLevels(data, sellCount, units);
+            buffer.position(data.position());
+
+            return success
+                    ? new ItemOrdersHistogram((double) highestBuy / units, buy, sell)
+                    : new ItemOrdersHistogram(Map.of("success", 0));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new CodecException(e);
+        }
+    }
+
+    /**
+     * @return Minor units per currency unit written by this codec
+     */
+    public int getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * @return Shared name table, or {@code null} if names are written inline
+     */
+    public NameTable getNames() {
+        return names;
+    }
+
+    /**
+     * Reads a name written by {@link #writeString}; {@code data} must be positioned at it.
+     */
+    String readString(ByteBuffer data, boolean interned) {
+        if (interned) {
+            int id = data.getInt();
+            if (names == null) throw new CodecException("Record references name id " + id + " but the codec has no name table");
+
+            String name = names.get(id);
+            if (name == null) throw new CodecException("Unknown name id " + id);
+            return name;
+        }
+
+        int length = (int) readUnsigned(data);
+        String value;
+        if (data.hasArray()) {
+            value = new String(data.array(), data.arrayOffset() + data.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            data.get(data.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        data.position(data.position() + length);
+        return value;
+    }
+
+    /**
+     * Moves {@code data} past a name written by {@link #writeString}.
+     */
+    static void skipString(ByteBuffer data, boolean interned) {
+        if (interned) {
+            data.position(data.position() + 4);
+        } else {
+            int length = (int) readUnsigned(data);
+            data.position(data.position() + length);
+        }
+    }
+
+    static Map<Double, Integer> readLevels(ByteBuffer data, int count, int units) {
+        Map<Double, Integer> graph = new LinkedHashMap<>();
+        long price = 0;
+        for (int i = 0; i < count; i++) {
+            price += readSigned(data);
+            int quantity = (int) readUnsigned(data);
+            graph.merge((double) price / units, quantity, Integer::sum);
+        }
+        return graph;
+    }
+
+    static void skipLevels(ByteBuffer data, int count) {
+        for (int i = 0; i < count * 2; i++) {
+            while ((data.get() & 0x80) != 0) {
+                // Skip the varint's continuation bytes.
+            }
+        }
+    }
+
+    private Encoded prepare(ItemOverview overview) {
+        PriceOverview price = overview.getPrice();
+        ItemOrdersHistogram orders = overview.getOrders();
+
+        Encoded encoded = new Encoded();
+        encoded.overview = overview;
+        encoded.name = stringBytes(overview.getMarketHashName());
+        encoded.icon = overview.getIconUrl() == null ? null : stringBytes(overview.getIconUrl());
+        encoded.buy = Levels.of(orders.isSuccess() ? orders.getBuyOrderGraph() : null, this);
+        encoded.sell = Levels.of(orders.isSuccess() ? orders.getSellOrderGraph() : null, this);
+        encoded.flags = (price.isSuccess() ? PRICE_SUCCESS : 0)
+                        | (orders.isSuccess() ? ORDERS_SUCCESS : 0)
+                        | (encoded.icon != null ? HAS_ICON : 0)
+                        | (names != null ? INTERNED : 0);
+        encoded.length = HEADER_LENGTH + stringLength(encoded.name) + (encoded.icon == null ? 0 : stringLength(encoded.icon))
+                         + encoded.buy.length + encoded.sell.length;
+        return encoded;
+    }
+
+    private void write(Encoded encoded, ByteBuffer target) {
+        ItemOverview overview = encoded.overview;
+        PriceOverview price = overview.getPrice();
+        ItemOrdersHistogram orders = overview.getOrders();
+        Instant fetchedAt = overview.getFetchedInstant();
+
+        ByteBuffer buffer = target.duplicate().order(ByteOrder.BIG_ENDIAN);
+        buffer.put(OVERVIEW);
+        buffer.put((byte) encoded.flags);
+        buffer.putShort((short) minorUnits);
+        buffer.putLong(fetchedAt.getEpochSecond());
+        buffer.putInt(fetchedAt.getNano());
+        buffer.putLong(price.isSuccess() ? toMinor(price.getLowestPrice()) : 0);
+        buffer.putLong(price.isSuccess() ? toMinor(price.getMedianPrice()) : 0);
+        buffer.putInt(price.isSuccess() ? price.getVolume() : 0);
+        buffer.putLong(orders.isSuccess() ? toMinor(orders.getHighestBuyOrder()) : 0);
+        buffer.putInt(encoded.buy.count);
+        buffer.putInt(encoded.sell.count);
+        writeString(buffer, encoded.name);
+        if (encoded.icon != null) writeString(buffer, encoded.icon);
+        encoded.buy.write(buffer);
+        encoded.sell.write(buffer);
+
+        target.position(buffer.position());
+    }
+
+    /**
+     * @return The name's id as a 4-byte array with a name table, and its UTF-8 bytes otherwise
+     */
+    private byte[] stringBytes(String value) {
+        if (names == null) return value.getBytes(StandardCharsets.UTF_8);
+
+        int id = names.intern(value);
+        return new byte[]{(byte) (id >>> 24), (byte) (id >>> 16), (byte) (id >>> 8), (byte) id};
+    }
+
+    private int stringLength(byte[] bytes) {
+        return names == null ? unsignedLength(bytes.length) + bytes.length : 4;
+    }
+
+    private void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (names == null) writeUnsigned(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private long toMinor(double price) {
+        return Math.round(price * minorUnits);
+    }
+
+    static void writeUnsigned(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long readUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new CodecException("Malformed varint");
+    }
+
+    static long readSigned(ByteBuffer buffer) {
+        long value = readUnsigned(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int unsignedLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * An overview with its variable-length parts already converted, so its size is known before writing.
+     */
+    private static final class Encoded {
+        private ItemOverview overview;
+        private int flags;
+        private byte[] name;
+        private byte[] icon;
+        private Levels buy;
+        private Levels sell;
+        private int length;
+    }
+
+    /**
+     * Order levels as minor-unit price steps and quantities.
+     */
+    private static final class Levels {
+        private static final Levels EMPTY = new Levels(new long[0], new int[0], 0);
+
+        private final long[] steps;
+        private final int[] quantities;
+        private final int count;
+        private final int length;
+
+        private Levels(long[] steps, int[] quantities, int length) {
+            this.steps = steps;
+            this.quantities = quantities;
+            this.count = steps.length;
+            this.length = length;
+        }
+
+        static Levels of(Map<Double, Integer> graph, OverviewCodec codec) {
+            if (graph == null || graph.isEmpty()) return EMPTY;
+
+            long[] steps = new long[graph.size()];
+            int[] quantities = new int[graph.size()];
+            int length = 0;
+            long previous = 0;
+            int i = 0;
+
+            for (Map.Entry<Double, Integer> level : graph.entrySet()) {
+                long price = codec.toMinor(level.getKey());
+                long step = price - previous;
+                steps[i] = (step << 1) ^ (step >> 63);
+                quantities[i] = level.getValue();
+                length += unsignedLength(steps[i]) + unsignedLength(Integer.toUnsignedLong(quantities[i]));
+                previous = price;
+                i++;
+            }
+            return new Levels(steps, quantities, length);
+        }
+
+        void write(ByteBuffer buffer) {
+            for (int i = 0; i < count; i++) {
+                writeUnsigned(buffer, steps[i]);
+                writeUnsigned(buffer, Integer.toUnsignedLong(quantities[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.rovnyi.steamApp.market.codec;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOrdersHistogram;
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import com.rovnyi.steamApp.market.fetcher.PriceOverview;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only view of an overview encoded by {@link OverviewCodec}, reading each field from the buffer when asked.
+ * <p>
+ * Scalar getters are single reads at fixed offsets, so scanning many records for e.g. their prices never builds
+ * an {@link ItemOverview} or its order maps. The view stays valid as long as the underlying bytes are unchanged.
+ */
+public class OverviewView {
+
+    private final OverviewCodec codec;
+
+    private final ByteBuffer data;
+
+    private final int offset;
+
+    private final int flags;
+
+    private final int minorUnits;
+
+    private final int namesOffset;
+
+    /** Offset of the order levels, computed on first use */
+    private int levelsOffset = -1;
+
+    private int length = -1;
+
+    OverviewView(OverviewCodec codec, ByteBuffer data, int offset) {
+        this.codec = codec;
+        this.data = data;
+        this.offset = offset;
+        this.flags = data.get(offset + 1);
+        this.minorUnits = Short.toUnsignedInt(data.getShort(offset + 2));
+        this.namesOffset = offset + OverviewCodec.HEADER_LENGTH;
+    }
+
+    /**
+     * @return Instant the overview was fetched
+     */
+    public Instant getFetchedInstant() {
+        return Instant.ofEpochSecond(data.getLong(offset + 4), data.getInt(offset + 12));
+    }
+
+    /**
+     * @return Time the overview was fetched, in the system time zone
+     */
+    public LocalDateTime getFetchedAt() {
+        return LocalDateTime.ofInstant(getFetchedInstant(), ZoneId.systemDefault());
+    }
+
+    /**
+     * @return {@code true} if the price request succeeded
+     */
+    public boolean isPriceSuccess() {
+        return (flags & OverviewCodec.PRICE_SUCCESS) != 0;
+    }
+
+    /**
+     * @return {@code true} if the order histogram request succeeded
+     */
+    public boolean isOrdersSuccess() {
+        return (flags & OverviewCodec.ORDERS_SUCCESS) != 0;
+    }
+
+    /**
+     * @return Lowest listed price
+     */
+    public double getLowestPrice() {
+        return (double) data.getLong(offset + 16) / minorUnits;
+    }
+
+    /**
+     * @return Median sale price
+     */
+    public double getMedianPrice() {
+        return (double) data.getLong(offset + 24) / minorUnits;
+    }
+
+    /**
+     * @return Number of items sold in the last 24 hours
+     */
+    public int getVolume() {
+        return data.getInt(offset + 32);
+    }
+
+    /**
+     * @return Highest buy order
+     */
+    public double getHighestBuyOrder() {
+        return (double) data.getLong(offset + 36) / minorUnits;
+    }
+
+    /**
+     * @return Number of buy order levels
+     */
+    public int getBuyLevelCount() {
+        return data.getInt(offset + 44);
+    }
+
+    /**
+     * @return Number of sell order levels
+     */
+    public int getSellLevelCount() {
+        return data.getInt(offset + 48);
+    }
+
+    /**
+     * @return The item's market hash name
+     */
+    public String getMarketHashName() {
+        return read(() -> codec.readString(data.duplicate().position(namesOffset), interned()));
+    }
+
+    /**
+     * @return The item's icon URL, or {@code null} if the overview has none
+     */
+    public String getIconUrl() {
+        if ((flags & OverviewCodec.HAS_ICON) == 0) return null;
+
+        return read(() -> {
+            ByteBuffer cursor = data.duplicate().position(namesOffset);
+            OverviewCodec.skipString(cursor, interned());
+            return codec.readString(cursor, interned());
+        });
+    }
+
+    /**
+     * @return Size of the encoded record in bytes
+     */
+    public int getLength() {
+        if (length < 0) {
+            read(() -> {
+                ByteBuffer cursor = data.duplicate().position(levelsOffset());
+                OverviewCodec.skipLevels(cursor, getBuyLevelCount() + getSellLevelCount());
+                length = cursor.position() - offset;
+                return null;
+            });
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the whole record.
+     *
+     * @return New {@link ItemOverview}
+     */
+    public ItemOverview toOverview() {
+        return read(() -> {
+            ByteBuffer cursor = data.duplicate().position(levelsOffset());
+            Map<Double, Integer> buy = OverviewCodec.readLevels(cursor, getBuyLevelCount(), minorUnits);
+            Map<Double, Integer> sell = OverviewCodec.readLevels(cursor, getSellLevelCount(), minorUnits);
+            length = cursor.position() - offset;
+
+            PriceOverview price = new PriceOverview(isPriceSuccess(), getLowestPrice(), getVolume(), getMedianPrice());
+            ItemOrdersHistogram orders = isOrdersSuccess()
+                    ? new ItemOrdersHistogram(getHighestBuyOrder(), buy, sell)
+                    : new ItemOrdersHistogram(Map.of("success", 0));
+            return new ItemOverview(price, orders, getMarketHashName(), getFetchedInstant(), getIconUrl());
+        });
+    }
+
+    private int levelsOffset() {
+        if (levelsOffset < 0) {
+            ByteBuffer cursor = data.duplicate().position(namesOffset);
+            OverviewCodec.skipString(cursor, interned());
+            if ((flags & OverviewCodec.HAS_ICON) != 0) OverviewCodec.skipString(cursor, interned());
+            levelsOffset = cursor.position();
+        }
+        return levelsOffset;
+    }
+
+    private boolean interned() {
+        return (flags & OverviewCodec.INTERNED) != 0;
+    }
+
+    /**
+     * Runs a read of the variable-length part, reporting a record cut short as a {@link CodecException}.
+     */
+    private static <T> T read(Supplier<T> reader) {
+        try {
+            return reader.get();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new CodecException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OverviewView{" +
+               "marketHashName='" + getMarketHashName() + '\'' +
+               ", fetchedAt=" + getFetchedInstant() +
+               ", lowestPrice=" + getLowestPrice() +
+               ", medianPrice=" + getMedianPrice() +
+               ", volume=" + getVolume() +
+               ", highestBuyOrder=" + getHighestBuyOrder() +
+               '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+/**
+ * Result of a fetch together with whether the response differed from the previous one.
+ * <p>
+ * When {@link #isUnchanged()} is {@code true}, the response body was byte-identical to the previous response for the
+ * same item and {@link #getValue()} is the very object returned last time, so callers may skip any further work.
+ *
+ * @param <T> Type of the fetched data
+ */
+public class FetchResult<T> {
+
+    private final T value;
+
+    private final boolean unchanged;
+
+    private final long fingerprint;
+
+    private FetchResult(T value, boolean unchanged, long fingerprint) {
+        this.value = value;
+        this.unchanged = unchanged;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @param value       Freshly parsed data
+     * @param fingerprint Fingerprint of the response body
+     * @return Result of a response that differed from the previous one
+     */
+    public static <T> FetchResult<T> changed(T value, long fingerprint) {
+        return new FetchResult<>(value, false, fingerprint);
+    }
+
+    /**
+     * @param value       Data reused from the previous response
+     * @param fingerprint Fingerprint of the response body
+     * @return Result of a response identical to the previous one
+     */
+    public static <T> FetchResult<T> unchanged(T value, long fingerprint) {
+        return new FetchResult<>(value, true, fingerprint);
+    }
+
+    /**
+     * @return Fetched data
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * @return {@code true} if the response was identical to the previous one
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return Fingerprint of the response body; for combined results, a combination of the parts' fingerprints
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return "FetchResult{" +
+               "value=" + value +
+               ", unchanged=" + unchanged +
+               '}';
+    }
+}
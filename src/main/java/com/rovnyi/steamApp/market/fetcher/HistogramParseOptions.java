@@ -0,0 +1,136 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Controls how much of an order book {@link ItemOrdersHistogramFetcher} keeps while parsing a response.
+ * <p>
+ * Levels can be limited to the best {@code maxLevels} per side, and can be merged into price buckets: each bucket
+ * spans a fixed width of price, either absolute or relative to the side's best price, counted away from the spread.
+ * A bucket is keyed by the price of its best level and holds the summed quantity of all its levels. With buckets,
+ * {@code maxLevels} limits the number of buckets.
+ * <p>
+ * The parser stops materializing levels once the limit is reached, so the work per response follows the requested
+ * depth rather than the depth of the market.
+ */
+public class HistogramParseOptions {
+
+    /** Keeps every level of both sides, as returned by Steam */
+    public static final HistogramParseOptions FULL = new HistogramParseOptions(Integer.MAX_VALUE, 0, false);
+
+    private final int maxLevels;
+
+    private final double bucketWidth;
+
+    private final boolean relativeBuckets;
+
+    /**
+     * @param maxLevels       Maximum number of levels (or buckets) kept per side
+     * @param bucketWidth     Width of a price bucket, or 0 to keep individual levels
+     * @param relativeBuckets {@code true} if the width is a fraction of the best price (0.01 for 1% bands)
+     */
+    public HistogramParseOptions(int maxLevels, double bucketWidth, boolean relativeBuckets) {
+        if (maxLevels < 1) throw new IllegalArgumentException("maxLevels must be positive");
+        if (bucketWidth < 0) throw new IllegalArgumentException("bucketWidth must not be negative");
+
+        this.maxLevels = maxLevels;
+        this.bucketWidth = bucketWidth;
+        this.relativeBuckets = relativeBuckets;
+    }
+
+    /**
+     * @return Maximum number of levels (or buckets) kept per side
+     */
+    public int getMaxLevels() {
+        return maxLevels;
+    }
+
+    /**
+     * @return Width of a price bucket, or 0 if levels are not bucketed
+     */
+    public double getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * @return {@code true} if the bucket width is a fraction of the best price
+     */
+    public boolean isRelativeBuckets() {
+        return relativeBuckets;
+    }
+
+    /**
+     * @return {@code true} if levels are merged into buckets
+     */
+    public boolean isBucketed() {
+        return bucketWidth > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramParseOptions{" +
+               "maxLevels=" + maxLevels +
+               ", bucketWidth=" + bucketWidth +
+               ", relativeBuckets=" + relativeBuckets +
+               '}';
+    }
+
+    /**
+     * Builder for {@link HistogramParseOptions}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Max levels = unlimited</li>
+     *     <li>Buckets = none</li>
+     * </ul>
+     */
+    public static class Builder {
+        private int maxLevels = Integer.MAX_VALUE;
+        private double bucketWidth = 0;
+        private boolean relativeBuckets = false;
+
+        /**
+         * Keeps only the best levels (or buckets) of each side.
+         *
+         * @param maxLevels Maximum number of levels per side
+         * @return This builder instance
+         */
+        public Builder maxLevels(int maxLevels) {
+            this.maxLevels = maxLevels;
+            return this;
+        }
+
+        /**
+         * Merges levels into buckets of a fixed price width.
+         *
+         * @param width Bucket width in currency units, e.g. 0.10
+         * @return This builder instance
+         */
+        public Builder priceBuckets(double width) {
+            this.bucketWidth = width;
+            this.relativeBuckets = false;
+            return this;
+        }
+
+        /**
+         * Merges levels into bands of a fixed share of the side's best price.
+         *
+         * @param percent Band width in percent of the best price, e.g. 1 for 1% bands
+         * @return This builder instance
+         */
+        public Builder percentBuckets(double percent) {
+            this.bucketWidth = percent / 100;
+            this.relativeBuckets = true;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link HistogramParseOptions}.
+         *
+         * @return New {@link HistogramParseOptions} instance
+         */
+        public @NotNull HistogramParseOptions build() {
+            return new HistogramParseOptions(maxLevels, bucketWidth, relativeBuckets);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming parser of {@code /itemordershistogram} responses honoring {@link HistogramParseOptions}.
+ * <p>
+ * Unlike binding the whole body to a {@link Map}, the order graphs are read token by token: only the kept levels
+ * become map entries, and the remainder of a graph is skipped as soon as its level limit is reached. Fields the
+ * histogram does not use, such as the prerendered HTML tables, are skipped without being materialized.
+ */
+class HistogramParser {
+
+    private final JsonFactory factory;
+
+    private final HistogramParseOptions options;
+
+    private final Logger log;
+
+    HistogramParser(JsonFactory factory, HistogramParseOptions options, Logger log) {
+        this.factory = factory;
+        this.options = options;
+        this.log = log;
+    }
+
+    /**
+     * Parses a response body.
+     *
+     * @param bytes  Buffer holding the body
+     * @param offset Offset of the body in the buffer
+     * @param length Length of the body
+     * @return Parsed histogram, or {@code null} if the response is incomplete
+     * @throws IOException if the body is not valid JSON
+     */
+    ItemOrdersHistogram parse(byte[] bytes, int offset, int length) throws IOException {
+        try (JsonParser parser = factory.createParser(bytes, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            int fields = 0;
+            boolean success = false;
+            double highestBuyOrder = 0;
+            Map<Double, Integer> buy = Map.of();
+            Map<Double, Integer> sell = Map.of();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                fields++;
+
+                switch (field) {
+                    case "success" -> success = value == JsonToken.VALUE_NUMBER_INT && parser.getIntValue() == 1;
+                    case "highest_buy_order" -> highestBuyOrder = value == JsonToken.VALUE_STRING
+                            ? ItemOrdersHistogram.extractValueDouble(parser.getText(), log)
+                            : 0;
+                    case "buy_order_graph" -> buy = readGraph(parser, true);
+                    case "sell_order_graph" -> sell = readGraph(parser, false);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (fields < 2) return null;
+            if (!success) return new ItemOrdersHistogram(Map.of("success", 0), log);
+            return new ItemOrdersHistogram(highestBuyOrder, buy, sell);
+        }
+    }
+
+    /**
+     * Reads an order graph of {@code [price, cumulative quantity, label]} entries, best price first.
+     * <p>
+     * Entries whose price or quantity is not a number are skipped; their orders are counted towards the next level.
+     *
+     * @param parser Parser positioned at the start of the graph
+     * @param buy    {@code true} for the buy side, where prices decrease away from the spread
+     * @return Kept levels: price - order count
+     */
+    private Map<Double, Integer> readGraph(JsonParser parser, boolean buy) throws IOException {
+        Map<Double, Integer> graph = new LinkedHashMap<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return graph;
+        }
+
+        int maxLevels = options.getMaxLevels();
+        boolean bucketed = options.isBucketed();
+        double width = 0;
+        long bucket = -1;
+        double bucketPrice = 0;
+        int previous = 0;
+        boolean truncated = false;
+
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            Double price = readDouble(parser);
+            Integer cumulative = price == null ? null : readInt(parser);
+            if (price == null || cumulative == null) {
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                    skipRest(parser);
+                }
+                if (log != null) log.warn("Skipped malformed {} order graph entry", buy ? "buy" : "sell");
+                continue;
+            }
+            skipRest(parser);
+
+            int quantity = cumulative - previous;
+            previous = cumulative;
+
+            if (!bucketed) {
+                if (graph.size() == maxLevels && !graph.containsKey(price)) {
+                    truncated = true;
+                    break;
+                }
+                graph.put(price, quantity);
+                continue;
+            }
+
+            if (bucket < 0) {
+                width = options.isRelativeBuckets() ? price * options.getBucketWidth() : options.getBucketWidth();
+            }
+            double distance = bucket < 0 ? 0 : buy ? firstPrice(graph) - price : price - firstPrice(graph);
+            // The epsilon keeps prices exactly on a bucket edge from falling into the previous bucket.
+            long index = width > 0 ? (long) Math.floor(distance / width + 1e-9) : 0;
+
+            if (index != bucket) {
+                if (graph.size() == maxLevels) {
+                    truncated = true;
+                    break;
+                }
+                bucket = index;
+                bucketPrice = price;
+                graph.put(bucketPrice, quantity);
+            } else {
+                graph.merge(bucketPrice, quantity, Integer::sum);
+            }
+        }
+
+        // A graph cut short by the level limit is left at the end of an entry; skip the remaining entries.
+        if (truncated) skipRest(parser);
+        return graph;
+    }
+
+    /**
+     * Reads the next value of a graph entry as a price.
+     *
+     * @return The value, or {@code null} if it is neither a number nor a numeric string
+     */
+    private static Double readDouble(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != null && token.isNumeric()) return parser.getDoubleValue();
+        if (token != JsonToken.VALUE_STRING) return null;
+
+        try {
+            return Double.parseDouble(parser.getText());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the next value of a graph entry as a quantity.
+     *
+     * @return The value, or {@code null} if it is neither a number nor a numeric string
+     */
+    private static Integer readInt(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != null && token.isNumeric()) return parser.getIntValue();
+        if (token != JsonToken.VALUE_STRING) return null;
+
+        try {
+            return Integer.parseInt(parser.getText());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Skips the remaining values of a graph entry, leaving the parser at its end.
+     */
+    private static void skipRest(JsonParser parser) throws IOException {
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+    }
+
+    private static double firstPrice(Map<Double, Integer> graph) {
+        return graph.keySet().iterator().next();
+    }
+}
@@ -1,6 +1,8 @@
 package com.rovnyi.steamApp.market.fetcher;
 
 import com.rovnyi.steamApp.enums.AppID;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -25,6 +27,8 @@ public class ItemIconFetcher {
 
     private final AppID appID;
 
+    private RateLimiter rateLimiter;
+
     private Logger log;
 
     /**
@@ -41,6 +45,19 @@ public class ItemIconFetcher {
         this.log = log;
     }
 
+    /**
+     * Constructs a new icon fetcher whose requests wait on the given rate limiter.
+     *
+     * @param appID       the Steam App ID of the game (e.g. CS2)
+     * @param rateLimiter rate limiter every request waits on, or {@code null}
+     * @param log         logger, may be {@code null}
+     */
+    public ItemIconFetcher(AppID appID, RateLimiter rateLimiter, Logger log) {
+        this.appID = appID;
+        this.rateLimiter = rateLimiter;
+        this.log = log;
+    }
+
     /**
      * Fetches the icon URL for the given {@code market_hash_name}.
      * <p>
@@ -51,6 +68,23 @@ public class ItemIconFetcher {
      * @throws MarketFetcherException if a network or parsing error occurs
      */
     public String fetchIconUrl(String marketHashName) {
+        String html = fetchPage(marketHashName);
+        return html == null ? null : parseIconUrl(marketHashName, html);
+    }
+
+    /**
+     * Fetches the listing page of the given item without parsing it.
+     * <p>
+     * Together with {@link #parseIconUrl(String, String)} this splits {@link #fetchIconUrl(String)} into its
+     * network and CPU parts, so they can run on different threads.
+     *
+     * @param marketHashName the unique market name of the item
+     * @return the page HTML, or {@code null} if the request fails
+     * @throws MarketFetcherException if a network error occurs
+     */
+    public String fetchPage(String marketHashName) {
+        Deadline.acquire(rateLimiter);
+
         HttpUrl url = new HttpUrl.Builder()
                 .scheme("https")
                 .host("steamcommunity.com")
@@ -68,26 +102,35 @@ public class ItemIconFetcher {
                         "Chrome/126.0.6478.185 Safari/537.36")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = Deadline.execute(client.newCall(request))) {
             if (!response.isSuccessful() || response.body() == null) {
                 return null;
             }
 
-            String html = response.body().string();
-
-            Document document = Jsoup.parse(html);
-
-            Element image = document.selectFirst("img[src*=/economy/image/]");
-
-            if (image != null) {
-                if (log != null) log.debug("Fetched icon url for: {}", marketHashName);
-                return image.attr("src");
-            }
-
-            return null;
+            return response.body().string();
         } catch (IOException e) {
             if (log != null) log.error(e.getMessage());
             throw new MarketFetcherException(e);
         }
     }
+
+    /**
+     * Extracts the icon URL from a listing page fetched by {@link #fetchPage(String)}.
+     *
+     * @param marketHashName the unique market name of the item
+     * @param html           the page HTML
+     * @return the icon URL, or {@code null} if not found
+     */
+    public String parseIconUrl(String marketHashName, String html) {
+        Document document = Jsoup.parse(html);
+
+        Element image = document.selectFirst("img[src*=/economy/image/]");
+
+        if (image != null) {
+            if (log != null) log.debug("Fetched icon url for: {}", marketHashName);
+            return image.attr("src");
+        }
+
+        return null;
+    }
 }
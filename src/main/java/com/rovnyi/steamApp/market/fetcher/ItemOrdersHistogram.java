@@ -37,7 +37,7 @@ public class ItemOrdersHistogram {
         this.success = (Integer) map.get("success") == 1;
         if (!success) return;
 
-        this.highestBuyOrder = extractValueDouble((String) map.get("highest_buy_order"));
+        this.highestBuyOrder = extractValueDouble((String) map.get("highest_buy_order"), log);
         this.buyOrderGraph = new LinkedHashMap<>();
         this.sellOrderGraph = new LinkedHashMap<>();
 
@@ -47,6 +47,21 @@ public class ItemOrdersHistogram {
         this.log = log;
     }
 
+    /**
+     * Constructs a successful {@code ItemOrdersHistogram} from already known values,
+     * e.g. a book rebuilt by {@link OrderBookDelta#applyTo(ItemOrdersHistogram)}.
+     *
+     * @param highestBuyOrder Highest buy order
+     * @param buyOrderGraph   Buy levels: price - order count, best (highest) price first
+     * @param sellOrderGraph  Sell levels: price - order count, best (lowest) price first
+     */
+    public ItemOrdersHistogram(double highestBuyOrder, Map<Double, Integer> buyOrderGraph, Map<Double, Integer> sellOrderGraph) {
+        this.success = true;
+        this.highestBuyOrder = highestBuyOrder;
+        this.buyOrderGraph = new LinkedHashMap<>(buyOrderGraph);
+        this.sellOrderGraph = new LinkedHashMap<>(sellOrderGraph);
+    }
+
     /**
      * Parses the order graph data (buy/sell) and populates the corresponding map.
      *
@@ -78,9 +93,10 @@ public class ItemOrdersHistogram {
      * Extracts a numeric value from a price string (removes currency symbols and formatting).
      *
      * @param value Raw string value (e.g. {@code "$0.20"})
+     * @param log   Logger, may be {@code null}
      * @return Parsed double value
      */
-    private double extractValueDouble(String value) {
+    static double extractValueDouble(String value, Logger log) {
         if (value == null) return 0;
 
         try {
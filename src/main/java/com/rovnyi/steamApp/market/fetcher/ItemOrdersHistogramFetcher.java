@@ -7,6 +7,10 @@ import com.rovnyi.steamApp.enums.CurrencyCode;
 import com.rovnyi.steamApp.enums.Language;
 import com.rovnyi.steamApp.market.provider.ItemNameIdProvider;
 import com.rovnyi.steamApp.market.provider.ResolvingIdProvider;
+import com.rovnyi.steamApp.market.transport.BodyFingerprint;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.ResponseMemo;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -16,13 +20,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Map;
+import java.time.Duration;
 
 /**
  * Fetches order book data for a specific Steam Market item.
  * <p>
  * This class sends a request to the <code>/itemordershistogram</code> endpoint and
  * parses the JSON response into an {@link ItemOrdersHistogram} object.
+ * <p>
+ * Response bodies are fingerprinted while they are read; a body identical to the previous one for the same item
+ * is not parsed again, and {@link #fetch(String)} reports it as unchanged.
+ * <p>
+ * Bodies are parsed as a stream. {@link HistogramParseOptions} can limit the book to its best levels or merge
+ * levels into price buckets; the rest of a deep book is then skipped instead of being parsed.
  */
 public class ItemOrdersHistogramFetcher {
 
@@ -40,6 +50,14 @@ public class ItemOrdersHistogramFetcher {
 
     private final ItemNameIdProvider provider;
 
+    private final RateLimiter rateLimiter;
+
+    private final HistogramParseOptions options;
+
+    private final HistogramParser parser;
+
+    private final ResponseMemo<ItemOrdersHistogram> memo;
+
     /**
      * Constructs a new {@code ItemOrdersHistogramFetcher} with the specified configuration.
      *
@@ -49,10 +67,56 @@ public class ItemOrdersHistogramFetcher {
      * @param provider ID provider to resolve the {@code item_nameid}
      */
     public ItemOrdersHistogramFetcher(CountryCode country, Language language, CurrencyCode currency, ItemNameIdProvider provider, Logger log) {
+        this(country, language, currency, provider, null, log);
+    }
+
+    /**
+     * Constructs a new {@code ItemOrdersHistogramFetcher} whose requests wait on the given rate limiter.
+     *
+     * @param country     Country code to include in the request
+     * @param language    Language code to include in the request
+     * @param currency    Currency in which to return price values
+     * @param provider    ID provider to resolve the {@code item_nameid}
+     * @param rateLimiter Rate limiter every request waits on, or {@code null}
+     */
+    public ItemOrdersHistogramFetcher(CountryCode country, Language language, CurrencyCode currency, ItemNameIdProvider provider, RateLimiter rateLimiter, Logger log) {
+        this(country, language, currency, provider, rateLimiter, HistogramParseOptions.FULL, log);
+    }
+
+    /**
+     * Constructs a new {@code ItemOrdersHistogramFetcher} keeping only the part of each book selected by the options.
+     *
+     * @param country     Country code to include in the request
+     * @param language    Language code to include in the request
+     * @param currency    Currency in which to return price values
+     * @param provider    ID provider to resolve the {@code item_nameid}
+     * @param rateLimiter Rate limiter every request waits on, or {@code null}
+     * @param options     Depth limit and price buckets applied while parsing
+     */
+    public ItemOrdersHistogramFetcher(CountryCode country, Language language, CurrencyCode currency, ItemNameIdProvider provider, RateLimiter rateLimiter, HistogramParseOptions options, Logger log) {
+        this(country, language, currency, provider, rateLimiter, options, new ResponseMemo<>(), log);
+    }
+
+    /**
+     * Constructs a new {@code ItemOrdersHistogramFetcher} remembering parsed responses in the given memo.
+     *
+     * @param country     Country code to include in the request
+     * @param language    Language code to include in the request
+     * @param currency    Currency in which to return price values
+     * @param provider    ID provider to resolve the {@code item_nameid}
+     * @param rateLimiter Rate limiter every request waits on, or {@code null}
+     * @param options     Depth limit and price buckets applied while parsing
+     * @param memo        Memo of parsed responses, or {@code null} to parse every response and report it as changed
+     */
+    public ItemOrdersHistogramFetcher(CountryCode country, Language language, CurrencyCode currency, ItemNameIdProvider provider, RateLimiter rateLimiter, HistogramParseOptions options, ResponseMemo<ItemOrdersHistogram> memo, Logger log) {
         this.country = country;
         this.language = language;
         this.currency = currency;
         this.provider = provider;
+        this.rateLimiter = rateLimiter;
+        this.options = options;
+        this.parser = new HistogramParser(mapper.getFactory(), options, log);
+        this.memo = memo;
         this.log = log;
     }
 
@@ -65,9 +129,38 @@ public class ItemOrdersHistogramFetcher {
      * @throws MarketFetcherException If a network or parsing error occurs
      */
     public ItemOrdersHistogram callAPI(String marketHashName) {
+        FetchResult<ItemOrdersHistogram> result = fetch(marketHashName);
+        return result == null ? null : result.getValue();
+    }
+
+    /**
+     * Fetches order histogram data and reports whether it changed since the previous fetch of the item.
+     *
+     * @param marketHashName The unique market hash name of the item
+     * @return Result holding the {@link ItemOrdersHistogram}, or {@code null} if the response is invalid or incomplete
+     * @throws MarketFetcherException If a network or parsing error occurs
+     */
+    public FetchResult<ItemOrdersHistogram> fetch(String marketHashName) {
+        BodyFingerprint body = fetchBody(marketHashName);
+        return body == null ? null : parse(marketHashName, body);
+    }
+
+    /**
+     * Sends the request for the given item and reads the response body without parsing it.
+     * <p>
+     * Together with {@link #parse(String, BodyFingerprint)} this splits {@link #fetch(String)} into its network
+     * and CPU parts, so they can run on different threads.
+     *
+     * @param marketHashName The unique market hash name of the item
+     * @return Response body, or {@code null} if the response is unsuccessful
+     * @throws MarketFetcherException If a network error occurs
+     */
+    public BodyFingerprint fetchBody(String marketHashName) {
         String itemNameId = provider.get(marketHashName);
         if (itemNameId == null) {if (log != null) log.info("\"{}\" - itemNameId is null", marketHashName);}
 
+        Deadline.acquire(rateLimiter);
+
         HttpUrl url = new HttpUrl.Builder()
                 .scheme("https")
                 .host("steamcommunity.com")
@@ -87,22 +180,54 @@ public class ItemOrdersHistogramFetcher {
                         "Chrome/126.0.6478.185 Safari/537.36")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = Deadline.execute(client.newCall(request))) {
             if (!response.isSuccessful() || response.body() == null) {
                 return null;
             }
 
-            String json = response.body().string();
+            return BodyFingerprint.read(response.body().byteStream());
+        } catch (IOException e) {
+            throw new MarketFetcherException(e);
+        }
+    }
+
+    /**
+     * Parses a response body read by {@link #fetchBody(String)}.
+     *
+     * @param marketHashName The unique market hash name of the item
+     * @param body           Response body
+     * @return Result holding the {@link ItemOrdersHistogram}, or {@code null} if the response is invalid or incomplete
+     * @throws MarketFetcherException If a parsing error occurs
+     */
+    public FetchResult<ItemOrdersHistogram> parse(String marketHashName, BodyFingerprint body) {
+        ItemOrdersHistogram previous = memo == null ? null : memo.reuse(marketHashName, body.getFingerprint());
+        if (previous != null) return FetchResult.unchanged(previous, body.getFingerprint());
 
-            Map<String, Object> map = mapper.readValue(json, Map.class);
-            if (map.size() < 2) return null;
+        try {
+            ItemOrdersHistogram orders = parser.parse(body.getBytes(), 0, body.getLength());
+            if (orders == null) return null;
 
-            return new ItemOrdersHistogram(map, log);
+            if (memo != null) memo.remember(marketHashName, body.getFingerprint(), orders);
+            return FetchResult.changed(orders, body.getFingerprint());
         } catch (IOException e) {
             throw new MarketFetcherException(e);
         }
     }
 
+    /**
+     * @return Options applied while parsing responses
+     */
+    public HistogramParseOptions getParseOptions() {
+        return options;
+    }
+
+    /**
+     * Forgets all remembered responses, so the next fetch of every item is parsed and reported as changed.
+     */
+    public void clearFingerprints() {
+        if (memo != null) memo.clear();
+    }
+
     /**
      * Builder class for {@link ItemOrdersHistogramFetcher}.
      * <p>
@@ -113,6 +238,8 @@ public class ItemOrdersHistogramFetcher {
      *   <li>Country = ENGLISH</li>
      *   <li>Language = ENGLISH</li>
      *   <li>ItemNameIdProvider = ResolvingIdProvider</li>
+     *   <li>HistogramParseOptions = FULL</li>
+     *   <li>ResponseMemo = {@link ResponseMemo#DEFAULT_MAX_ENTRIES} items for {@link ResponseMemo#DEFAULT_TTL}</li>
      * </ul>
      */
     public static class Builder {
@@ -121,6 +248,10 @@ public class ItemOrdersHistogramFetcher {
         private CurrencyCode currency = CurrencyCode.USD;
         private AppID appID = AppID.COUNTER_STRIKE_2;
         private ItemNameIdProvider provider;
+        private RateLimiter rateLimiter = null;
+        private HistogramParseOptions options = HistogramParseOptions.FULL;
+        private int memoEntries = ResponseMemo.DEFAULT_MAX_ENTRIES;
+        private Duration memoTtl = ResponseMemo.DEFAULT_TTL;
         private Logger log = null;
 
         /**
@@ -178,6 +309,41 @@ public class ItemOrdersHistogramFetcher {
             return this;
         }
 
+        /**
+         * Sets the rate limiter every request waits on. Also used by the default provider.
+         *
+         * @param rateLimiter Shared rate limiter
+         * @return The current builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets how much of each order book is kept while parsing.
+         *
+         * @param options Depth limit and price buckets
+         * @return The current builder instance
+         */
+        public Builder parseOptions(HistogramParseOptions options) {
+            this.options = options;
+            return this;
+        }
+
+        /**
+         * Sets how many parsed responses are remembered, so unchanged ones are not parsed again.
+         *
+         * @param maxEntries Maximum number of items remembered, or 0 to parse every response and report it as changed
+         * @param ttl        Time a parsed response is reused after it was remembered
+         * @return The current builder instance
+         */
+        public Builder responseMemo(int maxEntries, Duration ttl) {
+            this.memoEntries = maxEntries;
+            this.memoTtl = ttl;
+            return this;
+        }
+
         public Builder withLogger(Logger log) {
             this.log = log;
             return this;
@@ -192,9 +358,11 @@ public class ItemOrdersHistogramFetcher {
             if (provider == null) {
                 ResolvingIdProvider resolvingIdProvider = new ResolvingIdProvider(appID);
                 resolvingIdProvider.setLogger(log);
+                resolvingIdProvider.setRateLimiter(rateLimiter);
                 provider = resolvingIdProvider;
             }
-            return new ItemOrdersHistogramFetcher(country, language, currency, provider, log);
+            ResponseMemo<ItemOrdersHistogram> memo = memoEntries > 0 ? new ResponseMemo<>(memoEntries, memoTtl) : null;
+            return new ItemOrdersHistogramFetcher(country, language, currency, provider, rateLimiter, options, memo, log);
         }
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.rovnyi.steamApp.market.fetcher;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Map;
 
 /**
@@ -18,6 +20,7 @@ public class ItemOverview {
 
     private final String marketHashName;
     private final LocalDateTime fetchedAt;
+    private final Instant fetchedInstant;
 
     private final PriceOverview price;
     private final ItemOrdersHistogram orders;
@@ -29,14 +32,33 @@ public class ItemOverview {
      * @param price          Price data (lowest, median, volume)
      * @param orders         Buy/sell order data
      * @param marketHashName Unique item name in the Steam Market
-     * @param fetchedAt      Time when this overview was fetched
+     * @param fetchedAt      Time when this overview was fetched, in the system time zone
      * @param iconUrl        URL to the item icon
      */
     public ItemOverview(PriceOverview price, ItemOrdersHistogram orders, String marketHashName, LocalDateTime fetchedAt, String iconUrl) {
+        this(price, orders, marketHashName, fetchedAt, fetchedAt.atZone(ZoneId.systemDefault()).toInstant(), iconUrl);
+    }
+
+    /**
+     * Constructs a new {@code ItemOverview} fetched at the given instant.
+     *
+     * @param price          Price data (lowest, median, volume)
+     * @param orders         Buy/sell order data
+     * @param marketHashName Unique item name in the Steam Market
+     * @param fetchedAt      Instant when this overview was fetched
+     * @param iconUrl        URL to the item icon
+     */
+    public ItemOverview(PriceOverview price, ItemOrdersHistogram orders, String marketHashName, Instant fetchedAt, String iconUrl) {
+        this(price, orders, marketHashName, LocalDateTime.ofInstant(fetchedAt, ZoneId.systemDefault()), fetchedAt, iconUrl);
+    }
+
+    private ItemOverview(PriceOverview price, ItemOrdersHistogram orders, String marketHashName, LocalDateTime fetchedAt,
+                         Instant fetchedInstant, String iconUrl) {
         this.price = price;
         this.orders = orders;
         this.marketHashName = marketHashName;
         this.fetchedAt = fetchedAt;
+        this.fetchedInstant = fetchedInstant;
         this.iconUrl = iconUrl;
     }
 
@@ -48,12 +70,22 @@ public class ItemOverview {
     }
 
     /**
-     * @return The timestamp when this data was retrieved
+     * @return The timestamp when this data was retrieved, in the system time zone
      */
     public LocalDateTime getFetchedAt() {
         return fetchedAt;
     }
 
+    /**
+     * Unlike {@link #getFetchedAt()}, the instant is unambiguous and keeps increasing across daylight saving
+     * transitions, so it is the one to timestamp stored snapshots with.
+     *
+     * @return The instant when this data was retrieved
+     */
+    public Instant getFetchedInstant() {
+        return fetchedInstant;
+    }
+
     /**
      * @return The item's icon URL from the Steam Market
      */
@@ -61,6 +93,20 @@ public class ItemOverview {
         return iconUrl;
     }
 
+    /**
+     * @return Price data the overview was built from
+     */
+    public PriceOverview getPrice() {
+        return price;
+    }
+
+    /**
+     * @return Order data the overview was built from
+     */
+    public ItemOrdersHistogram getOrders() {
+        return orders;
+    }
+
     /**
      * @return {@code true} if all fetchers succeeded and icon URL is available
      */
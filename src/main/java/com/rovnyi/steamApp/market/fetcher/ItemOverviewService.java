@@ -4,12 +4,31 @@ import com.rovnyi.steamApp.enums.AppID;
 import com.rovnyi.steamApp.enums.CountryCode;
 import com.rovnyi.steamApp.enums.CurrencyCode;
 import com.rovnyi.steamApp.enums.Language;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.icon.CachingIconUrlProvider;
+import com.rovnyi.steamApp.market.icon.FileIconUrlProvider;
+import com.rovnyi.steamApp.market.icon.InMemoryIconUrlProvider;
+import com.rovnyi.steamApp.market.icon.WritableIconUrlProvider;
 import com.rovnyi.steamApp.market.provider.ItemNameIdProvider;
 import com.rovnyi.steamApp.market.provider.ResolvingIdProvider;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.DeadlineExceededException;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Aggregates item market data from multiple sources into a single {@link ItemOverview} object.
@@ -21,6 +40,11 @@ import java.time.LocalDateTime;
  *     <li>{@link ItemIconFetcher} — fetches item icon URL</li>
  * </ul>
  * Uses builder pattern for flexible configuration. If no {@link ItemNameIdProvider} is provided, defaults to {@link ResolvingIdProvider}.
+ * <p>
+ * Icon URLs practically never change, so each item's listing page is fetched only once: URLs are kept by a
+ * {@link CachingIconUrlProvider} in memory and, if an icon store is configured, persisted across restarts.
+ * <p>
+ * The parts of an overview are fetched in parallel, optionally within a time budget; see {@link #fetch(String, Duration)}.
  */
 public class ItemOverviewService {
 
@@ -30,8 +54,12 @@ public class ItemOverviewService {
 
     private final ItemIconFetcher iconFetcher;
 
+    private final CachingIconUrlProvider iconUrls;
+
     private Boolean iconRequired;
 
+    private volatile Duration timeout;
+
     private final Logger log;
 
     /**
@@ -44,9 +72,39 @@ public class ItemOverviewService {
      * @param provider Provider for resolving item_nameid
      */
     public ItemOverviewService(CurrencyCode currency, AppID appID, CountryCode country, Language language, ItemNameIdProvider provider, boolean iconRequired, Logger log) {
+        this(currency, appID, country, language, provider, iconRequired, null, log);
+    }
+
+    /**
+     * Constructs a new {@code ItemOverviewService} whose requests all wait on the given rate limiter.
+     *
+     * @param currency    Currency to use when fetching prices
+     * @param appID       Steam App ID for the game (e.g., CS2)
+     * @param country     Country code (affects localization)
+     * @param language    Language code (affects localization)
+     * @param provider    Provider for resolving item_nameid
+     * @param rateLimiter Rate limiter shared by all fetchers, or {@code null}
+     */
+    public ItemOverviewService(CurrencyCode currency, AppID appID, CountryCode country, Language language, ItemNameIdProvider provider, boolean iconRequired, RateLimiter rateLimiter, Logger log) {
+        this(currency, appID, country, language, provider, iconRequired, rateLimiter, null, log);
+    }
+
+    /**
+     * Constructs a new {@code ItemOverviewService} keeping fetched icon URLs in the given store.
+     *
+     * @param currency    Currency to use when fetching prices
+     * @param appID       Steam App ID for the game (e.g., CS2)
+     * @param country     Country code (affects localization)
+     * @param language    Language code (affects localization)
+     * @param provider    Provider for resolving item_nameid
+     * @param rateLimiter Rate limiter shared by all fetchers, or {@code null}
+     * @param iconStore   Persistent store of icon URLs, or {@code null} to keep them in memory only
+     */
+    public ItemOverviewService(CurrencyCode currency, AppID appID, CountryCode country, Language language, ItemNameIdProvider provider, boolean iconRequired, RateLimiter rateLimiter, WritableIconUrlProvider iconStore, Logger log) {
         this.priceFetcher = new PriceOverviewFetcher.Builder()
                 .appID(appID)
                 .currency(currency)
+                .rateLimiter(rateLimiter)
                 .withLogger(log)
                 .build();
 
@@ -56,10 +114,12 @@ public class ItemOverviewService {
                 .currency(currency)
                 .appID(appID)
                 .provider(provider)
+                .rateLimiter(rateLimiter)
                 .withLogger(log)
                 .build();
 
-        this.iconFetcher = new ItemIconFetcher(appID);
+        this.iconFetcher = new ItemIconFetcher(appID, rateLimiter, log);
+        this.iconUrls = new CachingIconUrlProvider(new InMemoryIconUrlProvider(), iconStore, iconFetcher::fetchIconUrl, log);
         this.iconRequired = iconRequired;
         this.log = log;
     }
@@ -71,31 +131,166 @@ public class ItemOverviewService {
      * @return {@link ItemOverview} object with merged price, order, and icon data, or {@code null} if any fetch fails
      */
     public ItemOverview callAPI(String marketHashName) {
-        PriceOverview price = priceFetcher.callAPI(marketHashName);
-        if (log != null) log.debug("ItemOverviewService fetched PriceOverview for \"{}\": {}", marketHashName, price);
+        FetchResult<ItemOverview> result = fetch(marketHashName);
+        return result == null ? null : result.getValue();
+    }
 
-        ItemOrdersHistogram orders = ordersFetcher.callAPI(marketHashName);
-        if (log != null) log.debug("ItemOverviewService fetched ItemOrdersHistogram for \"{}\": {}", marketHashName, orders);
+    /**
+     * Aggregates all available market data for the given item within the given time.
+     *
+     * @param marketHashName The item's unique name in the Steam Market
+     * @param timeout        Time budget for all requests, or {@code null} for none
+     * @return {@link ItemOverview} object with merged price, order, and icon data, or {@code null} if any fetch fails
+     */
+    public ItemOverview callAPI(String marketHashName, Duration timeout) {
+        FetchResult<ItemOverview> result = fetch(marketHashName, timeout);
+        return result == null ? null : result.getValue();
+    }
 
-        String iconUrl = iconFetcher.fetchIconUrl(marketHashName);
-        if (log != null) log.debug("ItemOverviewService fetched IconUrl for \"{}\": {}", marketHashName, iconUrl);
+    /**
+     * Aggregates all available market data for the given item and reports whether it changed.
+     * <p>
+     * Uses the timeout configured with {@link #setTimeout(Duration)}, if any.
+     *
+     * @param marketHashName The item's unique name in the Steam Market
+     * @return Result holding the {@link ItemOverview}, or {@code null} if any fetch fails
+     * @see #fetch(String, Duration)
+     */
+    public FetchResult<ItemOverview> fetch(String marketHashName) {
+        return fetch(marketHashName, timeout);
+    }
 
-        if (price == null) {
-            if (log != null) log.info("\"{}\" - PriceOverview is null", marketHashName);
-            return null;
-        }
-        else if (orders == null) {
-            if (log != null) log.info("\"{}\" - ItemOrdersHistogram is null", marketHashName);
-            return null;
+    /**
+     * Aggregates all available market data for the given item within the given time and reports whether it changed.
+     * <p>
+     * The price, order histogram and icon are fetched in parallel under a common {@link Deadline}: each request's
+     * call timeout is the time left of the budget. As soon as one part makes the overview fail, by returning
+     * {@code null} or throwing, the requests of the other parts are cancelled and this method returns without
+     * waiting for them, even when a part is still waiting for a permit of the rate limiter.
+     * <p>
+     * The result is unchanged when both the price overview and the order histogram responses were identical to
+     * the previous ones; its overview then holds the previously parsed parts with a new fetch time.
+     *
+     * @param marketHashName The item's unique name in the Steam Market
+     * @param timeout        Time budget for all requests, or {@code null} for none
+     * @return Result holding the {@link ItemOverview}, or {@code null} if any fetch fails
+     * @throws MarketFetcherException    If a network or parsing error occurs, including a request timing out
+     * @throws DeadlineExceededException If the budget is spent before all requests could be sent
+     */
+    public FetchResult<ItemOverview> fetch(String marketHashName, Duration timeout) {
+        Deadline deadline = timeout == null ? Deadline.unbounded() : Deadline.after(timeout);
+        AtomicReference<Failure> failure = new AtomicReference<>();
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+
+        CompletableFuture<FetchResult<PriceOverview>> priceFuture = start(deadline, failure, failed, "PriceOverview",
+                () -> priceFetcher.fetch(marketHashName), result -> result == null || result.getValue() == null);
+        CompletableFuture<FetchResult<ItemOrdersHistogram>> ordersFuture = start(deadline, failure, failed, "ItemOrdersHistogram",
+                () -> ordersFetcher.fetch(marketHashName), result -> result == null || result.getValue() == null);
+        CompletableFuture<String> iconFuture = start(deadline, failure, failed, "IconUrl",
+                () -> iconUrls.get(marketHashName), iconUrl -> iconUrl == null && iconRequired);
+
+        await(CompletableFuture.anyOf(CompletableFuture.allOf(priceFuture, ordersFuture, iconFuture), failed), deadline);
+
+        Failure first = failure.get();
+        if (first != null) {
+            if (first.error == null) {
+                if (log != null) log.info("\"{}\" - {} is null", marketHashName, first.part);
+                return null;
+            }
+            if (first.error instanceof RuntimeException e) throw e;
+            if (first.error instanceof Error e) throw e;
+            throw new MarketFetcherException(first.error);
         }
-        else if (iconUrl == null && iconRequired) {
-            if (log != null) log.info("\"{}\" - IconUrl is null", marketHashName);
-            return null;
+
+        FetchResult<PriceOverview> priceResult = priceFuture.join();
+        FetchResult<ItemOrdersHistogram> ordersResult = ordersFuture.join();
+        String iconUrl = iconFuture.join();
+
+        PriceOverview price = priceResult.getValue();
+        ItemOrdersHistogram orders = ordersResult.getValue();
+        if (log != null) log.debug("ItemOverviewService fetched PriceOverview for \"{}\": {}", marketHashName, price);
+        if (log != null) log.debug("ItemOverviewService fetched ItemOrdersHistogram for \"{}\": {}", marketHashName, orders);
+        if (log != null) log.debug("ItemOverviewService fetched IconUrl for \"{}\": {}", marketHashName, iconUrl);
+
+        Instant fetchedAt = Instant.now();
+
+        ItemOverview overview = new ItemOverview(price, orders, marketHashName, fetchedAt, iconUrl);
+        long fingerprint = 31 * priceResult.getFingerprint() + ordersResult.getFingerprint();
+
+        if (priceResult.isUnchanged() && ordersResult.isUnchanged()) return FetchResult.unchanged(overview, fingerprint);
+        return FetchResult.changed(overview, fingerprint);
+    }
+
+    /**
+     * Runs one part of an overview on a new virtual thread bound to the deadline and the caller's request priority.
+     * The first part that fails, by throwing or by a result that makes the overview fail, is recorded, cancels
+     * the deadline and completes {@code failed}.
+     *
+     * @param failed  Completed when the first failure is recorded
+     * @param failing Tells whether a result makes the whole overview fail
+     */
+    private <T> CompletableFuture<T> start(Deadline deadline, AtomicReference<Failure> failure, CompletableFuture<Void> failed,
+                                           String part, Supplier<T> work, Predicate<T> failing) {
+        RequestPriority priority = RequestScheduler.currentPriority();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> RequestScheduler.withPriority(priority, () -> deadline.run(work)),
+                runnable -> Thread.ofVirtual().start(runnable));
+
+        return future.whenComplete((result, e) -> {
+            if (e == null && !failing.test(result)) return;
+
+            Throwable error = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (failure.compareAndSet(null, new Failure(part, error))) {
+                if (log != null && deadline.isBounded()) log.debug("{} failed, cancelling the remaining requests ({})", part, deadline);
+                deadline.cancel();
+                failed.complete(null);
+            }
+        });
+    }
+
+    /**
+     * Waits for all parts or the first failure; a part stuck past the deadline outside of an HTTP call is abandoned.
+     */
+    private void await(CompletableFuture<?> all, Deadline deadline) {
+        try {
+            if (deadline.isBounded()) {
+                // Requests time out on their own; the margin lets them report that before the parts are abandoned.
+                all.get(deadline.remaining().toNanos() + TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS);
+            } else {
+                all.get();
+            }
+        } catch (ExecutionException ignored) {
+            // Recorded as the failure of the part.
+        } catch (TimeoutException e) {
+            deadline.cancel();
+            throw new DeadlineExceededException("Deadline exceeded");
+        } catch (InterruptedException e) {
+            deadline.cancel();
+            Thread.currentThread().interrupt();
+            throw new MarketFetcherException(e);
         }
+    }
 
-        LocalDateTime fetchedAt = LocalDateTime.now();
+    /**
+     * Sets the time budget of {@link #fetch(String)} and {@link #callAPI(String)}.
+     *
+     * @param timeout Time budget for all requests of an overview, or {@code null} for none
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
 
-        return new ItemOverview(price, orders, marketHashName, fetchedAt, iconUrl);
+    /**
+     * @return Time budget of {@link #fetch(String)}, or {@code null} if there is none
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return Provider of the icon URLs, holding those fetched so far
+     */
+    public CachingIconUrlProvider getIconUrls() {
+        return iconUrls;
     }
 
     /**
@@ -107,6 +302,8 @@ public class ItemOverviewService {
      *     <li>AppID = CS2</li>
      *     <li>Country = ENGLISH</li>
      *     <li>Language = ENGLISH</li>
+     *     <li>Icon store = none, icon URLs are kept in memory</li>
+     *     <li>Timeout = none</li>
      * </ul>
      */
     public static class Builder {
@@ -116,6 +313,10 @@ public class ItemOverviewService {
         private AppID appID = AppID.COUNTER_STRIKE_2;
         private ItemNameIdProvider provider;
         private boolean iconRequired = false;
+        private RateLimiter rateLimiter = null;
+        private WritableIconUrlProvider iconStore = null;
+        private Path iconFile = null;
+        private Duration timeout = null;
         private  Logger log = null;
 
         /**
@@ -178,6 +379,50 @@ public class ItemOverviewService {
             return this;
         }
 
+        /**
+         * Sets the rate limiter shared by all fetchers and the default provider.
+         *
+         * @param rateLimiter Shared rate limiter
+         * @return This builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets a persistent store of icon URLs, so listing pages are not fetched again after a restart.
+         *
+         * @param iconStore Icon URL store
+         * @return This builder instance
+         */
+        public Builder iconStore(WritableIconUrlProvider iconStore) {
+            this.iconStore = iconStore;
+            return this;
+        }
+
+        /**
+         * Persists icon URLs in a {@link FileIconUrlProvider} on the given file.
+         *
+         * @param iconFile Icon URL log
+         * @return This builder instance
+         */
+        public Builder iconFile(Path iconFile) {
+            this.iconFile = iconFile;
+            return this;
+        }
+
+        /**
+         * Sets the time budget of every overview fetched without an explicit one.
+         *
+         * @param timeout Time budget for all requests of an overview
+         * @return This builder instance
+         */
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
         public Builder withLogger(Logger log) {
             this.log = log;
             return this;
@@ -193,13 +438,26 @@ public class ItemOverviewService {
             if (provider == null) {
                 ResolvingIdProvider resolvingIdProvider = new ResolvingIdProvider(appID);
                 resolvingIdProvider.setLogger(log);
+                resolvingIdProvider.setRateLimiter(rateLimiter);
                 provider = resolvingIdProvider;
             }
-            return new ItemOverviewService(currency, appID, country, language, provider, iconRequired, log);
+            if (iconStore == null && iconFile != null) iconStore = new FileIconUrlProvider(iconFile, log);
+            ItemOverviewService service = new ItemOverviewService(currency, appID, country, language, provider, iconRequired, rateLimiter, iconStore, log);
+            service.setTimeout(timeout);
+            return service;
         }
     }
 
     public void setIconRequired(Boolean iconRequired) {
         this.iconRequired = iconRequired;
     }
+
+    /**
+     * The part of an overview that made it fail first.
+     *
+     * @param part  Name of the part
+     * @param error Exception thrown by the part, or {@code null} if its result was missing
+     */
+    private record Failure(String part, Throwable error) {
+    }
 }
@@ -3,7 +3,9 @@ package com.rovnyi.steamApp.market.fetcher;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rovnyi.steamApp.enums.AppID;
-import com.rovnyi.steamApp.enums.CurrencyCode;
+import com.rovnyi.steamApp.enums.SearchSortColumn;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -18,6 +20,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Searches the Steam Market catalog of a specific application.
+ * <p>
+ * This class sends a request to the <code>/market/search/render</code> endpoint and either
+ * extracts the names of the found items from the rendered HTML ({@link #callAPI}, {@link #fetchPage})
+ * or reads structured results with prices from the JSON response ({@link #fetchResults}).
+ */
 public class MarketSearchFetcher {
 
     private final ObjectMapper mapper = new ObjectMapper();
@@ -28,23 +37,137 @@ public class MarketSearchFetcher {
 
     private final AppID appID;
 
+    private final RateLimiter rateLimiter;
+
     public MarketSearchFetcher(AppID appID,Logger log) {
+        this(appID, null, log);
+    }
+
+    /**
+     * Constructs a new {@code MarketSearchFetcher}.
+     *
+     * @param appID       Steam App ID whose catalog is searched
+     * @param rateLimiter Rate limiter every request waits on, or {@code null}
+     * @param log         Logger, may be {@code null}
+     */
+    public MarketSearchFetcher(AppID appID, RateLimiter rateLimiter, Logger log) {
         this.appID = appID;
+        this.rateLimiter = rateLimiter;
         this.log = log;
     }
 
+    /**
+     * Returns one page of market hash names matching the query, in Steam's default order.
+     *
+     * @param marketHashName Search query; an empty string matches the whole catalog
+     * @param start          Offset of the first result
+     * @param count          Number of results to return (Steam caps it at 100)
+     * @return List of market hash names, or {@code null} if the response is invalid
+     * @throws MarketFetcherException If a network or parsing error occurs
+     */
     public List<String> callAPI(String marketHashName, int start, int count) {
-        HttpUrl url = new HttpUrl.Builder()
+        return callAPI(marketHashName, start, count, null, true);
+    }
+
+    /**
+     * Returns one page of market hash names matching the query in the given order.
+     * <p>
+     * A fixed order (e.g. {@link SearchSortColumn#NAME}) keeps offsets stable between requests,
+     * which is required when a walk over the catalog has to be resumed.
+     *
+     * @param marketHashName Search query; an empty string matches the whole catalog
+     * @param start          Offset of the first result
+     * @param count          Number of results to return (Steam caps it at 100)
+     * @param sortColumn     Column to sort by, or {@code null} for Steam's default order
+     * @param ascending      Sort direction
+     * @return List of market hash names, or {@code null} if the response is invalid
+     * @throws MarketFetcherException If a network or parsing error occurs
+     */
+    public List<String> callAPI(String marketHashName, int start, int count, SearchSortColumn sortColumn, boolean ascending) {
+        SearchPage page = fetchPage(marketHashName, start, count, sortColumn, ascending);
+        return page == null ? null : page.getNames();
+    }
+
+    /**
+     * Returns one page of search results together with the total number of matching items.
+     *
+     * @param marketHashName Search query; an empty string matches the whole catalog
+     * @param start          Offset of the first result
+     * @param count          Number of results to return (Steam caps it at 100)
+     * @param sortColumn     Column to sort by, or {@code null} for Steam's default order
+     * @param ascending      Sort direction
+     * @return A {@link SearchPage}, or {@code null} if the response is invalid
+     * @throws MarketFetcherException If a network or parsing error occurs
+     */
+    public SearchPage fetchPage(String marketHashName, int start, int count, SearchSortColumn sortColumn, boolean ascending) {
+        JsonNode root = search(marketHashName, start, count, sortColumn, ascending, false);
+        if (root == null) return null;
+
+        return new SearchPage(extractNamesFromJson(root), List.of(), start, root.path("total_count").asInt(0));
+    }
+
+    /**
+     * Returns one page of structured search results, requested with {@code norender=1}.
+     * <p>
+     * Each result carries the market hash name, the lowest sell price, the number of sell listings and the icon,
+     * so a price scan over a whole catalog needs one request per page instead of one {@link PriceOverviewFetcher}
+     * call per item. No HTML is parsed. Steam reports these prices in USD cents regardless of the client's currency.
+     *
+     * @param marketHashName Search query; an empty string matches the whole catalog
+     * @param start          Offset of the first result
+     * @param count          Number of results to return (Steam caps it at 100)
+     * @param sortColumn     Column to sort by, or {@code null} for Steam's default order
+     * @param ascending      Sort direction
+     * @return A {@link SearchPage} with {@link SearchPage#getResults() results}, or {@code null} if the response is invalid
+     * @throws MarketFetcherException If a network or parsing error occurs
+     */
+    public SearchPage fetchResults(String marketHashName, int start, int count, SearchSortColumn sortColumn, boolean ascending) {
+        JsonNode root = search(marketHashName, start, count, sortColumn, ascending, true);
+        if (root == null) return null;
+
+        List<MarketSearchResult> results = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        for (JsonNode node : root.path("results")) {
+            MarketSearchResult result = new MarketSearchResult(node);
+            if (result.getMarketHashName().isEmpty()) continue;
+
+            results.add(result);
+            names.add(result.getMarketHashName());
+        }
+
+        return new SearchPage(names, results, start, root.path("total_count").asInt(0));
+    }
+
+    /**
+     * Sends the search request and returns the parsed response root.
+     *
+     * @return Parsed JSON, or {@code null} if the response is invalid
+     */
+    private JsonNode search(String query, int start, int count, SearchSortColumn sortColumn, boolean ascending, boolean noRender) {
+        Deadline.acquire(rateLimiter);
+
+        HttpUrl.Builder urlBuilder = new HttpUrl.Builder()
                 .scheme("https")
                 .host("steamcommunity.com")
                 .addPathSegment("market")
                 .addPathSegment("search")
                 .addPathSegment("render")
-                .addQueryParameter("query", marketHashName)
+                .addQueryParameter("query", query)
                 .addQueryParameter("start", String.valueOf(start))
                 .addQueryParameter("count", String.valueOf(count))
-                .addQueryParameter("appid", String.valueOf(appID.getID()))
-                .build();
+                .addQueryParameter("appid", String.valueOf(appID.getID()));
+
+        if (sortColumn != null) {
+            urlBuilder.addQueryParameter("sort_column", sortColumn.getColumn())
+                    .addQueryParameter("sort_dir", ascending ? "asc" : "desc");
+        }
+
+        if (noRender) {
+            urlBuilder.addQueryParameter("norender", "1");
+        }
+
+        HttpUrl url = urlBuilder.build();
 
         Request request = new Request.Builder()
                 .url(url)
@@ -54,23 +177,23 @@ public class MarketSearchFetcher {
                         "Chrome/126.0.6478.185 Safari/537.36")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = Deadline.execute(client.newCall(request))) {
             if (!response.isSuccessful() || response.body() == null) {
                 return null;
             }
 
-            String json = response.body().string();
+            JsonNode root = mapper.readTree(response.body().byteStream());
 
-            return extractNamesFromJson(json);
+            if (!root.path("success").asBoolean(false)) return null;
+
+            return root;
         } catch (IOException e) {
             if (log != null) log.error(e.getMessage());
             throw new MarketFetcherException(e);
         }
     }
 
-    private List<String> extractNamesFromJson(String json) throws IOException {
-        JsonNode root = mapper.readTree(json);
-
+    private List<String> extractNamesFromJson(JsonNode root) {
         String html = root.path("results_html").asText();
         List<String> names = new ArrayList<>();
 
@@ -87,8 +210,21 @@ public class MarketSearchFetcher {
         return names;
     }
 
+    /**
+     * @return Steam App ID whose catalog is searched
+     */
+    public AppID getAppID() {
+        return appID;
+    }
+
+    /**
+     * Builder class for {@link MarketSearchFetcher}.
+     * <p>
+     * Provides default configuration: AppID = CS2, no rate limiting.
+     */
     public static class Builder {
         private AppID appID = AppID.COUNTER_STRIKE_2;
+        private RateLimiter rateLimiter = null;
         private Logger log = null;
 
         public Builder appID(AppID appID) {
@@ -96,13 +232,24 @@ public class MarketSearchFetcher {
             return this;
         }
 
+        /**
+         * Sets the rate limiter every search request waits on.
+         *
+         * @param rateLimiter Shared rate limiter
+         * @return The current builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
         public Builder withLogger(Logger log) {
             this.log = log;
             return this;
         }
 
         public @NotNull MarketSearchFetcher build() {
-            return new MarketSearchFetcher(appID, log);
+            return new MarketSearchFetcher(appID, rateLimiter, log);
         }
     }
 }
@@ -0,0 +1,113 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Entity representing a single item of a Steam Market search.
+ * <p>
+ * Parsed from the {@code results} array returned by the <code>/market/search/render</code> endpoint
+ * with {@code norender=1}. Prices are reported by Steam in USD cents.
+ */
+public class MarketSearchResult {
+
+    private static final String ICON_URL_PREFIX = "https://community.cloudflare.steamstatic.com/economy/image/";
+
+    private final String name;
+
+    private final String marketHashName;
+
+    private final int appID;
+
+    private final int sellListings;
+
+    private final int sellPrice;
+
+    private final String sellPriceText;
+
+    private final String iconUrl;
+
+    /**
+     * Constructs a {@code MarketSearchResult} from a single element of the {@code results} array.
+     *
+     * @param node Parsed JSON node of the result
+     */
+    public MarketSearchResult(JsonNode node) {
+        JsonNode description = node.path("asset_description");
+
+        this.name = node.path("name").asText("");
+        this.marketHashName = node.path("hash_name").asText("");
+        this.appID = description.path("appid").asInt(0);
+        this.sellListings = node.path("sell_listings").asInt(0);
+        this.sellPrice = node.path("sell_price").asInt(0);
+        this.sellPriceText = node.path("sell_price_text").asText(null);
+
+        String icon = description.path("icon_url").asText("");
+        this.iconUrl = icon.isEmpty() ? null : ICON_URL_PREFIX + icon;
+    }
+
+    /**
+     * @return Localized display name of the item
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The item's market hash name (used in requests)
+     */
+    public String getMarketHashName() {
+        return marketHashName;
+    }
+
+    /**
+     * @return Steam App ID of the item, or 0 if not reported
+     */
+    public int getAppID() {
+        return appID;
+    }
+
+    /**
+     * @return Number of active sell listings
+     */
+    public int getSellListings() {
+        return sellListings;
+    }
+
+    /**
+     * @return Lowest sell price in USD
+     */
+    public double getSellPrice() {
+        return sellPrice / 100.0;
+    }
+
+    /**
+     * @return Lowest sell price in USD cents
+     */
+    public int getSellPriceCents() {
+        return sellPrice;
+    }
+
+    /**
+     * @return Lowest sell price as formatted by Steam (e.g. {@code "$0.20"})
+     */
+    public String getSellPriceText() {
+        return sellPriceText;
+    }
+
+    /**
+     * @return The item's icon URL, or {@code null} if not reported
+     */
+    public String getIconUrl() {
+        return iconUrl;
+    }
+
+    @Override
+    public String toString() {
+        return "MarketSearchResult{" +
+               "marketHashName='" + marketHashName + '\'' +
+               ", sellListings=" + sellListings +
+               ", sellPrice=" + getSellPrice() +
+               ", iconUrl='" + iconUrl + '\'' +
+               '}';
+    }
+}
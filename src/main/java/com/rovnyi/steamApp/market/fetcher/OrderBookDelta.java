@@ -0,0 +1,302 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Difference between two {@link ItemOrdersHistogram} snapshots of the same item.
+ * <p>
+ * Both sides are compared in a single merge pass over their price levels, which Steam already returns sorted
+ * (buy levels from the highest price, sell levels from the lowest), so computing a delta is linear in the number of
+ * levels and allocates nothing for unchanged ones. Only changed levels are kept, in the same best-first order.
+ * <p>
+ * A delta can be applied to the previous snapshot to rebuild the current one, so consumers can store the first
+ * book and the deltas instead of every full book.
+ */
+public class OrderBookDelta {
+
+    private final List<OrderLevelChange> buyChanges;
+
+    private final List<OrderLevelChange> sellChanges;
+
+    private final double previousHighestBuyOrder;
+
+    private final double highestBuyOrder;
+
+    private final double previousBestBid;
+
+    private final double bestBid;
+
+    private final double previousBestAsk;
+
+    private final double bestAsk;
+
+    private OrderBookDelta(List<OrderLevelChange> buyChanges, List<OrderLevelChange> sellChanges,
+                           double previousHighestBuyOrder, double highestBuyOrder,
+                           double previousBestBid, double bestBid, double previousBestAsk, double bestAsk) {
+        this.buyChanges = buyChanges;
+        this.sellChanges = sellChanges;
+        this.previousHighestBuyOrder = previousHighestBuyOrder;
+        this.highestBuyOrder = highestBuyOrder;
+        this.previousBestBid = previousBestBid;
+        this.bestBid = bestBid;
+        this.previousBestAsk = previousBestAsk;
+        this.bestAsk = bestAsk;
+    }
+
+    /**
+     * Computes the changes from {@code previous} to {@code current}.
+     *
+     * @param previous Older snapshot, or {@code null} to treat every current level as added
+     * @param current  Newer snapshot
+     * @return Delta between the snapshots
+     * @throws IllegalArgumentException if a snapshot is not successful
+     */
+    public static OrderBookDelta between(ItemOrdersHistogram previous, ItemOrdersHistogram current) {
+        if (previous != null && !previous.isSuccess()) throw new IllegalArgumentException("previous snapshot is not successful");
+        if (!current.isSuccess()) throw new IllegalArgumentException("current snapshot is not successful");
+
+        Levels previousBuy = previous == null ? Levels.EMPTY : Levels.of(previous.getBuyOrderGraph(), true);
+        Levels previousSell = previous == null ? Levels.EMPTY : Levels.of(previous.getSellOrderGraph(), false);
+        Levels currentBuy = Levels.of(current.getBuyOrderGraph(), true);
+        Levels currentSell = Levels.of(current.getSellOrderGraph(), false);
+
+        return new OrderBookDelta(
+                merge(previousBuy, currentBuy, true),
+                merge(previousSell, currentSell, false),
+                previous == null ? 0 : previous.getHighestBuyOrder(),
+                current.getHighestBuyOrder(),
+                previousBuy.best(), currentBuy.best(),
+                previousSell.best(), currentSell.best());
+    }
+
+    /**
+     * Walks both sorted level lists at once and emits a change for every level that differs.
+     */
+    private static List<OrderLevelChange> merge(Levels previous, Levels current, boolean descending) {
+        List<OrderLevelChange> changes = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+
+        while (i < previous.size || j < current.size) {
+            int order;
+            if (i == previous.size) order = 1;
+            else if (j == current.size) order = -1;
+            else order = descending ? Double.compare(current.prices[j], previous.prices[i])
+                                    : Double.compare(previous.prices[i], current.prices[j]);
+
+            if (order < 0) {
+                changes.add(new OrderLevelChange(previous.prices[i], previous.quantities[i], 0));
+                i++;
+            } else if (order > 0) {
+                changes.add(new OrderLevelChange(current.prices[j], 0, current.quantities[j]));
+                j++;
+            } else {
+                if (previous.quantities[i] != current.quantities[j]) {
+                    changes.add(new OrderLevelChange(current.prices[j], previous.quantities[i], current.quantities[j]));
+                }
+                i++;
+                j++;
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Rebuilds the newer snapshot from the older one.
+     *
+     * @param previous The snapshot this delta was computed from, or {@code null} if it was computed from none
+     * @return Snapshot equal to the newer one
+     */
+    public ItemOrdersHistogram applyTo(ItemOrdersHistogram previous) {
+        Levels buy = previous == null ? Levels.EMPTY : Levels.of(previous.getBuyOrderGraph(), true);
+        Levels sell = previous == null ? Levels.EMPTY : Levels.of(previous.getSellOrderGraph(), false);
+
+        return new ItemOrdersHistogram(highestBuyOrder, apply(buy, buyChanges, true), apply(sell, sellChanges, false));
+    }
+
+    private static Map<Double, Integer> apply(Levels levels, List<OrderLevelChange> changes, boolean descending) {
+        Map<Double, Integer> result = new LinkedHashMap<>();
+        int i = 0;
+        int c = 0;
+
+        while (i < levels.size || c < changes.size()) {
+            int order;
+            if (i == levels.size) order = 1;
+            else if (c == changes.size()) order = -1;
+            else order = descending ? Double.compare(changes.get(c).getPrice(), levels.prices[i])
+                                    : Double.compare(levels.prices[i], changes.get(c).getPrice());
+
+            if (order < 0) {
+                result.put(levels.prices[i], levels.quantities[i]);
+                i++;
+            } else {
+                OrderLevelChange change = changes.get(c);
+                if (change.getQuantity() != 0) result.put(change.getPrice(), change.getQuantity());
+                if (order == 0) i++;
+                c++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return {@code true} if the snapshots describe the same book
+     */
+    public boolean isEmpty() {
+        return buyChanges.isEmpty() && sellChanges.isEmpty() && highestBuyOrder == previousHighestBuyOrder;
+    }
+
+    /**
+     * @return Changed buy levels, best (highest) price first
+     */
+    public List<OrderLevelChange> getBuyChanges() {
+        return buyChanges;
+    }
+
+    /**
+     * @return Changed sell levels, best (lowest) price first
+     */
+    public List<OrderLevelChange> getSellChanges() {
+        return sellChanges;
+    }
+
+    /**
+     * @return Highest buy order of the older snapshot
+     */
+    public double getPreviousHighestBuyOrder() {
+        return previousHighestBuyOrder;
+    }
+
+    /**
+     * @return Highest buy order of the newer snapshot
+     */
+    public double getHighestBuyOrder() {
+        return highestBuyOrder;
+    }
+
+    /**
+     * @return Best bid of the older snapshot, 0 if it had no buy levels
+     */
+    public double getPreviousBestBid() {
+        return previousBestBid;
+    }
+
+    /**
+     * @return Best bid of the newer snapshot, 0 if it has no buy levels
+     */
+    public double getBestBid() {
+        return bestBid;
+    }
+
+    /**
+     * @return Best ask of the older snapshot, 0 if it had no sell levels
+     */
+    public double getPreviousBestAsk() {
+        return previousBestAsk;
+    }
+
+    /**
+     * @return Best ask of the newer snapshot, 0 if it has no sell levels
+     */
+    public double getBestAsk() {
+        return bestAsk;
+    }
+
+    /**
+     * @return {@code true} if the best bid price changed
+     */
+    public boolean isBestBidMoved() {
+        return bestBid != previousBestBid;
+    }
+
+    /**
+     * @return {@code true} if the best ask price changed
+     */
+    public boolean isBestAskMoved() {
+        return bestAsk != previousBestAsk;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBookDelta{" +
+               "buyChanges=" + buyChanges +
+               ", sellChanges=" + sellChanges +
+               ", bestBid=" + previousBestBid + " -> " + bestBid +
+               ", bestAsk=" + previousBestAsk + " -> " + bestAsk +
+               '}';
+    }
+
+    /**
+     * Price levels of one side, best price first, without empty levels.
+     */
+    private static final class Levels {
+        private static final Levels EMPTY = new Levels(new double[0], new int[0], 0);
+
+        private final double[] prices;
+        private final int[] quantities;
+        private final int size;
+
+        private Levels(double[] prices, int[] quantities, int size) {
+            this.prices = prices;
+            this.quantities = quantities;
+            this.size = size;
+        }
+
+        /**
+         * Copies the graph into arrays. Graphs parsed from Steam are already in order; any other map is sorted.
+         */
+        static Levels of(Map<Double, Integer> graph, boolean descending) {
+            if (graph == null || graph.isEmpty()) return EMPTY;
+
+            double[] prices = new double[graph.size()];
+            int[] quantities = new int[graph.size()];
+            int size = 0;
+            boolean sorted = true;
+
+            for (Map.Entry<Double, Integer> level : graph.entrySet()) {
+                if (level.getValue() == null || level.getValue() == 0) continue;
+
+                double price = level.getKey();
+                if (size > 0) {
+                    int order = Double.compare(prices[size - 1], price);
+                    if (descending ? order <= 0 : order >= 0) sorted = false;
+                }
+
+                prices[size] = price;
+                quantities[size] = level.getValue();
+                size++;
+            }
+
+            if (!sorted) sort(prices, quantities, size, descending);
+            return new Levels(prices, quantities, size);
+        }
+
+        private static void sort(double[] prices, int[] quantities, int size, boolean descending) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> descending ? Double.compare(prices[b], prices[a]) : Double.compare(prices[a], prices[b]));
+
+            double[] sortedPrices = new double[size];
+            int[] sortedQuantities = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedPrices[i] = prices[order[i]];
+                sortedQuantities[i] = quantities[order[i]];
+            }
+
+            System.arraycopy(sortedPrices, 0, prices, 0, size);
+            System.arraycopy(sortedQuantities, 0, quantities, 0, size);
+        }
+
+        double best() {
+            return size == 0 ? 0 : prices[0];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+/**
+ * Change of a single price level between two order book snapshots.
+ * <p>
+ * Part of an {@link OrderBookDelta}.
+ */
+public class OrderLevelChange {
+
+    /**
+     * Kind of level change.
+     */
+    public enum Type {
+        /** The level did not exist in the previous snapshot */
+        ADDED,
+        /** The level no longer exists */
+        REMOVED,
+        /** The level exists in both snapshots with a different order count */
+        CHANGED
+    }
+
+    private final double price;
+
+    private final int previousQuantity;
+
+    private final int quantity;
+
+    /**
+     * Constructs a new level change.
+     *
+     * @param price            Price of the level
+     * @param previousQuantity Order count in the previous snapshot, 0 if the level was added
+     * @param quantity         Order count in the current snapshot, 0 if the level was removed
+     */
+    public OrderLevelChange(double price, int previousQuantity, int quantity) {
+        this.price = price;
+        this.previousQuantity = previousQuantity;
+        this.quantity = quantity;
+    }
+
+    /**
+     * @return Kind of the change
+     */
+    public Type getType() {
+        if (previousQuantity == 0) return Type.ADDED;
+        if (quantity == 0) return Type.REMOVED;
+        return Type.CHANGED;
+    }
+
+    /**
+     * @return Price of the level
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * @return Order count in the previous snapshot, 0 if the level was added
+     */
+    public int getPreviousQuantity() {
+        return previousQuantity;
+    }
+
+    /**
+     * @return Order count in the current snapshot, 0 if the level was removed
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return Difference of the order count, negative if orders disappeared
+     */
+    public int getQuantityChange() {
+        return quantity - previousQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderLevelChange{" +
+               "type=" + getType() +
+               ", price=" + price +
+               ", previousQuantity=" + previousQuantity +
+               ", quantity=" + quantity +
+               '}';
+    }
+}
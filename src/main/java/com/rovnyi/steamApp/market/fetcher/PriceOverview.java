@@ -38,6 +38,21 @@ public class PriceOverview {
         }
     }
 
+    /**
+     * Constructs a {@code PriceOverview} from already known values, e.g. an overview read back from a cache.
+     *
+     * @param success     Whether the API call returned a valid response
+     * @param lowestPrice Lowest listed price
+     * @param volume      Number of items sold in the last 24 hours
+     * @param medianPrice Median sale price
+     */
+    public PriceOverview(boolean success, double lowestPrice, int volume, double medianPrice) {
+        this.success = success;
+        this.lowestPrice = lowestPrice;
+        this.volume = volume;
+        this.medianPrice = medianPrice;
+    }
+
     /**
      * Extracts a numeric value from a price string (removes currency symbols and formatting).
      *
@@ -3,6 +3,10 @@ package com.rovnyi.steamApp.market.fetcher;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rovnyi.steamApp.enums.AppID;
 import com.rovnyi.steamApp.enums.CurrencyCode;
+import com.rovnyi.steamApp.market.transport.BodyFingerprint;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.ResponseMemo;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -11,6 +15,7 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Map;
 
 /**
@@ -18,6 +23,9 @@ import java.util.Map;
  * <p>
  * This class sends a request to the <code>/priceoverview</code> endpoint and
  * parses the JSON response into a {@link PriceOverview} object.
+ * <p>
+ * Response bodies are fingerprinted while they are read; a body identical to the previous one for the same item
+ * is not parsed again, and {@link #fetch(String)} reports it as unchanged.
  */
 public class PriceOverviewFetcher {
 
@@ -31,6 +39,10 @@ public class PriceOverviewFetcher {
 
     private final CurrencyCode currency;
 
+    private final RateLimiter rateLimiter;
+
+    private final ResponseMemo<PriceOverview> memo;
+
     /**
      * Constructs a new {@code PriceOverviewFetcher} with the specified app ID and currency.
      *
@@ -38,8 +50,33 @@ public class PriceOverviewFetcher {
      * @param currency Currency in which to return price values
      */
     public PriceOverviewFetcher(AppID appID, CurrencyCode currency,  Logger log) {
+        this(appID, currency, null, log);
+    }
+
+    /**
+     * Constructs a new {@code PriceOverviewFetcher} whose requests wait on the given rate limiter.
+     *
+     * @param appID       Steam App ID (e.g. CS2)
+     * @param currency    Currency in which to return price values
+     * @param rateLimiter Rate limiter every request waits on, or {@code null}
+     */
+    public PriceOverviewFetcher(AppID appID, CurrencyCode currency, RateLimiter rateLimiter, Logger log) {
+        this(appID, currency, rateLimiter, new ResponseMemo<>(), log);
+    }
+
+    /**
+     * Constructs a new {@code PriceOverviewFetcher} remembering parsed responses in the given memo.
+     *
+     * @param appID       Steam App ID (e.g. CS2)
+     * @param currency    Currency in which to return price values
+     * @param rateLimiter Rate limiter every request waits on, or {@code null}
+     * @param memo        Memo of parsed responses, or {@code null} to parse every response and report it as changed
+     */
+    public PriceOverviewFetcher(AppID appID, CurrencyCode currency, RateLimiter rateLimiter, ResponseMemo<PriceOverview> memo, Logger log) {
         this.appID = appID;
         this.currency = currency;
+        this.rateLimiter = rateLimiter;
+        this.memo = memo;
         this.log = log;
     }
 
@@ -52,6 +89,35 @@ public class PriceOverviewFetcher {
      * @throws MarketFetcherException If a network or parsing error occurs
      */
     public PriceOverview callAPI(String marketHashName) {
+        FetchResult<PriceOverview> result = fetch(marketHashName);
+        return result == null ? null : result.getValue();
+    }
+
+    /**
+     * Fetches price overview data and reports whether it changed since the previous fetch of the item.
+     *
+     * @param marketHashName The unique market hash name of the item
+     * @return Result holding the {@link PriceOverview}, or {@code null} if the response is invalid or incomplete
+     * @throws MarketFetcherException If a network or parsing error occurs
+     */
+    public FetchResult<PriceOverview> fetch(String marketHashName) {
+        BodyFingerprint body = fetchBody(marketHashName);
+        return body == null ? null : parse(marketHashName, body);
+    }
+
+    /**
+     * Sends the request for the given item and reads the response body without parsing it.
+     * <p>
+     * Together with {@link #parse(String, BodyFingerprint)} this splits {@link #fetch(String)} into its network
+     * and CPU parts, so they can run on different threads.
+     *
+     * @param marketHashName The unique market hash name of the item
+     * @return Response body, or {@code null} if the response is unsuccessful
+     * @throws MarketFetcherException If a network error occurs
+     */
+    public BodyFingerprint fetchBody(String marketHashName) {
+        Deadline.acquire(rateLimiter);
+
         HttpUrl url = new HttpUrl.Builder()
                 .scheme("https")
                 .host("steamcommunity.com")
@@ -70,32 +136,63 @@ public class PriceOverviewFetcher {
                         "Chrome/126.0.6478.185 Safari/537.36")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = Deadline.execute(client.newCall(request))) {
             if (!response.isSuccessful() || response.body() == null) {
                 return null;
             }
 
-            String json = response.body().string();
+            return BodyFingerprint.read(response.body().byteStream());
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new MarketFetcherException(e);
+        }
+    }
+
+    /**
+     * Parses a response body read by {@link #fetchBody(String)}.
+     *
+     * @param marketHashName The unique market hash name of the item
+     * @param body           Response body
+     * @return Result holding the {@link PriceOverview}, or {@code null} if the response is invalid or incomplete
+     * @throws MarketFetcherException If a parsing error occurs
+     */
+    public FetchResult<PriceOverview> parse(String marketHashName, BodyFingerprint body) {
+        PriceOverview previous = memo == null ? null : memo.reuse(marketHashName, body.getFingerprint());
+        if (previous != null) return FetchResult.unchanged(previous, body.getFingerprint());
 
-            Map<String, Object> map = mapper.readValue(json, Map.class);
+        try {
+            Map<String, Object> map = mapper.readValue(body.getBytes(), 0, body.getLength(), Map.class);
             if (map.size() < 2) return null;
 
             if (log != null) log.debug("Map for PriceOverview: {}", map);
-            return new PriceOverview(map);
+            PriceOverview price = new PriceOverview(map);
+            if (memo != null) memo.remember(marketHashName, body.getFingerprint(), price);
+            return FetchResult.changed(price, body.getFingerprint());
         } catch (IOException e) {
             if (log != null) log.error(e.getMessage());
             throw new MarketFetcherException(e);
         }
     }
 
+    /**
+     * Forgets all remembered responses, so the next fetch of every item is parsed and reported as changed.
+     */
+    public void clearFingerprints() {
+        if (memo != null) memo.clear();
+    }
+
     /**
      * Builder class for {@link PriceOverviewFetcher}.
      * <p>
-     * Provides default configuration: AppID = CS2, Currency = USD.
+     * Provides default configuration: AppID = CS2, Currency = USD, ResponseMemo = {@link ResponseMemo#DEFAULT_MAX_ENTRIES}
+     * items for {@link ResponseMemo#DEFAULT_TTL}.
      */
     public static class Builder {
         private AppID appID = AppID.COUNTER_STRIKE_2;
         private CurrencyCode currency = CurrencyCode.USD;
+        private RateLimiter rateLimiter = null;
+        private int memoEntries = ResponseMemo.DEFAULT_MAX_ENTRIES;
+        private Duration memoTtl = ResponseMemo.DEFAULT_TTL;
         private Logger log = null;
 
         /**
@@ -120,6 +217,30 @@ public class PriceOverviewFetcher {
             return this;
         }
 
+        /**
+         * Sets the rate limiter every request waits on.
+         *
+         * @param rateLimiter Shared rate limiter
+         * @return The current builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * Sets how many parsed responses are remembered, so unchanged ones are not parsed again.
+         *
+         * @param maxEntries Maximum number of items remembered, or 0 to parse every response and report it as changed
+         * @param ttl        Time a parsed response is reused after it was remembered
+         * @return The current builder instance
+         */
+        public Builder responseMemo(int maxEntries, Duration ttl) {
+            this.memoEntries = maxEntries;
+            this.memoTtl = ttl;
+            return this;
+        }
+
         public Builder withLogger(Logger log) {
             this.log = log;
             return this;
@@ -131,7 +252,8 @@ public class PriceOverviewFetcher {
          * @return A new {@link PriceOverviewFetcher}
          */
         public @NotNull PriceOverviewFetcher build() {
-            return new PriceOverviewFetcher(appID, currency, log);
+            ResponseMemo<PriceOverview> memo = memoEntries > 0 ? new ResponseMemo<>(memoEntries, memoTtl) : null;
+            return new PriceOverviewFetcher(appID, currency, rateLimiter, memo, log);
         }
     }
 }
@@ -0,0 +1,73 @@
+package com.rovnyi.steamApp.market.fetcher;
+
+import java.util.List;
+
+/**
+ * Represents a single page of Steam Market search results.
+ * <p>
+ * Returned by {@link MarketSearchFetcher#fetchPage} and {@link MarketSearchFetcher#fetchResults}; besides the names
+ * on the page it carries the total number of items matching the query, which is needed to walk the whole result set.
+ * Pages fetched with {@link MarketSearchFetcher#fetchResults} also carry structured {@link MarketSearchResult}s.
+ */
+public class SearchPage {
+
+    private final List<String> names;
+
+    private final List<MarketSearchResult> results;
+
+    private final int start;
+
+    private final int totalCount;
+
+    /**
+     * Constructs a new {@code SearchPage}.
+     *
+     * @param names      Market hash names on this page
+     * @param results    Structured results on this page, empty for rendered (HTML) searches
+     * @param start      Offset of the first name on this page
+     * @param totalCount Total number of items matching the query
+     */
+    public SearchPage(List<String> names, List<MarketSearchResult> results, int start, int totalCount) {
+        this.names = List.copyOf(names);
+        this.results = List.copyOf(results);
+        this.start = start;
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @return Market hash names on this page, in result order
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @return Structured results on this page; empty unless fetched with {@link MarketSearchFetcher#fetchResults}
+     */
+    public List<MarketSearchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * @return Offset of the first name on this page
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return Total number of items matching the query
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchPage{" +
+               "start=" + start +
+               ", size=" + names.size() +
+               ", totalCount=" + totalCount +
+               '}';
+    }
+}
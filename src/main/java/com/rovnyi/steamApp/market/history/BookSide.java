@@ -0,0 +1,209 @@
+package com.rovnyi.steamApp.market.history;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One side of an order book as parallel arrays of minor-unit prices and order counts, best price first.
+ */
+final class BookSide {
+
+    static final BookSide EMPTY = new BookSide(new long[0], new int[0], 0);
+
+    final long[] prices;
+
+    final int[] quantities;
+
+    final int size;
+
+    private BookSide(long[] prices, int[] quantities, int size) {
+        this.prices = prices;
+        this.quantities = quantities;
+        this.size = size;
+    }
+
+    /**
+     * Converts a graph to minor units. Levels that round to the same price are merged; empty levels are dropped.
+     */
+    static BookSide of(Map<Double, Integer> graph, int minorUnits, boolean descending) {
+        if (graph == null || graph.isEmpty()) return EMPTY;
+
+        long[] prices = new long[graph.size()];
+        int[] quantities = new int[graph.size()];
+        int size = 0;
+
+        for (Map.Entry<Double, Integer> level : graph.entrySet()) {
+            if (level.getValue() == null || level.getValue() <= 0) continue;
+            prices[size] = Math.round(level.getKey() * minorUnits);
+            quantities[size] = level.getValue();
+            size++;
+        }
+
+        sort(prices, quantities, size, descending);
+
+        int merged = 0;
+        for (int i = 0; i < size; i++) {
+            if (merged > 0 && prices[merged - 1] == prices[i]) {
+                quantities[merged - 1] += quantities[i];
+            } else {
+                prices[merged] = prices[i];
+                quantities[merged] = quantities[i];
+                merged++;
+            }
+        }
+
+        return new BookSide(prices, quantities, merged);
+    }
+
+    Map<Double, Integer> toGraph(int minorUnits) {
+        Map<Double, Integer> graph = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            graph.put((double) prices[i] / minorUnits, quantities[i]);
+        }
+        return graph;
+    }
+
+    /**
+     * Writes the full side: level count, then price steps and order counts.
+     */
+    void write(OutputStream out) throws IOException {
+        Varints.writeUnsigned(out, size);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            Varints.writeSigned(out, prices[i] - previous);
+            Varints.writeUnsigned(out, quantities[i]);
+            previous = prices[i];
+        }
+    }
+
+    static BookSide read(InputStream in) throws IOException {
+        int size = (int) Varints.readUnsigned(in);
+        long[] prices = new long[size];
+        int[] quantities = new int[size];
+
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += Varints.readSigned(in);
+            prices[i] = previous;
+            quantities[i] = (int) Varints.readUnsigned(in);
+        }
+        return new BookSide(prices, quantities, size);
+    }
+
+    /**
+     * Writes the changed levels from {@code previous} to {@code current} in one merge pass:
+     * change count, then price steps and new order counts (0 for removed levels).
+     */
+    static void writeDelta(OutputStream out, BookSide previous, BookSide current, boolean descending) throws IOException {
+        long[] changedPrices = new long[previous.size + current.size];
+        int[] changedQuantities = new int[previous.size + current.size];
+        int changes = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < previous.size || j < current.size) {
+            int order = compare(previous, i, current, j, descending);
+
+            if (order < 0) {
+                changedPrices[changes] = previous.prices[i++];
+                changedQuantities[changes++] = 0;
+            } else if (order > 0) {
+                changedPrices[changes] = current.prices[j];
+                changedQuantities[changes++] = current.quantities[j++];
+            } else {
+                if (previous.quantities[i] != current.quantities[j]) {
+                    changedPrices[changes] = current.prices[j];
+                    changedQuantities[changes++] = current.quantities[j];
+                }
+                i++;
+                j++;
+            }
+        }
+
+        Varints.writeUnsigned(out, changes);
+        long last = 0;
+        for (int c = 0; c < changes; c++) {
+            Varints.writeSigned(out, changedPrices[c] - last);
+            Varints.writeUnsigned(out, changedQuantities[c]);
+            last = changedPrices[c];
+        }
+    }
+
+    /**
+     * Reads a delta written by {@link #writeDelta} and applies it to this side.
+     */
+    BookSide readDelta(InputStream in, boolean descending) throws IOException {
+        int changes = (int) Varints.readUnsigned(in);
+        if (changes == 0) return this;
+
+        long[] changedPrices = new long[changes];
+        int[] changedQuantities = new int[changes];
+        long last = 0;
+        for (int c = 0; c < changes; c++) {
+            last += Varints.readSigned(in);
+            changedPrices[c] = last;
+            changedQuantities[c] = (int) Varints.readUnsigned(in);
+        }
+        BookSide delta = new BookSide(changedPrices, changedQuantities, changes);
+
+        long[] prices = new long[size + changes];
+        int[] quantities = new int[size + changes];
+        int merged = 0;
+
+        int i = 0;
+        int c = 0;
+        while (i < size || c < changes) {
+            int order = compare(this, i, delta, c, descending);
+
+            if (order < 0) {
+                prices[merged] = this.prices[i];
+                quantities[merged++] = this.quantities[i++];
+            } else {
+                if (delta.quantities[c] != 0) {
+                    prices[merged] = delta.prices[c];
+                    quantities[merged++] = delta.quantities[c];
+                }
+                if (order == 0) i++;
+                c++;
+            }
+        }
+
+        return new BookSide(prices, quantities, merged);
+    }
+
+    /**
+     * Orders level {@code i} of {@code a} against level {@code j} of {@code b}: negative if a's level comes first.
+     */
+    private static int compare(BookSide a, int i, BookSide b, int j, boolean descending) {
+        if (i == a.size) return 1;
+        if (j == b.size) return -1;
+        return descending ? Long.compare(b.prices[j], a.prices[i]) : Long.compare(a.prices[i], b.prices[j]);
+    }
+
+    private static void sort(long[] prices, int[] quantities, int size, boolean descending) {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = descending ? prices[i - 1] >= prices[i] : prices[i - 1] <= prices[i];
+        }
+        if (sorted) return;
+
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> descending ? Long.compare(prices[b], prices[a]) : Long.compare(prices[a], prices[b]));
+
+        long[] sortedPrices = new long[size];
+        int[] sortedQuantities = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedPrices[i] = prices[order[i]];
+            sortedQuantities[i] = quantities[order[i]];
+        }
+        System.arraycopy(sortedPrices, 0, prices, 0, size);
+        System.arraycopy(sortedQuantities, 0, quantities, 0, size);
+    }
+}
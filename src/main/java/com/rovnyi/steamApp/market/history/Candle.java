@@ -0,0 +1,149 @@
+package com.rovnyi.steamApp.market.history;
+
+import java.time.Instant;
+
+/**
+ * Open/high/low/close summary of the snapshots of one item within one time bucket.
+ * <p>
+ * Steam reports volume as the number of sales in the last 24 hours, so the VWAP weights each snapshot's price by
+ * that rolling volume, and {@link #getVolume()} is the rolling volume of the bucket's last snapshot.
+ */
+public class Candle {
+
+    private final long start;
+
+    private final long end;
+
+    private final double open;
+
+    private final double high;
+
+    private final double low;
+
+    private final double close;
+
+    private final int volume;
+
+    private final int count;
+
+    private final double priceVolumeSum;
+
+    private final long volumeSum;
+
+    private final double priceSum;
+
+    Candle(long start, long end, double open, double high, double low, double close, int volume, int count,
+           double priceVolumeSum, long volumeSum, double priceSum) {
+        this.start = start;
+        this.end = end;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+        this.count = count;
+        this.priceVolumeSum = priceVolumeSum;
+        this.volumeSum = volumeSum;
+        this.priceSum = priceSum;
+    }
+
+    /**
+     * Combines two candles of consecutive time ranges into one covering both.
+     */
+    static Candle merge(Candle first, Candle second, long start, long end) {
+        return new Candle(start, end, first.open, Math.max(first.high, second.high), Math.min(first.low, second.low),
+                second.close, second.volume, first.count + second.count,
+                first.priceVolumeSum + second.priceVolumeSum, first.volumeSum + second.volumeSum, first.priceSum + second.priceSum);
+    }
+
+    /**
+     * Returns this candle moved into an enclosing bucket, e.g. an hourly candle as the first part of a daily one.
+     */
+    Candle withBucket(long start, long end) {
+        return new Candle(start, end, open, high, low, close, volume, count, priceVolumeSum, volumeSum, priceSum);
+    }
+
+    /**
+     * @return Start of the bucket in epoch milliseconds, inclusive
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return End of the bucket in epoch milliseconds, exclusive
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return Start of the bucket
+     */
+    public Instant getStartInstant() {
+        return Instant.ofEpochMilli(start);
+    }
+
+    /**
+     * @return Price of the first snapshot in the bucket
+     */
+    public double getOpen() {
+        return open;
+    }
+
+    /**
+     * @return Highest price in the bucket
+     */
+    public double getHigh() {
+        return high;
+    }
+
+    /**
+     * @return Lowest price in the bucket
+     */
+    public double getLow() {
+        return low;
+    }
+
+    /**
+     * @return Price of the last snapshot in the bucket
+     */
+    public double getClose() {
+        return close;
+    }
+
+    /**
+     * @return 24-hour sales volume reported by the last snapshot in the bucket
+     */
+    public int getVolume() {
+        return volume;
+    }
+
+    /**
+     * @return Number of snapshots in the bucket
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return Volume-weighted average price, or the plain average if no snapshot reported any volume
+     */
+    public double getVwap() {
+        return volumeSum > 0 ? priceVolumeSum / volumeSum : priceSum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "Candle{" +
+               "start=" + getStartInstant() +
+               ", open=" + open +
+               ", high=" + high +
+               ", low=" + low +
+               ", close=" + close +
+               ", vwap=" + getVwap() +
+               ", volume=" + volume +
+               ", count=" + count +
+               '}';
+    }
+}
@@ -0,0 +1,27 @@
+package com.rovnyi.steamApp.market.history;
+
+/**
+ * Exception thrown when reading from or writing to the price history files fails.
+ * <p>
+ * Used by {@link PriceHistoryStore} to indicate I/O issues or corrupted segment files.
+ */
+public class HistoryStorageException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code HistoryStorageException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public HistoryStorageException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code HistoryStorageException} with the specified cause.
+     *
+     * @param cause the underlying {@link Throwable} that caused this exception
+     */
+    public HistoryStorageException(Throwable cause) {
+        super(cause);
+    }
+}
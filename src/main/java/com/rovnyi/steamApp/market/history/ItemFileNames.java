@@ -0,0 +1,43 @@
+package com.rovnyi.steamApp.market.history;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * File names derived from market hash names.
+ * <p>
+ * Names are stored as URL-safe Base64, which keeps them reversible and free of path separators; names whose encoding
+ * would be too long for a file system are replaced by {@code "h-"} and their SHA-256 hash.
+ */
+final class ItemFileNames {
+
+    static final String HASHED_PREFIX = "h-";
+
+    private static final int MAX_LENGTH = 200;
+
+    private ItemFileNames() {
+    }
+
+    static String encode(String marketHashName) {
+        byte[] bytes = marketHashName.getBytes(StandardCharsets.UTF_8);
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        if (encoded.length() <= MAX_LENGTH) return encoded;
+
+        try {
+            return HASHED_PREFIX + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return The market hash name, or {@code null} if the name was hashed
+     */
+    static String decode(String fileName) {
+        if (fileName.startsWith(HASHED_PREFIX)) return null;
+        return new String(Base64.getUrlDecoder().decode(fileName), StandardCharsets.UTF_8);
+    }
+}
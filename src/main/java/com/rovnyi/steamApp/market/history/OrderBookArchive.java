@@ -0,0 +1,255 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOrdersHistogram;
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Directory of order book archives, one {@link OrderBookArchiveWriter} file per item.
+ * <p>
+ * Meant to sit at the end of the fetch path, e.g. in a
+ * {@link com.rovnyi.steamApp.market.watch.WatchListener#onUpdate} callback: {@link #append(ItemOverview)} routes each
+ * fetched book to its item's archive. Writers of recently used items stay open in an LRU of {@code maxOpenWriters}
+ * entries; evicted writers are flushed and closed, and continue with a new keyframe when the item comes back.
+ * <p>
+ * Thread-safe; appends are serialized.
+ */
+public class OrderBookArchive implements AutoCloseable {
+
+    private static final String EXTENSION = ".obk";
+
+    private final Path directory;
+
+    private final int minorUnits;
+
+    private final int keyframeInterval;
+
+    private final int maxOpenWriters;
+
+    private final Logger log;
+
+    private final Map<String, OrderBookArchiveWriter> writers;
+
+    /**
+     * Constructs a new archive directory.
+     *
+     * @param directory        Directory of the archive files; created if missing
+     * @param minorUnits       Minor units per currency unit (100 for cents)
+     * @param keyframeInterval Number of records per block, including the keyframe
+     * @param maxOpenWriters   Maximum number of archive files kept open
+     * @param log              Logger, may be {@code null}
+     */
+    public OrderBookArchive(Path directory, int minorUnits, int keyframeInterval, int maxOpenWriters, Logger log) {
+        this.directory = directory;
+        this.minorUnits = minorUnits;
+        this.keyframeInterval = keyframeInterval;
+        this.maxOpenWriters = maxOpenWriters;
+        this.log = log;
+        this.writers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OrderBookArchiveWriter> eldest) {
+                if (size() <= OrderBookArchive.this.maxOpenWriters) return false;
+
+                eldest.getValue().close();
+                return true;
+            }
+        };
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Archives the order book of a fetched overview, timestamped with its fetch instant.
+     * <p>
+     * Meant to be called from fetch callbacks: a missing overview, an unsuccessful order book and a snapshot older
+     * than the item's last one, e.g. an overview served from a cache, are skipped instead of rejected.
+     *
+     * @param overview Fetched item data, may be {@code null}
+     */
+    public synchronized void append(ItemOverview overview) {
+        if (overview == null) return;
+
+        ItemOrdersHistogram histogram = overview.getOrders();
+        if (histogram == null || !histogram.isSuccess()) {
+            if (log != null) log.debug("Skipped unsuccessful order book of \"{}\"", overview.getMarketHashName());
+            return;
+        }
+
+        long timestamp = overview.getFetchedInstant().toEpochMilli();
+        OrderBookArchiveWriter writer = writer(overview.getMarketHashName());
+        if (timestamp < writer.getLastTimestamp()) {
+            if (log != null) log.debug("Skipped order book of \"{}\" older than the last one", overview.getMarketHashName());
+            return;
+        }
+        writer.append(timestamp, histogram);
+    }
+
+    /**
+     * Archives an order book snapshot.
+     *
+     * @param marketHashName The item's market hash name
+     * @param timestamp      Time of the snapshot in epoch milliseconds
+     * @param histogram      Successfully fetched order book
+     */
+    public synchronized void append(String marketHashName, long timestamp, ItemOrdersHistogram histogram) {
+        writer(marketHashName).append(timestamp, histogram);
+    }
+
+    private OrderBookArchiveWriter writer(String marketHashName) {
+        OrderBookArchiveWriter writer = writers.get(marketHashName);
+        if (writer == null) {
+            writer = new OrderBookArchiveWriter(file(marketHashName), minorUnits, keyframeInterval, log);
+            writers.put(marketHashName, writer);
+        }
+        return writer;
+    }
+
+    /**
+     * Opens a reader over an item's archive. Records appended but not yet flushed are not visible.
+     *
+     * @param marketHashName The item's market hash name
+     * @return Reader positioned at the first record, or {@code null} if the item has no archive
+     */
+    public OrderBookArchiveReader reader(String marketHashName) {
+        Path file = file(marketHashName);
+        if (!Files.exists(file)) return null;
+        return new OrderBookArchiveReader(file);
+    }
+
+    /**
+     * @return Market hash names of all archived items, except those whose name is too long to be decoded from the file name
+     */
+    public List<String> getItems() {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String fileName = file.getFileName().toString();
+                if (!fileName.endsWith(EXTENSION)) continue;
+
+                String name = ItemFileNames.decode(fileName.substring(0, fileName.length() - EXTENSION.length()));
+                if (name != null) names.add(name);
+            }
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+        return names;
+    }
+
+    /**
+     * Flushes all open writers.
+     */
+    public synchronized void flush() {
+        for (OrderBookArchiveWriter writer : writers.values()) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Flushes and closes all open writers.
+     */
+    @Override
+    public synchronized void close() {
+        for (OrderBookArchiveWriter writer : writers.values()) {
+            writer.close();
+        }
+        writers.clear();
+    }
+
+    private Path file(String marketHashName) {
+        return directory.resolve(ItemFileNames.encode(marketHashName) + EXTENSION);
+    }
+
+    /**
+     * Builder for {@link OrderBookArchive}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Minor units = 100 (cents)</li>
+     *     <li>Keyframe interval = 64 records</li>
+     *     <li>Max open writers = 256</li>
+     * </ul>
+     */
+    public static class Builder {
+        private Path directory;
+        private int minorUnits = 100;
+        private int keyframeInterval = 64;
+        private int maxOpenWriters = 256;
+        private Logger log = null;
+
+        /**
+         * Sets the directory of the archive files. Required.
+         *
+         * @param directory Archive directory
+         * @return This builder instance
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the number of minor units per currency unit, e.g. 1 for currencies without cents.
+         *
+         * @param minorUnits Minor units
+         * @return This builder instance
+         */
+        public Builder minorUnits(int minorUnits) {
+            this.minorUnits = Math.max(1, minorUnits);
+            return this;
+        }
+
+        /**
+         * Sets the number of records per block; a smaller value makes seeking faster and the archive larger.
+         *
+         * @param keyframeInterval Keyframe interval
+         * @return This builder instance
+         */
+        public Builder keyframeInterval(int keyframeInterval) {
+            this.keyframeInterval = Math.max(1, keyframeInterval);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of archive files kept open.
+         *
+         * @param maxOpenWriters Maximum number of open writers
+         * @return This builder instance
+         */
+        public Builder maxOpenWriters(int maxOpenWriters) {
+            this.maxOpenWriters = Math.max(1, maxOpenWriters);
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link OrderBookArchive}.
+         *
+         * @return New {@link OrderBookArchive} instance
+         */
+        public @NotNull OrderBookArchive build() {
+            if (directory == null) throw new IllegalStateException("directory is required");
+
+            return new OrderBookArchive(directory, minorUnits, keyframeInterval, maxOpenWriters, log);
+        }
+    }
+}
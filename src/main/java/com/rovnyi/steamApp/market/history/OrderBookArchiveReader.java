@@ -0,0 +1,247 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOrdersHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Replays an archive written by {@link OrderBookArchiveWriter} as a stream of {@link OrderBookRecord}s.
+ * <p>
+ * Records are decoded one at a time while reading, so replaying an archive of any size needs memory for a single
+ * book only. {@link #seek(long)} uses the keyframe index to start at the block containing the wanted time
+ * instead of decoding the archive from the beginning.
+ * <p>
+ * A record cut short at the end of the file (e.g. by a crash during writing) ends the replay. Not thread-safe.
+ */
+public class OrderBookArchiveReader implements Iterator<OrderBookRecord>, AutoCloseable {
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final int minorUnits;
+
+    private final long headerLength;
+
+    /** Buffered view of the channel that advances {@link #position} with every byte consumed */
+    private InputStream in;
+
+    private long position;
+
+    private long timestamp;
+
+    private long highestBuy;
+
+    private BookSide buy;
+
+    private BookSide sell;
+
+    private OrderBookRecord next;
+
+    private boolean exhausted;
+
+    /**
+     * Opens an archive for reading from its first record.
+     *
+     * @param file Archive file
+     */
+    public OrderBookArchiveReader(Path file) {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            InputStream header = Channels.newInputStream(channel);
+            this.minorUnits = OrderBookArchiveWriter.readHeader(header, file);
+            this.headerLength = channel.position();
+            reposition(headerLength);
+        } catch (IOException e) {
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Moves the reader so that the next record returned is the first one at or after the given time.
+     *
+     * @param timestampMillis Time in epoch milliseconds
+     * @return This reader
+     */
+    public OrderBookArchiveReader seek(long timestampMillis) {
+        try {
+            reposition(findKeyframe(timestampMillis));
+
+            while (hasNext()) {
+                if (next.getTimestamp() >= timestampMillis) break;
+                next = null;
+            }
+            return this;
+        } catch (IOException e) {
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) return true;
+        if (exhausted) return false;
+
+        next = readRecord();
+        if (next == null) exhausted = true;
+        return next != null;
+    }
+
+    @Override
+    public OrderBookRecord next() {
+        if (!hasNext()) throw new NoSuchElementException();
+
+        OrderBookRecord record = next;
+        next = null;
+        return record;
+    }
+
+    /**
+     * Returns the remaining records as a lazy stream. Closing the stream closes the reader.
+     *
+     * @return Stream of records in time order
+     */
+    public Stream<OrderBookRecord> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    /**
+     * @return Minor units per currency unit used by the archive
+     */
+    public int getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Moves the reader to the last keyframe, so that the remaining records are the archive's last block.
+     *
+     * @return This reader
+     */
+    OrderBookArchiveReader seekLastBlock() {
+        try {
+            reposition(findKeyframe(Long.MAX_VALUE));
+            return this;
+        } catch (IOException e) {
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * @return Offset just past the last record returned or looked ahead at
+     */
+    long getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Decodes the next record, or returns {@code null} at the end of the archive or at a truncated record.
+     */
+    private OrderBookRecord readRecord() {
+        long start = position;
+        try {
+            int type = in.read();
+            if (type < 0) return null;
+
+            if (type == OrderBookArchiveWriter.KEYFRAME) {
+                timestamp = Varints.readSigned(in);
+                highestBuy = Varints.readSigned(in);
+                buy = BookSide.read(in);
+                sell = BookSide.read(in);
+            } else if (type == OrderBookArchiveWriter.DELTA && buy != null) {
+                timestamp += Varints.readUnsigned(in);
+                highestBuy += Varints.readSigned(in);
+                buy = buy.readDelta(in, true);
+                sell = sell.readDelta(in, false);
+            } else {
+                throw new HistoryStorageException("Corrupted order book archive " + file + " at offset " + start);
+            }
+
+            ItemOrdersHistogram histogram = new ItemOrdersHistogram((double) highestBuy / minorUnits,
+                    buy.toGraph(minorUnits), sell.toGraph(minorUnits));
+            return new OrderBookRecord(timestamp, histogram, type == OrderBookArchiveWriter.KEYFRAME);
+        } catch (EOFException e) {
+            position = start;
+            return null;
+        } catch (IOException e) {
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Finds the offset of the last keyframe at or before the given time through the index.
+     */
+    private long findKeyframe(long timestampMillis) throws IOException {
+        Path indexFile = OrderBookArchiveWriter.indexFile(file);
+        if (!Files.exists(indexFile)) return headerLength;
+
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            long dataSize = channel.size();
+            ByteBuffer entry = ByteBuffer.allocate(16);
+
+            long low = 0;
+            long high = index.size() / 16 - 1;
+            long found = headerLength;
+
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                entry.clear();
+                index.read(entry, mid * 16);
+                long entryTimestamp = entry.getLong(0);
+                long entryOffset = entry.getLong(8);
+
+                // Entries past the end of the archive belong to records that were never written.
+                if (entryTimestamp <= timestampMillis && entryOffset < dataSize) {
+                    found = entryOffset;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+
+    private void reposition(long offset) throws IOException {
+        channel.position(offset);
+        InputStream buffered = new BufferedInputStream(Channels.newInputStream(channel));
+        in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                int b = buffered.read();
+                if (b >= 0) position++;
+                return b;
+            }
+        };
+        position = offset;
+        buy = null;
+        sell = null;
+        next = null;
+        exhausted = false;
+    }
+}
@@ -0,0 +1,291 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOrdersHistogram;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends order book snapshots of one item to an archive file.
+ * <p>
+ * The archive is a sequence of blocks. Every block starts with a keyframe holding the whole book, followed by up to
+ * {@code keyframeInterval - 1} deltas holding only the levels that changed since the previous snapshot. Prices are
+ * stored as integer minor units (e.g. cents), and all numbers are varints encoded relative to the previous value,
+ * so a typical delta takes a few bytes. A sibling index file ({@code <archive>.idx}) lists the time and file offset
+ * of every keyframe as fixed 16-byte entries, which lets {@link OrderBookArchiveReader#seek(long)} jump close to any
+ * point in time.
+ * <p>
+ * Layout:
+ * <pre>
+ * header    magic:int  minorUnits:varint
+ * keyframe  0:byte  timestamp:svarint  highestBuy:svarint  buySide  sellSide
+ * delta     1:byte  timestampStep:varint  highestBuyStep:svarint  buyChanges  sellChanges
+ * side      count:varint  (priceStep:svarint  quantity:varint)*
+ * </pre>
+ * Reopening an existing archive drops a record left incomplete by a crash and continues the last block from the
+ * last complete record, so later snapshots keep being checked against its time.
+ * Not thread-safe.
+ */
+public class OrderBookArchiveWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x4F424B31; // "OBK1"
+
+    static final int KEYFRAME = 0;
+
+    static final int DELTA = 1;
+
+    private final Path file;
+
+    private final int minorUnits;
+
+    private final int keyframeInterval;
+
+    private final Logger log;
+
+    private final OutputStream out;
+
+    private final DataOutputStream index;
+
+    private long position;
+
+    private int recordsInBlock;
+
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    private long lastHighestBuy;
+
+    private BookSide lastBuy;
+
+    private BookSide lastSell;
+
+    /**
+     * Opens an archive for appending, creating it if missing.
+     *
+     * @param file             Archive file
+     * @param minorUnits       Minor units per currency unit (100 for cents); ignored if the archive exists
+     * @param keyframeInterval Number of records per block, including the keyframe
+     * @param log              Logger, may be {@code null}
+     */
+    public OrderBookArchiveWriter(Path file, int minorUnits, int keyframeInterval, Logger log) {
+        this.file = file;
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.log = log;
+
+        try {
+            if (Files.exists(file) && Files.size(file) > 0) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    this.minorUnits = readHeader(in, file);
+                }
+                restoreLastRecord(file);
+            } else {
+                this.minorUnits = minorUnits;
+            }
+
+            this.position = Files.exists(file) ? Files.size(file) : 0;
+            this.out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            this.index = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(indexFile(file), StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+
+            if (position == 0) {
+                new DataOutputStream(out).writeInt(MAGIC);
+                Varints.writeUnsigned(out, this.minorUnits);
+                position = 4 + varintLength(this.minorUnits);
+            }
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Appends a snapshot.
+     *
+     * @param timestamp Time of the snapshot in epoch milliseconds
+     * @param histogram Successfully fetched order book
+     * @throws IllegalArgumentException if the snapshot is older than the previous one or not successful
+     */
+    public void append(long timestamp, ItemOrdersHistogram histogram) {
+        if (!histogram.isSuccess()) throw new IllegalArgumentException("Cannot archive an unsuccessful histogram");
+        if (timestamp < lastTimestamp) throw new IllegalArgumentException("Snapshot at " + timestamp + " is older than the previous one at " + lastTimestamp);
+
+        long highestBuy = Math.round(histogram.getHighestBuyOrder() * minorUnits);
+        BookSide buy = BookSide.of(histogram.getBuyOrderGraph(), minorUnits, true);
+        BookSide sell = BookSide.of(histogram.getSellOrderGraph(), minorUnits, false);
+
+        try {
+            CountingOutputStream record = new CountingOutputStream(out);
+
+            if (lastBuy == null || recordsInBlock >= keyframeInterval) {
+                index.writeLong(timestamp);
+                index.writeLong(position);
+
+                record.write(KEYFRAME);
+                Varints.writeSigned(record, timestamp);
+                Varints.writeSigned(record, highestBuy);
+                buy.write(record);
+                sell.write(record);
+                recordsInBlock = 1;
+            } else {
+                record.write(DELTA);
+                Varints.writeUnsigned(record, timestamp - lastTimestamp);
+                Varints.writeSigned(record, highestBuy - lastHighestBuy);
+                BookSide.writeDelta(record, lastBuy, buy, true);
+                BookSide.writeDelta(record, lastSell, sell, false);
+                recordsInBlock++;
+            }
+
+            position += record.count;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+
+        lastTimestamp = timestamp;
+        lastHighestBuy = highestBuy;
+        lastBuy = buy;
+        lastSell = sell;
+    }
+
+    /**
+     * Writes buffered records to the archive and index files.
+     */
+    public void flush() {
+        try {
+            // Records first, so that an index entry never points past the end of the archive.
+            out.flush();
+            index.flush();
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                out.close();
+                index.close();
+            } catch (IOException e) {
+                if (log != null) log.error(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return Archive file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return Bytes written to the archive so far, including its header
+     */
+    public long getSize() {
+        return position;
+    }
+
+    /**
+     * @return Time of the last snapshot in epoch milliseconds, including one written before the archive was reopened,
+     * or {@link Long#MIN_VALUE} if the archive has no records
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Replays the last block, restores the state of its last complete record as the base of the next delta and cuts
+     * off a record left incomplete by an interrupted write.
+     */
+    private void restoreLastRecord(Path file) throws IOException {
+        long validLength;
+        try (OrderBookArchiveReader reader = new OrderBookArchiveReader(file)) {
+            reader.seekLastBlock();
+
+            OrderBookRecord last = null;
+            while (reader.hasNext()) {
+                last = reader.next();
+                recordsInBlock = last.isKeyframe() ? 1 : recordsInBlock + 1;
+            }
+            validLength = reader.getPosition();
+
+            if (last != null) {
+                ItemOrdersHistogram histogram = last.getHistogram();
+                lastTimestamp = last.getTimestamp();
+                lastHighestBuy = Math.round(histogram.getHighestBuyOrder() * minorUnits);
+                lastBuy = BookSide.of(histogram.getBuyOrderGraph(), minorUnits, true);
+                lastSell = BookSide.of(histogram.getSellOrderGraph(), minorUnits, false);
+            }
+        }
+
+        if (validLength < Files.size(file)) {
+            if (log != null) log.warn("Truncating incomplete record at the end of {}", file);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        // Index entries of cut-off keyframes would point into the records appended next.
+        Path indexFile = indexFile(file);
+        if (!Files.exists(indexFile)) return;
+
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long entries = index.size() / 16;
+            ByteBuffer entry = ByteBuffer.allocate(16);
+
+            while (entries > 0) {
+                entry.clear();
+                index.read(entry, (entries - 1) * 16);
+                if (entry.getLong(8) < validLength) break;
+                entries--;
+            }
+            index.truncate(entries * 16);
+        }
+    }
+
+    static Path indexFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    static int readHeader(InputStream in, Path file) throws IOException {
+        if (new DataInputStream(in).readInt() != MAGIC) throw new HistoryStorageException("Not an order book archive: " + file);
+        return (int) Varints.readUnsigned(in);
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+    }
+}
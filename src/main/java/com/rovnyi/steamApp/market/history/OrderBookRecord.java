@@ -0,0 +1,60 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOrdersHistogram;
+
+import java.time.Instant;
+
+/**
+ * One order book snapshot replayed from an {@link OrderBookArchiveReader}.
+ */
+public class OrderBookRecord {
+
+    private final long timestamp;
+
+    private final ItemOrdersHistogram histogram;
+
+    private final boolean keyframe;
+
+    public OrderBookRecord(long timestamp, ItemOrdersHistogram histogram, boolean keyframe) {
+        this.timestamp = timestamp;
+        this.histogram = histogram;
+        this.keyframe = keyframe;
+    }
+
+    /**
+     * @return Time of the snapshot in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return Time of the snapshot
+     */
+    public Instant getInstant() {
+        return Instant.ofEpochMilli(timestamp);
+    }
+
+    /**
+     * @return The order book at that time, with prices rounded to the archive's minor units
+     */
+    public ItemOrdersHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return {@code true} if the snapshot was stored in full rather than as a delta
+     */
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderBookRecord{" +
+               "timestamp=" + timestamp +
+               ", keyframe=" + keyframe +
+               ", histogram=" + histogram +
+               '}';
+    }
+}
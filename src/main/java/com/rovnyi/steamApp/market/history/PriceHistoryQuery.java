@@ -0,0 +1,494 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.enums.PriceField;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregating queries over a {@link PriceHistoryStore}: OHLC candles at any resolution and price statistics.
+ * <p>
+ * Candle buckets are aligned to multiples of the resolution since the epoch, and a queried range is widened to whole
+ * buckets. Scans are split at segment boundaries and run in parallel on a {@link ForkJoinPool}; each segment is
+ * aggregated straight from its mapped columns, and the partial candles of neighbouring segments are merged.
+ * <p>
+ * Candles of the configured rollup resolutions are cached per item and price field. A rollup covers the buckets
+ * that can no longer change, i.e. those ending at or before the item's last snapshot, and is extended with only the
+ * new snapshots on the next query. The first query of an (item, field, resolution) builds its rollup by scanning the
+ * item's whole history once, however narrow the queried range is; warm the rollups up front (e.g. by querying each
+ * item once after startup) if that latency matters. Resolutions without a rollup are derived from the largest rollup resolution that
+ * divides them, so e.g. daily candles are merged from cached hourly ones. Only the uncovered tail of a range is scanned.
+ * <p>
+ * Thread-safe.
+ */
+public class PriceHistoryQuery {
+
+    private final PriceHistoryStore store;
+
+    private final ForkJoinPool pool;
+
+    /** Rollup resolutions in milliseconds, descending */
+    private final long[] rollupResolutions;
+
+    private final int maxRollups;
+
+    private final Logger log;
+
+    private final Map<RollupKey, Rollup> rollups;
+
+    /**
+     * Constructs a new query engine.
+     *
+     * @param store              Store to query
+     * @param pool               Pool running the parallel scans
+     * @param rollupResolutions  Resolutions whose candles are cached, may be empty
+     * @param maxRollups         Maximum number of cached (item, field, resolution) rollups
+     * @param log                Logger, may be {@code null}
+     */
+    public PriceHistoryQuery(PriceHistoryStore store, ForkJoinPool pool, Set<Duration> rollupResolutions, int maxRollups, Logger log) {
+        this.store = store;
+        this.pool = pool;
+        this.rollupResolutions = rollupResolutions.stream()
+                .mapToLong(this::toMillis)
+                .map(millis -> -millis)
+                .sorted()
+                .map(millis -> -millis)
+                .toArray();
+        this.maxRollups = maxRollups;
+        this.log = log;
+        this.rollups = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RollupKey, Rollup> eldest) {
+                return size() > PriceHistoryQuery.this.maxRollups;
+            }
+        };
+    }
+
+    /**
+     * Returns the candles of an item within a time range.
+     *
+     * @param marketHashName The item's market hash name
+     * @param from           Start of the range, inclusive
+     * @param to             End of the range, exclusive
+     * @param resolution     Length of one candle
+     * @param field          Price value to aggregate
+     * @return Candles in time order; buckets without snapshots are omitted
+     */
+    public List<Candle> candles(String marketHashName, Instant from, Instant to, Duration resolution, PriceField field) {
+        return candles(marketHashName, from.toEpochMilli(), to.toEpochMilli(), toMillis(resolution), field);
+    }
+
+    /**
+     * Returns the candles of an item within a time range.
+     *
+     * @param marketHashName   The item's market hash name
+     * @param fromMillis       Start of the range in epoch milliseconds, inclusive
+     * @param toMillis         End of the range in epoch milliseconds, exclusive
+     * @param resolutionMillis Length of one candle in milliseconds
+     * @param field            Price value to aggregate
+     * @return Candles in time order; buckets without snapshots are omitted
+     */
+    public List<Candle> candles(String marketHashName, long fromMillis, long toMillis, long resolutionMillis, PriceField field) {
+        if (resolutionMillis <= 0) throw new IllegalArgumentException("Resolution must be positive");
+        if (fromMillis >= toMillis) return List.of();
+
+        long from = Math.floorDiv(fromMillis, resolutionMillis) * resolutionMillis;
+        long to = bucketEnd(Math.floorDiv(toMillis - 1, resolutionMillis) * resolutionMillis, resolutionMillis);
+
+        long rollupResolution = rollupResolutionFor(resolutionMillis);
+        if (rollupResolution == 0) return aggregate(store.read(marketHashName, from, to), resolutionMillis, field);
+
+        Rollup rollup = rollup(marketHashName, field, rollupResolution);
+        List<Candle> result = new ArrayList<>();
+        long covered;
+
+        synchronized (rollup) {
+            covered = Math.min(to, rollup.coveredUntil);
+            for (Candle candle : rollup.range(from, covered)) {
+                add(result, candle, resolutionMillis);
+            }
+        }
+
+        if (covered < to) {
+            for (Candle candle : aggregate(store.read(marketHashName, Math.max(from, covered), to), resolutionMillis, field)) {
+                add(result, candle, resolutionMillis);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes statistics of one price value of an item within a time range.
+     *
+     * @param marketHashName The item's market hash name
+     * @param from           Start of the range, inclusive
+     * @param to             End of the range, exclusive
+     * @param field          Price value to aggregate
+     * @return Statistics of the snapshots in the range
+     */
+    public PriceStats stats(String marketHashName, Instant from, Instant to, PriceField field) {
+        return stats(store.read(marketHashName, from, to), field);
+    }
+
+    /**
+     * Computes statistics of one price value of a series.
+     *
+     * @param series Snapshots, e.g. from {@link PriceHistoryStore#read}
+     * @param field  Price value to aggregate
+     * @return Statistics of the snapshots
+     */
+    public PriceStats stats(PriceSeries series, PriceField field) {
+        double[] values = new double[series.size()];
+        List<PriceSeries> parts = series.split();
+        int[] offsets = new int[parts.size() + 1];
+        for (int i = 0; i < parts.size(); i++) {
+            offsets[i + 1] = offsets[i] + parts.get(i).size();
+        }
+
+        if (parts.size() > 1) {
+            pool.invoke(new CopyTask(parts, offsets, 0, parts.size(), values, field));
+        } else if (!parts.isEmpty()) {
+            copy(parts.get(0), values, 0, field);
+        }
+
+        Arrays.parallelSort(values);
+
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return new PriceStats(values, sum);
+    }
+
+    /**
+     * Drops all cached rollups, e.g. after the store's files were replaced.
+     */
+    public void clearRollups() {
+        synchronized (rollups) {
+            rollups.clear();
+        }
+    }
+
+    /**
+     * @return The queried store
+     */
+    public PriceHistoryStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the item's rollup of the given resolution, extended with all buckets completed since the last query.
+     * A new rollup starts empty, so the first call aggregates the item's whole history.
+     */
+    private Rollup rollup(String marketHashName, PriceField field, long resolutionMillis) {
+        Rollup rollup;
+        synchronized (rollups) {
+            rollup = rollups.computeIfAbsent(new RollupKey(marketHashName, field, resolutionMillis), key -> new Rollup());
+        }
+
+        synchronized (rollup) {
+            PriceSeries tail = store.read(marketHashName, rollup.coveredUntil, Long.MAX_VALUE);
+            if (tail.isEmpty()) return rollup;
+
+            // Snapshots are appended in time order, so buckets before the one holding the last snapshot are final.
+            long complete = Math.floorDiv(tail.getTimestamp(tail.size() - 1), resolutionMillis) * resolutionMillis;
+            if (complete <= rollup.coveredUntil) return rollup;
+
+            List<Candle> candles = aggregate(store.read(marketHashName, rollup.coveredUntil, complete), resolutionMillis, field);
+            rollup.candles.addAll(candles);
+            rollup.coveredUntil = complete;
+
+            if (log != null) log.debug("Extended {} rollup of \"{}\" by {} candles", Duration.ofMillis(resolutionMillis), marketHashName, candles.size());
+        }
+        return rollup;
+    }
+
+    /**
+     * @return The largest rollup resolution dividing the given one, or 0 if there is none
+     */
+    private long rollupResolutionFor(long resolutionMillis) {
+        for (long rollupResolution : rollupResolutions) {
+            if (resolutionMillis % rollupResolution == 0) return rollupResolution;
+        }
+        return 0;
+    }
+
+    private List<Candle> aggregate(PriceSeries series, long resolutionMillis, PriceField field) {
+        List<PriceSeries> parts = series.split();
+        if (parts.isEmpty()) return List.of();
+        if (parts.size() == 1) return aggregatePart(parts.get(0), resolutionMillis, field);
+        return pool.invoke(new CandleTask(parts, 0, parts.size(), resolutionMillis, field));
+    }
+
+    private static List<Candle> aggregatePart(PriceSeries series, long resolutionMillis, PriceField field) {
+        List<Candle> candles = new ArrayList<>();
+        int size = series.size();
+
+        long start = 0;
+        double open = 0, high = 0, low = 0, close = 0, priceVolumeSum = 0, priceSum = 0;
+        long volumeSum = 0;
+        int volume = 0, count = 0;
+
+        for (int i = 0; i < size; i++) {
+            long timestamp = series.getTimestamp(i);
+            double price = series.getPrice(i, field);
+            int snapshotVolume = series.getVolume(i);
+            long bucket = Math.floorDiv(timestamp, resolutionMillis) * resolutionMillis;
+
+            if (count > 0 && bucket != start) {
+                candles.add(new Candle(start, bucketEnd(start, resolutionMillis), open, high, low, close, volume, count,
+                        priceVolumeSum, volumeSum, priceSum));
+                count = 0;
+            }
+
+            if (count == 0) {
+                start = bucket;
+                open = high = low = price;
+                priceVolumeSum = priceSum = 0;
+                volumeSum = 0;
+            }
+
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            volume = snapshotVolume;
+            priceVolumeSum += price * snapshotVolume;
+            volumeSum += snapshotVolume;
+            priceSum += price;
+            count++;
+        }
+
+        if (count > 0) {
+            candles.add(new Candle(start, bucketEnd(start, resolutionMillis), open, high, low, close, volume, count,
+                    priceVolumeSum, volumeSum, priceSum));
+        }
+        return candles;
+    }
+
+    /**
+     * Appends a candle, regrouped to the given resolution and merged with the last one if they share a bucket.
+     */
+    private static void add(List<Candle> candles, Candle candle, long resolutionMillis) {
+        long start = Math.floorDiv(candle.getStart(), resolutionMillis) * resolutionMillis;
+        long end = bucketEnd(start, resolutionMillis);
+
+        if (!candles.isEmpty() && candles.get(candles.size() - 1).getStart() == start) {
+            candles.set(candles.size() - 1, Candle.merge(candles.get(candles.size() - 1), candle, start, end));
+        } else if (candle.getStart() != start || candle.getEnd() != end) {
+            candles.add(candle.withBucket(start, end));
+        } else {
+            candles.add(candle);
+        }
+    }
+
+    private static void copy(PriceSeries series, double[] values, int offset, PriceField field) {
+        for (int i = 0; i < series.size(); i++) {
+            values[offset + i] = series.getPrice(i, field);
+        }
+    }
+
+    private static long bucketEnd(long start, long resolutionMillis) {
+        return start > Long.MAX_VALUE - resolutionMillis ? Long.MAX_VALUE : start + resolutionMillis;
+    }
+
+    private long toMillis(Duration resolution) {
+        long millis = resolution.toMillis();
+        if (millis <= 0) throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        return millis;
+    }
+
+    private record RollupKey(String marketHashName, PriceField field, long resolutionMillis) {
+    }
+
+    /**
+     * Cached candles of one item, field and resolution, complete up to {@code coveredUntil} (exclusive).
+     */
+    private static final class Rollup {
+        private final List<Candle> candles = new ArrayList<>();
+        private long coveredUntil = Long.MIN_VALUE;
+
+        /**
+         * @return Cached candles starting within {@code [from, to)}
+         */
+        List<Candle> range(long from, long to) {
+            int fromIndex = lowerBound(from);
+            int toIndex = lowerBound(to);
+            return fromIndex < toIndex ? candles.subList(fromIndex, toIndex) : Collections.emptyList();
+        }
+
+        private int lowerBound(long start) {
+            int low = 0;
+            int high = candles.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (candles.get(mid).getStart() < start) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Aggregates a run of segments, splitting it in halves and merging the candle the halves share at their boundary.
+     */
+    private static final class CandleTask extends RecursiveTask<List<Candle>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<PriceSeries> parts;
+        private final int from;
+        private final int to;
+        private final long resolutionMillis;
+        private final PriceField field;
+
+        private CandleTask(List<PriceSeries> parts, int from, int to, long resolutionMillis, PriceField field) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+            this.resolutionMillis = resolutionMillis;
+            this.field = field;
+        }
+
+        @Override
+        protected List<Candle> compute() {
+            if (to - from == 1) return aggregatePart(parts.get(from), resolutionMillis, field);
+
+            int mid = (from + to) >>> 1;
+            CandleTask right = new CandleTask(parts, mid, to, resolutionMillis, field);
+            right.fork();
+            List<Candle> candles = new ArrayList<>(new CandleTask(parts, from, mid, resolutionMillis, field).compute());
+
+            for (Candle candle : right.join()) {
+                add(candles, candle, resolutionMillis);
+            }
+            return candles;
+        }
+    }
+
+    /**
+     * Copies the values of a run of segments into their slots of a shared array.
+     */
+    private static final class CopyTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<PriceSeries> parts;
+        private final int[] offsets;
+        private final int from;
+        private final int to;
+        private final double[] values;
+        private final PriceField field;
+
+        private CopyTask(List<PriceSeries> parts, int[] offsets, int from, int to, double[] values, PriceField field) {
+            this.parts = parts;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+            this.values = values;
+            this.field = field;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                copy(parts.get(from), values, offsets[from], field);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new CopyTask(parts, offsets, from, mid, values, field), new CopyTask(parts, offsets, mid, to, values, field));
+        }
+    }
+
+    /**
+     * Builder for {@link PriceHistoryQuery}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Pool = {@link ForkJoinPool#commonPool()}</li>
+     *     <li>Rollup resolutions = 1 hour</li>
+     *     <li>Max rollups = 10000</li>
+     * </ul>
+     */
+    public static class Builder {
+        private PriceHistoryStore store;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+        private Set<Duration> rollupResolutions = Set.of(Duration.ofHours(1));
+        private int maxRollups = 10_000;
+        private Logger log = null;
+
+        /**
+         * Sets the store to query. Required.
+         *
+         * @param store Price history store
+         * @return This builder instance
+         */
+        public Builder store(PriceHistoryStore store) {
+            this.store = store;
+            return this;
+        }
+
+        /**
+         * Sets the pool running the parallel scans.
+         *
+         * @param pool Fork/join pool
+         * @return This builder instance
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Sets the resolutions whose candles are cached. Pass none to disable caching.
+         *
+         * @param resolutions Rollup resolutions
+         * @return This builder instance
+         */
+        public Builder rollups(Duration... resolutions) {
+            this.rollupResolutions = new TreeSet<>(Arrays.asList(resolutions));
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cached (item, field, resolution) rollups.
+         *
+         * @param maxRollups Maximum number of rollups
+         * @return This builder instance
+         */
+        public Builder maxRollups(int maxRollups) {
+            this.maxRollups = Math.max(1, maxRollups);
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link PriceHistoryQuery}.
+         *
+         * @return New {@link PriceHistoryQuery} instance
+         */
+        public @NotNull PriceHistoryQuery build() {
+            if (store == null) throw new IllegalStateException("store is required");
+
+            return new PriceHistoryQuery(store, pool, rollupResolutions, maxRollups, log);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Embedded append-only store of price snapshots, one series per item.
+ * <p>
+ * Every item gets its own directory of fixed-capacity segment files. Each segment is memory-mapped and keeps
+ * timestamps, lowest and median prices, highest buy orders and volumes in separate fixed-width columns, so an append
+ * is five plain memory writes and a range read is a binary search over the timestamp column followed by a
+ * {@link PriceSeries} view over the mapped memory, without copying or decoding anything.
+ * <p>
+ * Snapshots of an item must be appended in time order. Appends of different items can run in parallel; reads never
+ * block appends. Written rows reach the disk when the operating system flushes the mappings, or on {@link #flush()}.
+ * <p>
+ * Open series are kept in an LRU of {@code maxOpenItems} entries; since Java cannot unmap files explicitly,
+ * the mappings of evicted series are released by the garbage collector.
+ */
+public class PriceHistoryStore implements AutoCloseable {
+
+    private final Path directory;
+
+    private final int segmentCapacity;
+
+    private final int maxOpenItems;
+
+    private final Logger log;
+
+    private final Map<String, ItemSeries> open;
+
+    /**
+     * Constructs a new store.
+     *
+     * @param directory       Root directory of the store; created if missing
+     * @param segmentCapacity Number of snapshots per segment file
+     * @param maxOpenItems    Maximum number of item series kept open
+     * @param log             Logger, may be {@code null}
+     */
+    public PriceHistoryStore(Path directory, int segmentCapacity, int maxOpenItems, Logger log) {
+        this.directory = directory;
+        this.segmentCapacity = segmentCapacity;
+        this.maxOpenItems = maxOpenItems;
+        this.log = log;
+        this.open = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ItemSeries> eldest) {
+                if (size() <= PriceHistoryStore.this.maxOpenItems) return false;
+
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Appends a snapshot of the overview's price and order data, timestamped with its fetch instant.
+     * <p>
+     * Meant to be called from fetch callbacks: a snapshot older than the item's last one, e.g. an overview served
+     * from a cache, is skipped instead of rejected.
+     *
+     * @param overview Fetched item data
+     */
+    public void append(ItemOverview overview) {
+        long timestamp = overview.getFetchedInstant().toEpochMilli();
+        append(overview.getMarketHashName(), timestamp, overview.getLowestPrice(), overview.getMedianPrice(),
+                overview.getVolume(), overview.getHighestBuyOrder(), false);
+    }
+
+    /**
+     * Appends a snapshot.
+     *
+     * @param marketHashName  The item's market hash name
+     * @param timestamp       Time of the snapshot in epoch milliseconds
+     * @param lowestPrice     Lowest listed price
+     * @param medianPrice     Median sale price
+     * @param volume          Number of items sold in the last 24 hours
+     * @param highestBuyOrder Highest buy order
+     * @throws IllegalArgumentException if the snapshot is older than the item's last one
+     */
+    public void append(String marketHashName, long timestamp, double lowestPrice, double medianPrice, int volume, double highestBuyOrder) {
+        append(marketHashName, timestamp, lowestPrice, medianPrice, volume, highestBuyOrder, true);
+    }
+
+    private void append(String marketHashName, long timestamp, double lowestPrice, double medianPrice, int volume,
+                        double highestBuyOrder, boolean strict) {
+        // An evicted series refuses the append; the retry reopens the item from its files.
+        while (!series(marketHashName).append(timestamp, lowestPrice, medianPrice, volume, highestBuyOrder, strict)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the snapshots of an item within a time range.
+     *
+     * @param marketHashName The item's market hash name
+     * @param from           Start of the range, inclusive
+     * @param to             End of the range, exclusive
+     * @return Zero-copy view of the snapshots, empty if the item has none in the range
+     */
+    public PriceSeries read(String marketHashName, Instant from, Instant to) {
+        return read(marketHashName, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Returns the snapshots of an item within a time range.
+     *
+     * @param marketHashName The item's market hash name
+     * @param fromMillis     Start of the range in epoch milliseconds, inclusive
+     * @param toMillis       End of the range in epoch milliseconds, exclusive
+     * @return Zero-copy view of the snapshots, empty if the item has none in the range
+     */
+    public PriceSeries read(String marketHashName, long fromMillis, long toMillis) {
+        if (!Files.isDirectory(itemDirectory(marketHashName))) return new PriceSeries(marketHashName, List.of(), List.of());
+        return series(marketHashName).read(fromMillis, toMillis);
+    }
+
+    /**
+     * Returns all snapshots of an item.
+     *
+     * @param marketHashName The item's market hash name
+     * @return Zero-copy view of the snapshots
+     */
+    public PriceSeries readAll(String marketHashName) {
+        return read(marketHashName, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return Market hash names of all items with stored snapshots
+     */
+    public List<String> getItems() {
+        try (Stream<Path> dirs = Files.list(directory)) {
+            List<String> names = new ArrayList<>();
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                names.add(decodeName(dir));
+            }
+            return names;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new HistoryStorageException(e);
+        }
+    }
+
+    /**
+     * Writes all open mappings to disk.
+     */
+    public void flush() {
+        List<ItemSeries> series;
+        synchronized (open) {
+            series = new ArrayList<>(open.values());
+        }
+        for (ItemSeries item : series) {
+            item.force();
+        }
+    }
+
+    /**
+     * Flushes the store and drops all open series.
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (open) {
+            for (ItemSeries series : open.values()) {
+                series.evict();
+            }
+            open.clear();
+        }
+    }
+
+    /**
+     * @return Root directory of the store
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private ItemSeries series(String marketHashName) {
+        synchronized (open) {
+            ItemSeries series = open.get(marketHashName);
+            if (series == null) {
+                series = new ItemSeries(marketHashName, itemDirectory(marketHashName));
+                open.put(marketHashName, series);
+            }
+            return series;
+        }
+    }
+
+    private Path itemDirectory(String marketHashName) {
+        return directory.resolve(ItemFileNames.encode(marketHashName));
+    }
+
+    /**
+     * Hashed directory names cannot be decoded; their item's name is kept in a {@code name} file.
+     */
+    private String decodeName(Path itemDirectory) throws IOException {
+        String name = ItemFileNames.decode(itemDirectory.getFileName().toString());
+        return name != null ? name : Files.readString(itemDirectory.resolve("name"), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The open segments of one item. Appends are serialized per item; reads only take the lock to copy the segment list.
+     */
+    private final class ItemSeries {
+        private final String marketHashName;
+        private final Path itemDirectory;
+        private final List<Segment> segments = new ArrayList<>();
+        private long lastTimestamp = Long.MIN_VALUE;
+        private boolean evicted;
+
+        private ItemSeries(String marketHashName, Path itemDirectory) {
+            this.marketHashName = marketHashName;
+            this.itemDirectory = itemDirectory;
+
+            if (!Files.isDirectory(itemDirectory)) return;
+
+            try (Stream<Path> files = Files.list(itemDirectory)) {
+                for (Path file : files.filter(Segment::isSegmentFile).sorted().toList()) {
+                    segments.add(Segment.open(file));
+                }
+            } catch (IOException e) {
+                if (log != null) log.error(e.getMessage());
+                throw new HistoryStorageException(e);
+            }
+
+            if (!segments.isEmpty()) {
+                Segment last = segments.get(segments.size() - 1);
+                if (last.count() > 0) lastTimestamp = last.timestamp(last.count() - 1);
+            }
+        }
+
+        /**
+         * @param strict Whether a snapshot older than the last one is rejected rather than skipped
+         * @return false if the series was evicted and must be reopened
+         */
+        synchronized boolean append(long timestamp, double lowest, double median, int volume, double highestBuy, boolean strict) {
+            if (evicted) return false;
+
+            if (timestamp < lastTimestamp) {
+                if (strict) {
+                    throw new IllegalArgumentException("Snapshot of \"" + marketHashName + "\" at " + timestamp + " is older than the last one at " + lastTimestamp);
+                }
+                if (log != null) log.debug("Skipped snapshot of \"{}\" older than the last one", marketHashName);
+                return true;
+            }
+
+            if (segments.isEmpty() || !segments.get(segments.size() - 1).append(timestamp, lowest, median, volume, highestBuy)) {
+                Segment segment = newSegment();
+                segment.append(timestamp, lowest, median, volume, highestBuy);
+            }
+
+            lastTimestamp = timestamp;
+            return true;
+        }
+
+        /**
+         * Stops appends to this instance, so that a reopened series of the same item is the only writer.
+         */
+        synchronized void evict() {
+            evicted = true;
+        }
+
+        PriceSeries read(long fromMillis, long toMillis) {
+            List<Segment> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(segments);
+            }
+
+            List<Segment> touched = new ArrayList<>();
+            List<int[]> ranges = new ArrayList<>();
+
+            for (Segment segment : snapshot) {
+                int count = segment.count();
+                if (count == 0 || segment.timestamp(0) >= toMillis || segment.timestamp(count - 1) < fromMillis) continue;
+
+                int fromRow = segment.lowerBound(fromMillis, count);
+                int toRow = segment.lowerBound(toMillis, count);
+                if (fromRow < toRow) {
+                    touched.add(segment);
+                    ranges.add(new int[]{fromRow, toRow});
+                }
+            }
+
+            return new PriceSeries(marketHashName, touched, ranges);
+        }
+
+        synchronized void force() {
+            for (Segment segment : segments) {
+                segment.force();
+            }
+        }
+
+        private Segment newSegment() {
+            try {
+                if (!Files.isDirectory(itemDirectory)) {
+                    Files.createDirectories(itemDirectory);
+                    if (itemDirectory.getFileName().toString().startsWith(ItemFileNames.HASHED_PREFIX)) {
+                        Files.writeString(itemDirectory.resolve("name"), marketHashName, StandardCharsets.UTF_8);
+                    }
+                }
+
+                Path file = itemDirectory.resolve(String.format("%08d.seg", segments.size()));
+                Segment segment = Segment.create(file, segmentCapacity);
+                segments.add(segment);
+                return segment;
+            } catch (IOException e) {
+                if (log != null) log.error(e.getMessage());
+                throw new HistoryStorageException(e);
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link PriceHistoryStore}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Segment capacity = 1024 snapshots</li>
+     *     <li>Max open items = 10000</li>
+     * </ul>
+     */
+    public static class Builder {
+        private Path directory;
+        private int segmentCapacity = 1024;
+        private int maxOpenItems = 10_000;
+        private Logger log = null;
+
+        /**
+         * Sets the root directory of the store. Required.
+         *
+         * @param directory Store directory
+         * @return This builder instance
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the number of snapshots per segment file.
+         *
+         * @param segmentCapacity Segment capacity
+         * @return This builder instance
+         */
+        public Builder segmentCapacity(int segmentCapacity) {
+            this.segmentCapacity = Math.max(1, segmentCapacity);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of item series kept open.
+         *
+         * @param maxOpenItems Maximum number of open series
+         * @return This builder instance
+         */
+        public Builder maxOpenItems(int maxOpenItems) {
+            this.maxOpenItems = Math.max(1, maxOpenItems);
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link PriceHistoryStore}.
+         *
+         * @return New {@link PriceHistoryStore} instance
+         */
+        public @NotNull PriceHistoryStore build() {
+            if (directory == null) throw new IllegalStateException("directory is required");
+
+            return new PriceHistoryStore(directory, segmentCapacity, maxOpenItems, log);
+        }
+    }
+}
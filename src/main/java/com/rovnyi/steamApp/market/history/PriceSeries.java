@@ -0,0 +1,167 @@
+package com.rovnyi.steamApp.market.history;
+
+import com.rovnyi.steamApp.enums.PriceField;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A time-ordered range of price snapshots of one item, read straight from the mapped segment files.
+ * <p>
+ * No data is copied: every getter reads the value from the segment's column. The view covers the rows that existed
+ * when it was created; snapshots appended later are not visible through it.
+ */
+public class PriceSeries {
+
+    private final String marketHashName;
+
+    private final Segment[] segments;
+
+    private final int[] fromRows;
+
+    /** Row index in the series at which each segment's rows start, plus the total size at the end */
+    private final int[] starts;
+
+    PriceSeries(String marketHashName, List<Segment> segments, List<int[]> ranges) {
+        this.marketHashName = marketHashName;
+        this.segments = segments.toArray(new Segment[0]);
+        this.fromRows = new int[segments.size()];
+        this.starts = new int[segments.size() + 1];
+
+        for (int i = 0; i < segments.size(); i++) {
+            int[] range = ranges.get(i);
+            fromRows[i] = range[0];
+            starts[i + 1] = starts[i] + range[1] - range[0];
+        }
+    }
+
+    /**
+     * @return Market hash name of the item
+     */
+    public String getMarketHashName() {
+        return marketHashName;
+    }
+
+    /**
+     * @return Number of snapshots in the range
+     */
+    public int size() {
+        return starts[starts.length - 1];
+    }
+
+    /**
+     * @return {@code true} if the range holds no snapshots
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @return Time of the snapshot in epoch milliseconds
+     */
+    public long getTimestamp(int index) {
+        int s = segmentOf(index);
+        return segments[s].timestamp(rowOf(s, index));
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @return Time of the snapshot
+     */
+    public Instant getInstant(int index) {
+        return Instant.ofEpochMilli(getTimestamp(index));
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @return Lowest listed price
+     */
+    public double getLowestPrice(int index) {
+        int s = segmentOf(index);
+        return segments[s].lowest(rowOf(s, index));
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @return Median sale price
+     */
+    public double getMedianPrice(int index) {
+        int s = segmentOf(index);
+        return segments[s].median(rowOf(s, index));
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @return Number of items sold in the last 24 hours
+     */
+    public int getVolume(int index) {
+        int s = segmentOf(index);
+        return segments[s].volume(rowOf(s, index));
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @return Highest buy order
+     */
+    public double getHighestBuyOrder(int index) {
+        int s = segmentOf(index);
+        return segments[s].highestBuy(rowOf(s, index));
+    }
+
+    /**
+     * @param index Snapshot index within the range
+     * @param field Price value to read
+     * @return The chosen price of the snapshot
+     */
+    public double getPrice(int index, PriceField field) {
+        return switch (field) {
+            case LOWEST -> getLowestPrice(index);
+            case MEDIAN -> getMedianPrice(index);
+            case HIGHEST_BUY -> getHighestBuyOrder(index);
+        };
+    }
+
+    /**
+     * Splits the range at segment boundaries, e.g. to process the parts in parallel.
+     *
+     * @return One series per segment touched by this range
+     */
+    public List<PriceSeries> split() {
+        List<PriceSeries> parts = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            int from = fromRows[i];
+            int to = from + starts[i + 1] - starts[i];
+            parts.add(new PriceSeries(marketHashName, List.of(segments[i]), List.<int[]>of(new int[]{from, to})));
+        }
+        return parts;
+    }
+
+    private int segmentOf(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        if (segments.length == 1) return 0;
+
+        int position = Arrays.binarySearch(starts, 0, segments.length, index);
+        if (position >= 0) {
+            // Skip empty segments sharing the same start.
+            while (position + 1 < segments.length && starts[position + 1] == index) position++;
+            return position;
+        }
+        return -position - 2;
+    }
+
+    private int rowOf(int segment, int index) {
+        return fromRows[segment] + index - starts[segment];
+    }
+
+    @Override
+    public String toString() {
+        return "PriceSeries{" +
+               "marketHashName='" + marketHashName + '\'' +
+               ", size=" + size() +
+               ", segments=" + segments.length +
+               '}';
+    }
+}
@@ -0,0 +1,77 @@
+package com.rovnyi.steamApp.market.history;
+
+/**
+ * Distribution of one price value over a range of snapshots.
+ */
+public class PriceStats {
+
+    private final double[] sorted;
+
+    private final double sum;
+
+    PriceStats(double[] sorted, double sum) {
+        this.sorted = sorted;
+        this.sum = sum;
+    }
+
+    /**
+     * @return Number of snapshots
+     */
+    public int getCount() {
+        return sorted.length;
+    }
+
+    /**
+     * @return Smallest value, or {@link Double#NaN} if the range is empty
+     */
+    public double getMin() {
+        return sorted.length == 0 ? Double.NaN : sorted[0];
+    }
+
+    /**
+     * @return Largest value, or {@link Double#NaN} if the range is empty
+     */
+    public double getMax() {
+        return sorted.length == 0 ? Double.NaN : sorted[sorted.length - 1];
+    }
+
+    /**
+     * @return Arithmetic mean, or {@link Double#NaN} if the range is empty
+     */
+    public double getMean() {
+        return sorted.length == 0 ? Double.NaN : sum / sorted.length;
+    }
+
+    /**
+     * Returns a percentile using linear interpolation between the closest ranks.
+     *
+     * @param percentile Value between 0 and 100
+     * @return The percentile, or {@link Double#NaN} if the range is empty
+     */
+    public double getPercentile(double percentile) {
+        if (sorted.length == 0) return Double.NaN;
+
+        double rank = Math.max(0, Math.min(100, percentile)) / 100 * (sorted.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = (int) Math.ceil(rank);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+    }
+
+    /**
+     * @return Median, i.e. the 50th percentile
+     */
+    public double getMedian() {
+        return getPercentile(50);
+    }
+
+    @Override
+    public String toString() {
+        return "PriceStats{" +
+               "count=" + getCount() +
+               ", min=" + getMin() +
+               ", max=" + getMax() +
+               ", mean=" + getMean() +
+               ", median=" + getMedian() +
+               '}';
+    }
+}
@@ -0,0 +1,171 @@
+package com.rovnyi.steamApp.market.history;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped segment file of an item's price history.
+ * <p>
+ * The file has a fixed capacity and stores each field in its own contiguous column:
+ * <pre>
+ * header   magic:int  capacity:int  count:int  reserved:int
+ * columns  timestamp:long[capacity]  lowest:double[capacity]  median:double[capacity]
+ *          highestBuy:double[capacity]  volume:int[capacity]
+ * </pre>
+ * All values are little-endian. A row is written column by column and only then published by a release store of
+ * {@code count}, so concurrent readers that load {@code count} with acquire semantics never see partial rows.
+ */
+final class Segment {
+
+    static final int MAGIC = 0x50485331; // "PHS1"
+
+    static final int HEADER_BYTES = 16;
+
+    static final int ROW_BYTES = 8 + 8 + 8 + 8 + 4;
+
+    private static final int COUNT_OFFSET = 8;
+
+    private static final VarHandle INT_LE = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+
+    private final MappedByteBuffer buffer;
+
+    private final int capacity;
+
+    private final int timestampOffset;
+
+    private final int lowestOffset;
+
+    private final int medianOffset;
+
+    private final int highestBuyOffset;
+
+    private final int volumeOffset;
+
+    private Segment(Path file, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.timestampOffset = HEADER_BYTES;
+        this.lowestOffset = timestampOffset + 8 * capacity;
+        this.medianOffset = lowestOffset + 8 * capacity;
+        this.highestBuyOffset = medianOffset + 8 * capacity;
+        this.volumeOffset = highestBuyOffset + 8 * capacity;
+    }
+
+    /**
+     * Creates and maps a new empty segment file.
+     */
+    static Segment create(Path file, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) ROW_BYTES * capacity);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, capacity);
+            INT_LE.setRelease(buffer, COUNT_OFFSET, 0);
+            return new Segment(file, buffer, capacity);
+        }
+    }
+
+    /**
+     * Maps an existing segment file.
+     */
+    static Segment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new HistoryStorageException("Not a price history segment: " + file);
+            }
+
+            int capacity = buffer.getInt(4);
+            if (channel.size() != HEADER_BYTES + (long) ROW_BYTES * capacity) {
+                throw new HistoryStorageException("Truncated price history segment: " + file);
+            }
+
+            return new Segment(file, buffer, capacity);
+        }
+    }
+
+    /**
+     * Appends a row. Only one thread may append to a segment at a time.
+     *
+     * @return false if the segment is full
+     */
+    boolean append(long timestamp, double lowest, double median, int volume, double highestBuy) {
+        int row = count();
+        if (row >= capacity) return false;
+
+        buffer.putLong(timestampOffset + 8 * row, timestamp);
+        buffer.putDouble(lowestOffset + 8 * row, lowest);
+        buffer.putDouble(medianOffset + 8 * row, median);
+        buffer.putDouble(highestBuyOffset + 8 * row, highestBuy);
+        buffer.putInt(volumeOffset + 4 * row, volume);
+
+        INT_LE.setRelease(buffer, COUNT_OFFSET, row + 1);
+        return true;
+    }
+
+    int count() {
+        return (int) INT_LE.getAcquire(buffer, COUNT_OFFSET);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long timestamp(int row) {
+        return buffer.getLong(timestampOffset + 8 * row);
+    }
+
+    double lowest(int row) {
+        return buffer.getDouble(lowestOffset + 8 * row);
+    }
+
+    double median(int row) {
+        return buffer.getDouble(medianOffset + 8 * row);
+    }
+
+    double highestBuy(int row) {
+        return buffer.getDouble(highestBuyOffset + 8 * row);
+    }
+
+    int volume(int row) {
+        return buffer.getInt(volumeOffset + 4 * row);
+    }
+
+    /**
+     * @return First row whose timestamp is at least {@code timestamp}, searching rows {@code [0, count)}
+     */
+    int lowerBound(long timestamp, int count) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamp(mid) < timestamp) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    static boolean isSegmentFile(Path file) {
+        return Files.isRegularFile(file) && file.getFileName().toString().endsWith(".seg");
+    }
+}
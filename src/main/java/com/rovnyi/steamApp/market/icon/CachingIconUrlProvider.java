@@ -0,0 +1,273 @@
+package com.rovnyi.steamApp.market.icon;
+
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Icon URL provider storing the URLs of a source, usually the item listing page, in a memory level and an
+ * optional persistent level.
+ * <p>
+ * Lookups check the memory level first, then the persistent one, promoting URLs found there, and only then ask
+ * the source; a URL it returns is stored in both levels. Icon URLs practically never change, so entries do not
+ * expire: an item's listing page is fetched once for the lifetime of the persistent level. Concurrent lookups of
+ * the same missing item share a single source call, and items the source finds no icon for are not remembered.
+ * The source call runs on a thread of its own, outside the callers' {@link Deadline}s, and each caller waits for
+ * it no longer than its own deadline allows.
+ */
+public class CachingIconUrlProvider implements WritableIconUrlProvider, AutoCloseable {
+
+    private final WritableIconUrlProvider memory;
+
+    private final WritableIconUrlProvider persistent;
+
+    private final IconUrlProvider source;
+
+    private final Logger log;
+
+    private final Map<String, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder memoryHits = new LongAdder();
+
+    private final LongAdder persistentHits = new LongAdder();
+
+    private final LongAdder sourceCalls = new LongAdder();
+
+    /**
+     * Constructs a new caching provider.
+     *
+     * @param memory     Memory level
+     * @param persistent Persistent level, or {@code null} to keep URLs in memory only
+     * @param source     Provider of URLs missing from both levels, or {@code null} to only serve stored URLs
+     * @param log        Logger, may be {@code null}
+     */
+    public CachingIconUrlProvider(WritableIconUrlProvider memory, WritableIconUrlProvider persistent, IconUrlProvider source, Logger log) {
+        this.memory = memory;
+        this.persistent = persistent;
+        this.source = source;
+        this.log = log;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Asks the source only if neither level holds the URL.
+     */
+    @Override
+    public String get(String marketHashName) {
+        String iconUrl = getStored(marketHashName);
+        if (iconUrl != null || source == null) return iconUrl;
+
+        CompletableFuture<String> own = new CompletableFuture<>();
+        CompletableFuture<String> running = loading.putIfAbsent(marketHashName, own);
+        if (running == null) {
+            running = own;
+            RequestPriority priority = RequestScheduler.currentPriority();
+            Thread.ofVirtual().start(() -> load(marketHashName, priority, own));
+        }
+        return Deadline.await(running);
+    }
+
+    private void load(String marketHashName, RequestPriority priority, CompletableFuture<String> own) {
+        try {
+            sourceCalls.increment();
+            String iconUrl = RequestScheduler.withPriority(priority, () -> source.get(marketHashName));
+            if (iconUrl != null) {
+                put(marketHashName, iconUrl);
+                if (log != null) log.debug("Stored icon URL of \"{}\"", marketHashName);
+            }
+            own.complete(iconUrl);
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+        } finally {
+            loading.remove(marketHashName, own);
+        }
+    }
+
+    /**
+     * Returns a stored icon URL without asking the source.
+     *
+     * @param marketHashName Unique name of the item in the Steam Market
+     * @return Icon URL, or null if neither level holds it
+     */
+    public String getStored(String marketHashName) {
+        String iconUrl = memory.get(marketHashName);
+        if (iconUrl != null) {
+            memoryHits.increment();
+            return iconUrl;
+        }
+
+        if (persistent != null) {
+            iconUrl = persistent.get(marketHashName);
+            if (iconUrl != null) {
+                persistentHits.increment();
+                memory.put(marketHashName, iconUrl);
+                return iconUrl;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The URL is stored in both levels.
+     */
+    @Override
+    public void put(String marketHashName, String iconUrl) {
+        memory.put(marketHashName, iconUrl);
+        if (persistent != null) persistent.put(marketHashName, iconUrl);
+    }
+
+    @Override
+    public boolean contains(String marketHashName) {
+        return memory.contains(marketHashName) || persistent != null && persistent.contains(marketHashName);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Removes the URL from both levels, so the next lookup asks the source again.
+     */
+    @Override
+    public boolean remove(String marketHashName) {
+        boolean removed = memory.remove(marketHashName);
+        if (persistent != null) removed |= persistent.remove(marketHashName);
+        return removed;
+    }
+
+    /**
+     * @return Number of URLs in the persistent level, or in the memory level if there is none
+     */
+    @Override
+    public int size() {
+        return persistent != null ? persistent.size() : memory.size();
+    }
+
+    /**
+     * @return Number of lookups answered by the memory level
+     */
+    public long getMemoryHits() {
+        return memoryHits.sum();
+    }
+
+    /**
+     * @return Number of lookups answered by the persistent level
+     */
+    public long getPersistentHits() {
+        return persistentHits.sum();
+    }
+
+    /**
+     * @return Number of lookups passed to the source
+     */
+    public long getSourceCalls() {
+        return sourceCalls.sum();
+    }
+
+    /**
+     * Closes the persistent level if it holds resources.
+     *
+     * @throws IconStorageException If the persistent level fails to close
+     */
+    @Override
+    public void close() {
+        if (!(persistent instanceof AutoCloseable closeable)) return;
+
+        try {
+            closeable.close();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            if (log != null) log.error(e.getMessage());
+            throw new IconStorageException(e);
+        }
+    }
+
+    /**
+     * Builder for {@link CachingIconUrlProvider}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Memory level = {@link InMemoryIconUrlProvider}</li>
+     *     <li>Persistent level = none</li>
+     *     <li>Source = none</li>
+     * </ul>
+     */
+    public static class Builder {
+        private WritableIconUrlProvider memory;
+        private WritableIconUrlProvider persistent;
+        private Path file;
+        private IconUrlProvider source;
+        private Logger log = null;
+
+        /**
+         * Sets a custom memory level.
+         *
+         * @param memory Memory level implementation
+         * @return This builder instance
+         */
+        public Builder memory(WritableIconUrlProvider memory) {
+            this.memory = memory;
+            return this;
+        }
+
+        /**
+         * Uses a {@link FileIconUrlProvider} on the given file as the persistent level.
+         *
+         * @param file Icon URL log
+         * @return This builder instance
+         */
+        public Builder file(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        /**
+         * Sets a custom persistent level.
+         *
+         * @param persistent Persistent level implementation
+         * @return This builder instance
+         */
+        public Builder persistent(WritableIconUrlProvider persistent) {
+            this.persistent = persistent;
+            return this;
+        }
+
+        /**
+         * Sets the provider of URLs missing from both levels, e.g. {@code iconFetcher::fetchIconUrl}.
+         *
+         * @param source Source provider
+         * @return This builder instance
+         */
+        public Builder source(IconUrlProvider source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link CachingIconUrlProvider}.
+         *
+         * @return New {@link CachingIconUrlProvider} instance
+         */
+        public @NotNull CachingIconUrlProvider build() {
+            if (memory == null) memory = new InMemoryIconUrlProvider();
+            if (persistent == null && file != null) persistent = new FileIconUrlProvider(file, log);
+
+            return new CachingIconUrlProvider(memory, persistent, source, log);
+        }
+    }
+}
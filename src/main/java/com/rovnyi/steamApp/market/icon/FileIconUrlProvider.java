@@ -0,0 +1,187 @@
+package com.rovnyi.steamApp.market.icon;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent {@link WritableIconUrlProvider} backed by an append-only log file.
+ * <p>
+ * All URLs are loaded into memory when the provider is constructed, so lookups never touch the disk. Every
+ * {@link #put} and {@link #remove} appends a single record instead of rewriting the whole file, and the log is
+ * rewritten with only the live entries when it is opened or once superseded records outnumber live ones.
+ * <p>
+ * Layout:
+ * <pre>
+ * header  magic:int
+ * record  type:byte  name:utf  [url:utf]
+ * </pre>
+ * A record cut short by a crash is dropped when the file is loaded. Thread-safe.
+ */
+public class FileIconUrlProvider implements WritableIconUrlProvider, AutoCloseable {
+
+    private static final int MAGIC = 0x49434F31; // "ICO1"
+
+    private static final byte REMOVE = 0;
+
+    private static final byte PUT = 1;
+
+    /** Logs with fewer records than this are not compacted while in use */
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final Map<String, String> iconUrls = new ConcurrentHashMap<>();
+
+    private final Path file;
+
+    private final Logger log;
+
+    private DataOutputStream out;
+
+    private int records;
+
+    /**
+     * Opens the given file, creating it if missing, and loads all stored icon URLs.
+     *
+     * @param file Icon URL log
+     * @param log  Logger, may be {@code null}
+     * @throws IconStorageException if the file cannot be read or written
+     */
+    public FileIconUrlProvider(Path file, Logger log) {
+        this.file = file;
+        this.log = log;
+
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            if (Files.exists(file)) load();
+            rewrite();
+            if (log != null) log.debug("Loaded {} icon URLs from {}", iconUrls.size(), file);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new IconStorageException(e);
+        }
+    }
+
+    @Override
+    public String get(String marketHashName) {
+        return iconUrls.get(marketHashName);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Nothing is written if the same URL is already stored.
+     */
+    @Override
+    public synchronized void put(String marketHashName, String iconUrl) {
+        if (iconUrl.equals(iconUrls.put(marketHashName, iconUrl))) return;
+        append(PUT, marketHashName, iconUrl);
+    }
+
+    @Override
+    public boolean contains(String marketHashName) {
+        return iconUrls.containsKey(marketHashName);
+    }
+
+    @Override
+    public synchronized boolean remove(String marketHashName) {
+        if (iconUrls.remove(marketHashName) == null) return false;
+        append(REMOVE, marketHashName, null);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return iconUrls.size();
+    }
+
+    /**
+     * Returns a snapshot copy of the stored icon URLs.
+     *
+     * @return Map of market hash name to icon URL
+     */
+    public Map<String, String> getMap() {
+        return new HashMap<>(iconUrls);
+    }
+
+    /**
+     * @return Icon URL log
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+        }
+    }
+
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an icon URL log: " + file);
+
+            while (true) {
+                int type = in.read();
+                if (type < 0) break;
+
+                String name = in.readUTF();
+                if (type == PUT) iconUrls.put(name, in.readUTF());
+                else iconUrls.remove(name);
+            }
+        } catch (EOFException e) {
+            if (log != null) log.warn("Dropping incomplete record at the end of {}", file);
+        }
+    }
+
+    private void append(byte type, String marketHashName, String iconUrl) {
+        try {
+            out.writeByte(type);
+            out.writeUTF(marketHashName);
+            if (type == PUT) out.writeUTF(iconUrl);
+            out.flush();
+            records++;
+
+            if (records >= MIN_COMPACTION_RECORDS && records > 2 * iconUrls.size()) {
+                out.close();
+                rewrite();
+            }
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new IconStorageException(e);
+        }
+    }
+
+    /**
+     * Replaces the log with one holding only the live entries and reopens it for appending.
+     */
+    private void rewrite() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream compacted = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            compacted.writeInt(MAGIC);
+            for (Map.Entry<String, String> entry : iconUrls.entrySet()) {
+                compacted.writeByte(PUT);
+                compacted.writeUTF(entry.getKey());
+                compacted.writeUTF(entry.getValue());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+        records = iconUrls.size();
+    }
+}
@@ -0,0 +1,510 @@
+package com.rovnyi.steamApp.market.icon;
+
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local cache of icon images, so icons can be served without calling Steam.
+ * <p>
+ * Images are stored content-addressed: a file is named by the SHA-256 of its bytes plus an extension sniffed from
+ * them, so an image shared by several URLs is stored once and a file never changes after it was written. An index
+ * file maps each URL to its image and is appended to as images are added. The total size of the images is bounded;
+ * when it is exceeded, the least recently used images are deleted. The use order survives restarts through the
+ * files' modification times, which are refreshed on every hit.
+ * <p>
+ * Layout of the cache directory:
+ * <pre>
+ * objects/&lt;sha256&gt;.&lt;ext&gt;   image files
+ * index                    magic:int, then records  url:utf  file:utf
+ * </pre>
+ * Concurrent requests for the same missing URL share a single download. A path returned by {@link #get(String)}
+ * may be evicted by later downloads; {@link #getBytes(String)} handles that by downloading the image again.
+ * Thread-safe.
+ */
+public class IconImageCache implements AutoCloseable {
+
+    private static final int MAGIC = 0x49494D31; // "IIM1"
+
+    private final OkHttpClient client = new OkHttpClient();
+
+    private final Path directory;
+
+    private final Path objects;
+
+    private final long maxBytes;
+
+    private final RateLimiter rateLimiter;
+
+    private final Logger log;
+
+    /** Image file name - size in bytes, least recently used first */
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** URL - image file name */
+    private final Map<String, String> index = new HashMap<>();
+
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder downloads = new LongAdder();
+
+    private long totalBytes;
+
+    private DataOutputStream indexOut;
+
+    /**
+     * Opens the cache in the given directory, creating it if missing.
+     *
+     * @param directory   Cache directory
+     * @param maxBytes    Maximum total size of the cached images
+     * @param rateLimiter Rate limiter every download waits on, or {@code null}
+     * @param log         Logger, may be {@code null}
+     * @throws IconStorageException if the directory cannot be read or written
+     */
+    public IconImageCache(Path directory, long maxBytes, RateLimiter rateLimiter, Logger log) {
+        this.directory = directory;
+        this.objects = directory.resolve("objects");
+        this.maxBytes = maxBytes;
+        this.rateLimiter = rateLimiter;
+        this.log = log;
+
+        try {
+            Files.createDirectories(objects);
+            scanObjects();
+            loadIndex();
+            rewriteIndex();
+            evict(null);
+            if (log != null) log.debug("Opened icon image cache {} with {} images, {} bytes", directory, files.size(), totalBytes);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new IconStorageException(e);
+        }
+    }
+
+    /**
+     * Returns the local file of an icon, downloading it if it is not cached.
+     *
+     * @param iconUrl Icon URL
+     * @return Path of the image file, or {@code null} if the download failed or the image exceeds the size bound
+     * @throws IconStorageException if the image cannot be stored
+     */
+    public Path get(String iconUrl) {
+        Path cached = getCached(iconUrl);
+        if (cached != null) return cached;
+
+        CompletableFuture<Path> own = new CompletableFuture<>();
+        CompletableFuture<Path> running = loading.putIfAbsent(iconUrl, own);
+        if (running != null) return running.join();
+
+        try {
+            Path path = download(iconUrl);
+            own.complete(path);
+            return path;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(iconUrl, own);
+        }
+    }
+
+    /**
+     * Returns the bytes of an icon, downloading it if it is not cached.
+     *
+     * @param iconUrl Icon URL
+     * @return Image bytes, or {@code null} if the download failed or the image exceeds the size bound
+     * @throws IconStorageException if the image cannot be read or stored
+     */
+    public byte[] getBytes(String iconUrl) {
+        for (int attempt = 0; ; attempt++) {
+            Path path = get(iconUrl);
+            if (path == null) return null;
+
+            try {
+                return Files.readAllBytes(path);
+            } catch (NoSuchFileException e) {
+                // Evicted between the lookup and the read.
+                if (attempt > 0) throw new IconStorageException(e);
+            } catch (IOException e) {
+                if (log != null) log.error(e.getMessage());
+                throw new IconStorageException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the local file of an icon without downloading it.
+     *
+     * @param iconUrl Icon URL
+     * @return Path of the image file, or {@code null} if it is not cached
+     */
+    public Path getCached(String iconUrl) {
+        String fileName;
+        synchronized (this) {
+            fileName = index.get(iconUrl);
+            if (fileName == null) return null;
+
+            if (files.get(fileName) == null) {
+                // The image was evicted; the index entry is dropped from the file on the next rewrite.
+                index.remove(iconUrl);
+                return null;
+            }
+        }
+        hits.increment();
+
+        Path path = objects.resolve(fileName);
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            if (log != null) log.debug("Could not touch {}: {}", path, e.getMessage());
+        }
+        return path;
+    }
+
+    /**
+     * @param iconUrl Icon URL
+     * @return {@code true} if the icon is cached
+     */
+    public synchronized boolean contains(String iconUrl) {
+        String fileName = index.get(iconUrl);
+        return fileName != null && files.containsKey(fileName);
+    }
+
+    /**
+     * @return Total size of the cached images in bytes
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return Number of cached image files
+     */
+    public synchronized int getFileCount() {
+        return files.size();
+    }
+
+    /**
+     * @return Maximum total size of the cached images
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @return Number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of images downloaded
+     */
+    public long getDownloads() {
+        return downloads.sum();
+    }
+
+    /**
+     * @return Cache directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            indexOut.close();
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+        }
+    }
+
+    private Path download(String iconUrl) {
+        Deadline.acquire(rateLimiter);
+
+        Request request = new Request.Builder()
+                .url(iconUrl)
+                .header("User-Agent",
+                        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
+                        "AppleWebKit/537.36 (KHTML, like Gecko) " +
+                        "Chrome/126.0.6478.185 Safari/537.36")
+                .build();
+
+        byte[] bytes;
+        try (Response response = Deadline.execute(client.newCall(request))) {
+            if (!response.isSuccessful() || response.body() == null) {
+                if (log != null) log.info("Could not download icon {}: HTTP {}", iconUrl, response.code());
+                return null;
+            }
+            bytes = response.body().bytes();
+        } catch (IOException e) {
+            if (log != null) log.info("Could not download icon {}: {}", iconUrl, e.getMessage());
+            return null;
+        }
+        downloads.increment();
+
+        if (bytes.length == 0 || bytes.length > maxBytes) {
+            if (log != null) log.info("Not caching icon {} of {} bytes", iconUrl, bytes.length);
+            return null;
+        }
+
+        String fileName = sha256(bytes) + "." + extension(bytes);
+        Path path = objects.resolve(fileName);
+
+        try {
+            synchronized (this) {
+                if (files.get(fileName) != null) {
+                    addToIndex(iconUrl, fileName);
+                    return path;
+                }
+            }
+
+            Path temp = Files.createTempFile(objects, fileName, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (this) {
+                if (files.put(fileName, (long) bytes.length) == null) totalBytes += bytes.length;
+                addToIndex(iconUrl, fileName);
+                evict(fileName);
+            }
+            if (log != null) log.debug("Cached icon {} as {}", iconUrl, fileName);
+            return path;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new IconStorageException(e);
+        }
+    }
+
+    private void addToIndex(String iconUrl, String fileName) throws IOException {
+        if (fileName.equals(index.put(iconUrl, fileName))) return;
+
+        indexOut.writeUTF(iconUrl);
+        indexOut.writeUTF(fileName);
+        indexOut.flush();
+    }
+
+    /**
+     * Deletes the least recently used images until the total size fits the bound.
+     *
+     * @param keep Image that must not be deleted, or {@code null}
+     */
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) continue;
+
+            try {
+                Files.deleteIfExists(objects.resolve(eldest.getKey()));
+            } catch (IOException e) {
+                if (log != null) log.warn("Could not delete cached icon {}: {}", eldest.getKey(), e.getMessage());
+                continue;
+            }
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            if (log != null) log.debug("Evicted cached icon {}", eldest.getKey());
+        }
+    }
+
+    /**
+     * Registers the existing image files, least recently used first, and deletes leftovers of interrupted writes.
+     */
+    private void scanObjects() throws IOException {
+        record ImageFile(String name, long size, long lastModified) {
+        }
+
+        List<ImageFile> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(objects)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(path);
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                found.add(new ImageFile(name, attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        }
+
+        found.sort(Comparator.comparingLong(ImageFile::lastModified));
+        for (ImageFile file : found) {
+            files.put(file.name(), file.size());
+            totalBytes += file.size();
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        Path file = directory.resolve("index");
+        if (!Files.exists(file)) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not an icon image index: " + file);
+
+            while (!isAtEnd(in)) {
+                String iconUrl = in.readUTF();
+                String fileName = in.readUTF();
+                if (files.containsKey(fileName)) index.put(iconUrl, fileName);
+            }
+        } catch (EOFException e) {
+            if (log != null) log.warn("Dropping incomplete record at the end of {}", file);
+        }
+    }
+
+    private static boolean isAtEnd(DataInputStream in) throws IOException {
+        in.mark(1);
+        boolean end = in.read() < 0;
+        in.reset();
+        return end;
+    }
+
+    /**
+     * Replaces the index with one holding only the entries of existing images and reopens it for appending.
+     */
+    private void rewriteIndex() throws IOException {
+        Path file = directory.resolve("index");
+        Path temp = directory.resolve("index.tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            for (Map.Entry<String, String> entry : index.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return File extension matching the image format of the bytes
+     */
+    private static String extension(byte[] bytes) {
+        if (startsWith(bytes, 0, 0x89, 'P', 'N', 'G')) return "png";
+        if (startsWith(bytes, 0, 0xFF, 0xD8, 0xFF)) return "jpg";
+        if (startsWith(bytes, 0, 'G', 'I', 'F', '8')) return "gif";
+        if (startsWith(bytes, 0, 'R', 'I', 'F', 'F') && startsWith(bytes, 8, 'W', 'E', 'B', 'P')) return "webp";
+        return "bin";
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... prefix) {
+        if (bytes.length < offset + prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Builder for {@link IconImageCache}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Max size = 256 MB</li>
+     *     <li>RateLimiter = none</li>
+     * </ul>
+     */
+    public static class Builder {
+        private Path directory;
+        private long maxBytes = 256L << 20;
+        private RateLimiter rateLimiter = null;
+        private Logger log = null;
+
+        /**
+         * Sets the cache directory. Required.
+         *
+         * @param directory Cache directory
+         * @return This builder instance
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total size of the cached images.
+         *
+         * @param maxBytes Size bound in bytes
+         * @return This builder instance
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Sets the rate limiter every download waits on.
+         *
+         * @param rateLimiter Shared rate limiter
+         * @return This builder instance
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link IconImageCache}.
+         *
+         * @return New {@link IconImageCache} instance
+         * @throws IllegalStateException if no directory is set
+         */
+        public @NotNull IconImageCache build() {
+            if (directory == null) throw new IllegalStateException("Cache directory is required");
+            return new IconImageCache(directory, maxBytes, rateLimiter, log);
+        }
+    }
+}
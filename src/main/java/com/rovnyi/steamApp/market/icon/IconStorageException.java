@@ -0,0 +1,27 @@
+package com.rovnyi.steamApp.market.icon;
+
+/**
+ * Exception thrown when reading from or writing to a persistent icon store fails.
+ * <p>
+ * Used by {@link FileIconUrlProvider} and {@link IconImageCache} to indicate I/O issues during persistence operations.
+ */
+public class IconStorageException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code IconStorageException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public IconStorageException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code IconStorageException} with the specified cause.
+     *
+     * @param cause the underlying {@link Throwable} that caused this exception
+     */
+    public IconStorageException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.rovnyi.steamApp.market.icon;
+
+/**
+ * Interface for providers returning the icon URL of an item given its market_hash_name.
+ * <p>
+ * Implementations may keep URLs in memory or on disk, or fetch them from the item's listing page,
+ * e.g. {@code iconFetcher::fetchIconUrl} of an {@link com.rovnyi.steamApp.market.fetcher.ItemIconFetcher}.
+ */
+@FunctionalInterface
+public interface IconUrlProvider {
+
+    /**
+     * Returns the icon URL of the item.
+     *
+     * @param marketHashName Unique name of the item in the Steam Market
+     * @return Icon URL, or null if the value is not found
+     */
+    String get(String marketHashName);
+}
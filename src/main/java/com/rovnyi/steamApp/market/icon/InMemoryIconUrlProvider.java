@@ -0,0 +1,64 @@
+package com.rovnyi.steamApp.market.icon;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory implementation of {@link WritableIconUrlProvider} backed by a {@link ConcurrentHashMap}.
+ * <p>
+ * This provider does not persist data between sessions.
+ */
+public class InMemoryIconUrlProvider implements WritableIconUrlProvider {
+
+    private final Map<String, String> iconUrls = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new empty in-memory provider.
+     */
+    public InMemoryIconUrlProvider() {
+    }
+
+    /**
+     * Constructs a new in-memory provider with the given initial data.
+     *
+     * @param iconUrls A map containing initial marketHashName - icon URL mappings
+     */
+    public InMemoryIconUrlProvider(Map<String, String> iconUrls) {
+        this.iconUrls.putAll(iconUrls);
+    }
+
+    @Override
+    public String get(String marketHashName) {
+        return iconUrls.get(marketHashName);
+    }
+
+    @Override
+    public void put(String marketHashName, String iconUrl) {
+        iconUrls.put(marketHashName, iconUrl);
+    }
+
+    @Override
+    public boolean contains(String marketHashName) {
+        return iconUrls.containsKey(marketHashName);
+    }
+
+    @Override
+    public boolean remove(String marketHashName) {
+        return iconUrls.remove(marketHashName) != null;
+    }
+
+    @Override
+    public int size() {
+        return iconUrls.size();
+    }
+
+    /**
+     * Returns a snapshot copy of the stored icon URLs.
+     *
+     * @return Map of market hash name to icon URL
+     */
+    public Map<String, String> getMap() {
+        return new HashMap<>(iconUrls);
+    }
+}
@@ -0,0 +1,39 @@
+package com.rovnyi.steamApp.market.icon;
+
+/**
+ * An {@link IconUrlProvider} that can also store icon URLs.
+ * <p>
+ * Implemented by the cache-like providers ({@link InMemoryIconUrlProvider}, {@link FileIconUrlProvider}), which
+ * allows them to be used as levels of a {@link CachingIconUrlProvider}.
+ */
+public interface WritableIconUrlProvider extends IconUrlProvider {
+
+    /**
+     * Stores the icon URL of an item, replacing the previous one.
+     *
+     * @param marketHashName Unique item name
+     * @param iconUrl        Icon URL to associate
+     */
+    void put(String marketHashName, String iconUrl);
+
+    /**
+     * Checks if the icon URL is stored by this provider.
+     *
+     * @param marketHashName Item name to check
+     * @return true if the name exists, false otherwise
+     */
+    boolean contains(String marketHashName);
+
+    /**
+     * Removes the icon URL of an item.
+     *
+     * @param marketHashName Item name to remove
+     * @return true if the entry was removed, false if it didn't exist
+     */
+    boolean remove(String marketHashName);
+
+    /**
+     * @return Number of stored icon URLs
+     */
+    int size();
+}
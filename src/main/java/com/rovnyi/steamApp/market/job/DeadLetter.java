@@ -0,0 +1,45 @@
+package com.rovnyi.steamApp.market.job;
+
+/**
+ * An item of a {@link DurableJob} that kept failing and is no longer retried.
+ */
+public class DeadLetter {
+
+    private final String item;
+
+    private final int attempts;
+
+    private final String lastError;
+
+    /**
+     * @param item      The item, usually a market hash name
+     * @param attempts  Number of failed attempts
+     * @param lastError Message of the last error, may be {@code null}
+     */
+    public DeadLetter(String item, int attempts, String lastError) {
+        this.item = item;
+        this.attempts = attempts;
+        this.lastError = lastError;
+    }
+
+    public String getItem() {
+        return item;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{" +
+               "item='" + item + '\'' +
+               ", attempts=" + attempts +
+               ", lastError='" + lastError + '\'' +
+               '}';
+    }
+}
@@ -0,0 +1,772 @@
+package com.rovnyi.steamApp.market.job;
+
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.fetcher.MarketFetcherException;
+import com.rovnyi.steamApp.market.transport.RequestRejectedException;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A bulk job over a set of items whose progress survives a crash of the JVM.
+ * <p>
+ * Items are appended to an on-disk queue when they are {@link #enqueue enqueued}, and the outcome of every
+ * attempt is appended to a completion log, both flushed before the call returns. {@link #run(Consumer)} processes
+ * the items that are not completed yet on a number of virtual threads; after a crash, opening the same directory
+ * and calling it again resumes with the remaining items in queue order. An item is recorded as completed only after
+ * its processor returned, so it is processed at least once: one that was in flight during a crash is processed
+ * again.
+ * <p>
+ * An item whose processor throws {@link MarketFetcherException} is retried with an exponentially growing delay
+ * and moved to the dead letters once its attempts are used up; dead letters are skipped until
+ * {@link #requeueDeadLetters()}. A {@link RequestRejectedException} is retried without counting an attempt. Any
+ * other exception is not item-specific: it stops the run and is rethrown, leaving the item pending.
+ * <p>
+ * Layout of the job directory:
+ * <pre>
+ * queue  magic:int  { item:utf }
+ * log    magic:int  { type:byte  index:int  [error:utf] }
+ * </pre>
+ * where {@code index} is the position of the item in the queue. A record cut short by a crash is dropped when
+ * the files are opened. Thread-safe.
+ */
+public class DurableJob implements AutoCloseable {
+
+    private static final int QUEUE_MAGIC = 0x4A425131; // "JBQ1"
+
+    private static final int LOG_MAGIC = 0x4A424C31; // "JBL1"
+
+    private static final byte DONE = 0;
+
+    private static final byte FAILED = 1;
+
+    private static final byte DEAD = 2;
+
+    private static final byte RETRY = 3;
+
+    /** Longest error message stored in the log */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final Path directory;
+
+    private final int maxAttempts;
+
+    private final Duration retryDelay;
+
+    private final int concurrency;
+
+    private final RequestPriority priority;
+
+    private final boolean sync;
+
+    private final Logger log;
+
+    private final List<ItemState> items = new ArrayList<>();
+
+    private final Map<String, Integer> indices = new HashMap<>();
+
+    private final ArrayDeque<Integer> ready = new ArrayDeque<>();
+
+    private final PriorityQueue<Retry> retries = new PriorityQueue<>(Comparator.comparingLong(Retry::dueAt));
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    private final FileChannel queueChannel;
+
+    private final DataOutputStream queueOut;
+
+    private final FileChannel logChannel;
+
+    private final DataOutputStream logOut;
+
+    private int completed;
+
+    private int dead;
+
+    private int inFlight;
+
+    private boolean running;
+
+    private boolean stopping;
+
+    private boolean closed;
+
+    private Throwable failure;
+
+    /**
+     * Opens the job stored in the given directory, creating it if missing, and loads its progress.
+     *
+     * @param directory   Directory holding the queue and the completion log
+     * @param maxAttempts Number of failed attempts after which an item becomes a dead letter
+     * @param retryDelay  Delay before the first retry of a failed item, doubled for every further attempt
+     * @param concurrency Number of items processed at the same time
+     * @param priority    Priority of the requests made while processing items
+     * @param sync        Whether every record is forced to the storage device, surviving an OS crash as well
+     * @param log         Logger, may be {@code null}
+     * @throws JobStorageException if the files cannot be read or written
+     */
+    public DurableJob(Path directory, int maxAttempts, Duration retryDelay, int concurrency, RequestPriority priority,
+                      boolean sync, Logger log) {
+        this.directory = directory;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = retryDelay;
+        this.concurrency = Math.max(1, concurrency);
+        this.priority = priority;
+        this.sync = sync;
+        this.log = log;
+
+        try {
+            Files.createDirectories(directory);
+            queueChannel = open(directory.resolve("queue"), QUEUE_MAGIC, this::readItem);
+            queueOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(queueChannel)));
+            logChannel = open(directory.resolve("log"), LOG_MAGIC, this::readOutcome);
+            logOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel)));
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new JobStorageException(e);
+        }
+        if (log != null) log.debug("Opened job {}: {} items, {} completed, {} dead", directory, items.size(), completed, dead);
+    }
+
+    /**
+     * Appends items to the queue. Items already in the job, completed or not, are ignored.
+     * <p>
+     * Items enqueued while the job is running are processed by the current run.
+     *
+     * @param items Items to process, usually market hash names
+     * @return Number of items added
+     * @throws JobStorageException if the queue cannot be written
+     */
+    public int enqueue(Collection<String> items) {
+        lock.lock();
+        try {
+            ensureOpen();
+            int added = 0;
+            try {
+                for (String item : items) {
+                    if (indices.containsKey(item)) continue;
+
+                    queueOut.writeUTF(item);
+                    int index = this.items.size();
+                    this.items.add(new ItemState(item));
+                    indices.put(item, index);
+                    if (running) ready.add(index);
+                    added++;
+                }
+                queueOut.flush();
+                if (sync) queueChannel.force(false);
+            } catch (IOException e) {
+                if (log != null) log.error(e.getMessage());
+                throw new JobStorageException(e);
+            }
+
+            if (added > 0) changed.signalAll();
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Processes every pending item and returns once none is left, or the run was stopped.
+     * <p>
+     * If the calling thread is interrupted, the run is stopped as with {@link #stop()} and the interrupt flag is
+     * restored before returning.
+     *
+     * @param processor Work done for an item, e.g. fetching and storing its overview
+     * @throws IllegalStateException if the job is already running or closed
+     * @throws JobStorageException   if the progress cannot be recorded
+     * @throws RuntimeException      any exception other than {@link MarketFetcherException} and
+     *                               {@link RequestRejectedException} thrown by the processor, a checked one wrapped
+     * @throws Error                 any error thrown by the processor
+     */
+    public void run(Consumer<String> processor) {
+        lock.lock();
+        try {
+            ensureOpen();
+            if (running) throw new IllegalStateException("Job is already running");
+            running = true;
+            stopping = false;
+            failure = null;
+            ready.clear();
+            retries.clear();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).status == Status.PENDING) ready.add(i);
+            }
+            if (log != null) log.info("Running job {}: {} pending items", directory, ready.size());
+        } finally {
+            lock.unlock();
+        }
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("job-worker-" + i).start(() -> runWorker(processor)));
+        }
+
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stop();
+                }
+            }
+        }
+
+        Throwable error;
+        lock.lock();
+        try {
+            running = false;
+            error = failure;
+            if (log != null) log.info("Job {} stopped: {} of {} completed, {} dead", directory, completed, items.size(), dead);
+        } finally {
+            lock.unlock();
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+        if (error instanceof RuntimeException e) throw e;
+        if (error instanceof Error e) throw e;
+        if (error != null) throw new RuntimeException(error);
+    }
+
+    /**
+     * Stops the current run. Items in progress are finished, the others stay pending for the next run.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopping = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves all dead letters back to the pending items, with their attempts reset.
+     *
+     * @return Number of items requeued
+     * @throws JobStorageException if the log cannot be written
+     */
+    public int requeueDeadLetters() {
+        lock.lock();
+        try {
+            ensureOpen();
+            int requeued = 0;
+            for (int i = 0; i < items.size(); i++) {
+                ItemState item = items.get(i);
+                if (item.status != Status.DEAD) continue;
+
+                append(RETRY, i, null);
+                item.status = Status.PENDING;
+                item.attempts = 0;
+                dead--;
+                if (running) ready.add(i);
+                requeued++;
+            }
+
+            if (requeued > 0) changed.signalAll();
+            return requeued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Items that kept failing, in queue order
+     */
+    public List<DeadLetter> getDeadLetters() {
+        lock.lock();
+        try {
+            List<DeadLetter> letters = new ArrayList<>();
+            for (ItemState item : items) {
+                if (item.status == Status.DEAD) letters.add(new DeadLetter(item.name, item.attempts, item.lastError));
+            }
+            return letters;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of items in the job
+     */
+    public int getTotal() {
+        lock.lock();
+        try {
+            return items.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of items processed successfully
+     */
+    public int getCompleted() {
+        lock.lock();
+        try {
+            return completed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of dead letters
+     */
+    public int getDead() {
+        lock.lock();
+        try {
+            return dead;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of items neither completed nor dead
+     */
+    public int getPending() {
+        lock.lock();
+        try {
+            return items.size() - completed - dead;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if no item is pending
+     */
+    public boolean isComplete() {
+        return getPending() == 0;
+    }
+
+    /**
+     * @return Directory holding the queue and the completion log
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Closes the queue and the completion log.
+     *
+     * @throws IllegalStateException if the job is running
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            if (running) throw new IllegalStateException("Job is running");
+            closed = true;
+
+            queueOut.close();
+            logOut.close();
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWorker(Consumer<String> processor) {
+        try {
+            int index;
+            while ((index = next()) >= 0) {
+                try {
+                    process(processor, index);
+                } catch (Throwable e) {
+                    abort(e);
+                } finally {
+                    lock.lock();
+                    try {
+                        inFlight--;
+                        changed.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Index of the next item to process, or -1 if the run is over
+     */
+    private int next() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                if (stopping) return -1;
+
+                long now = System.nanoTime();
+                while (!retries.isEmpty() && retries.peek().dueAt() - now <= 0) {
+                    ready.add(retries.poll().index());
+                }
+
+                Integer index = ready.poll();
+                if (index != null) {
+                    inFlight++;
+                    return index;
+                }
+
+                if (retries.isEmpty()) {
+                    // Items in flight may still fail and come back as retries.
+                    if (inFlight == 0) return -1;
+                    changed.await();
+                } else {
+                    changed.awaitNanos(retries.peek().dueAt() - now);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void process(Consumer<String> processor, int index) {
+        String item = name(index);
+        try {
+            RequestScheduler.withPriority(priority, () -> {
+                processor.accept(item);
+                return null;
+            });
+        } catch (MarketFetcherException e) {
+            fail(index, e);
+            return;
+        } catch (RequestRejectedException e) {
+            postpone(index, e);
+            return;
+        }
+        complete(index);
+    }
+
+    private String name(int index) {
+        lock.lock();
+        try {
+            return items.get(index).name;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(int index) {
+        lock.lock();
+        try {
+            append(DONE, index, null);
+            items.get(index).status = Status.DONE;
+            completed++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void fail(int index, MarketFetcherException error) {
+        lock.lock();
+        try {
+            ItemState item = items.get(index);
+            String message = message(error);
+            append(FAILED, index, message);
+            item.attempts++;
+            item.lastError = message;
+
+            if (item.attempts >= maxAttempts) {
+                append(DEAD, index, message);
+                item.status = Status.DEAD;
+                dead++;
+                if (log != null) log.warn("\"{}\" failed {} times, moved to dead letters: {}", item.name, item.attempts, message);
+            } else {
+                long delay = retryDelay.toNanos() << Math.min(item.attempts - 1, 6);
+                retries.add(new Retry(index, System.nanoTime() + delay));
+                changed.signalAll();
+                if (log != null) log.debug("\"{}\" failed (attempt {}): {}", item.name, item.attempts, message);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void postpone(int index, RequestRejectedException error) {
+        lock.lock();
+        try {
+            retries.add(new Retry(index, System.nanoTime() + retryDelay.toNanos()));
+            changed.signalAll();
+            if (log != null) log.debug("\"{}\" postponed: {}", items.get(index).name, error.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abort(Throwable error) {
+        lock.lock();
+        try {
+            if (failure == null) failure = error;
+            stopping = true;
+            changed.signalAll();
+            if (log != null) log.error("Job {} aborted: {}", directory, error.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a record to the completion log. Called with the lock held.
+     */
+    private void append(byte type, int index, String error) {
+        try {
+            logOut.writeByte(type);
+            logOut.writeInt(index);
+            if (type == FAILED || type == DEAD) logOut.writeUTF(error);
+            logOut.flush();
+            if (sync) logChannel.force(false);
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new JobStorageException(e);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Job is closed");
+    }
+
+    private static String message(Exception error) {
+        String message = String.valueOf(error.getMessage());
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    private void readItem(DataInputStream in) throws IOException {
+        String item = in.readUTF();
+        indices.put(item, items.size());
+        items.add(new ItemState(item));
+    }
+
+    private void readOutcome(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        int index = in.readInt();
+        String error = type == FAILED || type == DEAD ? in.readUTF() : null;
+        if (index < 0 || index >= items.size()) throw new IOException("Log record for unknown item " + index);
+
+        ItemState item = items.get(index);
+        switch (type) {
+            case DONE -> {
+                if (item.status == Status.DEAD) dead--;
+                if (item.status != Status.DONE) completed++;
+                item.status = Status.DONE;
+            }
+            case FAILED -> {
+                item.attempts++;
+                item.lastError = error;
+            }
+            case DEAD -> {
+                if (item.status != Status.DEAD) dead++;
+                item.status = Status.DEAD;
+                item.lastError = error;
+            }
+            case RETRY -> {
+                if (item.status == Status.DEAD) dead--;
+                item.status = Status.PENDING;
+                item.attempts = 0;
+            }
+            default -> throw new IOException("Unknown log record type " + type);
+        }
+    }
+
+    /**
+     * Reads all complete records of a file, drops an incomplete one at its end and opens the file for appending.
+     */
+    private FileChannel open(Path file, int magic, RecordReader reader) throws IOException {
+        long valid = 0;
+        if (Files.exists(file)) {
+            byte[] bytes = Files.readAllBytes(file);
+            // Shorter than the magic: the file was created but the crash came before its header was written.
+            if (bytes.length >= Integer.BYTES) {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+                if (in.readInt() != magic) throw new IOException("Not a job file: " + file);
+
+                valid = Integer.BYTES;
+                try {
+                    while (in.available() > 0) {
+                        reader.read(in);
+                        valid = bytes.length - in.available();
+                    }
+                } catch (EOFException e) {
+                    if (log != null) log.warn("Dropping incomplete record at the end of {}", file);
+                }
+            }
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(valid);
+        channel.position(valid);
+        if (valid == 0) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(magic).flip());
+            if (sync) channel.force(false);
+        }
+        return channel;
+    }
+
+    private enum Status {
+        PENDING, DONE, DEAD
+    }
+
+    /**
+     * Progress of an item. Guarded by the lock.
+     */
+    private static class ItemState {
+        private final String name;
+        private Status status = Status.PENDING;
+        private int attempts;
+        private String lastError;
+
+        private ItemState(String name) {
+            this.name = name;
+        }
+    }
+
+    private record Retry(int index, long dueAt) {
+    }
+
+    @FunctionalInterface
+    private interface RecordReader {
+        void read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Builder for {@link DurableJob}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Max attempts = 3</li>
+     *     <li>Retry delay = 5 seconds</li>
+     *     <li>Concurrency = 4</li>
+     *     <li>Priority = {@link RequestPriority#BACKGROUND}</li>
+     *     <li>Sync = false, records survive a crash of the JVM but not of the OS</li>
+     * </ul>
+     */
+    public static class Builder {
+        private Path directory;
+        private int maxAttempts = 3;
+        private Duration retryDelay = Duration.ofSeconds(5);
+        private int concurrency = 4;
+        private RequestPriority priority = RequestPriority.BACKGROUND;
+        private boolean sync = false;
+        private Logger log = null;
+
+        /**
+         * Sets the directory holding the job's queue and completion log. Required.
+         *
+         * @param directory Job directory, one per job
+         * @return This builder instance
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the number of failed attempts after which an item becomes a dead letter.
+         *
+         * @param maxAttempts Maximum attempts per item
+         * @return This builder instance
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the delay before the first retry of a failed item; it doubles for every further attempt.
+         *
+         * @param retryDelay Initial retry delay
+         * @return This builder instance
+         */
+        public Builder retryDelay(Duration retryDelay) {
+            this.retryDelay = retryDelay;
+            return this;
+        }
+
+        /**
+         * Sets the number of items processed at the same time.
+         *
+         * @param concurrency Number of workers
+         * @return This builder instance
+         */
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Sets the priority of the requests made while processing items.
+         *
+         * @param priority Request priority
+         * @return This builder instance
+         */
+        public Builder priority(RequestPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Sets whether every record is forced to the storage device. Slower, but survives an OS crash.
+         *
+         * @param sync Whether to force every record to disk
+         * @return This builder instance
+         */
+        public Builder sync(boolean sync) {
+            this.sync = sync;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Opens the configured {@link DurableJob}.
+         *
+         * @return New {@link DurableJob} instance
+         * @throws IllegalStateException if no directory is set
+         * @throws JobStorageException   if the job files cannot be read or written
+         */
+        public @NotNull DurableJob build() {
+            if (directory == null) throw new IllegalStateException("directory is required");
+            return new DurableJob(directory, maxAttempts, retryDelay, concurrency, priority, sync, log);
+        }
+    }
+}
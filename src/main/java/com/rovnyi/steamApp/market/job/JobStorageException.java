@@ -0,0 +1,27 @@
+package com.rovnyi.steamApp.market.job;
+
+/**
+ * Exception thrown when reading from or writing to the files of a durable job fails.
+ * <p>
+ * Used by {@link DurableJob} to indicate I/O issues while loading or recording progress.
+ */
+public class JobStorageException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code JobStorageException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public JobStorageException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code JobStorageException} with the specified cause.
+     *
+     * @param cause the underlying {@link Throwable} that caused this exception
+     */
+    public JobStorageException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,583 @@
+package com.rovnyi.steamApp.market.pipeline;
+
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs bulk fetches as three separately sized stages connected by bounded queues.
+ * <p>
+ * The {@link Stage#FETCH fetch} stage only waits on the network, on a virtual thread per input with a limited
+ * number in flight. Its raw responses go through a bounded queue to the {@link Stage#PARSE parse} stage, a fixed
+ * pool of platform threads sized to the CPU work, and the parsed results through a second bounded queue to the
+ * {@link Stage#SINK sink} stage, which hands them to a pluggable {@link PipelineSink}. Parsing therefore keeps the
+ * cores busy while further requests are in flight, and a slow stage fills the queue in front of it until
+ * {@link #submit(Object)} blocks, so memory stays bounded whatever the stage speeds.
+ * <p>
+ * The fetchers expose their network and CPU parts separately for this, e.g.:
+ * <pre>{@code
+ * FetchPipeline<String, BodyFingerprint, FetchResult<PriceOverview>> pipeline =
+ *         new FetchPipeline.Builder<String, BodyFingerprint, FetchResult<PriceOverview>>()
+ *                 .fetch(priceFetcher::fetchBody)
+ *                 .parse(priceFetcher::parse)
+ *                 .sink((name, result) -> store(name, result))
+ *                 .build();
+ * pipeline.run(names);
+ * pipeline.close();
+ * }</pre>
+ * Fetches run with the {@link RequestPriority} of the thread that submitted the input. Inputs complete in no
+ * particular order. An input the fetch stage returns {@code null} for skips the parse stage and reaches the sink
+ * with a {@code null} result; an input a stage fails for is passed to {@link PipelineSink#failed} instead.
+ * <p>
+ * Thread-safe.
+ *
+ * @param <I> Input type, usually the market hash name
+ * @param <R> Raw response type produced by the fetch stage
+ * @param <T> Parsed result type passed to the sink
+ */
+public class FetchPipeline<I, R, T> implements AutoCloseable {
+
+    /**
+     * Stages of the pipeline, in the order an input passes them.
+     */
+    public enum Stage {
+        /** Sends the request and reads the raw response, on virtual threads. */
+        FETCH,
+        /** Parses the raw response, on a fixed pool of platform threads. */
+        PARSE,
+        /** Hands the parsed result to the {@link PipelineSink}. */
+        SINK
+    }
+
+    private final Function<? super I, ? extends R> fetch;
+
+    private final BiFunction<? super I, ? super R, ? extends T> parse;
+
+    private final PipelineSink<? super I, ? super T> sink;
+
+    private final Logger log;
+
+    private final int fetchConcurrency;
+
+    private final Semaphore fetchSlots;
+
+    private final BlockingQueue<Work<I, R>> parseQueue;
+
+    private final BlockingQueue<Work<I, T>> sinkQueue;
+
+    private final ThreadFactory fetchThreads = Thread.ofVirtual().name("pipeline-fetch-", 0).factory();
+
+    private final List<Thread> parseWorkers = new ArrayList<>();
+
+    private final List<Thread> sinkWorkers = new ArrayList<>();
+
+    private final Map<Stage, StageCounters> counters = new EnumMap<>(Stage.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition idle = lock.newCondition();
+
+    /** Inputs submitted and not yet accepted by the sink or failed. Guarded by the lock. */
+    private long pending;
+
+    /** Guarded by the lock */
+    private boolean closed;
+
+    /**
+     * Constructs a new pipeline and starts its parse and sink workers.
+     *
+     * @param fetch             Fetch stage, returning the raw response of an input or {@code null} if there is none
+     * @param parse             Parse stage, turning a raw response into a result
+     * @param sink              Sink stage
+     * @param fetchConcurrency  Maximum number of fetches in flight at the same time
+     * @param parseThreads      Number of parse threads
+     * @param sinkThreads       Number of sink threads
+     * @param parseQueueSize    Number of raw responses that can wait for a parse thread
+     * @param sinkQueueSize     Number of results that can wait for a sink thread
+     * @param log               Logger, may be {@code null}
+     */
+    public FetchPipeline(Function<? super I, ? extends R> fetch, BiFunction<? super I, ? super R, ? extends T> parse,
+                         PipelineSink<? super I, ? super T> sink, int fetchConcurrency, int parseThreads, int sinkThreads,
+                         int parseQueueSize, int sinkQueueSize, Logger log) {
+        this.fetch = fetch;
+        this.parse = parse;
+        this.sink = sink;
+        this.log = log;
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+        this.fetchSlots = new Semaphore(this.fetchConcurrency, true);
+        this.parseQueue = new ArrayBlockingQueue<>(Math.max(1, parseQueueSize));
+        this.sinkQueue = new ArrayBlockingQueue<>(Math.max(1, sinkQueueSize));
+
+        for (Stage stage : Stage.values()) {
+            counters.put(stage, new StageCounters());
+        }
+
+        ThreadFactory parseFactory = Thread.ofPlatform().name("pipeline-parse-", 0).daemon(true).factory();
+        for (int i = 0; i < Math.max(1, parseThreads); i++) {
+            Thread worker = parseFactory.newThread(this::runParser);
+            parseWorkers.add(worker);
+            worker.start();
+        }
+        for (int i = 0; i < Math.max(1, sinkThreads); i++) {
+            sinkWorkers.add(Thread.ofVirtual().name("pipeline-sink-" + i).start(this::runSink));
+        }
+    }
+
+    /**
+     * Submits an input to the fetch stage.
+     * <p>
+     * Blocks while the maximum number of fetches is in flight, which happens once the stages behind the fetch
+     * stage fall behind and their queues are full.
+     *
+     * @param input Input to fetch
+     * @throws IllegalStateException         if the pipeline is closed
+     * @throws PipelineInterruptedException if the thread is interrupted while waiting
+     */
+    public void submit(I input) {
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Pipeline is closed");
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            fetchSlots.acquire();
+        } catch (InterruptedException e) {
+            done();
+            Thread.currentThread().interrupt();
+            throw new PipelineInterruptedException();
+        }
+
+        long waited = System.nanoTime() - start;
+        RequestPriority priority = RequestScheduler.currentPriority();
+        fetchThreads.newThread(() -> runFetch(input, priority, waited)).start();
+    }
+
+    /**
+     * Submits all inputs and waits until each one has reached the sink or failed.
+     *
+     * @param inputs Inputs to fetch
+     * @throws IllegalStateException         if the pipeline is closed
+     * @throws PipelineInterruptedException if the thread is interrupted while waiting
+     */
+    public void run(Iterable<? extends I> inputs) {
+        for (I input : inputs) {
+            submit(input);
+        }
+        awaitCompletion();
+    }
+
+    /**
+     * Waits until every submitted input has reached the sink or failed.
+     *
+     * @throws PipelineInterruptedException if the thread is interrupted while waiting
+     */
+    public void awaitCompletion() {
+        lock.lock();
+        try {
+            while (pending > 0) {
+                idle.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineInterruptedException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every submitted input has reached the sink or failed, or the timeout passes.
+     *
+     * @param timeout Maximum time to wait
+     * @return true if no input is pending, false if the timeout passed first
+     * @throws PipelineInterruptedException if the thread is interrupted while waiting
+     */
+    public boolean awaitCompletion(Duration timeout) {
+        long left = timeout.toNanos();
+        lock.lock();
+        try {
+            while (pending > 0) {
+                if (left <= 0) return false;
+                left = idle.awaitNanos(left);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineInterruptedException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of inputs submitted that have not reached the sink or failed yet
+     */
+    public long getPending() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param stage Pipeline stage
+     * @return Snapshot of the stage's counters
+     */
+    public StageMetrics getMetrics(Stage stage) {
+        StageCounters stageCounters = counters.get(stage);
+        int workers, queued;
+        switch (stage) {
+            case FETCH -> {
+                workers = fetchConcurrency;
+                queued = fetchSlots.getQueueLength();
+            }
+            case PARSE -> {
+                workers = parseWorkers.size();
+                queued = parseQueue.size();
+            }
+            default -> {
+                workers = sinkWorkers.size();
+                queued = sinkQueue.size();
+            }
+        }
+        return new StageMetrics(stage, workers, stageCounters.active.get(), queued, stageCounters.processed.sum(),
+                stageCounters.failed.sum(), stageCounters.busyNanos.sum(), stageCounters.waitNanos.sum());
+    }
+
+    /**
+     * @return Snapshots of the counters of all stages, in stage order
+     */
+    public List<StageMetrics> getMetrics() {
+        List<StageMetrics> metrics = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            metrics.add(getMetrics(stage));
+        }
+        return metrics;
+    }
+
+    /**
+     * Rejects further inputs, waits until the submitted ones are complete, stops the workers and calls
+     * {@link PipelineSink#finish()}. Has no effect if already closed.
+     *
+     * @throws PipelineInterruptedException if the thread is interrupted while waiting
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        awaitCompletion();
+        List<Thread> workers = new ArrayList<>(parseWorkers);
+        workers.addAll(sinkWorkers);
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PipelineInterruptedException();
+        }
+
+        sink.finish();
+        if (log != null) log.debug("Pipeline closed: {}", getMetrics());
+    }
+
+    private void runFetch(I input, RequestPriority priority, long waited) {
+        StageCounters stage = counters.get(Stage.FETCH);
+        stage.waitNanos.add(waited);
+        try {
+            long start = stage.begin();
+            R response;
+            try {
+                response = RequestScheduler.withPriority(priority, () -> fetch.apply(input));
+                stage.end(start, true);
+            } catch (Throwable e) {
+                stage.end(start, false);
+                fail(input, Stage.FETCH, e);
+                return;
+            }
+
+            // The slot is held until the response is queued, so a full parse queue holds back further fetches.
+            if (response == null) sinkQueue.put(new Work<>(input, null, System.nanoTime()));
+            else parseQueue.put(new Work<>(input, response, System.nanoTime()));
+        } catch (InterruptedException e) {
+            fail(input, Stage.FETCH, new PipelineInterruptedException());
+        } finally {
+            fetchSlots.release();
+        }
+    }
+
+    private void runParser() {
+        StageCounters stage = counters.get(Stage.PARSE);
+        try {
+            while (true) {
+                Work<I, R> work = parseQueue.take();
+                stage.waitNanos.add(System.nanoTime() - work.queuedAt());
+
+                long start = stage.begin();
+                T result;
+                try {
+                    result = parse.apply(work.input(), work.value());
+                    stage.end(start, true);
+                } catch (Throwable e) {
+                    stage.end(start, false);
+                    fail(work.input(), Stage.PARSE, e);
+                    continue;
+                }
+                sinkQueue.put(new Work<>(work.input(), result, System.nanoTime()));
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by close() once all inputs are complete
+        }
+    }
+
+    private void runSink() {
+        StageCounters stage = counters.get(Stage.SINK);
+        try {
+            while (true) {
+                Work<I, T> work = sinkQueue.take();
+                stage.waitNanos.add(System.nanoTime() - work.queuedAt());
+
+                long start = stage.begin();
+                try {
+                    sink.accept(work.input(), work.value());
+                    stage.end(start, true);
+                    done();
+                } catch (Throwable e) {
+                    stage.end(start, false);
+                    fail(work.input(), Stage.SINK, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by close() once all inputs are complete
+        }
+    }
+
+    /**
+     * Reports a failed input to the sink and completes it. Any {@link Throwable} is caught here and in the worker
+     * loops, so that every submitted input is completed and {@link #awaitCompletion()} cannot hang.
+     */
+    private void fail(I input, Stage stage, Throwable error) {
+        if (log != null) log.warn("\"{}\" - {} failed: {}", input, stage, error.getMessage());
+        try {
+            sink.failed(input, stage, error);
+        } catch (Throwable e) {
+            if (log != null) log.error("Sink failed to handle error of \"{}\": {}", input, e.getMessage());
+        } finally {
+            done();
+        }
+    }
+
+    private void done() {
+        lock.lock();
+        try {
+            if (--pending == 0) idle.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPipeline{" +
+               "pending=" + getPending() +
+               ", stages=" + getMetrics() +
+               '}';
+    }
+
+    /**
+     * Counters of a stage.
+     */
+    private static class StageCounters {
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        private long begin() {
+            active.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        private void end(long start, boolean succeeded) {
+            busyNanos.add(System.nanoTime() - start);
+            active.decrementAndGet();
+            if (succeeded) processed.increment();
+            else failed.increment();
+        }
+    }
+
+    /**
+     * Input travelling between two stages, with the time it was queued.
+     */
+    private record Work<I, V>(I input, V value, long queuedAt) {
+    }
+
+    /**
+     * Builder for {@link FetchPipeline}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Fetch concurrency = 16</li>
+     *     <li>Parse threads = number of available processors</li>
+     *     <li>Sink threads = 1</li>
+     *     <li>Parse and sink queue size = 64</li>
+     * </ul>
+     *
+     * @param <I> Input type
+     * @param <R> Raw response type
+     * @param <T> Parsed result type
+     */
+    public static class Builder<I, R, T> {
+        private Function<? super I, ? extends R> fetch;
+        private BiFunction<? super I, ? super R, ? extends T> parse;
+        private PipelineSink<? super I, ? super T> sink;
+        private int fetchConcurrency = 16;
+        private int parseThreads = Runtime.getRuntime().availableProcessors();
+        private int sinkThreads = 1;
+        private int parseQueueSize = 64;
+        private int sinkQueueSize = 64;
+        private Logger log = null;
+
+        /**
+         * Sets the fetch stage, e.g. {@code priceFetcher::fetchBody}. Required.
+         *
+         * @param fetch Function returning the raw response of an input, or {@code null} if there is none
+         * @return This builder instance
+         */
+        public Builder<I, R, T> fetch(Function<? super I, ? extends R> fetch) {
+            this.fetch = fetch;
+            return this;
+        }
+
+        /**
+         * Sets the parse stage, e.g. {@code priceFetcher::parse}. Required.
+         *
+         * @param parse Function turning the raw response of an input into a result
+         * @return This builder instance
+         */
+        public Builder<I, R, T> parse(BiFunction<? super I, ? super R, ? extends T> parse) {
+            this.parse = parse;
+            return this;
+        }
+
+        /**
+         * Sets the sink stage. Required.
+         *
+         * @param sink Receiver of the parsed results
+         * @return This builder instance
+         */
+        public Builder<I, R, T> sink(PipelineSink<? super I, ? super T> sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of fetches in flight at the same time.
+         *
+         * @param fetchConcurrency Fetch concurrency
+         * @return This builder instance
+         */
+        public Builder<I, R, T> fetchConcurrency(int fetchConcurrency) {
+            this.fetchConcurrency = fetchConcurrency;
+            return this;
+        }
+
+        /**
+         * Sets the number of parse threads.
+         *
+         * @param parseThreads Size of the parse pool
+         * @return This builder instance
+         */
+        public Builder<I, R, T> parseThreads(int parseThreads) {
+            this.parseThreads = parseThreads;
+            return this;
+        }
+
+        /**
+         * Sets the number of sink threads. With more than one, the sink must be thread-safe.
+         *
+         * @param sinkThreads Number of sink threads
+         * @return This builder instance
+         */
+        public Builder<I, R, T> sinkThreads(int sinkThreads) {
+            this.sinkThreads = sinkThreads;
+            return this;
+        }
+
+        /**
+         * Sets the number of raw responses that can wait for a parse thread.
+         *
+         * @param parseQueueSize Parse queue capacity
+         * @return This builder instance
+         */
+        public Builder<I, R, T> parseQueueSize(int parseQueueSize) {
+            this.parseQueueSize = parseQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of results that can wait for a sink thread.
+         *
+         * @param sinkQueueSize Sink queue capacity
+         * @return This builder instance
+         */
+        public Builder<I, R, T> sinkQueueSize(int sinkQueueSize) {
+            this.sinkQueueSize = sinkQueueSize;
+            return this;
+        }
+
+        public Builder<I, R, T> withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link FetchPipeline} and starts its workers.
+         *
+         * @return New {@link FetchPipeline} instance
+         * @throws IllegalStateException if a stage is not set
+         */
+        public @NotNull FetchPipeline<I, R, T> build() {
+            if (fetch == null) throw new IllegalStateException("fetch is required");
+            if (parse == null) throw new IllegalStateException("parse is required");
+            if (sink == null) throw new IllegalStateException("sink is required");
+
+            return new FetchPipeline<>(fetch, parse, sink, fetchConcurrency, parseThreads, sinkThreads,
+                    parseQueueSize, sinkQueueSize, log);
+        }
+    }
+}
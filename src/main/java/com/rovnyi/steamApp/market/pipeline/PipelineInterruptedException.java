@@ -0,0 +1,16 @@
+package com.rovnyi.steamApp.market.pipeline;
+
+/**
+ * Exception thrown when a thread is interrupted while waiting for a {@link FetchPipeline}.
+ * <p>
+ * The interrupt flag of the thread is restored before this exception is thrown.
+ */
+public class PipelineInterruptedException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code PipelineInterruptedException} with a default message.
+     */
+    public PipelineInterruptedException() {
+        super("Interrupted while waiting for the pipeline");
+    }
+}
@@ -0,0 +1,38 @@
+package com.rovnyi.steamApp.market.pipeline;
+
+/**
+ * Final stage of a {@link FetchPipeline}, receiving the parsed result of every input, e.g. to persist it.
+ * <p>
+ * With more than one sink thread, the methods are called concurrently and the implementation must be thread-safe.
+ *
+ * @param <I> Input type, usually the market hash name
+ * @param <T> Parsed result type
+ */
+public interface PipelineSink<I, T> {
+
+    /**
+     * Receives the result of an input.
+     *
+     * @param input  Input the result belongs to
+     * @param result Parsed result, or {@code null} if the fetch or the parse stage produced none
+     */
+    void accept(I input, T result);
+
+    /**
+     * Called instead of {@link #accept(Object, Object)} when a stage fails for an input. Does nothing by default.
+     * <p>
+     * A fetch interrupted while waiting for the parse stage is reported with a {@link PipelineInterruptedException}.
+     *
+     * @param input Input that failed
+     * @param stage Stage that threw the error
+     * @param error Error thrown by the stage
+     */
+    default void failed(I input, FetchPipeline.Stage stage, Throwable error) {
+    }
+
+    /**
+     * Called once when the pipeline is closed, after the last result. Does nothing by default.
+     */
+    default void finish() {
+    }
+}
@@ -0,0 +1,111 @@
+package com.rovnyi.steamApp.market.pipeline;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the counters of one {@link FetchPipeline} stage.
+ * <p>
+ * The stage with the longest average wait in front of it and all workers active is the bottleneck; the
+ * stages before it are oversized, and giving it more workers speeds up the whole pipeline.
+ */
+public class StageMetrics {
+
+    private final FetchPipeline.Stage stage;
+
+    private final int workers;
+
+    private final int active;
+
+    private final int queued;
+
+    private final long processed;
+
+    private final long failed;
+
+    private final long busyNanos;
+
+    private final long waitNanos;
+
+    /**
+     * @param stage     Stage the counters belong to
+     * @param workers   Maximum number of inputs the stage works on at the same time
+     * @param active    Number of inputs the stage is working on
+     * @param queued    Number of inputs waiting in front of the stage
+     * @param processed Number of inputs the stage completed
+     * @param failed    Number of inputs the stage threw an error for
+     * @param busyNanos Total time spent working on inputs
+     * @param waitNanos Total time inputs waited in front of the stage
+     */
+    public StageMetrics(FetchPipeline.Stage stage, int workers, int active, int queued, long processed, long failed,
+                        long busyNanos, long waitNanos) {
+        this.stage = stage;
+        this.workers = workers;
+        this.active = active;
+        this.queued = queued;
+        this.processed = processed;
+        this.failed = failed;
+        this.busyNanos = busyNanos;
+        this.waitNanos = waitNanos;
+    }
+
+    public FetchPipeline.Stage getStage() {
+        return stage;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return Total time spent working on inputs
+     */
+    public Duration getBusyTime() {
+        return Duration.ofNanos(busyNanos);
+    }
+
+    /**
+     * @return Average time spent on one input, or zero if none was handled yet
+     */
+    public Duration getAverageBusy() {
+        long handled = processed + failed;
+        return handled == 0 ? Duration.ZERO : Duration.ofNanos(busyNanos / handled);
+    }
+
+    /**
+     * @return Average time an input waited in front of the stage, or zero if none was handled yet
+     */
+    public Duration getAverageWait() {
+        long handled = processed + failed;
+        return handled == 0 ? Duration.ZERO : Duration.ofNanos(waitNanos / handled);
+    }
+
+    @Override
+    public String toString() {
+        return "StageMetrics{" +
+               "stage=" + stage +
+               ", workers=" + workers +
+               ", active=" + active +
+               ", queued=" + queued +
+               ", processed=" + processed +
+               ", failed=" + failed +
+               ", averageBusy=" + getAverageBusy() +
+               ", averageWait=" + getAverageWait() +
+               '}';
+    }
+}
@@ -0,0 +1,170 @@
+package com.rovnyi.steamApp.market.provider;
+
+import com.rovnyi.steamApp.enums.AppID;
+import com.rovnyi.steamApp.market.catalog.IntObjectMap;
+import com.rovnyi.steamApp.market.catalog.ItemCatalog;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An in-memory {@link WritableIdProvider} keyed by the handles of an {@link ItemCatalog}.
+ * <p>
+ * item_nameids are numbers, so they are stored as primitive {@code long}s in an array indexed by the item's handle:
+ * an entry costs 8 bytes plus the name shared with the catalog, instead of a map entry with two strings as in
+ * {@link InMemoryIdProvider}. Ids that are not plain numbers are kept separately as strings.
+ * <p>
+ * Lookups do not lock and never add names to the catalog; only {@link #put} interns new items. Thread-safe.
+ */
+public class CatalogIdProvider implements WritableIdProvider {
+
+    private static final long ABSENT = 0;
+
+    private final ItemCatalog catalog;
+
+    private final AppID appID;
+
+    private volatile AtomicLongArray ids = new AtomicLongArray(1024);
+
+    /** Ids that do not survive a round trip through {@code long}, e.g. with leading zeros */
+    private final IntObjectMap<String> otherIds = new IntObjectMap<>();
+
+    private volatile boolean hasOtherIds;
+
+    /**
+     * Constructs a new empty provider.
+     *
+     * @param catalog Catalog assigning the item handles, usually shared with other components
+     * @param appID   App of the items stored by this provider
+     */
+    public CatalogIdProvider(ItemCatalog catalog, AppID appID) {
+        this.catalog = catalog;
+        this.appID = appID;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get(String marketHashName) {
+        int handle = catalog.handleOf(appID, marketHashName);
+        return handle < 0 ? null : get(handle);
+    }
+
+    /**
+     * Returns the item_nameid of an item by its catalog handle.
+     *
+     * @param handle Item handle in this provider's catalog
+     * @return item_nameid as a string, or null if the value is not stored
+     */
+    public String get(int handle) {
+        AtomicLongArray current = ids;
+        long id = handle < current.length() ? current.get(handle) : ABSENT;
+        if (id != ABSENT) return Long.toString(id);
+
+        if (!hasOtherIds) return null;
+        synchronized (this) {
+            return otherIds.get(handle);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The lookup is an array access, so the returned future is already completed.
+     */
+    @Override
+    public CompletableFuture<String> getAsync(String marketHashName) {
+        return CompletableFuture.completedFuture(get(marketHashName));
+    }
+
+    /**
+     * Adds the given item_nameid if the mapping doesn't already exist.
+     *
+     * @param marketHashName Unique item name
+     * @param itemNameId     ID to be associated with the given name
+     */
+    @Override
+    public synchronized void put(String marketHashName, String itemNameId) {
+        int handle = catalog.intern(appID, marketHashName);
+        if (get(handle) != null) return;
+
+        long id = parse(itemNameId);
+        if (id == ABSENT) {
+            otherIds.put(handle, itemNameId);
+            hasOtherIds = true;
+            return;
+        }
+
+        AtomicLongArray current = ids;
+        if (handle >= current.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(current.length() * 2, handle + 1));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            ids = current = grown;
+        }
+        current.set(handle, id);
+    }
+
+    /**
+     * Adds all entries from the given map that don't already exist.
+     *
+     * @param itemNameIdMap Map of item names and their corresponding IDs
+     */
+    @Override
+    public synchronized void putAll(Map<String, String> itemNameIdMap) {
+        for (Map.Entry<String, String> entry : itemNameIdMap.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(String marketHashName) {
+        return get(marketHashName) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The item keeps its handle in the catalog.
+     */
+    @Override
+    public synchronized boolean remove(String marketHashName) {
+        int handle = catalog.handleOf(appID, marketHashName);
+        if (handle < 0) return false;
+
+        AtomicLongArray current = ids;
+        if (handle < current.length() && current.get(handle) != ABSENT) {
+            current.set(handle, ABSENT);
+            return true;
+        }
+        return otherIds.remove(handle) != null;
+    }
+
+    /**
+     * @return Catalog assigning the item handles
+     */
+    public ItemCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return The id as a positive number, or {@link #ABSENT} if it must be kept as a string
+     */
+    private static long parse(String itemNameId) {
+        if (itemNameId.isEmpty() || itemNameId.length() > 18 || itemNameId.charAt(0) == '0') return ABSENT;
+
+        long id = 0;
+        for (int i = 0; i < itemNameId.length(); i++) {
+            char c = itemNameId.charAt(i);
+            if (c < '0' || c > '9') return ABSENT;
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+}
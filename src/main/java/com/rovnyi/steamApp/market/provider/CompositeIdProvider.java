@@ -2,6 +2,10 @@ package com.rovnyi.steamApp.market.provider;
 
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -9,6 +13,8 @@ import java.util.Map;
  * and if not found, falls back to a network-based resolver.
  * <p>
  * Resolved entries are automatically cached for future lookups. The file-backed storage allows persistent caching between sessions.
+ * <p>
+ * For chains with more than two levels, see {@link TieredIdProvider}.
  */
 public class CompositeIdProvider implements ItemNameIdProvider {
 
@@ -57,6 +63,38 @@ public class CompositeIdProvider implements ItemNameIdProvider {
         return itemNameId;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Looks up all names in the file-backed provider in one pass, resolves the missing ones in parallel
+     * and caches them with a single file write.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> marketHashNames) {
+        Map<String, String> cached = fileBackedIdProvider.getAll(marketHashNames);
+
+        List<String> missing = new ArrayList<>();
+        for (String marketHashName : marketHashNames) {
+            if (!cached.containsKey(marketHashName)) missing.add(marketHashName);
+        }
+
+        if (missing.isEmpty()) return cached;
+
+        Map<String, String> resolved = resolvingIdProvider.getAll(missing);
+        if (!resolved.isEmpty()) {
+            fileBackedIdProvider.putAll(resolved);
+            if (log != null) log.debug("Cached {} resolved itemNameIds to file: {}", resolved.size(), fileBackedIdProvider.getItemNameIdFile());
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String marketHashName : marketHashNames) {
+            String itemNameId = cached.getOrDefault(marketHashName, resolved.get(marketHashName));
+            if (itemNameId != null) result.put(marketHashName, itemNameId);
+        }
+
+        return result;
+    }
+
     /**
      * Returns a snapshot copy of the internal file-backed cache.
      *
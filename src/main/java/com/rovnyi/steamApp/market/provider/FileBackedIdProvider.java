@@ -7,8 +7,11 @@ import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -18,7 +21,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * Loads item_nameid mappings from a JSON file on initialization and writes updates back to it.
  * Designed for long-term storage and thread-safe concurrent access.
  */
-public class FileBackedIdProvider implements ItemNameIdProvider {
+public class FileBackedIdProvider implements WritableIdProvider {
 
     private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
 
@@ -53,6 +56,34 @@ public class FileBackedIdProvider implements ItemNameIdProvider {
         return itemNameIdMap.get(marketHashName);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All names are looked up in a single pass while holding the provider lock,
+     * so the result is consistent with concurrent {@code put}/{@code remove} calls.
+     */
+    @Override
+    public synchronized Map<String, String> getAll(Collection<String> marketHashNames) {
+        Map<String, String> result = new LinkedHashMap<>();
+
+        for (String marketHashName : marketHashNames) {
+            String itemNameId = itemNameIdMap.get(marketHashName);
+            if (itemNameId != null) result.put(marketHashName, itemNameId);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Entries are kept in memory after loading, so the returned future is already completed.
+     */
+    @Override
+    public CompletableFuture<String> getAsync(String marketHashName) {
+        return CompletableFuture.completedFuture(itemNameIdMap.get(marketHashName));
+    }
+
     /**
      * Returns a shallow copy of the internal cache as a {@link HashMap}.
      * <p>
@@ -71,6 +102,7 @@ public class FileBackedIdProvider implements ItemNameIdProvider {
      * @param marketHashName Unique item name
      * @param itemNameId     ID to associate
      */
+    @Override
     public synchronized void put(String marketHashName, String itemNameId) {
         if (itemNameIdMap.putIfAbsent(marketHashName, itemNameId) == null) {
             saveToFile(itemNameIdFile);
@@ -93,6 +125,7 @@ public class FileBackedIdProvider implements ItemNameIdProvider {
      *
      * @param itemNameIdMap Map of item names and their corresponding IDs
      */
+    @Override
     public synchronized void putAll(Map<String, String> itemNameIdMap) {
         this.itemNameIdMap.putAll(itemNameIdMap);
 
@@ -117,6 +150,7 @@ public class FileBackedIdProvider implements ItemNameIdProvider {
      * @param marketHashName Item name to check
      * @return true if the name exists, false otherwise
      */
+    @Override
     public boolean contains(String marketHashName) {
         return itemNameIdMap.containsKey(marketHashName);
     }
@@ -127,6 +161,7 @@ public class FileBackedIdProvider implements ItemNameIdProvider {
      * @param marketHashName Item name to remove
      * @return true if the entry was removed, false if it didn't exist
      */
+    @Override
     public synchronized boolean remove(String marketHashName) {
         if (itemNameIdMap.containsKey(marketHashName)) {
             itemNameIdMap.remove(marketHashName);
@@ -1,7 +1,10 @@
 package com.rovnyi.steamApp.market.provider;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -9,10 +12,16 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * This provider does not persist data between sessions and is useful for short-lived or test environments.
  */
-public class InMemoryIdProvider implements ItemNameIdProvider {
+public class InMemoryIdProvider implements WritableIdProvider {
 
     private final Map<String, String> itemNameIdMap = new ConcurrentHashMap<>();
 
+    /**
+     * Constructs a new empty in-memory provider.
+     */
+    public InMemoryIdProvider() {
+    }
+
     /**
      * Constructs a new in-memory provider with the given initial data.
      *
@@ -30,6 +39,31 @@ public class InMemoryIdProvider implements ItemNameIdProvider {
         return itemNameIdMap.get(marketHashName);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> marketHashNames) {
+        Map<String, String> result = new LinkedHashMap<>();
+
+        for (String marketHashName : marketHashNames) {
+            String itemNameId = itemNameIdMap.get(marketHashName);
+            if (itemNameId != null) result.put(marketHashName, itemNameId);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The lookup is a plain map access, so the returned future is already completed.
+     */
+    @Override
+    public CompletableFuture<String> getAsync(String marketHashName) {
+        return CompletableFuture.completedFuture(itemNameIdMap.get(marketHashName));
+    }
+
     /**
      * Returns a snapshot copy of the internal cache as a {@link HashMap}.
      *
@@ -45,6 +79,7 @@ public class InMemoryIdProvider implements ItemNameIdProvider {
      * @param marketHashName Unique item name
      * @param itemNameId     ID to be associated with the given name
      */
+    @Override
     public void put(String marketHashName, String itemNameId) {
         itemNameIdMap.putIfAbsent(marketHashName, itemNameId);
     }
@@ -54,6 +89,7 @@ public class InMemoryIdProvider implements ItemNameIdProvider {
      *
      * @param itemNameIdMap Map of item names and their corresponding IDs
      */
+    @Override
     public void putAll(Map<String, String> itemNameIdMap) {
         this.itemNameIdMap.putAll(itemNameIdMap);
     }
@@ -64,6 +100,7 @@ public class InMemoryIdProvider implements ItemNameIdProvider {
      * @param marketHashName Item name to check
      * @return true if the name exists, false otherwise
      */
+    @Override
     public boolean contains(String marketHashName) {
         return itemNameIdMap.containsKey(marketHashName);
     }
@@ -74,6 +111,7 @@ public class InMemoryIdProvider implements ItemNameIdProvider {
      * @param marketHashName Item name to remove
      * @return true if the entry was removed, false if it didn't exist
      */
+    @Override
     public boolean remove(String marketHashName) {
         return itemNameIdMap.remove(marketHashName) != null;
     }
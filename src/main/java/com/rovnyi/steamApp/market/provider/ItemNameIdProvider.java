@@ -1,5 +1,13 @@
 package com.rovnyi.steamApp.market.provider;
 
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for item_nameid providers that provides an object identifier given its market_hash_name.
  * <p>
@@ -15,4 +23,39 @@ public interface ItemNameIdProvider {
      * @return item_nameid as a string, or null if the value is not found
      */
     String get(String marketHashName);
-}
\ No newline at end of file
+
+    /**
+     * Returns the item_nameids for all passed market_hash_names.
+     * <p>
+     * The default implementation calls {@link #get(String)} for each name in order.
+     * Implementations are encouraged to override it with a bulk lookup.
+     *
+     * @param marketHashNames Unique names of the items in the Steam Market
+     * @return Map of market_hash_name to item_nameid; names that were not found are absent
+     */
+    default Map<String, String> getAll(Collection<String> marketHashNames) {
+        Map<String, String> result = new LinkedHashMap<>();
+
+        for (String marketHashName : marketHashNames) {
+            String itemNameId = get(marketHashName);
+            if (itemNameId != null) result.put(marketHashName, itemNameId);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the item_nameid corresponding to the passed market_hash_name without blocking the caller.
+     * <p>
+     * The default implementation runs {@link #get(String)} on a new virtual thread, with the request priority of the
+     * calling thread.
+     *
+     * @param marketHashName Unique name of the item in the Steam Market
+     * @return Future completed with the item_nameid, or with null if the value is not found
+     */
+    default CompletableFuture<String> getAsync(String marketHashName) {
+        RequestPriority priority = RequestScheduler.currentPriority();
+        return CompletableFuture.supplyAsync(() -> RequestScheduler.withPriority(priority, () -> get(marketHashName)),
+                runnable -> Thread.ofVirtual().start(runnable));
+    }
+}
@@ -1,6 +1,10 @@
 package com.rovnyi.steamApp.market.provider;
 
 import com.rovnyi.steamApp.enums.AppID;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.transport.Deadline;
+import com.rovnyi.steamApp.market.transport.RateLimiter;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -8,6 +12,15 @@ import okhttp3.Response;
 import org.slf4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,13 +32,23 @@ import java.util.regex.Pattern;
  * on the HTML response.
  * <p>
  * Use this only if the item_nameid is not already cached, as it makes a full network call per request.
+ * <p>
+ * Bulk lookups ({@link #getAll(Collection)}) and {@link #getAsync(String)} resolve names on virtual threads,
+ * with at most {@link #setParallelism(int) parallelism} requests in flight. If a {@link RateLimiter} is set,
+ * every request waits for a permit first.
  */
 public class ResolvingIdProvider implements ItemNameIdProvider {
 
     private final OkHttpClient client = new OkHttpClient();
 
+    private static final Pattern ITEM_NAME_ID_PATTERN = Pattern.compile("Market_LoadOrderSpread\\(\\s*(\\d+)\\s*\\)");
+
     private final AppID appID;
 
+    private volatile Semaphore inFlight = new Semaphore(4);
+
+    private RateLimiter rateLimiter;
+
     private Logger log;
 
     /**
@@ -48,6 +71,8 @@ public class ResolvingIdProvider implements ItemNameIdProvider {
      */
     @Override
     public String get(String marketHashName) {
+        Deadline.acquire(rateLimiter);
+
         HttpUrl url = new HttpUrl.Builder()
                 .scheme("https")
                 .host("steamcommunity.com")
@@ -65,16 +90,14 @@ public class ResolvingIdProvider implements ItemNameIdProvider {
                         "Chrome/126.0.6478.185 Safari/537.36")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = Deadline.execute(client.newCall(request))) {
             if (!response.isSuccessful() || response.body() == null) {
                 return null;
             }
 
             String html = response.body().string();
 
-            Pattern pattern = Pattern.compile("Market_LoadOrderSpread\\(\\s*(\\d+)\\s*\\)");
-
-            Matcher matcher = pattern.matcher(html);
+            Matcher matcher = ITEM_NAME_ID_PATTERN.matcher(html);
 
             if (matcher.find()) {
                 if (log != null) log.debug("ResolvingIdProvider fetched itemNameId for marketHashName: {}", marketHashName);
@@ -89,6 +112,78 @@ public class ResolvingIdProvider implements ItemNameIdProvider {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Names are resolved in parallel. Names whose resolution failed with {@link IdResolvingException}
+     * are logged and left out of the result instead of failing the whole batch; any other failure is rethrown.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> marketHashNames) {
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(marketHashNames));
+        List<CompletableFuture<String>> futures = new ArrayList<>(names.size());
+
+        for (String marketHashName : names) {
+            futures.add(getAsync(marketHashName));
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            try {
+                String itemNameId = futures.get(i).join();
+                if (itemNameId != null) result.put(names.get(i), itemNameId);
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof IdResolvingException)) {
+                    if (e.getCause() instanceof RuntimeException cause) throw cause;
+                    if (e.getCause() instanceof Error cause) throw cause;
+                    throw e;
+                }
+                if (log != null) log.error("Failed to resolve itemNameId for \"{}\": {}", names.get(i), e.getCause().getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The request runs on a virtual thread once one of the parallelism slots is free, with the request priority of
+     * the calling thread.
+     */
+    @Override
+    public CompletableFuture<String> getAsync(String marketHashName) {
+        Semaphore slots = inFlight;
+        RequestPriority priority = RequestScheduler.currentPriority();
+
+        return CompletableFuture.supplyAsync(() -> {
+            slots.acquireUninterruptibly();
+            try {
+                return RequestScheduler.withPriority(priority, () -> get(marketHashName));
+            } finally {
+                slots.release();
+            }
+        }, runnable -> Thread.ofVirtual().start(runnable));
+    }
+
+    /**
+     * Sets the maximum number of concurrent requests used by {@link #getAll(Collection)} and {@link #getAsync(String)}.
+     *
+     * @param parallelism Number of requests allowed in flight, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        this.inFlight = new Semaphore(Math.max(1, parallelism));
+    }
+
+    /**
+     * Sets the rate limiter every request waits on. May be shared with other components.
+     *
+     * @param rateLimiter Rate limiter, or {@code null} to disable limiting
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
     public void setLogger(Logger log) {
         this.log = log;
     }
@@ -0,0 +1,309 @@
+package com.rovnyi.steamApp.market.provider;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * A file-backed implementation of {@link ItemNameIdProvider} that can be shared by several processes.
+ * <p>
+ * Uses the same JSON format as {@link FileBackedIdProvider}, but every modification is a read-modify-write
+ * cycle performed under an exclusive lock on a sibling {@code .lock} file: the current file content is
+ * re-read, the change is applied, and the result is written to a temporary file that atomically replaces
+ * the original. Concurrent writers therefore never overwrite each other's entries.
+ * <p>
+ * Instances in the same JVM that share a file also share an in-process lock, since a file lock is held per process
+ * and a second lock attempt from the same process would fail.
+ * <p>
+ * The file is loaded on first use. On a lookup miss the provider checks whether the file was replaced by another
+ * process (at most once per refresh interval) and reloads it, so ids resolved elsewhere are picked up without a
+ * network call.
+ * <p>
+ * On shared network volumes file locks may be advisory or unsupported; the atomic rename still guarantees
+ * that readers never observe a partially written file.
+ */
+public class SharedFileIdProvider implements WritableIdProvider {
+
+    /** In-process locks per lock file, shared by all instances */
+    private static final ConcurrentMap<Path, ReentrantLock> PATH_LOCKS = new ConcurrentHashMap<>();
+
+    private final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private volatile Map<String, String> itemNameIdMap = new ConcurrentHashMap<>();
+
+    private final Path itemNameIdFile;
+
+    private final Path lockFile;
+
+    private final ReentrantLock pathLock;
+
+    private final long refreshIntervalNanos;
+
+    private volatile Object loadedVersion;
+
+    private volatile long lastCheckNanos;
+
+    private volatile boolean loaded;
+
+    private Logger log;
+
+    /**
+     * Constructs a new shared provider that checks for external changes at most once per second.
+     *
+     * @param itemNameIdFile The shared file that contains the list of item_nameid; created on first write if missing
+     */
+    public SharedFileIdProvider(Path itemNameIdFile) {
+        this(itemNameIdFile, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Constructs a new shared provider.
+     *
+     * @param itemNameIdFile  The shared file that contains the list of item_nameid; created on first write if missing
+     * @param refreshInterval Minimal interval between two checks for changes made by other processes
+     */
+    public SharedFileIdProvider(Path itemNameIdFile, Duration refreshInterval) {
+        this.itemNameIdFile = itemNameIdFile.toAbsolutePath().normalize();
+        this.lockFile = this.itemNameIdFile.resolveSibling(this.itemNameIdFile.getFileName() + ".lock");
+        this.pathLock = PATH_LOCKS.computeIfAbsent(lockFile, path -> new ReentrantLock());
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * On a miss, reloads the file if another process has replaced it since the last load.
+     */
+    @Override
+    public String get(String marketHashName) {
+        ensureLoaded();
+        String itemNameId = itemNameIdMap.get(marketHashName);
+        if (itemNameId != null) return itemNameId;
+
+        if (refreshIfDue()) {
+            itemNameId = itemNameIdMap.get(marketHashName);
+        }
+
+        return itemNameId;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Reloads the file at most once for the whole batch.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> marketHashNames) {
+        ensureLoaded();
+        Map<String, String> snapshot = itemNameIdMap;
+
+        boolean complete = true;
+        for (String marketHashName : marketHashNames) {
+            if (!snapshot.containsKey(marketHashName)) {
+                complete = false;
+                break;
+            }
+        }
+
+        if (!complete && refreshIfDue()) snapshot = itemNameIdMap;
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String marketHashName : marketHashNames) {
+            String itemNameId = snapshot.get(marketHashName);
+            if (itemNameId != null) result.put(marketHashName, itemNameId);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<String> getAsync(String marketHashName) {
+        return CompletableFuture.completedFuture(get(marketHashName));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Merges the entry into the shared file under the file lock. Does nothing if the mapping is already known.
+     */
+    @Override
+    public void put(String marketHashName, String itemNameId) {
+        ensureLoaded();
+        if (itemNameIdMap.containsKey(marketHashName)) return;
+
+        update(map -> map.putIfAbsent(marketHashName, itemNameId) == null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * All entries are merged into the shared file in a single locked write.
+     */
+    @Override
+    public void putAll(Map<String, String> itemNameIdMap) {
+        if (itemNameIdMap.isEmpty()) return;
+
+        update(map -> {
+            boolean changed = false;
+            for (Map.Entry<String, String> entry : itemNameIdMap.entrySet()) {
+                changed |= !Objects.equals(map.put(entry.getKey(), entry.getValue()), entry.getValue());
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean contains(String marketHashName) {
+        return get(marketHashName) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entry is removed from the shared file under the file lock.
+     */
+    @Override
+    public boolean remove(String marketHashName) {
+        return update(map -> map.remove(marketHashName) != null);
+    }
+
+    /**
+     * Reloads the shared file if it has changed since the last load.
+     *
+     * @return true if new content was loaded
+     */
+    public synchronized boolean refresh() {
+        lastCheckNanos = System.nanoTime();
+
+        Object version = readVersion();
+        if (loaded && Objects.equals(version, loadedVersion)) return false;
+
+        itemNameIdMap = new ConcurrentHashMap<>(readFile());
+        loadedVersion = version;
+        loaded = true;
+
+        if (log != null) log.debug("Reloaded {} itemNameId entries from shared file: {}", itemNameIdMap.size(), itemNameIdFile);
+        return true;
+    }
+
+    /**
+     * Returns a shallow copy of the entries loaded so far.
+     *
+     * @return Map with all known item_nameid entries
+     */
+    public Map<String, String> getMap() {
+        ensureLoaded();
+        return new HashMap<>(itemNameIdMap);
+    }
+
+    public Path getItemNameIdFile() {
+        return itemNameIdFile;
+    }
+
+    public void setLogger(Logger log) {
+        this.log = log;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) refresh();
+    }
+
+    private boolean refreshIfDue() {
+        if (System.nanoTime() - lastCheckNanos < refreshIntervalNanos) return false;
+        return refresh();
+    }
+
+    /**
+     * Performs a locked read-modify-write cycle on the shared file. The in-process lock is taken first, so that
+     * instances of this JVM wait for each other instead of failing on the file lock.
+     *
+     * @param change Modification applied to the freshly read content; returns true if anything changed
+     * @return the value returned by {@code change}
+     */
+    private synchronized boolean update(Predicate<Map<String, String>> change) {
+        pathLock.lock();
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Released when the channel is closed
+            channel.lock();
+
+            Map<String, String> current = new HashMap<>(readFile());
+            boolean changed = change.test(current);
+
+            if (changed) {
+                Path tempFile = Files.createTempFile(itemNameIdFile.getParent(), itemNameIdFile.getFileName().toString(), ".tmp");
+                try {
+                    mapper.writeValue(tempFile.toFile(), current);
+                    Files.move(tempFile, itemNameIdFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+
+            itemNameIdMap = new ConcurrentHashMap<>(current);
+            loadedVersion = readVersion();
+            lastCheckNanos = System.nanoTime();
+            loaded = true;
+
+            return changed;
+        } catch (IOException e) {
+            if (log != null) log.error(e.getMessage());
+            throw new IdStorageException(e);
+        } finally {
+            pathLock.unlock();
+        }
+    }
+
+    private Map<String, String> readFile() {
+        try {
+            if (Files.size(itemNameIdFile) == 0) return Map.of();
+            return mapper.readValue(itemNameIdFile.toFile(), new TypeReference<Map<String, String>>() {});
+        } catch (IOException e) {
+            if (!Files.exists(itemNameIdFile)) return Map.of();
+            if (log != null) log.error(e.getMessage());
+            throw new IdStorageException(e);
+        }
+    }
+
+    /**
+     * Identifies the current version of the file. The file key changes on every atomic replace,
+     * the modification time and size cover writers that rewrite the file in place.
+     */
+    private Object readVersion() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(itemNameIdFile, BasicFileAttributes.class);
+            return List.of(String.valueOf(attributes.fileKey()), attributes.lastModifiedTime(), attributes.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new IdStorageException(e);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.rovnyi.steamApp.market.provider;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A generalized N-tier implementation of {@link ItemNameIdProvider}.
+ * <p>
+ * Tiers are queried in order, from the fastest (e.g. {@link InMemoryIdProvider}) to the slowest
+ * (e.g. {@link ResolvingIdProvider}). When an entry is found in a lower tier it is promoted into every
+ * {@link WritableIdProvider} tier above it, so subsequent lookups are served from the top of the chain.
+ * <p>
+ * The first tier is always written immediately. The remaining tiers are updated according to the
+ * configured {@link WritePolicy}: synchronously with {@link WritePolicy#WRITE_THROUGH}, or in batches with
+ * {@link WritePolicy#WRITE_BACK} (see {@link #flush()}). Buffered write-back entries exist only in memory until
+ * they are flushed, so {@link #close()} the provider (e.g. with try-with-resources) before shutting down.
+ * <p>
+ * Each tier keeps its own hit/miss counters, available through {@link #getStats()}.
+ */
+public class TieredIdProvider implements WritableIdProvider, AutoCloseable {
+
+    /**
+     * Defines how promoted entries are propagated to the tiers below the first one.
+     */
+    public enum WritePolicy {
+        /** Every writable tier is updated on the calling thread. */
+        WRITE_THROUGH,
+        /** Entries are buffered and written to the lower tiers in batches. */
+        WRITE_BACK
+    }
+
+    private final List<Tier> tiers;
+
+    private final WritePolicy writePolicy;
+
+    private final int writeBackBatchSize;
+
+    private final Map<Integer, Map<String, String>> pendingWrites = new ConcurrentHashMap<>();
+
+    private final LongAdder pendingCount = new LongAdder();
+
+    private final Logger log;
+
+    /**
+     * Constructs a new tiered provider.
+     *
+     * @param tiers              Tiers in lookup order, from the fastest to the slowest
+     * @param writePolicy        Policy used for the tiers below the first one
+     * @param writeBackBatchSize Number of buffered entries that triggers an automatic {@link #flush()} in write-back mode
+     * @param log                Logger, may be {@code null}
+     */
+    public TieredIdProvider(List<Tier> tiers, WritePolicy writePolicy, int writeBackBatchSize, Logger log) {
+        if (tiers.isEmpty()) throw new IllegalArgumentException("At least one tier is required");
+
+        this.tiers = List.copyOf(tiers);
+        this.writePolicy = writePolicy;
+        this.writeBackBatchSize = Math.max(1, writeBackBatchSize);
+        this.log = log;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Queries the tiers in order and promotes the found entry into every writable tier above the one that answered.
+     */
+    @Override
+    public String get(String marketHashName) {
+        for (int i = 0; i < tiers.size(); i++) {
+            Tier tier = tiers.get(i);
+            String itemNameId = tier.provider.get(marketHashName);
+
+            if (itemNameId == null) {
+                tier.misses.increment();
+                continue;
+            }
+
+            tier.hits.increment();
+            if (log != null) log.debug("Fetched itemNameId for \"{}\" from tier \"{}\"", marketHashName, tier.name);
+
+            if (i > 0) write(marketHashName, itemNameId, i);
+            return itemNameId;
+        }
+
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each tier receives a single {@link ItemNameIdProvider#getAll(Collection)} call with the names still missing,
+     * and the found entries are promoted in batches.
+     */
+    @Override
+    public Map<String, String> getAll(Collection<String> marketHashNames) {
+        Map<String, String> found = new HashMap<>();
+        LinkedHashSet<String> missing = new LinkedHashSet<>(marketHashNames);
+
+        for (int i = 0; i < tiers.size() && !missing.isEmpty(); i++) {
+            Tier tier = tiers.get(i);
+            Map<String, String> tierResult = tier.provider.getAll(missing);
+
+            tier.hits.add(tierResult.size());
+            tier.misses.add(missing.size() - tierResult.size());
+
+            if (tierResult.isEmpty()) continue;
+
+            missing.removeAll(tierResult.keySet());
+            found.putAll(tierResult);
+
+            if (i > 0) writeAll(tierResult, i);
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String marketHashName : marketHashNames) {
+            String itemNameId = found.get(marketHashName);
+            if (itemNameId != null) result.put(marketHashName, itemNameId);
+        }
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The entry is stored in every writable tier according to the configured {@link WritePolicy}.
+     */
+    @Override
+    public void put(String marketHashName, String itemNameId) {
+        write(marketHashName, itemNameId, tiers.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<String, String> itemNameIdMap) {
+        writeAll(itemNameIdMap, tiers.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only writable tiers and pending write-back entries are checked; no network resolution is performed.
+     */
+    @Override
+    public boolean contains(String marketHashName) {
+        for (Map<String, String> pending : pendingWrites.values()) {
+            if (pending.containsKey(marketHashName)) return true;
+        }
+
+        for (Tier tier : tiers) {
+            if (tier.provider instanceof WritableIdProvider writable && writable.contains(marketHashName)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Removes the entry from every writable tier and from the pending write-back buffer.
+     */
+    @Override
+    public boolean remove(String marketHashName) {
+        boolean removed = false;
+
+        for (Map<String, String> pending : pendingWrites.values()) {
+            if (pending.remove(marketHashName) != null) {
+                pendingCount.decrement();
+                removed = true;
+            }
+        }
+
+        for (Tier tier : tiers) {
+            if (tier.provider instanceof WritableIdProvider writable) {
+                removed |= writable.remove(marketHashName);
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Writes all buffered write-back entries to their tiers.
+     * <p>
+     * Each tier receives a single {@link WritableIdProvider#putAll(Map)} call, so a file-backed tier is saved only once per flush.
+     * Does nothing in write-through mode.
+     */
+    public synchronized void flush() {
+        for (Map.Entry<Integer, Map<String, String>> entry : pendingWrites.entrySet()) {
+            Map<String, String> pending = entry.getValue();
+            if (pending.isEmpty()) continue;
+
+            Map<String, String> batch = new HashMap<>();
+            for (String marketHashName : new ArrayList<>(pending.keySet())) {
+                String itemNameId = pending.remove(marketHashName);
+                if (itemNameId != null) {
+                    batch.put(marketHashName, itemNameId);
+                    pendingCount.decrement();
+                }
+            }
+
+            if (batch.isEmpty()) continue;
+
+            Tier tier = tiers.get(entry.getKey());
+            ((WritableIdProvider) tier.provider).putAll(batch);
+            tier.writes.add(batch.size());
+            if (log != null) log.debug("Flushed {} itemNameId entries to tier \"{}\"", batch.size(), tier.name);
+        }
+    }
+
+    /**
+     * Flushes the buffered write-back entries. The tiers themselves are left open.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Returns a snapshot of per-tier statistics, in lookup order.
+     *
+     * @return List of {@link TierStats}
+     */
+    public List<TierStats> getStats() {
+        List<TierStats> stats = new ArrayList<>(tiers.size());
+        for (Tier tier : tiers) {
+            stats.add(new TierStats(tier.name, tier.hits.sum(), tier.misses.sum(), tier.writes.sum()));
+        }
+        return Collections.unmodifiableList(stats);
+    }
+
+    /**
+     * @return Number of entries waiting to be written to the lower tiers
+     */
+    public long getPendingWrites() {
+        return pendingCount.sum();
+    }
+
+    /**
+     * @return Configured write policy
+     */
+    public WritePolicy getWritePolicy() {
+        return writePolicy;
+    }
+
+    /**
+     * Stores the entry in the writable tiers above {@code upToTier} (exclusive).
+     */
+    private void write(String marketHashName, String itemNameId, int upToTier) {
+        for (int i = 0; i < upToTier; i++) {
+            Tier tier = tiers.get(i);
+            if (!(tier.provider instanceof WritableIdProvider writable)) continue;
+
+            if (i == 0 || writePolicy == WritePolicy.WRITE_THROUGH) {
+                writable.put(marketHashName, itemNameId);
+                tier.writes.increment();
+            } else {
+                enqueue(i, Map.of(marketHashName, itemNameId));
+            }
+        }
+
+        flushIfNeeded();
+    }
+
+    /**
+     * Stores all entries in the writable tiers above {@code upToTier} (exclusive), one batch per tier.
+     */
+    private void writeAll(Map<String, String> itemNameIdMap, int upToTier) {
+        for (int i = 0; i < upToTier; i++) {
+            Tier tier = tiers.get(i);
+            if (!(tier.provider instanceof WritableIdProvider writable)) continue;
+
+            if (i == 0 || writePolicy == WritePolicy.WRITE_THROUGH) {
+                writable.putAll(itemNameIdMap);
+                tier.writes.add(itemNameIdMap.size());
+            } else {
+                enqueue(i, itemNameIdMap);
+            }
+        }
+
+        flushIfNeeded();
+    }
+
+    private void enqueue(int tierIndex, Map<String, String> entries) {
+        Map<String, String> pending = pendingWrites.computeIfAbsent(tierIndex, k -> new ConcurrentHashMap<>());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (pending.put(entry.getKey(), entry.getValue()) == null) pendingCount.increment();
+        }
+    }
+
+    private void flushIfNeeded() {
+        if (writePolicy == WritePolicy.WRITE_BACK && pendingCount.sum() >= writeBackBatchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * A single level of the chain: a named provider with its counters.
+     */
+    public static class Tier {
+        private final String name;
+        private final ItemNameIdProvider provider;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+
+        /**
+         * @param name     Name used in logs and statistics
+         * @param provider Provider backing this tier
+         */
+        public Tier(String name, ItemNameIdProvider provider) {
+            this.name = name;
+            this.provider = provider;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ItemNameIdProvider getProvider() {
+            return provider;
+        }
+    }
+
+    /**
+     * Immutable snapshot of a tier's counters.
+     */
+    public static class TierStats {
+        private final String name;
+        private final long hits;
+        private final long misses;
+        private final long writes;
+
+        public TierStats(String name, long hits, long misses, long writes) {
+            this.name = name;
+            this.hits = hits;
+            this.misses = misses;
+            this.writes = writes;
+        }
+
+        /**
+         * @return Name of the tier
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Number of lookups answered by this tier
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return Number of lookups that passed through this tier without a result
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return Number of entries written (promoted or put) into this tier
+         */
+        public long getWrites() {
+            return writes;
+        }
+
+        /**
+         * @return Share of lookups reaching this tier that it answered, or 0 if it was never queried
+         */
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "TierStats{" +
+                   "name='" + name + '\'' +
+                   ", hits=" + hits +
+                   ", misses=" + misses +
+                   ", writes=" + writes +
+                   '}';
+        }
+    }
+
+    /**
+     * Builder for {@link TieredIdProvider}.
+     * <p>
+     * Provides default configuration: write-through, batch size 64.
+     */
+    public static class Builder {
+        private final List<Tier> tiers = new ArrayList<>();
+        private WritePolicy writePolicy = WritePolicy.WRITE_THROUGH;
+        private int writeBackBatchSize = 64;
+        private Logger log = null;
+
+        /**
+         * Appends a tier to the end of the chain.
+         *
+         * @param name     Name used in logs and statistics
+         * @param provider Provider backing the tier
+         * @return This builder instance
+         */
+        public Builder tier(String name, ItemNameIdProvider provider) {
+            this.tiers.add(new Tier(name, provider));
+            return this;
+        }
+
+        /**
+         * Sets how entries are propagated to the tiers below the first one.
+         *
+         * @param writePolicy Write policy
+         * @return This builder instance
+         */
+        public Builder writePolicy(WritePolicy writePolicy) {
+            this.writePolicy = writePolicy;
+            return this;
+        }
+
+        /**
+         * Sets the number of buffered entries that triggers a flush in write-back mode.
+         *
+         * @param writeBackBatchSize Batch size
+         * @return This builder instance
+         */
+        public Builder writeBackBatchSize(int writeBackBatchSize) {
+            this.writeBackBatchSize = writeBackBatchSize;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link TieredIdProvider}.
+         *
+         * @return New {@link TieredIdProvider} instance
+         */
+        public @NotNull TieredIdProvider build() {
+            return new TieredIdProvider(tiers, writePolicy, writeBackBatchSize, log);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.rovnyi.steamApp.market.provider;
+
+import java.util.Map;
+
+/**
+ * An {@link ItemNameIdProvider} that can also store item_nameid mappings.
+ * <p>
+ * Implemented by the cache-like providers ({@link InMemoryIdProvider}, {@link FileBackedIdProvider}),
+ * which allows them to be used as tiers of a {@link TieredIdProvider} that receive promoted entries.
+ */
+public interface WritableIdProvider extends ItemNameIdProvider {
+
+    /**
+     * Adds the given item_nameid if the mapping doesn't already exist.
+     *
+     * @param marketHashName Unique item name
+     * @param itemNameId     ID to associate
+     */
+    void put(String marketHashName, String itemNameId);
+
+    /**
+     * Adds all entries from the given map.
+     *
+     * @param itemNameIdMap Map of item names and their corresponding IDs
+     */
+    void putAll(Map<String, String> itemNameIdMap);
+
+    /**
+     * Checks if the item_nameid is stored by this provider.
+     *
+     * @param marketHashName Item name to check
+     * @return true if the name exists, false otherwise
+     */
+    boolean contains(String marketHashName);
+
+    /**
+     * Removes the given item_nameid.
+     *
+     * @param marketHashName Item name to remove
+     * @return true if the entry was removed, false if it didn't exist
+     */
+    boolean remove(String marketHashName);
+}
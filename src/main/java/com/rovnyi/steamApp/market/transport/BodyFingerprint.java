@@ -0,0 +1,127 @@
+package com.rovnyi.steamApp.market.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A response body read into memory together with a 64-bit fingerprint of its bytes.
+ * <p>
+ * The fingerprint is computed while the body is streamed in, eight bytes at a time with an xxHash64-style round,
+ * so comparing a response with the previous one costs no extra pass over the data. It is not cryptographic and only
+ * meant to detect byte-identical responses; see {@link ResponseMemo}.
+ */
+public class BodyFingerprint {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    private final byte[] bytes;
+
+    private final int length;
+
+    private final long fingerprint;
+
+    private BodyFingerprint(byte[] bytes, int length, long fingerprint) {
+        this.bytes = bytes;
+        this.length = length;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Reads the stream to its end, fingerprinting each chunk as it arrives.
+     *
+     * @param in Body stream; not closed by this method
+     * @return Body bytes and their fingerprint
+     * @throws IOException if reading fails
+     */
+    public static BodyFingerprint read(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        int hashed = 0;
+        long state = PRIME_5;
+
+        int n;
+        while ((n = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += n;
+
+            // Hash every complete lane received so far; a partial lane waits for the next chunk.
+            int lanesEnd = length & ~7;
+            for (; hashed < lanesEnd; hashed += 8) {
+                state = round(state, (long) LONG_LE.get(buffer, hashed));
+            }
+
+            if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        return new BodyFingerprint(buffer, length, finish(state, buffer, hashed, length));
+    }
+
+    /**
+     * Fingerprints a byte array in one go. Returns the same value as {@link #read} for the same bytes.
+     *
+     * @param bytes  Data
+     * @param length Number of bytes to use from the start of the array
+     * @return Fingerprint
+     */
+    public static long of(byte[] bytes, int length) {
+        long state = PRIME_5;
+        int lanesEnd = length & ~7;
+
+        int i = 0;
+        for (; i < lanesEnd; i += 8) {
+            state = round(state, (long) LONG_LE.get(bytes, i));
+        }
+
+        return finish(state, bytes, i, length);
+    }
+
+    private static long round(long state, long lane) {
+        long k = Long.rotateLeft(lane * PRIME_2, 31) * PRIME_1;
+        return Long.rotateLeft(state ^ k, 27) * PRIME_1 + PRIME_4;
+    }
+
+    private static long finish(long state, byte[] bytes, int from, int length) {
+        for (int i = from; i < length; i++) {
+            state ^= (bytes[i] & 0xFFL) * PRIME_5;
+            state = Long.rotateLeft(state, 11) * PRIME_1;
+        }
+
+        state ^= length;
+        state ^= state >>> 33;
+        state *= PRIME_2;
+        state ^= state >>> 29;
+        state *= PRIME_3;
+        state ^= state >>> 32;
+        return state;
+    }
+
+    /**
+     * @return Buffer holding the body; only the first {@link #getLength()} bytes are valid
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return Length of the body in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return 64-bit fingerprint of the body
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+}
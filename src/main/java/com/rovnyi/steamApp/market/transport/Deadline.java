@@ -0,0 +1,225 @@
+package com.rovnyi.steamApp.market.transport;
+
+import okhttp3.Call;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Time budget and cancellation handle shared by the requests of one operation.
+ * <p>
+ * Work is bound to a deadline with {@link #run(Supplier)}. While bound, every request sent through
+ * {@link #execute(Call)} gets the remaining time as its OkHttp call timeout, and a wait for a {@link RateLimiter}
+ * permit in {@link #acquire(RateLimiter)} gives up once the budget is spent. {@link #cancel()} aborts the calls
+ * in flight and makes every later request fail, so an operation whose outcome is already decided can stop its
+ * remaining requests. Bound threads are not interrupted: an interrupt arriving after a call returned would stay
+ * pending and close the file channels of the stores written next. Code that runs without a deadline is unaffected.
+ * <p>
+ * Thread-safe; a deadline is usually bound to several threads at once.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /** {@link System#nanoTime()} at which the budget is spent, or {@link Long#MAX_VALUE} if unbounded */
+    private final long deadlineNanos;
+
+    private final Set<Call> calls = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @param timeout Time budget, starting now
+     * @return New deadline expiring after the given time
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + Math.max(0, timeout.toNanos()));
+    }
+
+    /**
+     * @return New deadline without a time budget, used only for cancellation
+     */
+    public static Deadline unbounded() {
+        return new Deadline(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return Deadline bound to the current thread, or {@code null} if there is none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs work with this deadline bound to the current thread.
+     *
+     * @param work Work whose requests are subject to this deadline
+     * @return Result of the work
+     */
+    public <T> T run(Supplier<T> work) {
+        Deadline previous = CURRENT.get();
+
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Executes a call subject to the deadline bound to the current thread, if any.
+     * <p>
+     * The call timeout is set to the remaining time, and the call is cancelled together with the deadline.
+     *
+     * @param call Call that was not executed yet
+     * @return The call's response
+     * @throws IOException if the call fails, times out or is cancelled
+     * @throws DeadlineExceededException if the deadline passed or was cancelled before the call was sent
+     */
+    public static Response execute(Call call) throws IOException {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) return call.execute();
+
+        deadline.check();
+        if (deadline.isBounded()) call.timeout().timeout(Math.max(1, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+
+        deadline.calls.add(call);
+        try {
+            // Cancelled between the check and the registration: the call has to be cancelled here.
+            if (deadline.cancelled) call.cancel();
+            return call.execute();
+        } finally {
+            deadline.calls.remove(call);
+        }
+    }
+
+    /**
+     * Waits for a rate limiter permit no longer than the deadline bound to the current thread allows.
+     *
+     * @param rateLimiter Rate limiter, may be {@code null}
+     * @throws DeadlineExceededException if no permit is available before the deadline, or the deadline was cancelled
+     */
+    public static void acquire(RateLimiter rateLimiter) {
+        if (rateLimiter == null) return;
+
+        Deadline deadline = CURRENT.get();
+        if (deadline == null) {
+            rateLimiter.acquire();
+            return;
+        }
+
+        deadline.check();
+        if (!deadline.isBounded()) {
+            rateLimiter.acquire();
+        } else if (!rateLimiter.tryAcquire(Duration.ofNanos(deadline.remainingNanos()))) {
+            throw new DeadlineExceededException("No rate limiter permit available before the deadline");
+        }
+    }
+
+    /**
+     * Waits for the result of work shared with other callers, no longer than the deadline bound to the current
+     * thread allows.
+     * <p>
+     * The shared work should run outside any caller's deadline, e.g. on a thread of its own: a caller whose
+     * deadline expires then only stops waiting, and neither its expiry nor its cancellation fails the others.
+     *
+     * @param future Shared work
+     * @return Result of the work
+     * @throws DeadlineExceededException if the deadline passes or was cancelled before the work completes, or the
+     *                                   thread is interrupted while waiting
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        Deadline deadline = CURRENT.get();
+        try {
+            if (deadline == null) return future.get();
+
+            deadline.check();
+            if (!deadline.isBounded()) return future.get();
+            return future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted while waiting");
+        }
+    }
+
+    /**
+     * Cancels the calls in flight and makes every later request fail. Has no effect if already cancelled.
+     * <p>
+     * A thread waiting for a rate limiter permit keeps waiting, at most until the deadline expires, but sends no
+     * request once it gets the permit.
+     */
+    public void cancel() {
+        if (cancelled) return;
+        cancelled = true;
+
+        for (Call call : calls) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * @return {@code true} if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return {@code true} if the time budget is spent
+     */
+    public boolean isExpired() {
+        return isBounded() && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @return {@code true} if this deadline has a time budget
+     */
+    public boolean isBounded() {
+        return deadlineNanos != Long.MAX_VALUE;
+    }
+
+    /**
+     * @return Remaining time, zero once expired, or {@code null} if the deadline is unbounded
+     */
+    public Duration remaining() {
+        return isBounded() ? Duration.ofNanos(remainingNanos()) : null;
+    }
+
+    private long remainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    private void check() {
+        if (cancelled) throw new DeadlineExceededException("Operation was cancelled");
+        if (isExpired()) throw new DeadlineExceededException("Deadline exceeded");
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{" +
+               "remaining=" + remaining() +
+               ", cancelled=" + cancelled +
+               '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.rovnyi.steamApp.market.transport;
+
+/**
+ * Exception thrown when the {@link Deadline} of the current operation passes, or the operation is cancelled,
+ * before a request could be sent.
+ * <p>
+ * Requests already in flight fail with the {@link java.io.IOException} of the cancelled HTTP call instead.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code DeadlineExceededException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
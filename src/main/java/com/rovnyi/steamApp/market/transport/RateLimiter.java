@@ -0,0 +1,113 @@
+package com.rovnyi.steamApp.market.transport;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A thread-safe rate limiter that spaces out requests to the Steam Market.
+ * <p>
+ * Permits are issued at a steady rate. Unused permits accumulate up to the configured burst size,
+ * which lets an idle client send a short burst of requests without waiting.
+ * <p>
+ * A single instance is meant to be shared by every component that talks to the same host,
+ * so that the combined traffic stays within the budget.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+
+    private final double maxBurst;
+
+    private double storedPermits;
+
+    private long nextFreeNanos = System.nanoTime();
+
+    /**
+     * Constructs a new rate limiter without burst capacity.
+     *
+     * @param permitsPerSecond Steady number of requests allowed per second
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, 1);
+    }
+
+    /**
+     * Constructs a new rate limiter.
+     *
+     * @param permitsPerSecond Steady number of requests allowed per second
+     * @param maxBurst         Maximum number of permits that can be accumulated while idle
+     */
+    public RateLimiter(double permitsPerSecond, int maxBurst) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be positive");
+
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.maxBurst = Math.max(1, maxBurst);
+        this.storedPermits = this.maxBurst;
+    }
+
+    /**
+     * Blocks until a permit is available.
+     */
+    public void acquire() {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0) sleep(waitNanos);
+    }
+
+    /**
+     * Acquires a permit if it becomes available within the given timeout.
+     * <p>
+     * If the permit cannot be obtained in time, nothing is reserved and the method returns immediately.
+     *
+     * @param timeout Maximum time to wait
+     * @return true if a permit was acquired, false otherwise
+     */
+    public boolean tryAcquire(Duration timeout) {
+        long now = System.nanoTime();
+        long waitNanos;
+
+        synchronized (this) {
+            if (nextFreeNanos - now > timeout.toNanos() && storedPermits < 1) return false;
+            waitNanos = reserve(now);
+        }
+
+        if (waitNanos > 0) sleep(waitNanos);
+        return true;
+    }
+
+    /**
+     * @return Minimal interval between two permits at the steady rate
+     */
+    public Duration getInterval() {
+        return Duration.ofNanos(intervalNanos);
+    }
+
+    private synchronized long reserve(long now) {
+        if (now > nextFreeNanos) {
+            storedPermits = Math.min(maxBurst, storedPermits + (double) (now - nextFreeNanos) / intervalNanos);
+            nextFreeNanos = now;
+        }
+
+        long waitNanos = nextFreeNanos - now;
+        double fromStored = Math.min(1, storedPermits);
+
+        storedPermits -= fromStored;
+        nextFreeNanos += (long) ((1 - fromStored) * intervalNanos);
+
+        return waitNanos;
+    }
+
+    private void sleep(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new RateLimiterInterruptedException();
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.rovnyi.steamApp.market.transport;
+
+/**
+ * Exception thrown when a thread is interrupted while waiting for a {@link RateLimiter} permit.
+ * <p>
+ * The interrupt flag of the thread is restored before this exception is thrown.
+ */
+public class RateLimiterInterruptedException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code RateLimiterInterruptedException} with a default message.
+     */
+    public RateLimiterInterruptedException() {
+        super("Interrupted while waiting for a rate limiter permit");
+    }
+}
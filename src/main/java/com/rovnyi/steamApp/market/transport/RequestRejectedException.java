@@ -0,0 +1,19 @@
+package com.rovnyi.steamApp.market.transport;
+
+/**
+ * Exception thrown when a {@link RequestScheduler} sheds a request instead of queueing it, because the request
+ * would wait longer than its priority class allows.
+ * <p>
+ * Nothing was sent; the caller may retry later.
+ */
+public class RequestRejectedException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code RequestRejectedException} with the specified detail message.
+     *
+     * @param message the detail message describing the cause
+     */
+    public RequestRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,396 @@
+package com.rovnyi.steamApp.market.transport;
+
+import com.rovnyi.steamApp.enums.RequestPriority;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RateLimiter} that hands out its permits by request priority instead of in arrival order.
+ * <p>
+ * Every request belongs to a {@link RequestPriority} class, taken from the calling thread (see
+ * {@link #withPriority(RequestPriority, Supplier)}; {@link RequestPriority#NORMAL} if none is set). While requests
+ * of several classes wait, permits are shared in proportion to the class weights by self-clocked weighted fair
+ * queueing: each waiting request gets a virtual finish tag of its class's previous tag plus {@code 1 / weight}, and
+ * the smallest tag is served first. A request of a heavy class arriving behind a long queue of light ones therefore
+ * goes almost to the front, while the light classes still get their share and are never starved.
+ * <p>
+ * Under pressure, a class can shed load: a request whose estimated wait exceeds its class's limit fails at once
+ * with {@link RequestRejectedException} instead of joining the queue. By default only
+ * {@link RequestPriority#BACKGROUND} requests are shed.
+ * <p>
+ * Permits are issued at a steady rate with the same burst behaviour as {@link RateLimiter}, so a scheduler can
+ * replace a shared rate limiter anywhere one is accepted. Thread-safe.
+ */
+public class RequestScheduler extends RateLimiter {
+
+    private static final ThreadLocal<RequestPriority> PRIORITY = new ThreadLocal<>();
+
+    private final long intervalNanos;
+
+    private final double maxBurst;
+
+    private final Map<RequestPriority, PriorityClass> classes = new EnumMap<>(RequestPriority.class);
+
+    private final Logger log;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = lock.newCondition();
+
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparingDouble(Waiter::finish).thenComparingLong(Waiter::sequence));
+
+    private double tokens;
+
+    private long refilledAt = System.nanoTime();
+
+    /** Finish tag of the last served request */
+    private double virtualTime;
+
+    private long sequence;
+
+    /**
+     * Constructs a new scheduler.
+     *
+     * @param permitsPerSecond Steady number of requests allowed per second
+     * @param maxBurst         Maximum number of permits that can be accumulated while idle
+     * @param weights          Share of each class; classes not present use {@link RequestPriority#getWeight()}
+     * @param shedAfter        Longest estimated wait each class accepts before its requests are shed; classes not
+     *                         present are never shed
+     * @param log              Logger, may be {@code null}
+     */
+    public RequestScheduler(double permitsPerSecond, int maxBurst, Map<RequestPriority, Double> weights,
+                            Map<RequestPriority, Duration> shedAfter, Logger log) {
+        super(permitsPerSecond, maxBurst);
+
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.maxBurst = Math.max(1, maxBurst);
+        this.tokens = this.maxBurst;
+        this.log = log;
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            double weight = weights.getOrDefault(priority, priority.getWeight());
+            if (weight <= 0) throw new IllegalArgumentException("Weight of " + priority + " must be positive");
+
+            Duration limit = shedAfter.get(priority);
+            classes.put(priority, new PriorityClass(weight, limit == null ? -1 : limit.toNanos()));
+        }
+    }
+
+    /**
+     * Runs work whose requests belong to the given priority class.
+     *
+     * @param priority Priority of the requests made by the work on the current thread
+     * @param work     Work to run
+     * @return Result of the work
+     */
+    public static <T> T withPriority(RequestPriority priority, Supplier<T> work) {
+        RequestPriority previous = PRIORITY.get();
+        PRIORITY.set(priority);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) PRIORITY.remove();
+            else PRIORITY.set(previous);
+        }
+    }
+
+    /**
+     * Runs work with the given priority unless the current thread already has one, e.g. a default for an entry point
+     * that background callers may wrap with {@link #withPriority}.
+     *
+     * @param priority Priority used if the current thread has none
+     * @param work     Work to run
+     * @return Result of the work
+     */
+    public static <T> T withDefaultPriority(RequestPriority priority, Supplier<T> work) {
+        if (PRIORITY.get() != null) return work.get();
+        return withPriority(priority, work);
+    }
+
+    /**
+     * @return Priority of the requests made by the current thread
+     */
+    public static RequestPriority currentPriority() {
+        RequestPriority priority = PRIORITY.get();
+        return priority == null ? RequestPriority.NORMAL : priority;
+    }
+
+    /**
+     * Blocks until a permit is granted to the current thread's priority class.
+     *
+     * @throws RequestRejectedException        if the request is shed
+     * @throws RateLimiterInterruptedException if the thread is interrupted while waiting
+     */
+    @Override
+    public void acquire() {
+        acquire(Long.MAX_VALUE);
+    }
+
+    /**
+     * Acquires a permit for the current thread's priority class if one is granted within the given timeout.
+     * <p>
+     * If the estimated wait already exceeds the timeout, nothing is queued and the method returns immediately.
+     *
+     * @param timeout Maximum time to wait
+     * @return true if a permit was acquired, false otherwise
+     * @throws RequestRejectedException        if the request is shed
+     * @throws RateLimiterInterruptedException if the thread is interrupted while waiting
+     */
+    @Override
+    public boolean tryAcquire(Duration timeout) {
+        return acquire(Math.max(0, timeout.toNanos()));
+    }
+
+    /**
+     * @param priority Priority class
+     * @return Number of requests of the class waiting for a permit
+     */
+    public int getQueued(RequestPriority priority) {
+        lock.lock();
+        try {
+            return classes.get(priority).queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority Priority class
+     * @return Number of permits granted to the class
+     */
+    public long getGranted(RequestPriority priority) {
+        lock.lock();
+        try {
+            return classes.get(priority).granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority Priority class
+     * @return Number of requests of the class that were shed
+     */
+    public long getShed(RequestPriority priority) {
+        lock.lock();
+        try {
+            return classes.get(priority).shed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean acquire(long timeoutNanos) {
+        RequestPriority priority = currentPriority();
+        PriorityClass state = classes.get(priority);
+
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            if (queue.isEmpty() && tokens >= 1) {
+                grant(state, virtualTime);
+                return true;
+            }
+
+            double start = Math.max(virtualTime, state.lastFinish);
+            double finish = start + 1 / state.weight;
+
+            long estimateNanos = estimateWait(finish);
+            if (state.shedAfterNanos >= 0 && estimateNanos > state.shedAfterNanos) {
+                state.shed++;
+                if (log != null) log.debug("Shed {} request, estimated wait {} ms", priority, TimeUnit.NANOSECONDS.toMillis(estimateNanos));
+                throw new RequestRejectedException("Shed " + priority + " request, estimated wait "
+                                                   + TimeUnit.NANOSECONDS.toMillis(estimateNanos) + " ms");
+            }
+            if (estimateNanos > timeoutNanos) return false;
+
+            Waiter waiter = new Waiter(finish, sequence++);
+            state.lastFinish = finish;
+            state.queued++;
+            queue.add(waiter);
+            // The new request may be the head now and has to take over waiting for the next permit.
+            changed.signalAll();
+
+            return await(waiter, state, now, timeoutNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the waiter is at the head of the queue and a permit is available. Called with the lock held.
+     */
+    private boolean await(Waiter waiter, PriorityClass state, long start, long timeoutNanos) {
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                long left = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : timeoutNanos - (now - start);
+                if (left <= 0) {
+                    leave(waiter, state);
+                    return false;
+                }
+
+                if (queue.peek() == waiter) {
+                    refill(now);
+                    if (tokens >= 1) {
+                        queue.poll();
+                        state.queued--;
+                        grant(state, waiter.finish);
+                        changed.signalAll();
+                        return true;
+                    }
+                    long untilPermit = (long) Math.ceil((1 - tokens) * intervalNanos);
+                    changed.awaitNanos(Math.min(untilPermit, left));
+                } else if (left == Long.MAX_VALUE) {
+                    changed.await();
+                } else {
+                    changed.awaitNanos(left);
+                }
+            }
+        } catch (InterruptedException e) {
+            leave(waiter, state);
+            Thread.currentThread().interrupt();
+            throw new RateLimiterInterruptedException();
+        }
+    }
+
+    private void grant(PriorityClass state, double finish) {
+        tokens -= 1;
+        virtualTime = Math.max(virtualTime, finish);
+        state.granted++;
+    }
+
+    private void leave(Waiter waiter, PriorityClass state) {
+        if (queue.remove(waiter)) state.queued--;
+        changed.signalAll();
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(maxBurst, tokens + (double) (now - refilledAt) / intervalNanos);
+        refilledAt = now;
+    }
+
+    /**
+     * @return Estimated time until a request with the given finish tag is granted, from the requests served before it
+     */
+    private long estimateWait(double finish) {
+        int ahead = 0;
+        for (Waiter waiter : queue) {
+            if (waiter.finish <= finish) ahead++;
+        }
+        return (long) Math.max(0, (ahead + 1 - tokens) * intervalNanos);
+    }
+
+    /**
+     * Scheduling state of a priority class. Guarded by the lock.
+     */
+    private static class PriorityClass {
+        private final double weight;
+        private final long shedAfterNanos;
+        private double lastFinish;
+        private int queued;
+        private long granted;
+        private long shed;
+
+        private PriorityClass(double weight, long shedAfterNanos) {
+            this.weight = weight;
+            this.shedAfterNanos = shedAfterNanos;
+        }
+    }
+
+    private record Waiter(double finish, long sequence) {
+    }
+
+    /**
+     * Builder for {@link RequestScheduler}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Burst = 1</li>
+     *     <li>Weights = {@link RequestPriority#getWeight()}</li>
+     *     <li>Load shedding = BACKGROUND requests expecting to wait longer than 30 seconds</li>
+     * </ul>
+     */
+    public static class Builder {
+        private double permitsPerSecond;
+        private int maxBurst = 1;
+        private final Map<RequestPriority, Double> weights = new EnumMap<>(RequestPriority.class);
+        private final Map<RequestPriority, Duration> shedAfter = new EnumMap<>(Map.of(RequestPriority.BACKGROUND, Duration.ofSeconds(30)));
+        private Logger log = null;
+
+        /**
+         * Sets the steady request rate. Required.
+         *
+         * @param permitsPerSecond Steady number of requests allowed per second
+         * @return This builder instance
+         */
+        public Builder permitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+            return this;
+        }
+
+        /**
+         * Sets the number of permits that can be accumulated while idle.
+         *
+         * @param maxBurst Maximum burst
+         * @return This builder instance
+         */
+        public Builder maxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+            return this;
+        }
+
+        /**
+         * Sets the share of a priority class.
+         *
+         * @param priority Priority class
+         * @param weight   Relative share of the permits while several classes wait
+         * @return This builder instance
+         */
+        public Builder weight(RequestPriority priority, double weight) {
+            this.weights.put(priority, weight);
+            return this;
+        }
+
+        /**
+         * Sets the longest estimated wait a priority class accepts before its requests are shed.
+         *
+         * @param priority Priority class
+         * @param maxWait  Longest accepted wait, or {@code null} to never shed the class
+         * @return This builder instance
+         */
+        public Builder shedAfter(RequestPriority priority, Duration maxWait) {
+            if (maxWait == null) this.shedAfter.remove(priority);
+            else this.shedAfter.put(priority, maxWait);
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link RequestScheduler}.
+         *
+         * @return New {@link RequestScheduler} instance
+         * @throws IllegalStateException if no rate is set
+         */
+        public @NotNull RequestScheduler build() {
+            if (permitsPerSecond <= 0) throw new IllegalStateException("permitsPerSecond is required");
+            return new RequestScheduler(permitsPerSecond, maxBurst, weights, shedAfter, log);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.rovnyi.steamApp.market.transport;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the last parsed response per key together with its {@link BodyFingerprint}.
+ * <p>
+ * A fetcher looks up the fingerprint of a fresh body before parsing it; when it matches, the previously parsed
+ * object is reused and the response is reported as unchanged. One entry is kept per key for at most the time to
+ * live, and at most {@code maxEntries} keys are kept, evicting the least recently used one, so a catalog-wide crawl
+ * does not keep every parsed response in memory.
+ * <p>
+ * Thread-safe.
+ *
+ * @param <T> Type of the parsed response
+ */
+public class ResponseMemo<T> {
+
+    /** Number of keys kept by {@link #ResponseMemo()} */
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /** Time to live of the entries of {@link #ResponseMemo()} */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Map<String, Entry<T>> entries;
+
+    /**
+     * Constructs a memo with {@link #DEFAULT_MAX_ENTRIES} keys and a time to live of {@link #DEFAULT_TTL}.
+     */
+    public ResponseMemo() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL);
+    }
+
+    /**
+     * @param maxEntries Maximum number of keys kept
+     * @param ttl        Time an entry is reused after it was remembered
+     */
+    public ResponseMemo(int maxEntries, Duration ttl) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > ResponseMemo.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the object parsed from a body with the same fingerprint, if any.
+     *
+     * @param key         Request key, e.g. the market hash name
+     * @param fingerprint Fingerprint of the new body
+     * @return Previously parsed object, or {@code null} if the body changed, the key is unknown or its entry expired
+     */
+    public synchronized T reuse(String key, long fingerprint) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) return null;
+
+        if (System.currentTimeMillis() - entry.rememberedAt >= ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.fingerprint == fingerprint ? entry.value : null;
+    }
+
+    /**
+     * Records the object parsed from a body.
+     *
+     * @param key         Request key, e.g. the market hash name
+     * @param fingerprint Fingerprint of the body
+     * @param value       Parsed object
+     */
+    public synchronized void remember(String key, long fingerprint, T value) {
+        entries.put(key, new Entry<>(fingerprint, value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Drops the entry of a key.
+     *
+     * @param key Request key
+     */
+    public synchronized void forget(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return Number of remembered keys, including expired ones not looked up since
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Maximum number of keys kept
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return Time an entry is reused after it was remembered
+     */
+    public Duration getTtl() {
+        return Duration.ofMillis(ttlMillis);
+    }
+
+    private record Entry<T>(long fingerprint, T value, long rememberedAt) {
+    }
+}
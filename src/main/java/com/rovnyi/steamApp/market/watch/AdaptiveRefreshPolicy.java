@@ -0,0 +1,92 @@
+package com.rovnyi.steamApp.market.watch;
+
+import java.time.Duration;
+
+/**
+ * Derives an item's refresh interval from its {@link VolatilityEstimator} and its priority.
+ * <p>
+ * The interval is the time the item needs, at its estimated change rate, to move by the target change, divided by
+ * the caller-assigned priority and clamped to {@code [minInterval, maxInterval]}. Items that move fast or matter more
+ * are refreshed more often; items whose price has not moved drift towards the maximum interval.
+ */
+public class AdaptiveRefreshPolicy {
+
+    private final Duration minInterval;
+
+    private final Duration maxInterval;
+
+    private final double targetChange;
+
+    private final double halfLifeSeconds;
+
+    private final double orderBookWeight;
+
+    /**
+     * Constructs a new policy.
+     *
+     * @param minInterval     Shortest allowed refresh interval
+     * @param maxInterval     Longest allowed refresh interval
+     * @param targetChange    Relative change expected between two refreshes (e.g. 0.01 for 1%)
+     * @param halfLife        Half-life of the change rate estimate
+     * @param orderBookWeight Weight of order quantity changes relative to price changes
+     */
+    public AdaptiveRefreshPolicy(Duration minInterval, Duration maxInterval, double targetChange, Duration halfLife, double orderBookWeight) {
+        if (minInterval.compareTo(maxInterval) > 0) throw new IllegalArgumentException("minInterval must not exceed maxInterval");
+
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.targetChange = targetChange;
+        this.halfLifeSeconds = Math.max(1, halfLife.toSeconds());
+        this.orderBookWeight = orderBookWeight;
+    }
+
+    /**
+     * Constructs a policy with a 1% target change, a 1 hour half-life and an order book weight of 0.5.
+     *
+     * @param minInterval Shortest allowed refresh interval
+     * @param maxInterval Longest allowed refresh interval
+     */
+    public AdaptiveRefreshPolicy(Duration minInterval, Duration maxInterval) {
+        this(minInterval, maxInterval, 0.01, Duration.ofHours(1), 0.5);
+    }
+
+    /**
+     * @return New estimator configured for this policy
+     */
+    public VolatilityEstimator newEstimator() {
+        return new VolatilityEstimator(halfLifeSeconds, orderBookWeight);
+    }
+
+    /**
+     * Computes the next refresh interval.
+     *
+     * @param estimator       Estimator of the item
+     * @param priority        Caller-assigned priority; 1 is neutral, higher values refresh more often
+     * @param currentInterval Interval to keep while the change rate is still unknown
+     * @return Refresh interval in nanoseconds
+     */
+    public long nextIntervalNanos(VolatilityEstimator estimator, double priority, long currentInterval) {
+        long min = minInterval.toNanos();
+        long max = maxInterval.toNanos();
+
+        if (!estimator.isRateKnown()) return clamp(currentInterval, min, max);
+
+        double rate = estimator.getChangeRate() * Math.max(priority, 1e-6);
+        if (rate <= 0) return max;
+
+        double seconds = targetChange / rate;
+        return clamp((long) Math.min(Long.MAX_VALUE, seconds * 1e9), min, max);
+    }
+
+    public Duration getMinInterval() {
+        return minInterval;
+    }
+
+    public Duration getMaxInterval() {
+        return maxInterval;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,203 @@
+package com.rovnyi.steamApp.market.watch;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel for very large numbers of timers.
+ * <p>
+ * Time is divided into ticks; the wheel is a ring of buckets, one per tick, and every timer is placed into the
+ * bucket of its deadline together with the number of full wheel rotations left. Scheduling and cancelling are O(1),
+ * and each tick only visits a single bucket, so the cost does not grow with the number of timers the way a
+ * priority queue's does. Timers fire with a precision of one tick.
+ * <p>
+ * Tasks run on the timer thread and must be short; hand the actual work over to another thread.
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    private final long startNanos = System.nanoTime();
+
+    private final Thread worker;
+
+    private final Logger log;
+
+    private volatile boolean running = true;
+
+    private long tick;
+
+    /**
+     * Constructs and starts a new timer.
+     *
+     * @param tickDuration Duration of one tick, i.e. the timer precision
+     * @param wheelSize    Number of buckets; rounded up to a power of two
+     * @param log          Logger, may be {@code null}
+     */
+    public HashedWheelTimer(Duration tickDuration, int wheelSize, Logger log) {
+        this.tickNanos = Math.max(1, tickDuration.toNanos());
+
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.log = log;
+
+        this.worker = Thread.ofPlatform().name("hashed-wheel-timer").daemon().start(this::runWheel);
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  Short task to run on the timer thread
+     * @param delay Delay before the task runs
+     * @return Handle that can cancel the task
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (!running) throw new IllegalStateException("Timer is stopped");
+
+        Timeout timeout = new Timeout(task, System.nanoTime() - startNanos + Math.max(0, delay.toNanos()));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the timer thread. Tasks that have not fired yet are discarded.
+     */
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void runWheel() {
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleepNanos;
+            while ((sleepNanos = deadline - (System.nanoTime() - startNanos)) > 0 && running) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+            if (!running) return;
+
+            transferPending();
+            wheel[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) continue;
+
+            long expiryTick = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = (expiryTick - tick) / wheel.length;
+
+            // Timers already due go into the current bucket and fire on this tick.
+            long bucketTick = Math.max(expiryTick, tick);
+            wheel[(int) (bucketTick & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static class Timeout {
+        private final Runnable task;
+        private final long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Prevents the task from running. The timer drops the handle the next time it visits its bucket.
+         *
+         * @return true if the task had not been cancelled before
+         */
+        public boolean cancel() {
+            if (cancelled) return false;
+            cancelled = true;
+            return true;
+        }
+
+        /**
+         * @return true if the task was cancelled
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of timeouts; only accessed by the timer thread.
+     */
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+
+                if (timeout.cancelled) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadlineNanos <= deadline) {
+                    remove(timeout);
+                    run(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            if (timeout == head) head = timeout.next;
+            if (timeout == tail) tail = timeout.prev;
+
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        private void run(Timeout timeout) {
+            try {
+                timeout.task.run();
+            } catch (Throwable e) {
+                // A task failure must not stop the timer thread and with it every other timeout.
+                if (log != null) log.error("Timer task failed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package com.rovnyi.steamApp.market.watch;
+
+import com.rovnyi.steamApp.client.SteamMarketClient;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Publishes {@link ItemOverview} updates of a set of items to any number of {@link Flow.Subscriber}s.
+ * <p>
+ * Items are fetched one after another, each at most once per {@code minInterval}, and every fetch is shared by all
+ * subscribers. Fetches are made with {@link RequestPriority#BACKGROUND} priority, so a shared {@link RequestScheduler}
+ * serves interactive requests first. Fetching is driven by demand: it only runs while at least one subscriber has requested more updates,
+ * so when every subscriber is slow the publisher stops issuing requests instead of queueing results.
+ * <p>
+ * A subscriber that falls behind the others does not hold them back. Its undelivered updates are conflated per
+ * item, keeping only the latest overview of each, so its backlog is bounded by the number of published items and it
+ * never receives stale data once it catches up.
+ * <p>
+ * Failed fetches (exceptions or {@code null} results) are logged and skipped; subscribers only receive
+ * {@code onComplete} when the publisher is closed. A subscriber whose {@code onNext} throws is cancelled and receives
+ * the exception through {@code onError}; the other subscribers are not affected.
+ */
+public class OverviewPublisher implements Flow.Publisher<ItemOverview>, AutoCloseable {
+
+    private final Function<String, ItemOverview> fetch;
+
+    private final long minIntervalNanos;
+
+    private final Semaphore fetchPermits;
+
+    private final Logger log;
+
+    private final List<OverviewSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Item> items = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition signal = lock.newCondition();
+
+    private final PriorityQueue<Item> due = new PriorityQueue<>((a, b) -> Long.compare(a.dueNanos, b.dueNanos));
+
+    private volatile boolean running = true;
+
+    private Thread dispatcher;
+
+    /**
+     * Constructs a new publisher. The dispatcher thread is started by the first {@link #subscribe}, and nothing is
+     * fetched until a subscriber requests updates.
+     *
+     * @param fetch       Function fetching a single item; should go through the rate-limited client
+     * @param names       Market hash names of the published items
+     * @param minInterval Minimum time between two fetches of the same item
+     * @param concurrency Number of fetches running at the same time
+     * @param log         Logger, may be {@code null}
+     */
+    public OverviewPublisher(Function<String, ItemOverview> fetch, Collection<String> names, Duration minInterval, int concurrency, Logger log) {
+        this.fetch = fetch;
+        this.minIntervalNanos = Math.max(0, minInterval.toNanos());
+        this.fetchPermits = new Semaphore(Math.max(1, concurrency));
+        this.log = log;
+
+        for (String name : names) {
+            Item item = new Item(name);
+            if (items.putIfAbsent(name, item) == null) due.add(item);
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ItemOverview> subscriber) {
+        OverviewSubscription subscription = new OverviewSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+
+        if (!running) {
+            subscription.complete();
+            return;
+        }
+
+        subscriptions.add(subscription);
+        startDispatcher();
+    }
+
+    /**
+     * Adds an item to the published set.
+     *
+     * @param marketHashName The item's market hash name
+     */
+    public void add(String marketHashName) {
+        Item item = new Item(marketHashName);
+        if (items.putIfAbsent(marketHashName, item) != null) return;
+
+        lock.lock();
+        try {
+            due.add(item);
+            signal.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an item from the published set. A fetch already in progress is still published.
+     *
+     * @param marketHashName The item's market hash name
+     * @return true if the item was published
+     */
+    public boolean remove(String marketHashName) {
+        Item item = items.remove(marketHashName);
+        if (item == null) return false;
+
+        item.removed = true;
+        return true;
+    }
+
+    /**
+     * @return Number of active subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Stops fetching and completes all subscribers.
+     */
+    @Override
+    public void close() {
+        running = false;
+
+        lock.lock();
+        try {
+            if (dispatcher != null) dispatcher.interrupt();
+            signal.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (OverviewSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+        subscriptions.clear();
+    }
+
+    private void startDispatcher() {
+        lock.lock();
+        try {
+            if (dispatcher == null && running) {
+                dispatcher = Thread.ofVirtual().name("overview-publisher").start(this::runDispatcher);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runDispatcher() {
+        while (running) {
+            try {
+                fetchPermits.acquire();
+
+                Item item = nextDueItem();
+                if (item == null) {
+                    fetchPermits.release();
+                    continue;
+                }
+
+                Thread.ofVirtual().start(() -> {
+                    try {
+                        fetchAndPublish(item);
+                    } finally {
+                        fetchPermits.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits until some subscriber has outstanding demand and an item is due, then takes that item off the queue.
+     */
+    private Item nextDueItem() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                if (!hasDemand()) {
+                    signal.await();
+                    continue;
+                }
+
+                Item item = due.peek();
+                if (item == null) {
+                    signal.await();
+                    continue;
+                }
+
+                if (item.removed) {
+                    due.poll();
+                    continue;
+                }
+
+                long waitNanos = item.dueNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    signal.awaitNanos(waitNanos);
+                    continue;
+                }
+
+                return due.poll();
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasDemand() {
+        for (OverviewSubscription subscription : subscriptions) {
+            if (subscription.demand.get() > 0) return true;
+        }
+        return false;
+    }
+
+    private void fetchAndPublish(Item item) {
+        try {
+            ItemOverview overview = RequestScheduler.withPriority(RequestPriority.BACKGROUND, () -> fetch.apply(item.marketHashName));
+            if (overview != null) {
+                for (OverviewSubscription subscription : subscriptions) {
+                    subscription.offer(item.marketHashName, overview);
+                }
+            } else if (log != null) {
+                log.warn("OverviewPublisher got no data for \"{}\"", item.marketHashName);
+            }
+        } catch (RuntimeException e) {
+            if (log != null) log.warn("OverviewPublisher fetch of \"{}\" failed: {}", item.marketHashName, e.getMessage());
+        } finally {
+            reschedule(item);
+        }
+    }
+
+    private void reschedule(Item item) {
+        if (item.removed || !running) return;
+
+        lock.lock();
+        try {
+            item.dueNanos = System.nanoTime() + minIntervalNanos;
+            due.add(item);
+            signal.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalDemand() {
+        lock.lock();
+        try {
+            signal.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Item {
+        private final String marketHashName;
+        private long dueNanos;
+        private volatile boolean removed;
+
+        private Item(String marketHashName) {
+            this.marketHashName = marketHashName;
+            this.dueNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Per-subscriber state: requested demand and the conflated backlog of undelivered updates.
+     * Signals are delivered serially by whichever thread wins the drain loop.
+     */
+    private final class OverviewSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ItemOverview> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Map<String, ItemOverview> backlog = new LinkedHashMap<>();
+        private volatile boolean cancelled;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        private OverviewSubscription(Flow.Subscriber<? super ItemOverview> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (cancelled) return;
+
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested " + n + " items; demand must be positive");
+                cancelled = true;
+                subscriptions.remove(this);
+                drain();
+                return;
+            }
+
+            demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+            signalDemand();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (backlog) {
+                backlog.clear();
+            }
+        }
+
+        private void offer(String marketHashName, ItemOverview overview) {
+            if (cancelled) return;
+
+            synchronized (backlog) {
+                backlog.put(marketHashName, overview);
+            }
+            drain();
+        }
+
+        private void complete() {
+            completed = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+
+            int missed = 1;
+            do {
+                if (error != null) {
+                    Throwable failure = error;
+                    error = null;
+                    signalError(failure);
+                    return;
+                }
+
+                while (!cancelled && demand.get() > 0) {
+                    ItemOverview next = poll();
+                    if (next == null) break;
+
+                    if (demand.get() != Long.MAX_VALUE) demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(next);
+                    } catch (Throwable e) {
+                        // Rule 2.13: a subscriber that throws is treated as cancelled.
+                        if (log != null) log.warn("OverviewPublisher subscriber failed in onNext: {}", e.getMessage());
+                        cancel();
+                        signalError(e);
+                        return;
+                    }
+                }
+
+                if (completed && !cancelled) {
+                    cancelled = true;
+                    try {
+                        subscriber.onComplete();
+                    } catch (Throwable e) {
+                        if (log != null) log.warn("OverviewPublisher subscriber failed in onComplete: {}", e.getMessage());
+                    }
+                    return;
+                }
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void signalError(Throwable failure) {
+            try {
+                subscriber.onError(failure);
+            } catch (Throwable e) {
+                if (log != null) log.warn("OverviewPublisher subscriber failed in onError: {}", e.getMessage());
+            }
+        }
+
+        private ItemOverview poll() {
+            synchronized (backlog) {
+                Iterator<ItemOverview> iterator = backlog.values().iterator();
+                if (!iterator.hasNext()) return null;
+
+                ItemOverview next = iterator.next();
+                iterator.remove();
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link OverviewPublisher}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Minimum interval = 1 minute</li>
+     *     <li>Concurrency = 2</li>
+     * </ul>
+     */
+    public static class Builder {
+        private Function<String, ItemOverview> fetch;
+        private Collection<String> names = List.of();
+        private Duration minInterval = Duration.ofMinutes(1);
+        private int concurrency = 2;
+        private Logger log = null;
+
+        /**
+         * Fetches items through the given client. Give the client a rate limiter to bound the request rate.
+         *
+         * @param client Steam Market client
+         * @return This builder instance
+         */
+        public Builder client(SteamMarketClient client) {
+            this.fetch = client::fetchOverview;
+            return this;
+        }
+
+        /**
+         * Sets a custom fetch function.
+         *
+         * @param fetch Function fetching a single item
+         * @return This builder instance
+         */
+        public Builder fetch(Function<String, ItemOverview> fetch) {
+            this.fetch = fetch;
+            return this;
+        }
+
+        /**
+         * Sets the initially published items.
+         *
+         * @param names Market hash names
+         * @return This builder instance
+         */
+        public Builder items(Collection<String> names) {
+            this.names = names;
+            return this;
+        }
+
+        /**
+         * Sets the minimum time between two fetches of the same item.
+         *
+         * @param minInterval Minimum interval
+         * @return This builder instance
+         */
+        public Builder minInterval(Duration minInterval) {
+            this.minInterval = minInterval;
+            return this;
+        }
+
+        /**
+         * Sets the number of fetches running at the same time.
+         *
+         * @param concurrency Number of concurrent fetches
+         * @return This builder instance
+         */
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds the configured {@link OverviewPublisher}.
+         *
+         * @return New {@link OverviewPublisher} instance
+         */
+        public @NotNull OverviewPublisher build() {
+            if (fetch == null) throw new IllegalStateException("client or fetch is required");
+
+            return new OverviewPublisher(fetch, names, minInterval, concurrency, log);
+        }
+    }
+}
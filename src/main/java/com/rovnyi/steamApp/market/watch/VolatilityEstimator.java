@@ -0,0 +1,119 @@
+package com.rovnyi.steamApp.market.watch;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+
+import java.util.Map;
+
+/**
+ * Running estimate of how fast an item's market data changes.
+ * <p>
+ * Each snapshot is compared to the previous one: the relative changes of the lowest price, the median price and the
+ * highest buy order are taken as they are, the relative changes of the total buy and sell order quantities are scaled
+ * by the order book weight, and the largest of them is divided by the time elapsed between the two snapshots.
+ * The resulting change rate is smoothed with a time-based exponentially weighted moving average, so irregular polling
+ * intervals are accounted for.
+ * <p>
+ * Not thread-safe; each instance belongs to a single watched item.
+ */
+public class VolatilityEstimator {
+
+    private static final double EPSILON = 1e-9;
+
+    private final double halfLifeSeconds;
+
+    private final double orderBookWeight;
+
+    private boolean initialized;
+
+    private boolean rateKnown;
+
+    private long lastNanos;
+
+    private double lowestPrice;
+
+    private double medianPrice;
+
+    private double highestBuyOrder;
+
+    private long buyQuantity;
+
+    private long sellQuantity;
+
+    private double changeRate;
+
+    /**
+     * Constructs a new estimator.
+     *
+     * @param halfLifeSeconds Time after which an observation has half of its initial weight
+     * @param orderBookWeight Weight of order quantity changes relative to price changes
+     */
+    public VolatilityEstimator(double halfLifeSeconds, double orderBookWeight) {
+        this.halfLifeSeconds = halfLifeSeconds;
+        this.orderBookWeight = orderBookWeight;
+    }
+
+    /**
+     * Adds a snapshot to the estimate.
+     *
+     * @param overview  Freshly fetched item data
+     * @param nowNanos  Time of the fetch as returned by {@link System#nanoTime()}
+     */
+    public void update(ItemOverview overview, long nowNanos) {
+        long buy = sum(overview.getBuyOrderGraph());
+        long sell = sum(overview.getSellOrderGraph());
+
+        if (initialized) {
+            double elapsedSeconds = Math.max(EPSILON, (nowNanos - lastNanos) / 1e9);
+
+            double change = Math.max(relative(lowestPrice, overview.getLowestPrice()),
+                    Math.max(relative(medianPrice, overview.getMedianPrice()), relative(highestBuyOrder, overview.getHighestBuyOrder())));
+            change = Math.max(change, orderBookWeight * Math.max(relative(buyQuantity, buy), relative(sellQuantity, sell)));
+
+            double observedRate = change / elapsedSeconds;
+
+            if (rateKnown) {
+                double alpha = 1 - Math.pow(0.5, elapsedSeconds / halfLifeSeconds);
+                changeRate += alpha * (observedRate - changeRate);
+            } else {
+                changeRate = observedRate;
+                rateKnown = true;
+            }
+        }
+
+        initialized = true;
+        lastNanos = nowNanos;
+        lowestPrice = overview.getLowestPrice();
+        medianPrice = overview.getMedianPrice();
+        highestBuyOrder = overview.getHighestBuyOrder();
+        buyQuantity = buy;
+        sellQuantity = sell;
+    }
+
+    /**
+     * @return {@code true} once two snapshots have been compared
+     */
+    public boolean isRateKnown() {
+        return rateKnown;
+    }
+
+    /**
+     * @return Estimated relative change per second (e.g. 0.001 means 0.1% per second)
+     */
+    public double getChangeRate() {
+        return changeRate;
+    }
+
+    private static double relative(double previous, double current) {
+        return Math.abs(current - previous) / Math.max(Math.abs(previous), EPSILON);
+    }
+
+    private static long sum(Map<Double, Integer> graph) {
+        if (graph == null) return 0;
+
+        long total = 0;
+        for (int quantity : graph.values()) {
+            total += quantity;
+        }
+        return total;
+    }
+}
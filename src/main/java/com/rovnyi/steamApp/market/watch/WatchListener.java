@@ -0,0 +1,38 @@
+package com.rovnyi.steamApp.market.watch;
+
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+
+/**
+ * Callback receiving the results of {@link Watchlist} refreshes.
+ * <p>
+ * Called from the watchlist's fetch threads; implementations must be thread-safe and should not block for long,
+ * since a blocked callback delays the next refreshes.
+ */
+public interface WatchListener {
+
+    /**
+     * Called after a watched item was fetched.
+     *
+     * @param marketHashName The item's market hash name
+     * @param overview       Fetched data, or {@code null} if any of the requests returned no data
+     */
+    void onUpdate(String marketHashName, ItemOverview overview);
+
+    /**
+     * Called instead of {@link #onUpdate} when the item's responses were identical to the previous ones.
+     *
+     * @param marketHashName The item's market hash name
+     * @param overview       The previously fetched data with a new fetch time
+     */
+    default void onUnchanged(String marketHashName, ItemOverview overview) {
+    }
+
+    /**
+     * Called when fetching a watched item threw an exception. The item stays on the watchlist.
+     *
+     * @param marketHashName The item's market hash name
+     * @param exception      The exception thrown by the fetch
+     */
+    default void onError(String marketHashName, RuntimeException exception) {
+    }
+}
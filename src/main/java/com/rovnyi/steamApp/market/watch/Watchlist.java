@@ -0,0 +1,398 @@
+package com.rovnyi.steamApp.market.watch;
+
+import com.rovnyi.steamApp.client.SteamMarketClient;
+import com.rovnyi.steamApp.enums.RequestPriority;
+import com.rovnyi.steamApp.market.fetcher.FetchResult;
+import com.rovnyi.steamApp.market.fetcher.ItemOverview;
+import com.rovnyi.steamApp.market.fetcher.MarketFetcherException;
+import com.rovnyi.steamApp.market.transport.RequestScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Keeps a large set of Steam Market items fresh by refreshing each one at its own interval.
+ * <p>
+ * Refreshes are scheduled on a single {@link HashedWheelTimer}; an item costs one small entry and one timer handle,
+ * so hundreds of thousands of items can be watched. When an item is due it is put on a ready queue that a fixed
+ * number of fetch threads drain through the fetch function (normally {@link SteamMarketClient#fetchOverview(String)}
+ * with a shared rate limiter), and the item is rescheduled once its fetch completes. Fetches are made with
+ * {@link RequestPriority#BACKGROUND} priority, so a shared {@link RequestScheduler} serves interactive requests first.
+ * <p>
+ * Newly added items start at a random point within their interval, and every following delay is randomized by the
+ * configured jitter, so refreshes spread evenly over time instead of arriving in bursts.
+ * <p>
+ * With an {@link AdaptiveRefreshPolicy} the interval passed to {@link #add} is only the starting point: every
+ * successful fetch updates the item's {@link VolatilityEstimator}, and the next interval is derived from the estimated
+ * change rate and the item's priority. Items whose price and order book do not move drift towards the policy's
+ * maximum interval, leaving the fetch budget to the items that do.
+ * <p>
+ * When fetching through a client, responses identical to the previous ones are reported to
+ * {@link WatchListener#onUnchanged} instead of {@link WatchListener#onUpdate}, so listeners can skip them.
+ */
+public class Watchlist implements AutoCloseable {
+
+    private final Function<String, FetchResult<ItemOverview>> fetch;
+
+    private final WatchListener listener;
+
+    private final HashedWheelTimer timer;
+
+    private final double jitter;
+
+    private final AdaptiveRefreshPolicy policy;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Entry> ready = new LinkedBlockingQueue<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Logger log;
+
+    private volatile boolean running = true;
+
+    /**
+     * Constructs and starts a new watchlist.
+     *
+     * @param fetch        Function fetching a single item and reporting whether it changed; should go through the rate-limited client
+     * @param listener     Callback receiving the results
+     * @param tickDuration Precision of the scheduling
+     * @param wheelSize    Number of buckets of the timing wheel
+     * @param concurrency  Number of fetches running at the same time
+     * @param jitter       Relative randomization of refresh intervals, between 0 and 1
+     * @param policy       Policy adapting intervals to item volatility, or {@code null} for fixed intervals
+     * @param log          Logger, may be {@code null}
+     */
+    public Watchlist(Function<String, FetchResult<ItemOverview>> fetch, WatchListener listener, Duration tickDuration, int wheelSize,
+                     int concurrency, double jitter, AdaptiveRefreshPolicy policy, Logger log) {
+        this.fetch = fetch;
+        this.listener = listener;
+        this.jitter = Math.max(0, Math.min(1, jitter));
+        this.policy = policy;
+        this.log = log;
+        this.timer = new HashedWheelTimer(tickDuration, wheelSize, log);
+
+        for (int i = 0; i < Math.max(1, concurrency); i++) {
+            workers.add(Thread.ofVirtual().name("watchlist-fetch-" + i).start(this::runWorker));
+        }
+    }
+
+    /**
+     * Adds an item with neutral priority, or changes its refresh interval if it is already watched.
+     *
+     * @param marketHashName The item's market hash name
+     * @param interval       Time between two refreshes of the item; the initial interval if the watchlist is adaptive
+     */
+    public void add(String marketHashName, Duration interval) {
+        add(marketHashName, interval, 1);
+    }
+
+    /**
+     * Adds an item to the watchlist, or changes its refresh interval and priority if it is already watched.
+     *
+     * @param marketHashName The item's market hash name
+     * @param interval       Time between two refreshes of the item; the initial interval if the watchlist is adaptive
+     * @param priority       Weight of the item in an adaptive watchlist; 1 is neutral, higher values refresh more often
+     */
+    public void add(String marketHashName, Duration interval, double priority) {
+        long intervalNanos = Math.max(1, interval.toNanos());
+
+        Entry entry = new Entry(marketHashName, intervalNanos, priority);
+        Entry existing = entries.putIfAbsent(marketHashName, entry);
+        if (existing != null) {
+            existing.intervalNanos = intervalNanos;
+            existing.priority = priority;
+            return;
+        }
+
+        schedule(entry, (long) (ThreadLocalRandom.current().nextDouble() * intervalNanos));
+    }
+
+    /**
+     * Removes an item from the watchlist. A fetch already in progress still reports its result.
+     *
+     * @param marketHashName The item's market hash name
+     * @return true if the item was watched
+     */
+    public boolean remove(String marketHashName) {
+        Entry entry = entries.remove(marketHashName);
+        if (entry == null) return false;
+
+        entry.removed = true;
+        HashedWheelTimer.Timeout timeout = entry.timeout;
+        if (timeout != null) timeout.cancel();
+
+        return true;
+    }
+
+    /**
+     * Changes the priority of a watched item. Takes effect after its next refresh.
+     *
+     * @param marketHashName The item's market hash name
+     * @param priority       Weight of the item; 1 is neutral, higher values refresh more often
+     * @return true if the item is watched
+     */
+    public boolean setPriority(String marketHashName, double priority) {
+        Entry entry = entries.get(marketHashName);
+        if (entry == null) return false;
+
+        entry.priority = priority;
+        return true;
+    }
+
+    /**
+     * @param marketHashName The item's market hash name
+     * @return Current refresh interval of the item, or {@code null} if it is not watched
+     */
+    public Duration getInterval(String marketHashName) {
+        Entry entry = entries.get(marketHashName);
+        return entry == null ? null : Duration.ofNanos(entry.intervalNanos);
+    }
+
+    /**
+     * @param marketHashName The item's market hash name
+     * @return true if the item is watched
+     */
+    public boolean contains(String marketHashName) {
+        return entries.containsKey(marketHashName);
+    }
+
+    /**
+     * @return Number of watched items
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Number of items that are due but still waiting for a fetch thread
+     */
+    public int getBacklog() {
+        return ready.size();
+    }
+
+    /**
+     * Stops scheduling and fetching. Fetches in progress are interrupted.
+     */
+    @Override
+    public void close() {
+        running = false;
+        timer.close();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void schedule(Entry entry, long delayNanos) {
+        if (!running || entry.removed) return;
+        entry.timeout = timer.schedule(entry, Duration.ofNanos(delayNanos));
+    }
+
+    private long nextDelay(Entry entry) {
+        double factor = 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        return (long) (entry.intervalNanos * factor);
+    }
+
+    private void runWorker() {
+        while (running) {
+            Entry entry;
+            try {
+                entry = ready.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (entry.removed) continue;
+
+            try {
+                FetchResult<ItemOverview> result = RequestScheduler.withPriority(RequestPriority.BACKGROUND, () -> fetch.apply(entry.marketHashName));
+                ItemOverview overview = result == null ? null : result.getValue();
+                if (policy != null && overview != null) adapt(entry, overview);
+
+                if (result != null && result.isUnchanged()) listener.onUnchanged(entry.marketHashName, overview);
+                else listener.onUpdate(entry.marketHashName, overview);
+            } catch (Throwable e) {
+                // Anything escaping here would end the worker and leave its entries unscheduled.
+                if (!running) return;
+                if (log != null) log.warn("Watchlist refresh of \"{}\" failed: {}", entry.marketHashName, e.getMessage());
+                listener.onError(entry.marketHashName, e instanceof RuntimeException runtime ? runtime : new MarketFetcherException(e));
+            } finally {
+                schedule(entry, nextDelay(entry));
+            }
+        }
+    }
+
+    /**
+     * Feeds the snapshot to the item's estimator and derives its next interval.
+     * An entry is fetched by one worker at a time, so its estimator needs no locking.
+     */
+    private void adapt(Entry entry, ItemOverview overview) {
+        if (entry.estimator == null) entry.estimator = policy.newEstimator();
+
+        entry.estimator.update(overview, System.nanoTime());
+        entry.intervalNanos = policy.nextIntervalNanos(entry.estimator, entry.priority, entry.intervalNanos);
+    }
+
+    /**
+     * A watched item; also the timer task that moves it to the ready queue.
+     */
+    private final class Entry implements Runnable {
+        private final String marketHashName;
+        private volatile long intervalNanos;
+        private volatile double priority;
+        private volatile HashedWheelTimer.Timeout timeout;
+        private volatile boolean removed;
+        private VolatilityEstimator estimator;
+
+        private Entry(String marketHashName, long intervalNanos, double priority) {
+            this.marketHashName = marketHashName;
+            this.intervalNanos = intervalNanos;
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            if (!removed) ready.offer(this);
+        }
+    }
+
+    /**
+     * Builder for {@link Watchlist}.
+     * <p>
+     * Provides default values:
+     * <ul>
+     *     <li>Tick duration = 100 ms</li>
+     *     <li>Wheel size = 4096</li>
+     *     <li>Concurrency = 4</li>
+     *     <li>Jitter = 0.1</li>
+     * </ul>
+     */
+    public static class Builder {
+        private Function<String, FetchResult<ItemOverview>> fetch;
+        private WatchListener listener;
+        private Duration tickDuration = Duration.ofMillis(100);
+        private int wheelSize = 4096;
+        private int concurrency = 4;
+        private double jitter = 0.1;
+        private AdaptiveRefreshPolicy policy;
+        private Logger log = null;
+
+        /**
+         * Fetches items through the given client. Give the client a rate limiter to bound the request rate.
+         *
+         * @param client Steam Market client
+         * @return This builder instance
+         */
+        public Builder client(SteamMarketClient client) {
+            this.fetch = client::fetchOverviewResult;
+            return this;
+        }
+
+        /**
+         * Sets a custom fetch function. Every result it returns is reported as an update.
+         *
+         * @param fetch Function fetching a single item
+         * @return This builder instance
+         */
+        public Builder fetch(Function<String, ItemOverview> fetch) {
+            this.fetch = marketHashName -> {
+                ItemOverview overview = fetch.apply(marketHashName);
+                return overview == null ? null : FetchResult.changed(overview, 0);
+            };
+            return this;
+        }
+
+        /**
+         * Sets the callback receiving the results. Required.
+         *
+         * @param listener Watch listener
+         * @return This builder instance
+         */
+        public Builder listener(WatchListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Sets the precision of the scheduling.
+         *
+         * @param tickDuration Tick duration
+         * @return This builder instance
+         */
+        public Builder tickDuration(Duration tickDuration) {
+            this.tickDuration = tickDuration;
+            return this;
+        }
+
+        /**
+         * Sets the number of buckets of the timing wheel.
+         *
+         * @param wheelSize Wheel size
+         * @return This builder instance
+         */
+        public Builder wheelSize(int wheelSize) {
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of fetches running at the same time.
+         *
+         * @param concurrency Number of fetch threads
+         * @return This builder instance
+         */
+        public Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * Sets the relative randomization of refresh intervals.
+         *
+         * @param jitter Value between 0 (no jitter) and 1
+         * @return This builder instance
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Adapts refresh intervals to how fast each item's market data changes.
+         *
+         * @param policy Adaptive refresh policy
+         * @return This builder instance
+         */
+        public Builder adaptive(AdaptiveRefreshPolicy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        public Builder withLogger(Logger log) {
+            this.log = log;
+            return this;
+        }
+
+        /**
+         * Builds and starts the configured {@link Watchlist}.
+         *
+         * @return New {@link Watchlist} instance
+         */
+        public @NotNull Watchlist build() {
+            if (fetch == null) throw new IllegalStateException("client or fetch is required");
+            if (listener == null) throw new IllegalStateException("listener is required");
+
+            return new Watchlist(fetch, listener, tickDuration, wheelSize, concurrency, jitter, policy, log);
+        }
+    }
+}